@@ -62,6 +62,10 @@ public Object readAttributeValue(String enclosingElement, AttributeDefinition at
          }
       } else if (type == Integer.class && attrValue instanceof Number) {
          return ((Number) attrValue).intValue();
+      } else if (type == Long.class && attrValue instanceof Number) {
+         return ((Number) attrValue).longValue();
+      } else if (type == Float.class && attrValue instanceof Number) {
+         return ((Number) attrValue).floatValue();
       } else if (type == Class.class) {
          return Util.loadClass(attrValue.toString(), builderInfo.getClass().getClassLoader());
       }
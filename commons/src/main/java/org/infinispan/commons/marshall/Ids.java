@@ -217,6 +217,7 @@ public interface Ids {
    int INTERNAL_ENUMS = 148;
 
    int PUBLISHER_RESPONSE = 149;
+   int VERSIONED_ENTRY = 150;
 
    int COUNTER_CONFIGURATION = 2000; //from counter
    int COUNTER_STATE = 2001; //from counter
@@ -21,6 +21,7 @@
 import org.infinispan.commands.remote.CacheRpcCommand;
 import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
+import org.infinispan.commands.remote.CoalescedRpcCommand;
 import org.infinispan.commands.remote.GetKeysInGroupCommand;
 import org.infinispan.commands.remote.RenewBiasCommand;
 import org.infinispan.commands.remote.RevokeBiasCommand;
@@ -210,6 +211,9 @@ public ReplicableCommand fromStream(byte id, byte type) {
             case HeartBeatCommand.COMMAND_ID:
                command = HeartBeatCommand.INSTANCE;
                break;
+            case CoalescedRpcCommand.COMMAND_ID:
+               command = new CoalescedRpcCommand();
+               break;
             default:
                throw new CacheException("Unknown command id " + id + "!");
          }
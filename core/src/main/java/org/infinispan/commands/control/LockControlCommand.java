@@ -14,6 +14,7 @@
 import org.infinispan.commands.TopologyAffectedCommand;
 import org.infinispan.commands.Visitor;
 import org.infinispan.commands.tx.AbstractTransactionBoundaryCommand;
+import org.infinispan.commons.io.UnsignedNumeric;
 import org.infinispan.commons.marshall.MarshallUtil;
 import org.infinispan.commons.util.EnumUtil;
 import org.infinispan.context.Flag;
@@ -151,7 +152,7 @@ public void writeTo(ObjectOutput output) throws IOException {
       super.writeTo(output);
       output.writeBoolean(unlock);
       MarshallUtil.marshallCollection(keys, output);
-      output.writeLong(FlagBitSets.copyWithoutRemotableFlags(flags));
+      UnsignedNumeric.writeUnsignedLong(output, FlagBitSets.copyWithoutRemotableFlags(flags));
    }
 
    @Override
@@ -160,7 +161,7 @@ public void readFrom(ObjectInput input) throws IOException, ClassNotFoundExcepti
       super.readFrom(input);
       unlock = input.readBoolean();
       keys = MarshallUtil.unmarshallCollection(input, ArrayList::new);
-      flags = input.readLong();
+      flags = UnsignedNumeric.readUnsignedLong(input);
    }
 
    public boolean isUnlock() {
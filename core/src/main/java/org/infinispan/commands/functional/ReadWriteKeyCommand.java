@@ -59,7 +59,7 @@ public void writeTo(ObjectOutput output) throws IOException {
       MarshallUtil.marshallEnum(valueMatcher, output);
       UnsignedNumeric.writeUnsignedInt(output, segment);
       Params.writeObject(output, params);
-      output.writeLong(FlagBitSets.copyWithoutRemotableFlags(getFlagsBitSet()));
+      UnsignedNumeric.writeUnsignedLong(output, FlagBitSets.copyWithoutRemotableFlags(getFlagsBitSet()));
       CommandInvocationId.writeTo(output, commandInvocationId);
       DataConversion.writeTo(output, keyDataConversion);
       DataConversion.writeTo(output, valueDataConversion);
@@ -72,7 +72,7 @@ public void readFrom(ObjectInput input) throws IOException, ClassNotFoundExcepti
       valueMatcher = MarshallUtil.unmarshallEnum(input, ValueMatcher::valueOf);
       segment = UnsignedNumeric.readUnsignedInt(input);
       params = Params.readObject(input);
-      setFlagsBitSet(input.readLong());
+      setFlagsBitSet(UnsignedNumeric.readUnsignedLong(input));
       commandInvocationId = CommandInvocationId.readFrom(input);
       keyDataConversion = DataConversion.readFrom(input);
       valueDataConversion = DataConversion.readFrom(input);
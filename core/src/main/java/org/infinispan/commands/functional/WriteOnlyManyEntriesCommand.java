@@ -11,6 +11,7 @@
 import org.infinispan.commands.CommandInvocationId;
 import org.infinispan.commands.Visitor;
 import org.infinispan.commands.functional.functions.InjectableComponent;
+import org.infinispan.commons.io.UnsignedNumeric;
 import org.infinispan.commons.marshall.MarshallUtil;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.encoding.DataConversion;
@@ -83,8 +84,8 @@ public void writeTo(ObjectOutput output) throws IOException {
       output.writeObject(f);
       output.writeBoolean(isForwarded);
       Params.writeObject(output, params);
-      output.writeInt(topologyId);
-      output.writeLong(flags);
+      UnsignedNumeric.writeUnsignedInt(output, topologyId);
+      UnsignedNumeric.writeUnsignedLong(output, flags);
       DataConversion.writeTo(output, keyDataConversion);
       DataConversion.writeTo(output, valueDataConversion);
    }
@@ -97,8 +98,8 @@ public void readFrom(ObjectInput input) throws IOException, ClassNotFoundExcepti
       f = (BiConsumer<T, WriteEntryView<K, V>>) input.readObject();
       isForwarded = input.readBoolean();
       params = Params.readObject(input);
-      topologyId = input.readInt();
-      flags = input.readLong();
+      topologyId = UnsignedNumeric.readUnsignedInt(input);
+      flags = UnsignedNumeric.readUnsignedLong(input);
       keyDataConversion = DataConversion.readFrom(input);
       valueDataConversion = DataConversion.readFrom(input);
    }
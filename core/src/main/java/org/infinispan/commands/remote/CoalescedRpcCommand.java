@@ -0,0 +1,68 @@
+package org.infinispan.commands.remote;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commons.marshall.MarshallUtil;
+
+/**
+ * Carries several commands sent to the same node at the same time in a single message.
+ * <p>
+ * The receiver handles each command as if it had been received alone. If the message is a request, the response is a
+ * {@link org.infinispan.remoting.responses.SuccessfulResponse} containing the array with the response of each command,
+ * in the same order as the commands.
+ *
+ * @since 10.1
+ */
+public class CoalescedRpcCommand implements ReplicableCommand {
+   public static final byte COMMAND_ID = 83;
+
+   private CacheRpcCommand[] commands;
+
+   public CoalescedRpcCommand() {
+   }
+
+   public CoalescedRpcCommand(CacheRpcCommand[] commands) {
+      this.commands = commands;
+   }
+
+   public CacheRpcCommand[] getCommands() {
+      return commands;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return true;
+   }
+
+   @Override
+   public boolean canBlock() {
+      // Each command is dispatched by the inbound handler on its own
+      return false;
+   }
+
+   @Override
+   public void writeTo(ObjectOutput output) throws IOException {
+      MarshallUtil.marshallArray(commands, output);
+   }
+
+   @Override
+   public void readFrom(ObjectInput input) throws IOException, ClassNotFoundException {
+      commands = MarshallUtil.unmarshallArray(input, CacheRpcCommand[]::new);
+   }
+
+   @Override
+   public String toString() {
+      return "CoalescedRpcCommand{" +
+            "commands=" + Arrays.toString(commands) +
+            '}';
+   }
+}
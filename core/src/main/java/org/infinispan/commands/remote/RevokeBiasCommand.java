@@ -8,6 +8,7 @@
 
 import org.infinispan.commands.InitializableCommand;
 import org.infinispan.commands.write.BackupAckCommand;
+import org.infinispan.commons.io.UnsignedNumeric;
 import org.infinispan.commons.marshall.MarshallUtil;
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
@@ -82,7 +83,7 @@ public void writeTo(ObjectOutput output) throws IOException {
       if (ackTarget != null) {
          output.writeLong(id);
       }
-      output.writeInt(topologyId);
+      UnsignedNumeric.writeUnsignedInt(output, topologyId);
       MarshallUtil.marshallCollection(keys, output);
    }
 
@@ -92,7 +93,7 @@ public void readFrom(ObjectInput input) throws IOException, ClassNotFoundExcepti
       if (ackTarget != null) {
          id = input.readLong();
       }
-      topologyId = input.readInt();
+      topologyId = UnsignedNumeric.readUnsignedInt(input);
       keys = MarshallUtil.unmarshallCollection(input, ArrayList::new);
    }
 
@@ -12,6 +12,7 @@
 import org.infinispan.commands.InitializableCommand;
 import org.infinispan.commands.remote.BaseRpcCommand;
 import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.io.UnsignedNumeric;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.InvocationContextFactory;
 import org.infinispan.context.impl.FlagBitSets;
@@ -107,16 +108,16 @@ public final void setSegmentId(int segmentId) {
 
    final void writeBase(ObjectOutput output) throws IOException {
       CommandInvocationId.writeTo(output, commandInvocationId);
-      output.writeInt(topologyId);
-      output.writeLong(flags);
+      UnsignedNumeric.writeUnsignedInt(output, topologyId);
+      UnsignedNumeric.writeUnsignedLong(output, flags);
       output.writeLong(sequence);
       output.writeInt(segmentId);
    }
 
    final void readBase(ObjectInput input) throws IOException, ClassNotFoundException {
       commandInvocationId = CommandInvocationId.readFrom(input);
-      topologyId = input.readInt();
-      flags = input.readLong();
+      topologyId = UnsignedNumeric.readUnsignedInt(input);
+      flags = UnsignedNumeric.readUnsignedLong(input);
       sequence = input.readLong();
       segmentId = input.readInt();
    }
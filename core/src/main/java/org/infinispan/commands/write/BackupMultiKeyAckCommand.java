@@ -6,6 +6,7 @@
 
 import org.infinispan.commands.InitializableCommand;
 import org.infinispan.commands.remote.BaseRpcCommand;
+import org.infinispan.commons.io.UnsignedNumeric;
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.util.ByteString;
 import org.infinispan.util.concurrent.CommandAckCollector;
@@ -71,14 +72,14 @@ public boolean canBlock() {
    public void writeTo(ObjectOutput output) throws IOException {
       output.writeLong(id);
       output.writeInt(segment);
-      output.writeInt(topologyId);
+      UnsignedNumeric.writeUnsignedInt(output, topologyId);
    }
 
    @Override
    public void readFrom(ObjectInput input) throws IOException, ClassNotFoundException {
       id = input.readLong();
       segment = input.readInt();
-      topologyId = input.readInt();
+      topologyId = UnsignedNumeric.readUnsignedInt(input);
    }
 
    @Override
@@ -96,7 +96,7 @@ public void writeTo(ObjectOutput output) throws IOException {
       UnsignedNumeric.writeUnsignedInt(output, segment);
       output.writeObject(metadata);
       CommandInvocationId.writeTo(output, commandInvocationId);
-      output.writeLong(FlagBitSets.copyWithoutRemotableFlags(getFlagsBitSet()));
+      UnsignedNumeric.writeUnsignedLong(output, FlagBitSets.copyWithoutRemotableFlags(getFlagsBitSet()));
    }
 
    @Override
@@ -106,7 +106,7 @@ public void readFrom(ObjectInput input) throws IOException, ClassNotFoundExcepti
       segment = UnsignedNumeric.readUnsignedInt(input);
       metadata = (Metadata) input.readObject();
       commandInvocationId = CommandInvocationId.readFrom(input);
-      setFlagsBitSet(input.readLong());
+      setFlagsBitSet(UnsignedNumeric.readUnsignedLong(input));
    }
 
    @Override
@@ -7,6 +7,7 @@
 import org.infinispan.commands.InitializableCommand;
 import org.infinispan.commands.remote.BaseRpcCommand;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.io.UnsignedNumeric;
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.remoting.transport.ResponseCollectors;
 import org.infinispan.util.ByteString;
@@ -75,14 +76,14 @@ public boolean canBlock() {
    public void writeTo(ObjectOutput output) throws IOException {
       output.writeLong(id);
       output.writeObject(throwable);
-      output.writeInt(topologyId);
+      UnsignedNumeric.writeUnsignedInt(output, topologyId);
    }
 
    @Override
    public void readFrom(ObjectInput input) throws IOException, ClassNotFoundException {
       id = input.readLong();
       throwable = (Throwable) input.readObject();
-      topologyId = input.readInt();
+      topologyId = UnsignedNumeric.readUnsignedInt(input);
    }
 
    @Override
@@ -12,6 +12,7 @@
 import org.infinispan.commands.AbstractTopologyAffectedCommand;
 import org.infinispan.commands.CommandInvocationId;
 import org.infinispan.commands.Visitor;
+import org.infinispan.commons.io.UnsignedNumeric;
 import org.infinispan.commons.marshall.MarshallUtil;
 import org.infinispan.commons.util.Util;
 import org.infinispan.context.InvocationContext;
@@ -69,14 +70,14 @@ public String toString() {
    public void writeTo(ObjectOutput output) throws IOException {
       CommandInvocationId.writeTo(output, commandInvocationId);
       MarshallUtil.marshallArray(keys, output);
-      output.writeLong(getFlagsBitSet());
+      UnsignedNumeric.writeUnsignedLong(output, getFlagsBitSet());
    }
 
    @Override
    public void readFrom(ObjectInput input) throws IOException, ClassNotFoundException {
       commandInvocationId = CommandInvocationId.readFrom(input);
       keys = MarshallUtil.unmarshallArray(input, Util::objectArray);
-      setFlagsBitSet(input.readLong());
+      setFlagsBitSet(UnsignedNumeric.readUnsignedLong(input));
    }
 
    @Override
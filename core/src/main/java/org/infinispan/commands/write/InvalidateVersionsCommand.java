@@ -8,6 +8,7 @@
 import org.infinispan.commands.InitializableCommand;
 import org.infinispan.commands.VisitableCommand;
 import org.infinispan.commands.remote.BaseRpcCommand;
+import org.infinispan.commons.io.UnsignedNumeric;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.versioning.InequalVersionComparisonResult;
 import org.infinispan.container.versioning.SimpleClusteredVersion;
@@ -138,7 +139,7 @@ public boolean canBlock() {
 
    @Override
    public void writeTo(ObjectOutput output) throws IOException {
-      output.writeInt(topologyId);
+      UnsignedNumeric.writeUnsignedInt(output, topologyId);
       // TODO: topology ids are mostly the same - sort the arrays according to topologyIds and use compaction encoding
       output.writeInt(keys.length);
       for (int i = 0; i < keys.length; ++i) {
@@ -156,7 +157,7 @@ public void writeTo(ObjectOutput output) throws IOException {
 
    @Override
    public void readFrom(ObjectInput input) throws IOException, ClassNotFoundException {
-      topologyId = input.readInt();
+      topologyId = UnsignedNumeric.readUnsignedInt(input);
       keys = new Object[input.readInt()];
       topologyIds = new int[keys.length];
       versions = new long[keys.length];
@@ -16,6 +16,7 @@
 import org.infinispan.commands.CommandInvocationId;
 import org.infinispan.commands.MetadataAwareCommand;
 import org.infinispan.commands.Visitor;
+import org.infinispan.commons.io.UnsignedNumeric;
 import org.infinispan.commons.marshall.MarshallUtil;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.FlagBitSets;
@@ -111,7 +112,7 @@ public void writeTo(ObjectOutput output) throws IOException {
       MarshallUtil.marshallMap(map, output);
       output.writeObject(metadata);
       output.writeBoolean(isForwarded);
-      output.writeLong(FlagBitSets.copyWithoutRemotableFlags(getFlagsBitSet()));
+      UnsignedNumeric.writeUnsignedLong(output, FlagBitSets.copyWithoutRemotableFlags(getFlagsBitSet()));
       CommandInvocationId.writeTo(output, commandInvocationId);
    }
 
@@ -120,7 +121,7 @@ public void readFrom(ObjectInput input) throws IOException, ClassNotFoundExcepti
       map = MarshallUtil.unmarshallMap(input, LinkedHashMap::new);
       metadata = (Metadata) input.readObject();
       isForwarded = input.readBoolean();
-      setFlagsBitSet(input.readLong());
+      setFlagsBitSet(UnsignedNumeric.readUnsignedLong(input));
       commandInvocationId = CommandInvocationId.readFrom(input);
    }
 
@@ -124,7 +124,7 @@ public void writeTo(ObjectOutput output) throws IOException {
       output.writeObject(value);
       UnsignedNumeric.writeUnsignedInt(output, segment);
       output.writeObject(metadata);
-      output.writeLong(FlagBitSets.copyWithoutRemotableFlags(getFlagsBitSet()));
+      UnsignedNumeric.writeUnsignedLong(output, FlagBitSets.copyWithoutRemotableFlags(getFlagsBitSet()));
       MarshallUtil.marshallEnum(valueMatcher, output);
       CommandInvocationId.writeTo(output, commandInvocationId);
    }
@@ -135,7 +135,7 @@ public void readFrom(ObjectInput input) throws IOException, ClassNotFoundExcepti
       value = input.readObject();
       segment = UnsignedNumeric.readUnsignedInt(input);
       metadata = (Metadata) input.readObject();
-      setFlagsBitSet(input.readLong());
+      setFlagsBitSet(UnsignedNumeric.readUnsignedLong(input));
       valueMatcher = MarshallUtil.unmarshallEnum(input, ValueMatcher::valueOf);
       commandInvocationId = CommandInvocationId.readFrom(input);
    }
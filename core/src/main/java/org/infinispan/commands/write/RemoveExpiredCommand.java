@@ -78,7 +78,7 @@ public void writeTo(ObjectOutput output) throws IOException {
          output.writeBoolean(false);
       }
       output.writeBoolean(maxIdle);
-      output.writeLong(FlagBitSets.copyWithoutRemotableFlags(getFlagsBitSet()));
+      UnsignedNumeric.writeUnsignedLong(output, FlagBitSets.copyWithoutRemotableFlags(getFlagsBitSet()));
 
    }
 
@@ -95,7 +95,7 @@ public void readFrom(ObjectInput input) throws IOException, ClassNotFoundExcepti
          lifespan = null;
       }
       maxIdle = input.readBoolean();
-      setFlagsBitSet(input.readLong());
+      setFlagsBitSet(UnsignedNumeric.readUnsignedLong(input));
    }
 
    @Override
@@ -21,9 +21,11 @@ public class AsyncStoreConfiguration implements ConfigurationInfo {
    public static final AttributeDefinition<Integer> MODIFICATION_QUEUE_SIZE  = AttributeDefinition.builder("modificationQueueSize", 1024).immutable().build();
    public static final AttributeDefinition<Integer> THREAD_POOL_SIZE = AttributeDefinition.builder("threadPoolSize", 1).immutable().build();
    public static final AttributeDefinition<Boolean> FAIL_SILENTLY = AttributeDefinition.builder("failSilently", false).immutable().build();
+   public static final AttributeDefinition<Integer> FLUSH_BATCH_SIZE = AttributeDefinition.builder("flushBatchSize", 0).immutable().build();
+   public static final AttributeDefinition<Long> MAX_FLUSH_DELAY = AttributeDefinition.builder("maxFlushDelay", 0L).immutable().build();
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(AsyncStoreConfiguration.class, ENABLED, MODIFICATION_QUEUE_SIZE, THREAD_POOL_SIZE, FAIL_SILENTLY);
+      return new AttributeSet(AsyncStoreConfiguration.class, ENABLED, MODIFICATION_QUEUE_SIZE, THREAD_POOL_SIZE, FAIL_SILENTLY, FLUSH_BATCH_SIZE, MAX_FLUSH_DELAY);
    }
 
    static ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(WRITE_BEHIND.getLocalName());
@@ -32,6 +34,8 @@ static AttributeSet attributeDefinitionSet() {
    private final Attribute<Integer> modificationQueueSize;
    private final Attribute<Integer> threadPoolSize;
    private final Attribute<Boolean> failSilently;
+   private final Attribute<Integer> flushBatchSize;
+   private final Attribute<Long> maxFlushDelay;
 
    private final AttributeSet attributes;
 
@@ -41,6 +45,8 @@ static AttributeSet attributeDefinitionSet() {
       this.modificationQueueSize = attributes.attribute(MODIFICATION_QUEUE_SIZE);
       this.threadPoolSize = attributes.attribute(THREAD_POOL_SIZE);
       this.failSilently = attributes.attribute(FAIL_SILENTLY);
+      this.flushBatchSize = attributes.attribute(FLUSH_BATCH_SIZE);
+      this.maxFlushDelay = attributes.attribute(MAX_FLUSH_DELAY);
    }
 
    @Override
@@ -76,6 +82,22 @@ public boolean failSilently() {
       return failSilently.get();
    }
 
+   /**
+    * Number of buffered modifications that triggers a flush before {@link #maxFlushDelay()} elapses. A value of 0 or
+    * less means the modification queue size.
+    */
+   public int flushBatchSize() {
+      return flushBatchSize.get();
+   }
+
+   /**
+    * Maximum time in milliseconds a modification is buffered before it is flushed to the store. A value of 0 or less
+    * flushes modifications as soon as a thread is free to apply them.
+    */
+   public long maxFlushDelay() {
+      return maxFlushDelay.get();
+   }
+
    public AttributeSet attributes() {
       return attributes;
    }
@@ -2,9 +2,13 @@
 
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.ENABLED;
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.FAIL_SILENTLY;
+import static org.infinispan.configuration.cache.AsyncStoreConfiguration.FLUSH_BATCH_SIZE;
+import static org.infinispan.configuration.cache.AsyncStoreConfiguration.MAX_FLUSH_DELAY;
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.MODIFICATION_QUEUE_SIZE;
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.THREAD_POOL_SIZE;
 
+import java.util.concurrent.TimeUnit;
+
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.configuration.ConfigurationBuilderInfo;
 import org.infinispan.commons.configuration.attributes.AttributeSet;
@@ -90,6 +94,33 @@ public AsyncStoreConfigurationBuilder<S> failSilently(boolean failSilently) {
       return this;
    }
 
+   /**
+    * Configures the number of buffered modifications that makes the async store flush them to the underlying store
+    * without waiting for {@link #maxFlushDelay(long)} to elapse. A value of 0 or less, the default, means the
+    * modification queue size. Writes to the same key are coalesced, so the flushed batch may be smaller.
+    */
+   public AsyncStoreConfigurationBuilder<S> flushBatchSize(int flushBatchSize) {
+      attributes.attribute(FLUSH_BATCH_SIZE).set(flushBatchSize);
+      return this;
+   }
+
+   /**
+    * Configures the maximum time in milliseconds a modification is buffered before it is flushed to the underlying
+    * store. Buffering for longer lets repeated writes to the same key coalesce and groups modifications into larger
+    * batches. A value of 0 or less, the default, flushes modifications as soon as a thread is free to apply them.
+    */
+   public AsyncStoreConfigurationBuilder<S> maxFlushDelay(long maxFlushDelay) {
+      attributes.attribute(MAX_FLUSH_DELAY).set(maxFlushDelay);
+      return this;
+   }
+
+   /**
+    * Same as {@link #maxFlushDelay(long)} but with a {@link TimeUnit}.
+    */
+   public AsyncStoreConfigurationBuilder<S> maxFlushDelay(long maxFlushDelay, TimeUnit unit) {
+      return maxFlushDelay(unit.toMillis(maxFlushDelay));
+   }
+
    @Override
    public
    void validate() {
@@ -58,10 +58,12 @@ public Object readAttributeValue(String enclosing, AttributeDefinition attribute
    public static final AttributeDefinition<Integer> INVALIDATION_BATCH_SIZE = AttributeDefinition.builder("invalidationBatchSize",  128).immutable().build();
    public static final AttributeDefinition<BiasAcquisition> BIAS_ACQUISITION = AttributeDefinition.builder("biasAcquisition", BiasAcquisition.ON_WRITE).immutable().build();
    public static final AttributeDefinition<Long> BIAS_LIFESPAN = AttributeDefinition.builder("biasLifespan", TimeUnit.MINUTES.toMillis(5)).immutable().build();
+   public static final AttributeDefinition<Boolean> COALESCE_COMMANDS = AttributeDefinition.builder("coalesceCommands", false).immutable().build();
    private final List<ConfigurationInfo> elements;
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(ClusteringConfiguration.class, CACHE_MODE, REMOTE_TIMEOUT, INVALIDATION_BATCH_SIZE, BIAS_ACQUISITION, BIAS_LIFESPAN);
+      return new AttributeSet(ClusteringConfiguration.class, CACHE_MODE, REMOTE_TIMEOUT, INVALIDATION_BATCH_SIZE, BIAS_ACQUISITION, BIAS_LIFESPAN,
+            COALESCE_COMMANDS);
    }
 
    public static final ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(CLUSTERING.getLocalName(), false);
@@ -144,6 +146,14 @@ public long biasLifespan() {
       return attributes.attribute(BIAS_LIFESPAN).get();
    }
 
+   /**
+    * Whether the backup write commands and acknowledgements sent to the same node at the same time are packed into a
+    * single message.
+    */
+   public boolean coalesceCommands() {
+      return attributes.attribute(COALESCE_COMMANDS).get();
+   }
+
    /**
     * Configure hash sub element
     */
@@ -3,6 +3,7 @@
 import static org.infinispan.configuration.cache.ClusteringConfiguration.BIAS_ACQUISITION;
 import static org.infinispan.configuration.cache.ClusteringConfiguration.BIAS_LIFESPAN;
 import static org.infinispan.configuration.cache.ClusteringConfiguration.CACHE_MODE;
+import static org.infinispan.configuration.cache.ClusteringConfiguration.COALESCE_COMMANDS;
 import static org.infinispan.configuration.cache.ClusteringConfiguration.INVALIDATION_BATCH_SIZE;
 import static org.infinispan.configuration.cache.ClusteringConfiguration.REMOTE_TIMEOUT;
 import static org.infinispan.util.logging.Log.CONFIG;
@@ -85,6 +86,19 @@ public ClusteringConfigurationBuilder remoteTimeout(long l, TimeUnit unit) {
       return remoteTimeout(unit.toMillis(l));
    }
 
+   /**
+    * Enables packing the backup write commands and the acknowledgements that non-transactional distributed caches send
+    * to the same node at the same time into a single message. These commands are one-way, so the caller never waits:
+    * the commands are queued per node and sent in batches from the async transport executor, with the commands queued
+    * while a message is being sent going in the next message. Requests that expect a response are never coalesced, so a
+    * slow command cannot delay the others. This reduces the number of messages when many threads write concurrently.
+    * Defaults to false.
+    */
+   public ClusteringConfigurationBuilder coalesceCommands(boolean coalesceCommands) {
+      attributes.attribute(COALESCE_COMMANDS).set(coalesceCommands);
+      return this;
+   }
+
    /**
     * For scattered cache, the threshold after which batched invalidations are sent
     */
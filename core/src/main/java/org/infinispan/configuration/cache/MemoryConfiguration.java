@@ -83,6 +83,30 @@ public boolean isEvictionEnabled() {
       return memoryStorageConfiguration.size() > 0 && memoryStorageConfiguration.evictionStrategy().isRemovalBased();
    }
 
+   /**
+    * How native memory is allocated for entries when {@link StorageType#OFF_HEAP} is used
+    * @return the configured off-heap allocator
+    */
+   public OffHeapAllocatorType offHeapAllocator() {
+      return memoryStorageConfiguration.allocator();
+   }
+
+   /**
+    * How entries are chosen for eviction when {@link StorageType#OFF_HEAP} is used
+    * @return the configured off-heap eviction policy
+    */
+   public OffHeapEvictionPolicy offHeapEvictionPolicy() {
+      return memoryStorageConfiguration.evictionPolicy();
+   }
+
+   /**
+    * Whether only the keys and metadata are stored off-heap when {@link StorageType#OFF_HEAP} is used
+    * @return true if the values are kept on the heap
+    */
+   public boolean valuesOnHeap() {
+      return memoryStorageConfiguration.valuesOnHeap();
+   }
+
    /**
     * The address pointer count
     * @return
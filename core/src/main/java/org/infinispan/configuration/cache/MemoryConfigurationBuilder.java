@@ -130,6 +130,70 @@ public EvictionStrategy evictionStrategy() {
       return memoryStorageConfigurationBuilder.evictionStrategy();
    }
 
+   /**
+    * Sets how native memory is obtained for entries when {@link StorageType#OFF_HEAP} is configured. Defaults to
+    * {@link OffHeapAllocatorType#UNPOOLED}, which allocates every entry separately.
+    * {@link OffHeapAllocatorType#POOLED} instead allocates entries from size-classed slabs, which reduces native
+    * allocator overhead and fragmentation for caches with a high rate of writes and removals.
+    * @param allocator the allocator type to use
+    * @return this
+    */
+   public MemoryConfigurationBuilder offHeapAllocator(OffHeapAllocatorType allocator) {
+      memoryStorageConfigurationBuilder.allocator(allocator);
+      return this;
+   }
+
+   /**
+    * The configured off-heap allocator, please see {@link MemoryConfigurationBuilder#offHeapAllocator(OffHeapAllocatorType)}.
+    * @return the configured off-heap allocator
+    */
+   public OffHeapAllocatorType offHeapAllocator() {
+      return memoryStorageConfigurationBuilder.allocator();
+   }
+
+   /**
+    * Sets how entries are chosen for eviction when {@link StorageType#OFF_HEAP} is configured with a size. Defaults to
+    * {@link OffHeapEvictionPolicy#LRU}, which evicts the least recently used entry but has to update a shared list on
+    * every read. {@link OffHeapEvictionPolicy#TINY_LFU} only records reads in a frequency sketch and keeps entries that
+    * are used often over entries that were only used once.
+    * @param evictionPolicy the eviction policy to use
+    * @return this
+    */
+   public MemoryConfigurationBuilder offHeapEvictionPolicy(OffHeapEvictionPolicy evictionPolicy) {
+      memoryStorageConfigurationBuilder.evictionPolicy(evictionPolicy);
+      return this;
+   }
+
+   /**
+    * The configured off-heap eviction policy, please see
+    * {@link MemoryConfigurationBuilder#offHeapEvictionPolicy(OffHeapEvictionPolicy)}.
+    * @return the configured off-heap eviction policy
+    */
+   public OffHeapEvictionPolicy offHeapEvictionPolicy() {
+      return memoryStorageConfigurationBuilder.evictionPolicy();
+   }
+
+   /**
+    * Sets whether the values are kept on the heap when {@link StorageType#OFF_HEAP} is configured. The keys and the
+    * metadata are still stored off-heap and each entry references its value through an index in a table on the heap.
+    * This reduces the number of objects the garbage collector has to trace for caches with many keys and small
+    * values, while reads no longer copy the value out of native memory. Defaults to false.
+    * @param valuesOnHeap whether the values are kept on the heap
+    * @return this
+    */
+   public MemoryConfigurationBuilder valuesOnHeap(boolean valuesOnHeap) {
+      memoryStorageConfigurationBuilder.valuesOnHeap(valuesOnHeap);
+      return this;
+   }
+
+   /**
+    * Whether the values are kept on the heap, please see {@link MemoryConfigurationBuilder#valuesOnHeap(boolean)}.
+    * @return true if the values are kept on the heap
+    */
+   public boolean valuesOnHeap() {
+      return memoryStorageConfigurationBuilder.valuesOnHeap();
+   }
+
    /**
     * Configuration setting when using off-heap that defines how many address pointers there are.
     * This number will be rounded up to the next power of two.  This helps performance in that the
@@ -14,13 +14,16 @@ public class MemoryStorageConfiguration implements ConfigurationInfo {
    public static final AttributeDefinition<EvictionType> EVICTION_TYPE = AttributeDefinition.builder("type", EvictionType.COUNT).xmlName(org.infinispan.configuration.parsing.Attribute.EVICTION.getLocalName()).build();
    public static final AttributeDefinition<EvictionStrategy> EVICTION_STRATEGY = AttributeDefinition.builder("strategy", EvictionStrategy.NONE).build();
    public static final AttributeDefinition<Integer> ADDRESS_COUNT = AttributeDefinition.builder("address-count", 1_048_576).build();
+   public static final AttributeDefinition<OffHeapAllocatorType> ALLOCATOR = AttributeDefinition.builder("allocator", OffHeapAllocatorType.UNPOOLED).immutable().build();
+   public static final AttributeDefinition<OffHeapEvictionPolicy> EVICTION_POLICY = AttributeDefinition.builder("eviction-policy", OffHeapEvictionPolicy.LRU).immutable().build();
+   public static final AttributeDefinition<Boolean> VALUES_ON_HEAP = AttributeDefinition.builder("values-on-heap", false).immutable().build();
 
    private final AttributeSet attributes;
    private final StorageType storageType;
    private final ElementDefinition elementDefinition;
 
    static public AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(MemoryStorageConfiguration.class, SIZE, EVICTION_TYPE, EVICTION_STRATEGY, ADDRESS_COUNT);
+      return new AttributeSet(MemoryStorageConfiguration.class, SIZE, EVICTION_TYPE, EVICTION_STRATEGY, ADDRESS_COUNT, ALLOCATOR, EVICTION_POLICY, VALUES_ON_HEAP);
    }
 
    public MemoryStorageConfiguration(AttributeSet attributes, StorageType storageType) {
@@ -61,6 +64,18 @@ public int addressCount() {
       return attributes.attribute(ADDRESS_COUNT).get();
    }
 
+   public OffHeapAllocatorType allocator() {
+      return attributes.attribute(ALLOCATOR).get();
+   }
+
+   public OffHeapEvictionPolicy evictionPolicy() {
+      return attributes.attribute(EVICTION_POLICY).get();
+   }
+
+   public boolean valuesOnHeap() {
+      return attributes.attribute(VALUES_ON_HEAP).get();
+   }
+
    public void size(long newSize) {
       attributes.attribute(SIZE).set(newSize);
    }
@@ -1,9 +1,12 @@
 package org.infinispan.configuration.cache;
 
 import static org.infinispan.configuration.cache.MemoryStorageConfiguration.ADDRESS_COUNT;
+import static org.infinispan.configuration.cache.MemoryStorageConfiguration.ALLOCATOR;
+import static org.infinispan.configuration.cache.MemoryStorageConfiguration.EVICTION_POLICY;
 import static org.infinispan.configuration.cache.MemoryStorageConfiguration.EVICTION_STRATEGY;
 import static org.infinispan.configuration.cache.MemoryStorageConfiguration.EVICTION_TYPE;
 import static org.infinispan.configuration.cache.MemoryStorageConfiguration.SIZE;
+import static org.infinispan.configuration.cache.MemoryStorageConfiguration.VALUES_ON_HEAP;
 import static org.infinispan.util.logging.Log.CONFIG;
 
 import org.infinispan.commons.configuration.Builder;
@@ -83,6 +86,33 @@ public int addressCount() {
       return attributes.attribute(ADDRESS_COUNT).get();
    }
 
+   public MemoryStorageConfigurationBuilder allocator(OffHeapAllocatorType allocator) {
+      attributes.attribute(ALLOCATOR).set(allocator);
+      return this;
+   }
+
+   public OffHeapAllocatorType allocator() {
+      return attributes.attribute(ALLOCATOR).get();
+   }
+
+   public MemoryStorageConfigurationBuilder evictionPolicy(OffHeapEvictionPolicy evictionPolicy) {
+      attributes.attribute(EVICTION_POLICY).set(evictionPolicy);
+      return this;
+   }
+
+   public OffHeapEvictionPolicy evictionPolicy() {
+      return attributes.attribute(EVICTION_POLICY).get();
+   }
+
+   public MemoryStorageConfigurationBuilder valuesOnHeap(boolean valuesOnHeap) {
+      attributes.attribute(VALUES_ON_HEAP).set(valuesOnHeap);
+      return this;
+   }
+
+   public boolean valuesOnHeap() {
+      return attributes.attribute(VALUES_ON_HEAP).get();
+   }
+
    @Override
    public void validate() {
       if (storageType != StorageType.OBJECT) {
@@ -0,0 +1,21 @@
+package org.infinispan.configuration.cache;
+
+/**
+ * Enumeration defining how native memory is obtained for entries stored with {@link StorageType#OFF_HEAP}.
+ *
+ * @since 10.1
+ */
+public enum OffHeapAllocatorType {
+
+   /**
+    * Every entry is allocated and freed individually through the native allocator.
+    */
+   UNPOOLED,
+
+   /**
+    * Entries are carved out of larger slabs using size classes, with freed entries reused for allocations of the same
+    * size class. This avoids the native allocator overhead and fragmentation at the cost of keeping slabs reserved
+    * until the cache is stopped.
+    */
+   POOLED
+}
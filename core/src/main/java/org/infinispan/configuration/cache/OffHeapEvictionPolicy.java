@@ -0,0 +1,22 @@
+package org.infinispan.configuration.cache;
+
+/**
+ * Enumeration defining how entries are chosen for eviction when a bounded cache uses {@link StorageType#OFF_HEAP}.
+ *
+ * @since 10.1
+ */
+public enum OffHeapEvictionPolicy {
+
+   /**
+    * The least recently used entry is evicted. Every read moves the entry to the end of a list shared by the whole
+    * container, which requires a global lock.
+    */
+   LRU,
+
+   /**
+    * Reads are only recorded in a frequency sketch, without any lock. Entries are evicted in insertion order, skipping
+    * the ones that are used more often than the entry being written, and a new entry that is used less often than all
+    * the eviction candidates is evicted itself instead.
+    */
+   TINY_LFU
+}
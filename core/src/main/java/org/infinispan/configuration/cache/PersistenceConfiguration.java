@@ -22,8 +22,9 @@ public class PersistenceConfiguration implements Matchable<PersistenceConfigurat
    public static final AttributeDefinition<Integer> AVAILABILITY_INTERVAL = AttributeDefinition.builder("availabilityInterval", 1000).immutable().build();
    public static final AttributeDefinition<Integer> CONNECTION_ATTEMPTS = AttributeDefinition.builder("connectionAttempts", 10).immutable().build();
    public static final AttributeDefinition<Integer> CONNECTION_INTERVAL = AttributeDefinition.builder("connectionInterval", 50).immutable().build();
+   public static final AttributeDefinition<Boolean> DIRECT_PRELOAD = AttributeDefinition.builder("directPreload", false).immutable().build();
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(PersistenceConfiguration.class, PASSIVATION, AVAILABILITY_INTERVAL, CONNECTION_ATTEMPTS, CONNECTION_INTERVAL);
+      return new AttributeSet(PersistenceConfiguration.class, PASSIVATION, AVAILABILITY_INTERVAL, CONNECTION_ATTEMPTS, CONNECTION_INTERVAL, DIRECT_PRELOAD);
    }
 
    static ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(PERSISTENCE.getLocalName());
@@ -32,6 +33,7 @@ static AttributeSet attributeDefinitionSet() {
    private final Attribute<Integer> availabilityInterval;
    private final Attribute<Integer> connectionAttempts;
    private final Attribute<Integer> connectionInterval;
+   private final Attribute<Boolean> directPreload;
    private final AttributeSet attributes;
    private final List<StoreConfiguration> stores;
    private final List<ConfigurationInfo> subElements = new ArrayList<>();
@@ -43,6 +45,7 @@ static AttributeSet attributeDefinitionSet() {
       this.availabilityInterval = attributes.attribute(AVAILABILITY_INTERVAL);
       this.connectionAttempts = attributes.attribute(CONNECTION_ATTEMPTS);
       this.connectionInterval = attributes.attribute(CONNECTION_INTERVAL);
+      this.directPreload = attributes.attribute(DIRECT_PRELOAD);
       this.stores = stores;
       this.subElements.addAll(stores);
    }
@@ -77,6 +80,14 @@ public int connectionInterval() {
       return connectionInterval.get();
    }
 
+   /**
+    * If true, preload reads the segments of a segmented store in parallel and inserts the entries directly in the data
+    * container, instead of writing each entry through the interceptor chain.
+    */
+   public boolean directPreload() {
+      return directPreload.get();
+   }
+
    public List<StoreConfiguration> stores() {
       return stores;
    }
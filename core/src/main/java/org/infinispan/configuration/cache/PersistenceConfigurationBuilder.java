@@ -3,6 +3,7 @@
 import static org.infinispan.configuration.cache.PersistenceConfiguration.AVAILABILITY_INTERVAL;
 import static org.infinispan.configuration.cache.PersistenceConfiguration.CONNECTION_ATTEMPTS;
 import static org.infinispan.configuration.cache.PersistenceConfiguration.CONNECTION_INTERVAL;
+import static org.infinispan.configuration.cache.PersistenceConfiguration.DIRECT_PRELOAD;
 import static org.infinispan.configuration.cache.PersistenceConfiguration.PASSIVATION;
 import static org.infinispan.configuration.parsing.Element.CLUSTER_LOADER;
 import static org.infinispan.configuration.parsing.Element.FILE_STORE;
@@ -127,6 +128,17 @@ public PersistenceConfigurationBuilder connectionInterval(int interval) {
       return this;
    }
 
+   /**
+    * @param directPreload If true, preload reads the segments of a segmented store in parallel on the persistence
+    *                      executor and inserts the entries directly in the data container, bypassing the interceptor
+    *                      chain. Caches that must index the preloaded entries or that use passivation always preload
+    *                      through the interceptor chain.
+    */
+   public PersistenceConfigurationBuilder directPreload(boolean directPreload) {
+      attributes.attribute(DIRECT_PRELOAD).set(directPreload);
+      return this;
+   }
+
    /**
     * If true, data is written to the cache store only when it is evicted from memory, which is known as 'passivation'.
     * When the data is requested again it is activated, which returns the data to memory and removes it from the
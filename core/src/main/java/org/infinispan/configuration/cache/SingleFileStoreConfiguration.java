@@ -28,9 +28,13 @@ public class SingleFileStoreConfiguration extends AbstractSegmentedStoreConfigur
    public static final AttributeDefinition<String> LOCATION = AttributeDefinition.builder("location", null, String.class).immutable().xmlName("path").global(false).build();
    public static final AttributeDefinition<Integer> MAX_ENTRIES = AttributeDefinition.builder("maxEntries", -1).immutable().build();
    public static final AttributeDefinition<Float> FRAGMENTATION_FACTOR = AttributeDefinition.builder("fragmentationFactor", 0.75f).immutable().build();
+   public static final AttributeDefinition<Long> COMPACTION_INTERVAL = AttributeDefinition.builder("compactionInterval", 0L).immutable().build();
+   public static final AttributeDefinition<Float> COMPACTION_THRESHOLD = AttributeDefinition.builder("compactionThreshold", 0.5f).immutable().build();
+   public static final AttributeDefinition<Long> COMPACTION_RATE = AttributeDefinition.builder("compactionRate", 8L * 1024 * 1024).immutable().build();
 
    public static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(SingleFileStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), LOCATION, MAX_ENTRIES, FRAGMENTATION_FACTOR);
+      return new AttributeSet(SingleFileStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), LOCATION, MAX_ENTRIES, FRAGMENTATION_FACTOR,
+            COMPACTION_INTERVAL, COMPACTION_THRESHOLD, COMPACTION_RATE);
    }
 
    static ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(FILE_STORE.getLocalName(), true, false);
@@ -38,12 +42,18 @@ public static AttributeSet attributeDefinitionSet() {
    private final Attribute<String> location;
    private final Attribute<Integer> maxEntries;
    private final Attribute<Float> fragmentationFactor;
+   private final Attribute<Long> compactionInterval;
+   private final Attribute<Float> compactionThreshold;
+   private final Attribute<Long> compactionRate;
 
    public SingleFileStoreConfiguration(AttributeSet attributes, AsyncStoreConfiguration async) {
       super(attributes, async);
       location = attributes.attribute(LOCATION);
       maxEntries = attributes.attribute(MAX_ENTRIES);
       fragmentationFactor = attributes.attribute(FRAGMENTATION_FACTOR);
+      compactionInterval = attributes.attribute(COMPACTION_INTERVAL);
+      compactionThreshold = attributes.attribute(COMPACTION_THRESHOLD);
+      compactionRate = attributes.attribute(COMPACTION_RATE);
    }
 
    @Override
@@ -81,6 +91,18 @@ public float fragmentationFactor() {
       return fragmentationFactor.get();
    }
 
+   public long compactionInterval() {
+      return compactionInterval.get();
+   }
+
+   public float compactionThreshold() {
+      return compactionThreshold.get();
+   }
+
+   public long compactionRate() {
+      return compactionRate.get();
+   }
+
    @Override
    public AttributeSet attributes() {
       return attributes;
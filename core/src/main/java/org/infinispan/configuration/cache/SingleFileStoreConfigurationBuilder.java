@@ -1,10 +1,15 @@
 package org.infinispan.configuration.cache;
 
 import static org.infinispan.configuration.cache.AbstractStoreConfiguration.SEGMENTED;
+import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.COMPACTION_INTERVAL;
+import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.COMPACTION_RATE;
+import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.COMPACTION_THRESHOLD;
 import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.FRAGMENTATION_FACTOR;
 import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.LOCATION;
 import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.MAX_ENTRIES;
 
+import java.util.concurrent.TimeUnit;
+
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.configuration.ConfigurationBuilderInfo;
 import org.infinispan.commons.configuration.attributes.Attribute;
@@ -91,8 +96,51 @@ public SingleFileStoreConfigurationBuilder fragmentationFactor(float fragmentati
       return this;
    }
 
+   /**
+    * Interval in milliseconds between runs of the background compaction, which moves entries from the end of the file
+    * into free blocks so that the file can be truncated. A value of 0 or less disables compaction, which is the
+    * default.
+    */
+   public SingleFileStoreConfigurationBuilder compactionInterval(long compactionInterval) {
+      attributes.attribute(COMPACTION_INTERVAL).set(compactionInterval);
+      return this;
+   }
+
+   /**
+    * Same as {@link #compactionInterval(long)} but with a {@link TimeUnit}.
+    */
+   public SingleFileStoreConfigurationBuilder compactionInterval(long compactionInterval, TimeUnit unit) {
+      return compactionInterval(unit.toMillis(compactionInterval));
+   }
+
+   /**
+    * The ratio of free space in the file, between 0 and 1, above which the background compaction moves entries.
+    * Defaults to 0.5.
+    */
+   public SingleFileStoreConfigurationBuilder compactionThreshold(float compactionThreshold) {
+      attributes.attribute(COMPACTION_THRESHOLD).set(compactionThreshold);
+      return this;
+   }
+
+   /**
+    * The maximum number of bytes per second the background compaction may copy, so that it does not compete with
+    * regular writes for disk bandwidth. Defaults to 8 MiB.
+    */
+   public SingleFileStoreConfigurationBuilder compactionRate(long compactionRate) {
+      attributes.attribute(COMPACTION_RATE).set(compactionRate);
+      return this;
+   }
+
    @Override
    public void validate() {
+      float threshold = attributes.attribute(COMPACTION_THRESHOLD).get();
+      if (threshold < 0 || threshold > 1) {
+         throw Log.CONFIG.invalidCompactionThreshold(SingleFileStore.class.getSimpleName(), threshold);
+      }
+      long rate = attributes.attribute(COMPACTION_RATE).get();
+      if (attributes.attribute(COMPACTION_INTERVAL).get() > 0 && rate <= 0) {
+         throw Log.CONFIG.invalidCompactionRate(SingleFileStore.class.getSimpleName(), rate);
+      }
       Attribute<Boolean> segmentedAttribute = attributes.attribute(SEGMENTED);
       if ((!segmentedAttribute.isModified() || segmentedAttribute.get()) && !NOTIFIED_SEGMENTED) {
          NOTIFIED_SEGMENTED = true;
@@ -23,17 +23,24 @@ public class StateTransferConfiguration implements Matchable<StateTransferConfig
    public static final AttributeDefinition<Boolean> FETCH_IN_MEMORY_STATE = AttributeDefinition.builder("fetchInMemoryState", true).xmlName("enabled").immutable().build();
    public static final AttributeDefinition<Long> TIMEOUT = AttributeDefinition.builder("timeout", TimeUnit.MINUTES.toMillis(4)).immutable().build();
    public static final AttributeDefinition<Integer> CHUNK_SIZE = AttributeDefinition.builder("chunkSize", 512).immutable().build();
+   public static final AttributeDefinition<Long> CHUNK_SIZE_BYTES = AttributeDefinition.builder("chunkSizeBytes", 4L * 1024 * 1024).immutable().build();
+   public static final AttributeDefinition<Integer> MAX_IN_FLIGHT_CHUNKS = AttributeDefinition.builder("maxInFlightChunks", 2).immutable().build();
+   public static final AttributeDefinition<Boolean> DELTA_TRANSFER = AttributeDefinition.builder("deltaTransfer", false).immutable().build();
 
    public static final ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(STATE_TRANSFER.getLocalName());
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(StateTransferConfiguration.class, FETCH_IN_MEMORY_STATE, TIMEOUT, CHUNK_SIZE, AWAIT_INITIAL_TRANSFER);
+      return new AttributeSet(StateTransferConfiguration.class, FETCH_IN_MEMORY_STATE, TIMEOUT, CHUNK_SIZE, CHUNK_SIZE_BYTES,
+            MAX_IN_FLIGHT_CHUNKS, DELTA_TRANSFER, AWAIT_INITIAL_TRANSFER);
    }
 
    private final Attribute<Boolean> awaitInitialTransfer;
    private final Attribute<Boolean> fetchInMemoryState;
    private final Attribute<Long> timeout;
    private final Attribute<Integer> chunkSize;
+   private final Attribute<Long> chunkSizeBytes;
+   private final Attribute<Integer> maxInFlightChunks;
+   private final Attribute<Boolean> deltaTransfer;
    private final AttributeSet attributes;
 
    StateTransferConfiguration(AttributeSet attributes) {
@@ -42,6 +49,9 @@ static AttributeSet attributeDefinitionSet() {
       fetchInMemoryState = attributes.attribute(FETCH_IN_MEMORY_STATE);
       timeout = attributes.attribute(TIMEOUT);
       chunkSize = attributes.attribute(CHUNK_SIZE);
+      chunkSizeBytes = attributes.attribute(CHUNK_SIZE_BYTES);
+      maxInFlightChunks = attributes.attribute(MAX_IN_FLIGHT_CHUNKS);
+      deltaTransfer = attributes.attribute(DELTA_TRANSFER);
    }
 
    /**
@@ -81,6 +91,32 @@ public int chunkSize() {
       return chunkSize.get();
    }
 
+   /**
+    * A chunk is also closed when the size of its keys and values reaches {@code chunkSizeBytes}, so that caches with
+    * large values are transferred in smaller chunks. The size is only known for keys and values stored in binary
+    * form, so the limit only applies to {@code BINARY} and {@code OFF_HEAP} storage. With {@code OBJECT} storage only
+    * byte array and string keys and values are counted, other entries are only limited by {@link #chunkSize()}.
+    */
+   public long chunkSizeBytes() {
+      return chunkSizeBytes.get();
+   }
+
+   /**
+    * The maximum number of chunks sent to a node that it has not applied yet, for each transfer.
+    */
+   public int maxInFlightChunks() {
+      return maxInFlightChunks.get();
+   }
+
+   /**
+    * If {@code true}, a node that already has entries in a non-shared store when it requests segments sends the hashes
+    * of their keys and versions, and the other owners only send the entries that differ. Only entries with a version
+    * can be skipped.
+    */
+   public boolean deltaTransfer() {
+      return deltaTransfer.get();
+   }
+
    /**
     * If {@code true}, this will cause the first call to method {@code CacheManager.getCache()} on the joiner node to
     * block and wait until the joining is complete and the cache has finished receiving state from neighboring caches
@@ -2,7 +2,10 @@
 
 import static org.infinispan.configuration.cache.StateTransferConfiguration.AWAIT_INITIAL_TRANSFER;
 import static org.infinispan.configuration.cache.StateTransferConfiguration.CHUNK_SIZE;
+import static org.infinispan.configuration.cache.StateTransferConfiguration.CHUNK_SIZE_BYTES;
+import static org.infinispan.configuration.cache.StateTransferConfiguration.DELTA_TRANSFER;
 import static org.infinispan.configuration.cache.StateTransferConfiguration.FETCH_IN_MEMORY_STATE;
+import static org.infinispan.configuration.cache.StateTransferConfiguration.MAX_IN_FLIGHT_CHUNKS;
 import static org.infinispan.configuration.cache.StateTransferConfiguration.TIMEOUT;
 import static org.infinispan.util.logging.Log.CONFIG;
 
@@ -75,6 +78,36 @@ public StateTransferConfigurationBuilder chunkSize(int i) {
       return this;
    }
 
+   /**
+    * A chunk is also closed when the size of its keys and values reaches {@code chunkSizeBytes}, so that caches with
+    * large values are transferred in smaller chunks. The size is only known for keys and values stored in binary
+    * form, so the limit only applies to {@code BINARY} and {@code OFF_HEAP} storage. With {@code OBJECT} storage only
+    * byte array and string keys and values are counted, other entries are only limited by {@link #chunkSize(int)}.
+    */
+   public StateTransferConfigurationBuilder chunkSizeBytes(long l) {
+      attributes.attribute(CHUNK_SIZE_BYTES).set(l);
+      return this;
+   }
+
+   /**
+    * The maximum number of chunks sent to a node that it has not applied yet, for each transfer. Higher values make
+    * the transfer faster, at the cost of more memory on the receiving node.
+    */
+   public StateTransferConfigurationBuilder maxInFlightChunks(int i) {
+      attributes.attribute(MAX_IN_FLIGHT_CHUNKS).set(i);
+      return this;
+   }
+
+   /**
+    * If {@code true}, a node that already has entries in a non-shared store when it requests segments sends the hashes
+    * of their keys and versions, and the other owners only send the entries that differ. This shortens the state
+    * transfer when a node with persistent state restarts, but only entries with a version can be skipped.
+    */
+   public StateTransferConfigurationBuilder deltaTransfer(boolean b) {
+      attributes.attribute(DELTA_TRANSFER).set(b);
+      return this;
+   }
+
    /**
     * This is the maximum amount of time - in milliseconds - to wait for state from neighboring
     * caches, before throwing an exception and aborting startup.
@@ -98,6 +131,14 @@ public void validate() {
       if (chunkSize <= 0) {
          throw CONFIG.invalidChunkSize(chunkSize);
       }
+      long chunkSizeBytes = attributes.attribute(CHUNK_SIZE_BYTES).get();
+      if (chunkSizeBytes <= 0) {
+         throw CONFIG.invalidChunkSizeBytes(chunkSizeBytes);
+      }
+      int maxInFlightChunks = attributes.attribute(MAX_IN_FLIGHT_CHUNKS).get();
+      if (maxInFlightChunks <= 0) {
+         throw CONFIG.invalidMaxInFlightChunks(maxInFlightChunks);
+      }
 
       if (clustering().cacheMode().isInvalidation()) {
          Attribute<Boolean> fetchAttribute = attributes.attribute(FETCH_IN_MEMORY_STATE);
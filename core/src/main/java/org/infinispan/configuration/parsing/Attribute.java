@@ -18,6 +18,7 @@ public enum Attribute {
     ADDRESS_COUNT,
     AFTER,
     ALIASES,
+    ALLOCATOR,
     ALLOW_DUPLICATE_DOMAINS("duplicate-domains"),
     ASYNC_EXECUTOR("async-executor"),
     @Deprecated
@@ -31,8 +32,13 @@ public enum Attribute {
     BEFORE,
     CAPACITY_FACTOR("capacity"),
     CHUNK_SIZE,
+    CHUNK_SIZE_BYTES,
     CLASS,
     CLUSTER,
+    COALESCE_COMMANDS,
+    COMPACTION_INTERVAL,
+    COMPACTION_RATE,
+    COMPACTION_THRESHOLD,
     COMPLETED_TX_TIMEOUT("complete-timeout"),
     CONCURRENCY_LEVEL,
     CONFIGURATION,
@@ -44,17 +50,21 @@ public enum Attribute {
     DATA_CONTAINER,
     DEFAULT_CACHE,
     DEFAULT_STACK,
+    DELTA_TRANSFER,
+    DIRECT_PRELOAD,
     ENABLED,
     ENCODER,
     EXECUTOR,
     EVICTION,
     @Deprecated
     EVICTION_EXECUTOR,
+    EVICTION_POLICY,
     EXPIRATION_EXECUTOR,
     EXTENDS,
     FAIL_SILENTLY,
     FAILURE_POLICY_CLASS,
     FETCH_STATE,
+    FLUSH_BATCH_SIZE,
     @Deprecated
     FLUSH_LOCK_TIMEOUT,
     FRAGMENTATION_FACTOR,
@@ -84,7 +94,9 @@ public enum Attribute {
     MARSHALLER_CLASS("marshaller"),
     MAX_BATCH_SIZE,
     MAX_ENTRIES,
+    MAX_FLUSH_DELAY,
     MAX_IDLE,
+    MAX_IN_FLIGHT_CHUNKS,
     MAX_RETRIES,
     MAX_THREADS,
     MBEAN_SERVER_LOOKUP,
@@ -165,6 +177,7 @@ public enum Attribute {
     USE_TWO_PHASE_COMMIT("two-phase-commit"),
     VALUE,
     VALUE_EQUIVALENCE,
+    VALUES_ON_HEAP,
     VERSION,
     VERSIONING_SCHEME("scheme"),
     WAIT_TIME,
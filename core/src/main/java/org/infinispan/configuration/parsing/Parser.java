@@ -50,6 +50,8 @@
 import org.infinispan.configuration.cache.InterceptorConfiguration;
 import org.infinispan.configuration.cache.InterceptorConfigurationBuilder;
 import org.infinispan.configuration.cache.MemoryConfigurationBuilder;
+import org.infinispan.configuration.cache.OffHeapAllocatorType;
+import org.infinispan.configuration.cache.OffHeapEvictionPolicy;
 import org.infinispan.configuration.cache.PartitionHandlingConfigurationBuilder;
 import org.infinispan.configuration.cache.SecurityConfigurationBuilder;
 import org.infinispan.configuration.cache.SingleFileStoreConfigurationBuilder;
@@ -1566,6 +1568,15 @@ private void parseOffHeapMemoryAttributes(final XMLExtendedStreamReader reader,
             case STRATEGY:
                memoryBuilder.evictionStrategy(EvictionStrategy.valueOf(value));
                break;
+            case ALLOCATOR:
+               memoryBuilder.offHeapAllocator(OffHeapAllocatorType.valueOf(value));
+               break;
+            case EVICTION_POLICY:
+               memoryBuilder.offHeapEvictionPolicy(OffHeapEvictionPolicy.valueOf(value));
+               break;
+            case VALUES_ON_HEAP:
+               memoryBuilder.valuesOnHeap(Boolean.parseBoolean(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -2006,6 +2017,10 @@ private void parseClusteredCacheAttribute(XMLExtendedStreamReader reader,
             builder.clustering().remoteTimeout(Long.parseLong(value));
             break;
          }
+         case COALESCE_COMMANDS: {
+            builder.clustering().coalesceCommands(Boolean.parseBoolean(value));
+            break;
+         }
          default: {
             this.parseCacheAttribute(reader, index, attribute, value, builder);
          }
@@ -2059,6 +2074,18 @@ private void parseStateTransfer(XMLExtendedStreamReader reader, ConfigurationBui
                builder.clustering().stateTransfer().chunkSize(Integer.parseInt(value));
                break;
             }
+            case CHUNK_SIZE_BYTES: {
+               builder.clustering().stateTransfer().chunkSizeBytes(Long.parseLong(value));
+               break;
+            }
+            case MAX_IN_FLIGHT_CHUNKS: {
+               builder.clustering().stateTransfer().maxInFlightChunks(Integer.parseInt(value));
+               break;
+            }
+            case DELTA_TRANSFER: {
+               builder.clustering().stateTransfer().deltaTransfer(Boolean.parseBoolean(value));
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -2226,6 +2253,9 @@ private void parsePersistence(final XMLExtendedStreamReader reader, final Config
             case CONNECTION_INTERVAL:
                builder.persistence().connectionInterval(Integer.parseInt(value));
                break;
+            case DIRECT_PRELOAD:
+               builder.persistence().directPreload(Boolean.parseBoolean(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -2297,6 +2327,18 @@ protected void parseFileStore(XMLExtendedStreamReader reader, ConfigurationBuild
                storeBuilder.fragmentationFactor(Float.parseFloat(value));
                break;
             }
+            case COMPACTION_INTERVAL: {
+               storeBuilder.compactionInterval(Long.parseLong(value));
+               break;
+            }
+            case COMPACTION_THRESHOLD: {
+               storeBuilder.compactionThreshold(Float.parseFloat(value));
+               break;
+            }
+            case COMPACTION_RATE: {
+               storeBuilder.compactionRate(Long.parseLong(value));
+               break;
+            }
             default: {
                parseStoreAttribute(reader, i, storeBuilder);
             }
@@ -2421,6 +2463,14 @@ public static void parseStoreWriteBehind(XMLExtendedStreamReader reader, AsyncSt
                storeBuilder.threadPoolSize(Integer.parseInt(value));
                break;
             }
+            case FLUSH_BATCH_SIZE: {
+               storeBuilder.flushBatchSize(Integer.parseInt(value));
+               break;
+            }
+            case MAX_FLUSH_DELAY: {
+               storeBuilder.maxFlushDelay(Long.parseLong(value));
+               break;
+            }
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -35,6 +35,8 @@ private void writeStoreWriteBehind(XMLExtendedStreamWriter writer, StoreConfigur
          writeBehind.write(writer, AsyncStoreConfiguration.MODIFICATION_QUEUE_SIZE, Attribute.MODIFICATION_QUEUE_SIZE);
          writeBehind.write(writer, AsyncStoreConfiguration.THREAD_POOL_SIZE, Attribute.THREAD_POOL_SIZE);
          writeBehind.write(writer, AsyncStoreConfiguration.FAIL_SILENTLY, Attribute.FAIL_SILENTLY);
+         writeBehind.write(writer, AsyncStoreConfiguration.FLUSH_BATCH_SIZE, Attribute.FLUSH_BATCH_SIZE);
+         writeBehind.write(writer, AsyncStoreConfiguration.MAX_FLUSH_DELAY, Attribute.MAX_FLUSH_DELAY);
          writer.writeEndElement();
       }
    }
@@ -525,6 +525,7 @@ private void writeCommonClusteredCacheAttributes(XMLExtendedStreamWriter writer,
       ClusteringConfiguration clustering = configuration.clustering();
       writer.writeAttribute(Attribute.MODE, clustering.cacheMode().isSynchronous() ? "SYNC" : "ASYNC");
       clustering.attributes().write(writer, ClusteringConfiguration.REMOTE_TIMEOUT, Attribute.REMOTE_TIMEOUT);
+      clustering.attributes().write(writer, ClusteringConfiguration.COALESCE_COMMANDS, Attribute.COALESCE_COMMANDS);
    }
 
    private void writeCommonCacheAttributesElements(XMLExtendedStreamWriter writer, String name, Configuration configuration) throws XMLStreamException {
@@ -612,6 +613,9 @@ private void writeMemory(XMLExtendedStreamWriter writer, Configuration configura
             case OFF_HEAP:
                attributes.write(writer, MemoryStorageConfiguration.ADDRESS_COUNT, Attribute.ADDRESS_COUNT);
                attributes.write(writer, MemoryStorageConfiguration.EVICTION_STRATEGY, Attribute.STRATEGY);
+               attributes.write(writer, MemoryStorageConfiguration.ALLOCATOR, Attribute.ALLOCATOR);
+               attributes.write(writer, MemoryStorageConfiguration.EVICTION_POLICY, Attribute.EVICTION_POLICY);
+               attributes.write(writer, MemoryStorageConfiguration.VALUES_ON_HEAP, Attribute.VALUES_ON_HEAP);
                // fall through
             case BINARY:
                attributes.write(writer, MemoryStorageConfiguration.EVICTION_TYPE, Attribute.EVICTION);
@@ -645,6 +649,7 @@ private void writePersistence(XMLExtendedStreamWriter writer, Configuration conf
          attributes.write(writer, PersistenceConfiguration.AVAILABILITY_INTERVAL, Attribute.AVAILABILITY_INTERVAL);
          attributes.write(writer, PersistenceConfiguration.CONNECTION_ATTEMPTS, Attribute.CONNECTION_ATTEMPTS);
          attributes.write(writer, PersistenceConfiguration.CONNECTION_INTERVAL, Attribute.CONNECTION_INTERVAL);
+         attributes.write(writer, PersistenceConfiguration.DIRECT_PRELOAD, Attribute.DIRECT_PRELOAD);
          for (StoreConfiguration store : persistence.stores()) {
             writeStore(writer, store);
          }
@@ -8,6 +8,8 @@
 import org.infinispan.container.entries.metadata.MetadataMortalCacheEntry;
 import org.infinispan.container.entries.metadata.MetadataTransientCacheEntry;
 import org.infinispan.container.entries.metadata.MetadataTransientMortalCacheEntry;
+import org.infinispan.container.entries.versioned.AbstractVersionedCacheEntry;
+import org.infinispan.container.versioning.SimpleClusteredVersion;
 import org.infinispan.metadata.EmbeddedMetadata;
 import org.infinispan.metadata.Metadata;
 
@@ -54,6 +56,8 @@ public long calculateSize(K key, InternalCacheEntry<K, V> ice) {
          metadataAware = true;
       } else if (ice instanceof MetadataTransientMortalCacheEntry) {
          metadataAware = true;
+      } else if (ice instanceof AbstractVersionedCacheEntry) {
+         metadataAware = true;
       } else {
          metadataAware = false;
       }
@@ -92,7 +96,16 @@ public long calculateSize(K key, V value, Metadata metadata) {
          if (metadata.maxIdle() != -1) {
             iceSize += 16;
          }
-         if (InternalEntryFactoryImpl.isStoreMetadata(metadata, null)) {
+         if (AbstractVersionedCacheEntry.isInlinable(metadata)) {
+            // The entry references the version directly, and the metadata only once it is rebuilt when read
+            iceSize += 2 * POINTER_SIZE;
+            // This is for the version and the long inside of it, plus the topology id of a clustered version
+            metadataSize += OBJECT_SIZE + POINTER_SIZE + 8;
+            if (metadata.version() instanceof SimpleClusteredVersion) {
+               metadataSize += 4;
+            }
+            metadataSize = roundUpToNearest8(metadataSize);
+         } else if (InternalEntryFactoryImpl.isStoreMetadata(metadata, null)) {
             // Assume it has a pointer for the metadata
             iceSize += POINTER_SIZE;
             // The metadata has itself and the class reference
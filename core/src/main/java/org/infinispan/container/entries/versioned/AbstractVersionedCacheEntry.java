@@ -0,0 +1,219 @@
+package org.infinispan.container.entries.versioned;
+
+import static org.infinispan.commons.util.Util.toStr;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Set;
+
+import org.infinispan.commons.marshall.AbstractExternalizer;
+import org.infinispan.commons.util.Util;
+import org.infinispan.container.entries.AbstractInternalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.metadata.MetadataAware;
+import org.infinispan.container.versioning.EntryVersion;
+import org.infinispan.container.versioning.NumericVersion;
+import org.infinispan.container.versioning.SimpleClusteredVersion;
+import org.infinispan.marshall.core.Ids;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+
+/**
+ * Base class of the cache entries storing versioned {@link EmbeddedMetadata} as fields. The metadata aware entries
+ * keep a reference to the metadata, which in turn references the version, so every versioned entry needs three
+ * objects. These entries reference the version directly and inline the lifespan and max idle when they are used, so
+ * that the metadata instance is dropped and only rebuilt when requested. The version is kept as it is, as it is read
+ * far more often than the whole metadata, e.g. by every versioned write, and rebuilding it would allocate each time.
+ * The metadata is rebuilt the first time it is requested and kept until it is replaced, so only the entries whose
+ * metadata is read pay for the metadata instance again.
+ * <p>
+ * Only metadata built by {@link EmbeddedMetadata.Builder} with a {@link NumericVersion} or a
+ * {@link SimpleClusteredVersion} can be inlined, please see {@link #isInlinable(Metadata)}. The subclass used depends on
+ * whether the metadata has a lifespan and/or a max idle, in the same way as the other entries.
+ *
+ * @since 10.1
+ */
+public abstract class AbstractVersionedCacheEntry extends AbstractInternalCacheEntry implements MetadataAware {
+   protected Object value;
+   protected EntryVersion version;
+   // Rebuilt on demand from the version and the expiration of the entry
+   private Metadata metadata;
+
+   protected AbstractVersionedCacheEntry(Object key, Object value, EntryVersion version) {
+      super(key);
+      this.value = value;
+      setVersion(version);
+   }
+
+   /**
+    * Returns whether the given metadata can be stored in one of the versioned entries without losing information.
+    * @param metadata the metadata to store
+    * @return true if a versioned entry can be used for the metadata
+    */
+   public static boolean isInlinable(Metadata metadata) {
+      if (metadata == null) {
+         return false;
+      }
+      EntryVersion version = metadata.version();
+      if (!(version instanceof NumericVersion) && !(version instanceof SimpleClusteredVersion)) {
+         return false;
+      }
+      // The builder picks the class depending on what was set, so it must match the layout to get equal metadata back
+      Class<?> metadataClass = metadata.getClass();
+      boolean hasLifespan = metadata.lifespan() > -1;
+      boolean hasMaxIdle = metadata.maxIdle() > -1;
+      if (metadataClass == EmbeddedMetadata.class) {
+         return true;
+      } else if (metadataClass == EmbeddedMetadata.EmbeddedLifespanExpirableMetadata.class) {
+         return hasLifespan;
+      } else if (metadataClass == EmbeddedMetadata.EmbeddedMaxIdleExpirableMetadata.class) {
+         return hasMaxIdle;
+      } else if (metadataClass == EmbeddedMetadata.EmbeddedExpirableMetadata.class) {
+         return hasLifespan && hasMaxIdle;
+      }
+      return false;
+   }
+
+   /**
+    * Creates the smallest versioned entry for the given metadata, which must be {@link #isInlinable(Metadata)}.
+    * @param key the key of the entry
+    * @param value the value of the entry
+    * @param metadata the metadata of the entry
+    * @param created when the entry was created, only used if it has a lifespan
+    * @param lastUsed when the entry was last used, only used if it has a max idle
+    * @return the new entry
+    */
+   public static InternalCacheEntry create(Object key, Object value, Metadata metadata, long created, long lastUsed) {
+      long lifespan = metadata.lifespan();
+      long maxIdle = metadata.maxIdle();
+      EntryVersion version = metadata.version();
+      if (lifespan < 0 && maxIdle < 0) return new VersionedImmortalCacheEntry(key, value, version);
+      if (lifespan > -1 && maxIdle < 0) return new VersionedMortalCacheEntry(key, value, version, lifespan, created);
+      if (lifespan < 0 && maxIdle > -1) return new VersionedTransientCacheEntry(key, value, version, maxIdle, lastUsed);
+      return new VersionedTransientMortalCacheEntry(key, value, version, lifespan, created, maxIdle, lastUsed);
+   }
+
+   /**
+    * Returns whether the given metadata can replace the current one without changing the class of the entry.
+    * @param metadata the new metadata
+    * @return true if {@link #setMetadata(Metadata)} can be invoked with the metadata
+    */
+   public final boolean canUpdate(Metadata metadata) {
+      return isInlinable(metadata) && (metadata.lifespan() > -1) == (getLifespan() > -1) &&
+            (metadata.maxIdle() > -1) == (getMaxIdle() > -1);
+   }
+
+   @Override
+   public Object getValue() {
+      return value;
+   }
+
+   @Override
+   public Object setValue(Object value) {
+      return this.value = value;
+   }
+
+   public EntryVersion getVersion() {
+      return version;
+   }
+
+   protected final void setVersion(EntryVersion version) {
+      this.version = version;
+      this.metadata = null;
+   }
+
+   @Override
+   public Metadata getMetadata() {
+      Metadata metadata = this.metadata;
+      if (metadata == null) {
+         // Metadata is immutable, a racing thread can only build an equal instance
+         this.metadata = metadata = buildMetadata();
+      }
+      return metadata;
+   }
+
+   private Metadata buildMetadata() {
+      EmbeddedMetadata.Builder builder = new EmbeddedMetadata.Builder();
+      long lifespan = getLifespan();
+      if (lifespan > -1) {
+         builder.lifespan(lifespan);
+      }
+      long maxIdle = getMaxIdle();
+      if (maxIdle > -1) {
+         builder.maxIdle(maxIdle);
+      }
+      return builder.version(version).build();
+   }
+
+   @Override
+   public void setMetadata(Metadata metadata) {
+      if (!canUpdate(metadata)) {
+         throw new IllegalStateException(
+               "Metadata " + metadata + " cannot be set on " + getClass().getSimpleName() +
+                     ". It needs to be recreated via the entry factory.");
+      }
+      updateExpiration(metadata.lifespan(), metadata.maxIdle());
+      // Clears the rebuilt metadata after the expiration is updated
+      setVersion(metadata.version());
+   }
+
+   /**
+    * Updates the lifespan and max idle of the entry, which are guaranteed to be present only if the layout has them.
+    */
+   protected abstract void updateExpiration(long lifespan, long maxIdle);
+
+   @Override
+   public AbstractVersionedCacheEntry clone() {
+      return (AbstractVersionedCacheEntry) super.clone();
+   }
+
+   @Override
+   public String toString() {
+      return getClass().getSimpleName() + "{" +
+            "key=" + toStr(key) +
+            ", value=" + toStr(value) +
+            ", version=" + version +
+            ", created=" + getCreated() +
+            ", lifespan=" + getLifespan() +
+            ", lastUsed=" + getLastUsed() +
+            ", maxIdle=" + getMaxIdle() +
+            "}";
+   }
+
+   /**
+    * Writes all the versioned entries with their metadata, recreating the same layout when read.
+    */
+   public static class Externalizer extends AbstractExternalizer<AbstractVersionedCacheEntry> {
+      @Override
+      public void writeObject(ObjectOutput output, AbstractVersionedCacheEntry ice) throws IOException {
+         output.writeObject(ice.key);
+         output.writeObject(ice.value);
+         output.writeObject(ice.getMetadata());
+         // could be negative so should not use unsigned longs
+         output.writeLong(ice.getCreated());
+         output.writeLong(ice.getLastUsed());
+      }
+
+      @Override
+      public AbstractVersionedCacheEntry readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+         Object k = input.readObject();
+         Object v = input.readObject();
+         Metadata metadata = (Metadata) input.readObject();
+         long created = input.readLong();
+         long lastUsed = input.readLong();
+         return (AbstractVersionedCacheEntry) create(k, v, metadata, created, lastUsed);
+      }
+
+      @Override
+      public Integer getId() {
+         return Ids.VERSIONED_ENTRY;
+      }
+
+      @Override
+      public Set<Class<? extends AbstractVersionedCacheEntry>> getTypeClasses() {
+         return Util.asSet(VersionedImmortalCacheEntry.class, VersionedMortalCacheEntry.class,
+               VersionedTransientCacheEntry.class, VersionedTransientMortalCacheEntry.class);
+      }
+   }
+}
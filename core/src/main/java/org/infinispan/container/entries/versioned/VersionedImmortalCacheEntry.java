@@ -0,0 +1,72 @@
+package org.infinispan.container.entries.versioned;
+
+import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.container.entries.metadata.MetadataImmortalCacheValue;
+import org.infinispan.container.versioning.EntryVersion;
+
+/**
+ * A form of {@link org.infinispan.container.entries.metadata.MetadataImmortalCacheEntry} storing the version inline.
+ *
+ * @since 10.1
+ */
+public class VersionedImmortalCacheEntry extends AbstractVersionedCacheEntry {
+
+   public VersionedImmortalCacheEntry(Object key, Object value, EntryVersion version) {
+      super(key, value, version);
+   }
+
+   @Override
+   public final boolean isExpired(long now) {
+      return false;
+   }
+
+   @Override
+   public final boolean canExpire() {
+      return false;
+   }
+
+   @Override
+   public final long getCreated() {
+      return -1;
+   }
+
+   @Override
+   public final long getLastUsed() {
+      return -1;
+   }
+
+   @Override
+   public final long getLifespan() {
+      return -1;
+   }
+
+   @Override
+   public final long getMaxIdle() {
+      return -1;
+   }
+
+   @Override
+   public final long getExpiryTime() {
+      return -1;
+   }
+
+   @Override
+   public final void touch(long currentTimeMillis) {
+      // no-op
+   }
+
+   @Override
+   public final void reincarnate(long now) {
+      // no-op
+   }
+
+   @Override
+   protected void updateExpiration(long lifespan, long maxIdle) {
+      // no-op
+   }
+
+   @Override
+   public InternalCacheValue toInternalCacheValue() {
+      return new MetadataImmortalCacheValue(value, getMetadata());
+   }
+}
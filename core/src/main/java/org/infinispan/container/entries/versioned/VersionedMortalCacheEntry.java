@@ -0,0 +1,79 @@
+package org.infinispan.container.entries.versioned;
+
+import org.infinispan.container.entries.ExpiryHelper;
+import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.container.entries.metadata.MetadataMortalCacheValue;
+import org.infinispan.container.versioning.EntryVersion;
+
+/**
+ * A form of {@link org.infinispan.container.entries.metadata.MetadataMortalCacheEntry} storing the version and the
+ * lifespan inline.
+ *
+ * @since 10.1
+ */
+public class VersionedMortalCacheEntry extends AbstractVersionedCacheEntry {
+
+   protected long lifespan;
+   protected long created;
+
+   public VersionedMortalCacheEntry(Object key, Object value, EntryVersion version, long lifespan, long created) {
+      super(key, value, version);
+      this.lifespan = lifespan;
+      this.created = created;
+   }
+
+   @Override
+   public final boolean isExpired(long now) {
+      return ExpiryHelper.isExpiredMortal(lifespan, created, now);
+   }
+
+   @Override
+   public final boolean canExpire() {
+      return true;
+   }
+
+   @Override
+   public final long getCreated() {
+      return created;
+   }
+
+   @Override
+   public final long getLastUsed() {
+      return -1;
+   }
+
+   @Override
+   public final long getLifespan() {
+      return lifespan;
+   }
+
+   @Override
+   public final long getMaxIdle() {
+      return -1;
+   }
+
+   @Override
+   public final long getExpiryTime() {
+      return created + lifespan;
+   }
+
+   @Override
+   public final void touch(long currentTimeMillis) {
+      // no-op
+   }
+
+   @Override
+   public void reincarnate(long now) {
+      this.created = now;
+   }
+
+   @Override
+   protected void updateExpiration(long lifespan, long maxIdle) {
+      this.lifespan = lifespan;
+   }
+
+   @Override
+   public InternalCacheValue toInternalCacheValue() {
+      return new MetadataMortalCacheValue(value, getMetadata(), created);
+   }
+}
@@ -0,0 +1,79 @@
+package org.infinispan.container.entries.versioned;
+
+import org.infinispan.container.entries.ExpiryHelper;
+import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.container.entries.metadata.MetadataTransientCacheValue;
+import org.infinispan.container.versioning.EntryVersion;
+
+/**
+ * A form of {@link org.infinispan.container.entries.metadata.MetadataTransientCacheEntry} storing the version and the
+ * max idle inline.
+ *
+ * @since 10.1
+ */
+public class VersionedTransientCacheEntry extends AbstractVersionedCacheEntry {
+
+   protected long maxIdle;
+   protected long lastUsed;
+
+   public VersionedTransientCacheEntry(Object key, Object value, EntryVersion version, long maxIdle, long lastUsed) {
+      super(key, value, version);
+      this.maxIdle = maxIdle;
+      this.lastUsed = lastUsed;
+   }
+
+   @Override
+   public final boolean isExpired(long now) {
+      return ExpiryHelper.isExpiredTransient(maxIdle, lastUsed, now);
+   }
+
+   @Override
+   public final boolean canExpire() {
+      return true;
+   }
+
+   @Override
+   public final long getCreated() {
+      return -1;
+   }
+
+   @Override
+   public final long getLastUsed() {
+      return lastUsed;
+   }
+
+   @Override
+   public final long getLifespan() {
+      return -1;
+   }
+
+   @Override
+   public final long getMaxIdle() {
+      return maxIdle;
+   }
+
+   @Override
+   public final long getExpiryTime() {
+      return lastUsed + maxIdle;
+   }
+
+   @Override
+   public final void touch(long currentTimeMillis) {
+      lastUsed = currentTimeMillis;
+   }
+
+   @Override
+   public final void reincarnate(long now) {
+      // no-op
+   }
+
+   @Override
+   protected void updateExpiration(long lifespan, long maxIdle) {
+      this.maxIdle = maxIdle;
+   }
+
+   @Override
+   public InternalCacheValue toInternalCacheValue() {
+      return new MetadataTransientCacheValue(value, getMetadata(), lastUsed);
+   }
+}
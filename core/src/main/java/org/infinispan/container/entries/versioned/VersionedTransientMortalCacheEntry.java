@@ -0,0 +1,87 @@
+package org.infinispan.container.entries.versioned;
+
+import static java.lang.Math.min;
+
+import org.infinispan.container.entries.ExpiryHelper;
+import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.container.entries.metadata.MetadataTransientMortalCacheValue;
+import org.infinispan.container.versioning.EntryVersion;
+
+/**
+ * A form of {@link org.infinispan.container.entries.metadata.MetadataTransientMortalCacheEntry} storing the version,
+ * the lifespan and the max idle inline.
+ *
+ * @since 10.1
+ */
+public class VersionedTransientMortalCacheEntry extends AbstractVersionedCacheEntry {
+
+   protected long lifespan;
+   protected long created;
+   protected long maxIdle;
+   protected long lastUsed;
+
+   public VersionedTransientMortalCacheEntry(Object key, Object value, EntryVersion version, long lifespan,
+         long created, long maxIdle, long lastUsed) {
+      super(key, value, version);
+      this.lifespan = lifespan;
+      this.created = created;
+      this.maxIdle = maxIdle;
+      this.lastUsed = lastUsed;
+   }
+
+   @Override
+   public final boolean isExpired(long now) {
+      return ExpiryHelper.isExpiredTransientMortal(maxIdle, lastUsed, lifespan, created, now);
+   }
+
+   @Override
+   public final boolean canExpire() {
+      return true;
+   }
+
+   @Override
+   public final long getCreated() {
+      return created;
+   }
+
+   @Override
+   public final long getLastUsed() {
+      return lastUsed;
+   }
+
+   @Override
+   public final long getLifespan() {
+      return lifespan;
+   }
+
+   @Override
+   public final long getMaxIdle() {
+      return maxIdle;
+   }
+
+   @Override
+   public final long getExpiryTime() {
+      return min(created + lifespan, lastUsed + maxIdle);
+   }
+
+   @Override
+   public final void touch(long currentTimeMillis) {
+      lastUsed = currentTimeMillis;
+   }
+
+   @Override
+   public void reincarnate(long now) {
+      this.created = now;
+   }
+
+   @Override
+   protected void updateExpiration(long lifespan, long maxIdle) {
+      this.lifespan = lifespan;
+      this.maxIdle = maxIdle;
+   }
+
+   @Override
+   public InternalCacheValue toInternalCacheValue() {
+      return new MetadataTransientMortalCacheValue(value, getMetadata(), created, lastUsed);
+   }
+}
@@ -142,6 +142,16 @@ public Iterator<InternalCacheEntry<K, V>> iteratorIncludingExpired(IntSet segmen
       return delegate().iteratorIncludingExpired(segments);
    }
 
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> expiredIterator(long currentTime) {
+      return delegate().expiredIterator(currentTime);
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> expiredIterator(IntSet segments, long currentTime) {
+      return delegate().expiredIterator(segments, currentTime);
+   }
+
    @Override
    public void forEach(Consumer<? super InternalCacheEntry<K, V>> action) {
       delegate().forEach(action);
@@ -203,6 +213,11 @@ public long evictionSize() {
       return delegate().evictionSize();
    }
 
+   @Override
+   public long getSegmentMemoryUsage(int segment) {
+      return delegate().getSegmentMemoryUsage(segment);
+   }
+
    @Override
    public void resize(long newSize) {
       delegate().resize(newSize);
@@ -25,6 +25,7 @@
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.commons.util.PeekableMap;
 import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.StorageType;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.distribution.ch.KeyPartitioner;
@@ -42,12 +43,6 @@
 import org.infinispan.util.concurrent.CompletionStages;
 import org.infinispan.util.concurrent.DataOperationOrderer;
 import org.infinispan.util.concurrent.DataOperationOrderer.Operation;
-import org.infinispan.util.concurrent.WithinThreadExecutor;
-
-import com.github.benmanes.caffeine.cache.CacheWriter;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.RemovalCause;
-import com.github.benmanes.caffeine.cache.RemovalListener;
 
 /**
  * Abstract class implemenation for a segmented data container. All methods delegate to
@@ -71,6 +66,8 @@
    @Inject protected DataOperationOrderer orderer;
 
    protected boolean hasPassivation;
+   // Only present when the expiration reaper runs, and never with off heap as it would keep a copy of the keys in heap
+   protected ExpirationIndex<K, V> expirationIndex;
 
    protected final List<Consumer<Iterable<InternalCacheEntry<K, V>>>> listeners = new CopyOnWriteArrayList<>();
 
@@ -80,6 +77,10 @@
    @Start
    public void start() {
       hasPassivation = configuration.persistence().passivation();
+      if (configuration.expiration().reaperEnabled() && configuration.expiration().wakeUpInterval() > 0 &&
+            configuration.memory().storageType() != StorageType.OFF_HEAP) {
+         expirationIndex = new ExpirationIndex<>(this);
+      }
    }
 
    @Override
@@ -130,6 +131,8 @@ public void put(int segment, K k, V v, Metadata metadata, long createdTimestamp,
             l1Entry = true;
          }
          InternalCacheEntry<K, V> e = entries.get(k);
+         // The update may change the metadata of the existing entry in place
+         long oldExpiryTime = indexedExpiryTime(e);
 
          if (trace) {
             log.tracef("Creating new ICE for writing. Existing=%s, metadata=%s, new value=%s", e, metadata, toStr(v));
@@ -154,6 +157,7 @@ public void put(int segment, K k, V v, Metadata metadata, long createdTimestamp,
             log.tracef("Store %s=%s in container", k, copy);
 
          entries.put(k, copy);
+         reindexExpiration(segment, k, oldExpiryTime, copy);
       } else {
          log.tracef("Insertion attempted for key: %s but there was no map created for it at segment: %d", k, segment);
       }
@@ -191,6 +195,7 @@ public InternalCacheEntry<K, V> remove(int segment, Object k) {
          if (trace) {
             log.tracef("Removed %s=%s from container", k, e);
          }
+         removeExpirationIndex(k, e);
 
          return e == null || (e.canExpire() && e.isExpired(timeService.wallClockTime())) ? null : e;
       }
@@ -216,6 +221,7 @@ public CompletionStage<Void> evict(int segment, K key) {
          // - we don't need eviction manager either as it is handled in NotifyHelper
          evictionStageRef.set(handleEviction(entry, null, passivator.running(), null, this, null));
          computeEntryRemoved(o, entry);
+         removeExpirationIndex(o, entry);
          return null;
       });
       return evictionStageRef.get();
@@ -230,14 +236,18 @@ public void evict(K key) {
    public InternalCacheEntry<K, V> compute(int segment, K key, DataContainer.ComputeAction<K, V> action) {
       ConcurrentMap<K, InternalCacheEntry<K, V>> entries = getMapForSegment(segment);
       return entries != null ? entries.compute(key, (k, oldEntry) -> {
+         // The action may change the metadata of the existing entry in place
+         long oldExpiryTime = indexedExpiryTime(oldEntry);
          InternalCacheEntry<K, V> newEntry = action.compute(k, oldEntry, entryFactory);
          if (newEntry == oldEntry) {
             return oldEntry;
          } else if (newEntry == null) {
             computeEntryRemoved(k, oldEntry);
+            removeExpirationIndex(k, oldEntry);
             return null;
          }
          computeEntryWritten(k, newEntry);
+         reindexExpiration(segment, k, oldExpiryTime, newEntry);
          if (trace)
             log.tracef("Store %s in container", newEntry);
          return newEntry;
@@ -257,6 +267,74 @@ public void clear(IntSet segments) {
             map.clear();
          }
       });
+      removeExpirationIndex(segments);
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> expiredIterator(long currentTime) {
+      if (expirationIndex == null) {
+         return InternalDataContainer.super.expiredIterator(currentTime);
+      }
+      return expirationIndex.expiredIterator(null, currentTime);
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> expiredIterator(IntSet segments, long currentTime) {
+      if (expirationIndex == null) {
+         return InternalDataContainer.super.expiredIterator(segments, currentTime);
+      }
+      return expirationIndex.expiredIterator(segments, currentTime);
+   }
+
+   /**
+    * Records when the entry expires, so that the reaper can find it without iterating over the whole container. The
+    * key is dropped from the bucket of the entry it replaced first, so that keys written often don't leave a stale node
+    * in the index for every expiration time they had
+    * @param segment the segment of the key
+    * @param key the key of the entry
+    * @param oldExpiryTime the expiration time of the previous entry, as returned by {@link #indexedExpiryTime}
+    * @param entry the entry just written
+    */
+   protected void reindexExpiration(int segment, K key, long oldExpiryTime, InternalCacheEntry<K, V> entry) {
+      if (expirationIndex == null) {
+         return;
+      }
+      long expiryTime = indexedExpiryTime(entry);
+      if (oldExpiryTime >= 0 &&
+            (expiryTime < 0 || oldExpiryTime / ExpirationIndex.RESOLUTION != expiryTime / ExpirationIndex.RESOLUTION)) {
+         expirationIndex.remove(key, oldExpiryTime);
+      }
+      if (expiryTime >= 0) {
+         expirationIndex.add(segment, key, expiryTime);
+      }
+   }
+
+   /**
+    * @return the expiration time the entry is indexed with, or -1 if it is not indexed
+    */
+   protected long indexedExpiryTime(InternalCacheEntry<K, V> entry) {
+      return expirationIndex != null && entry != null && entry.canExpire() ? entry.getExpiryTime() : -1;
+   }
+
+   /**
+    * Drops the keys of the given segments from the expiration index, after their entries were removed
+    * @param segments the removed segments
+    */
+   protected void removeExpirationIndex(IntSet segments) {
+      if (expirationIndex != null) {
+         expirationIndex.removeSegments(segments);
+      }
+   }
+
+   /**
+    * Drops the key of a removed entry from the expiration index, if it was indexed
+    * @param key the key of the entry
+    * @param entry the removed entry, may be null
+    */
+   protected void removeExpirationIndex(Object key, InternalCacheEntry<K, V> entry) {
+      if (expirationIndex != null && entry != null && entry.canExpire()) {
+         expirationIndex.remove((K) key, entry.getExpiryTime());
+      }
    }
 
    /**
@@ -327,32 +405,6 @@ protected InternalCacheEntry<K, V> getNext() {
       }
    }
 
-   protected Caffeine<K, InternalCacheEntry<K, V>> applyListener(Caffeine<K, InternalCacheEntry<K, V>> caffeine,
-         DefaultEvictionListener listener, CacheWriter<K, InternalCacheEntry<K, V>> additionalWriter) {
-      return caffeine.executor(new WithinThreadExecutor()).writer(new CacheWriter<K, InternalCacheEntry<K, V>>() {
-         @Override
-         public void write(K key, InternalCacheEntry<K, V> value) {
-            if (additionalWriter != null) {
-               additionalWriter.write(key, value);
-            }
-         }
-
-         @Override
-         public void delete(K key, InternalCacheEntry<K, V> value, RemovalCause cause) {
-            if (additionalWriter != null) {
-               additionalWriter.delete(key, value, cause);
-            }
-            if (cause == RemovalCause.SIZE) {
-               listener.onEntryChosenForEviction(key, value);
-            }
-         }
-      }).removalListener(listener);
-   }
-
-   static <K, V> Caffeine<K, V> caffeineBuilder() {
-      return (Caffeine<K, V>) Caffeine.newBuilder();
-   }
-
    /**
     * Performs the eviction logic, except it doesn't actually remove the entry from the data container.
     *
@@ -453,10 +505,12 @@ private static <K, V> CompletionStage<Void> handleNotificationAndOrderer(K key,
       return stage;
    }
 
-   final class DefaultEvictionListener implements RemovalListener<K, InternalCacheEntry<K, V>> {
+   final class DefaultEvictionListener implements TinyLfuEviction.Listener<K, V> {
       Map<Object, CompletableFuture<Void>> ensureEvictionDone = new ConcurrentHashMap<>();
 
-      void onEntryChosenForEviction(K key, InternalCacheEntry<K, V> value) {
+      @Override
+      public void onEntryChosenForEviction(K key, InternalCacheEntry<K, V> value) {
+         removeExpirationIndex(key, value);
          // Schedule an eviction to happen after the key lock is released
          CompletableFuture<Void> future = new CompletableFuture<>();
          ensureEvictionDone.put(key, future);
@@ -467,12 +521,10 @@ void onEntryChosenForEviction(K key, InternalCacheEntry<K, V> value) {
       // It is very important that the fact that this method is invoked AFTER the entry has been evicted outside of the
       // lock. This way we can see if the entry has been updated concurrently with an eviction properly
       @Override
-      public void onRemoval(K key, InternalCacheEntry<K, V> value, RemovalCause cause) {
-         if (cause == RemovalCause.SIZE) {
-            CompletableFuture<Void> future = ensureEvictionDone.remove(key);
-            if (future != null) {
-               future.complete(null);
-            }
+      public void onEntryEvicted(K key, InternalCacheEntry<K, V> value) {
+         CompletableFuture<Void> future = ensureEvictionDone.remove(key);
+         if (future != null) {
+            future.complete(null);
          }
       }
    }
@@ -0,0 +1,402 @@
+package org.infinispan.container.impl;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.infinispan.commons.util.ByRef;
+import org.infinispan.commons.util.PeekableMap;
+import org.infinispan.container.entries.InternalCacheEntry;
+
+/**
+ * Map of entries bounded by a {@link TinyLfuEviction}. Entries are stored in a {@link ConcurrentHashMap} and every
+ * write or removal is recorded in the eviction stripe of the key while holding the map lock for that key, so that
+ * the stripes always track exactly the keys in the map. Entries may be evicted by any write once the total weight
+ * of the maps sharing the same eviction exceeds the maximum.
+ * <p>
+ * {@link #get(Object)} records a use of the entry, while {@link #peek(Object)} does not.
+ * <p>
+ * Closing the map releases its share of the total weight and forgets its keys, without removing its entries.
+ * @since 10.1
+ */
+final class BoundedEntryMap<K, V> extends AbstractMap<K, InternalCacheEntry<K, V>>
+      implements ConcurrentMap<K, InternalCacheEntry<K, V>>, PeekableMap<K, InternalCacheEntry<K, V>>, AutoCloseable {
+   private final TinyLfuEviction<K, V> eviction;
+   private final ConcurrentHashMap<K, InternalCacheEntry<K, V>> entries = new ConcurrentHashMap<>();
+   private final TinyLfuEviction.Stripe<K, V>[] stripes;
+   private final int stripeMask;
+   private Values values;
+   private KeySet keySet;
+   private EntrySet entrySet;
+
+   @SuppressWarnings("unchecked")
+   BoundedEntryMap(TinyLfuEviction<K, V> eviction, int stripeCount) {
+      this.eviction = eviction;
+      this.stripes = new TinyLfuEviction.Stripe[stripeCount];
+      for (int i = 0; i < stripeCount; ++i) {
+         stripes[i] = new TinyLfuEviction.Stripe<>(eviction, this);
+      }
+      this.stripeMask = stripeCount - 1;
+      eviction.register(stripes);
+   }
+
+   /**
+    * @return the total weight of the entries in this map, which is their size in bytes unless the eviction counts them
+    */
+   long weightedSize() {
+      long weight = 0;
+      for (TinyLfuEviction.Stripe<K, V> stripe : stripes) {
+         weight += stripe.weight();
+      }
+      return weight;
+   }
+
+   private TinyLfuEviction.Stripe<K, V> stripeFor(Object key) {
+      if (stripeMask == 0) {
+         return stripes[0];
+      }
+      int h = key.hashCode();
+      return stripes[(h ^ (h >>> 16)) & stripeMask];
+   }
+
+   /**
+    * Removes the entry for the given key, notifying the eviction listener
+    * @return whether the entry was evicted
+    */
+   @SuppressWarnings("unchecked")
+   boolean evictEntry(TinyLfuEviction.Stripe<K, V> stripe, Object key) {
+      ByRef<InternalCacheEntry<K, V>> evicted = new ByRef<>(null);
+      entries.computeIfPresent((K) key, (k, entry) -> {
+         stripe.recordRemoval(k);
+         eviction.listener().onEntryChosenForEviction(k, entry);
+         evicted.set(entry);
+         return null;
+      });
+      InternalCacheEntry<K, V> entry = evicted.get();
+      if (entry != null) {
+         eviction.listener().onEntryEvicted(entry.getKey(), entry);
+         return true;
+      }
+      return false;
+   }
+
+   private InternalCacheEntry<K, V> recordCompute(K key, InternalCacheEntry<K, V> oldValue,
+         InternalCacheEntry<K, V> newValue) {
+      TinyLfuEviction.Stripe<K, V> stripe = stripeFor(key);
+      if (newValue == null) {
+         if (oldValue != null) {
+            stripe.recordRemoval(key);
+         }
+      } else if (newValue == oldValue) {
+         stripe.recordAccess(key);
+      } else {
+         stripe.recordWrite(key, eviction.weigh(key, newValue));
+      }
+      return newValue;
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> get(Object key) {
+      InternalCacheEntry<K, V> value = entries.get(key);
+      if (value != null) {
+         stripeFor(key).recordAccess(key);
+      }
+      return value;
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> peek(Object key) {
+      return entries.get(key);
+   }
+
+   @Override
+   public boolean containsKey(Object key) {
+      return entries.containsKey(key);
+   }
+
+   @Override
+   public int size() {
+      return entries.size();
+   }
+
+   @Override
+   public boolean isEmpty() {
+      return entries.isEmpty();
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> put(K key, InternalCacheEntry<K, V> value) {
+      Objects.requireNonNull(value);
+      ByRef<InternalCacheEntry<K, V>> previous = new ByRef<>(null);
+      entries.compute(key, (k, oldValue) -> {
+         previous.set(oldValue);
+         return recordCompute(k, oldValue, value);
+      });
+      eviction.evict();
+      return previous.get();
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> putIfAbsent(K key, InternalCacheEntry<K, V> value) {
+      Objects.requireNonNull(value);
+      ByRef<InternalCacheEntry<K, V>> previous = new ByRef<>(null);
+      entries.compute(key, (k, oldValue) -> {
+         previous.set(oldValue);
+         return oldValue != null ? oldValue : recordCompute(k, null, value);
+      });
+      eviction.evict();
+      return previous.get();
+   }
+
+   @SuppressWarnings("unchecked")
+   @Override
+   public InternalCacheEntry<K, V> remove(Object key) {
+      ByRef<InternalCacheEntry<K, V>> previous = new ByRef<>(null);
+      entries.computeIfPresent((K) key, (k, oldValue) -> {
+         previous.set(oldValue);
+         return recordCompute(k, oldValue, null);
+      });
+      return previous.get();
+   }
+
+   @SuppressWarnings("unchecked")
+   @Override
+   public boolean remove(Object key, Object value) {
+      ByRef.Boolean removed = new ByRef.Boolean(false);
+      entries.computeIfPresent((K) key, (k, oldValue) -> {
+         if (!oldValue.equals(value)) {
+            return oldValue;
+         }
+         removed.set(true);
+         return recordCompute(k, oldValue, null);
+      });
+      return removed.get();
+   }
+
+   @Override
+   public boolean replace(K key, InternalCacheEntry<K, V> oldValue, InternalCacheEntry<K, V> newValue) {
+      Objects.requireNonNull(newValue);
+      ByRef.Boolean replaced = new ByRef.Boolean(false);
+      entries.computeIfPresent(key, (k, currentValue) -> {
+         if (!currentValue.equals(oldValue)) {
+            return currentValue;
+         }
+         replaced.set(true);
+         return recordCompute(k, currentValue, newValue);
+      });
+      eviction.evict();
+      return replaced.get();
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> replace(K key, InternalCacheEntry<K, V> value) {
+      Objects.requireNonNull(value);
+      ByRef<InternalCacheEntry<K, V>> previous = new ByRef<>(null);
+      entries.computeIfPresent(key, (k, oldValue) -> {
+         previous.set(oldValue);
+         return recordCompute(k, oldValue, value);
+      });
+      eviction.evict();
+      return previous.get();
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> compute(K key,
+         BiFunction<? super K, ? super InternalCacheEntry<K, V>, ? extends InternalCacheEntry<K, V>> remappingFunction) {
+      InternalCacheEntry<K, V> value = entries.compute(key,
+            (k, oldValue) -> recordCompute(k, oldValue, remappingFunction.apply(k, oldValue)));
+      eviction.evict();
+      return value;
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> computeIfPresent(K key,
+         BiFunction<? super K, ? super InternalCacheEntry<K, V>, ? extends InternalCacheEntry<K, V>> remappingFunction) {
+      InternalCacheEntry<K, V> value = entries.computeIfPresent(key,
+            (k, oldValue) -> recordCompute(k, oldValue, remappingFunction.apply(k, oldValue)));
+      eviction.evict();
+      return value;
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> computeIfAbsent(K key,
+         Function<? super K, ? extends InternalCacheEntry<K, V>> mappingFunction) {
+      InternalCacheEntry<K, V> value = entries.computeIfAbsent(key,
+            k -> recordCompute(k, null, mappingFunction.apply(k)));
+      eviction.evict();
+      return value;
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> merge(K key, InternalCacheEntry<K, V> value,
+         BiFunction<? super InternalCacheEntry<K, V>, ? super InternalCacheEntry<K, V>, ? extends InternalCacheEntry<K, V>> remappingFunction) {
+      Objects.requireNonNull(value);
+      return compute(key, (k, oldValue) -> oldValue == null ? value : remappingFunction.apply(oldValue, value));
+   }
+
+   @Override
+   public void forEach(BiConsumer<? super K, ? super InternalCacheEntry<K, V>> action) {
+      entries.forEach(action);
+   }
+
+   /**
+    * Removes the entries one by one, so that concurrent writes are tracked consistently
+    */
+   @Override
+   public void clear() {
+      for (K key : entries.keySet()) {
+         remove(key);
+      }
+   }
+
+   @Override
+   public void close() {
+      eviction.unregister(this);
+   }
+
+   @Override
+   public Set<K> keySet() {
+      KeySet keySet = this.keySet;
+      return keySet != null ? keySet : (this.keySet = new KeySet());
+   }
+
+   @Override
+   public Collection<InternalCacheEntry<K, V>> values() {
+      Values values = this.values;
+      return values != null ? values : (this.values = new Values());
+   }
+
+   @Override
+   public Set<Entry<K, InternalCacheEntry<K, V>>> entrySet() {
+      EntrySet entrySet = this.entrySet;
+      return entrySet != null ? entrySet : (this.entrySet = new EntrySet());
+   }
+
+   /**
+    * Iterator over the entries of the map, where removing goes through the map so the eviction is updated
+    */
+   private abstract class BoundedIterator<E> implements Iterator<E> {
+      private final Iterator<Entry<K, InternalCacheEntry<K, V>>> iterator = entries.entrySet().iterator();
+      private K lastKey;
+
+      @Override
+      public boolean hasNext() {
+         return iterator.hasNext();
+      }
+
+      @Override
+      public E next() {
+         Entry<K, InternalCacheEntry<K, V>> entry = iterator.next();
+         lastKey = entry.getKey();
+         return convert(entry);
+      }
+
+      @Override
+      public void remove() {
+         if (lastKey == null) {
+            throw new IllegalStateException();
+         }
+         BoundedEntryMap.this.remove(lastKey);
+         lastKey = null;
+      }
+
+      abstract E convert(Entry<K, InternalCacheEntry<K, V>> entry);
+   }
+
+   private final class KeySet extends AbstractSet<K> {
+      @Override
+      public Iterator<K> iterator() {
+         return new BoundedIterator<K>() {
+            @Override
+            K convert(Entry<K, InternalCacheEntry<K, V>> entry) {
+               return entry.getKey();
+            }
+         };
+      }
+
+      @Override
+      public Spliterator<K> spliterator() {
+         return entries.keySet().spliterator();
+      }
+
+      @Override
+      public int size() {
+         return entries.size();
+      }
+
+      @Override
+      public boolean contains(Object o) {
+         return entries.containsKey(o);
+      }
+
+      @Override
+      public boolean remove(Object o) {
+         return BoundedEntryMap.this.remove(o) != null;
+      }
+
+      @Override
+      public void clear() {
+         BoundedEntryMap.this.clear();
+      }
+   }
+
+   private final class Values extends AbstractCollection<InternalCacheEntry<K, V>> {
+      @Override
+      public Iterator<InternalCacheEntry<K, V>> iterator() {
+         return new BoundedIterator<InternalCacheEntry<K, V>>() {
+            @Override
+            InternalCacheEntry<K, V> convert(Entry<K, InternalCacheEntry<K, V>> entry) {
+               return entry.getValue();
+            }
+         };
+      }
+
+      @Override
+      public Spliterator<InternalCacheEntry<K, V>> spliterator() {
+         return entries.values().spliterator();
+      }
+
+      @Override
+      public int size() {
+         return entries.size();
+      }
+
+      @Override
+      public void clear() {
+         BoundedEntryMap.this.clear();
+      }
+   }
+
+   private final class EntrySet extends AbstractSet<Entry<K, InternalCacheEntry<K, V>>> {
+      @Override
+      public Iterator<Entry<K, InternalCacheEntry<K, V>>> iterator() {
+         return new BoundedIterator<Entry<K, InternalCacheEntry<K, V>>>() {
+            @Override
+            Entry<K, InternalCacheEntry<K, V>> convert(Entry<K, InternalCacheEntry<K, V>> entry) {
+               // Writing through the entry would bypass the eviction
+               return new SimpleImmutableEntry<>(entry);
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return entries.size();
+      }
+
+      @Override
+      public void clear() {
+         BoundedEntryMap.this.clear();
+      }
+   }
+}
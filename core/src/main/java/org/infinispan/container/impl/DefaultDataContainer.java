@@ -2,7 +2,6 @@
 
 import java.lang.invoke.MethodHandles;
 import java.util.Iterator;
-import java.util.Optional;
 import java.util.Spliterator;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -15,14 +14,8 @@
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.container.entries.CacheEntrySizeCalculator;
 import org.infinispan.container.entries.InternalCacheEntry;
-import org.infinispan.container.entries.PrimitiveEntrySizeCalculator;
 import org.infinispan.eviction.EvictionType;
 import org.infinispan.factories.annotations.Stop;
-import org.infinispan.marshall.core.WrappedByteArraySizeCalculator;
-
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.Policy;
 
 import net.jcip.annotations.ThreadSafe;
 
@@ -43,32 +36,16 @@
    private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
 
    private final ConcurrentMap<K, InternalCacheEntry<K, V>> entries;
-   private final Cache<K, InternalCacheEntry<K, V>> evictionCache;
+   private final TinyLfuEviction<K, V> eviction;
 
    public DefaultDataContainer(int concurrencyLevel) {
       // If no comparing implementations passed, could fallback on JDK CHM
       entries = new ConcurrentHashMap<>(128);
-      evictionCache = null;
+      eviction = null;
    }
 
    protected DefaultDataContainer(int concurrencyLevel, long thresholdSize, EvictionType thresholdPolicy) {
-      DefaultEvictionListener evictionListener = new DefaultEvictionListener();
-      Caffeine<K, InternalCacheEntry<K, V>> caffeine = caffeineBuilder();
-
-      switch (thresholdPolicy) {
-         case MEMORY:
-            CacheEntrySizeCalculator<K, V> calc = new CacheEntrySizeCalculator<>(new WrappedByteArraySizeCalculator<>(
-                  new PrimitiveEntrySizeCalculator()));
-            caffeine.weigher((k, v) -> (int) calc.calculateSize(k, v)).maximumWeight(thresholdSize);
-            break;
-         case COUNT:
-            caffeine.maximumSize(thresholdSize);
-            break;
-         default:
-            throw new UnsupportedOperationException("Policy not supported: " + thresholdPolicy);
-      }
-      evictionCache = applyListener(caffeine, evictionListener, null).build();
-      entries = evictionCache.asMap();
+      this(new TinyLfuEviction<>(thresholdSize, thresholdPolicy));
    }
 
    /**
@@ -89,14 +66,14 @@ protected DefaultDataContainer(int concurrencyLevel, long thresholdSize,
     */
    protected DefaultDataContainer(long thresholdSize,
          EntrySizeCalculator<? super K, ? super InternalCacheEntry<K, V>> sizeCalculator) {
-      DefaultEvictionListener evictionListener = new DefaultEvictionListener();
-
-      evictionCache = applyListener(Caffeine.newBuilder()
-            .weigher((K k, InternalCacheEntry<K, V> v) -> (int) sizeCalculator.calculateSize(k, v))
-            .maximumWeight(thresholdSize), evictionListener, null)
-            .build();
+      this(new TinyLfuEviction<>(thresholdSize, sizeCalculator));
+   }
 
-      entries = evictionCache.asMap();
+   private DefaultDataContainer(TinyLfuEviction<K, V> eviction) {
+      this.eviction = eviction;
+      eviction.setListener(new DefaultEvictionListener());
+      // All the entries share the same map, so split the eviction state in stripes to reduce contention
+      entries = eviction.newStripedMap();
    }
 
    public static <K, V> DefaultDataContainer<K, V> boundedDataContainer(int concurrencyLevel, long maxEntries,
@@ -124,26 +101,21 @@ protected int getSegmentForKey(Object key) {
       return -1;
    }
 
-   private Policy.Eviction<K, InternalCacheEntry<K, V>> eviction() {
-      if (evictionCache != null) {
-         Optional<Policy.Eviction<K, InternalCacheEntry<K, V>>> eviction = evictionCache.policy().eviction();
-         if (eviction.isPresent()) {
-            return eviction.get();
-         }
+   private TinyLfuEviction<K, V> eviction() {
+      if (eviction == null) {
+         throw new UnsupportedOperationException();
       }
-      throw new UnsupportedOperationException();
+      return eviction;
    }
 
    @Override
    public long capacity() {
-      Policy.Eviction<K, InternalCacheEntry<K, V>> evict = eviction();
-      return evict.getMaximum();
+      return eviction().maximum();
    }
 
    @Override
    public void resize(long newSize) {
-      Policy.Eviction<K, InternalCacheEntry<K, V>> evict = eviction();
-      evict.setMaximum(newSize);
+      eviction().resize(newSize);
    }
 
    @Override
@@ -164,6 +136,10 @@ public void clear(IntSet segments) {
    @Override
    public void clear() {
       log.tracef("Clearing data container");
+      // Clear the index first, so that a concurrent write can't leave an entry that is not indexed
+      if (expirationIndex != null) {
+         expirationIndex.clear();
+      }
       entries.clear();
    }
 
@@ -213,8 +189,7 @@ public Iterator<InternalCacheEntry<K, V>> iteratorIncludingExpired(IntSet segmen
 
    @Override
    public long evictionSize() {
-      Policy.Eviction<K, InternalCacheEntry<K, V>> evict = eviction();
-      return evict.weightedSize().orElse(entries.size());
+      return eviction().weightedSize();
    }
 
    @Override
@@ -229,9 +204,9 @@ public void removeSegments(IntSet segments) {
 
    @Override
    public void cleanUp() {
-      // Caffeine may not evict an entry right away if concurrent threads are writing, so this forces a cleanUp
-      if (evictionCache != null) {
-         evictionCache.cleanUp();
+      // Writers evict entries themselves, this only catches up if they gave up due to concurrent removals
+      if (eviction != null) {
+         eviction.evict();
       }
    }
 }
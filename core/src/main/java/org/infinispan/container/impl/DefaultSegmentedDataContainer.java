@@ -206,6 +206,10 @@ public int sizeIncludingExpired() {
 
    @Override
    public void clear() {
+      // Clear the index first, so that a concurrent write can't leave an entry that is not indexed
+      if (expirationIndex != null) {
+         expirationIndex.clear();
+      }
       for (int i = 0; i < maps.length(); ++i) {
          ConcurrentMap<K, InternalCacheEntry<K, V>> map = maps.get(i);
          if (map != null) {
@@ -251,6 +255,7 @@ public void removeSegments(IntSet segments) {
             int segment = segmentIterator.nextInt();
             stopMap(segment, true);
          }
+         removeExpirationIndex(segments);
       }
    }
 
@@ -0,0 +1,184 @@
+package org.infinispan.container.impl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.infinispan.commons.util.AbstractIterator;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.container.entries.InternalCacheEntry;
+
+/**
+ * Index of the keys of the entries that can expire, ordered by the time they are due. This way the expiration reaper
+ * only has to visit the entries that may have expired, instead of iterating over the whole container.
+ * <p>
+ * The index works like a timing wheel: keys are grouped in buckets spanning {@link #RESOLUTION} milliseconds and only
+ * the buckets up to the current time are visited. Adding a key is a lookup in a skip list of buckets, whose
+ * number only depends on how spread out the expiration times are, plus an insertion in a concurrent map.
+ * <p>
+ * The index only contains hints: a key is added whenever an entry that can expire is written, but it is not always
+ * removed when the entry is removed or updated, and touching a transient entry doesn't move it. Every key due is
+ * therefore checked against the container when visited, keys of entries that are gone are dropped and keys of entries
+ * that expire later than indexed are moved to the bucket of their current expiration time.
+ * @since 10.1
+ */
+final class ExpirationIndex<K, V> {
+   static final long RESOLUTION = 1000;
+
+   private final InternalDataContainer<K, V> container;
+   // Bucket number -> key -> segment of the key
+   private final ConcurrentSkipListMap<Long, ConcurrentMap<K, Integer>> buckets = new ConcurrentSkipListMap<>();
+
+   ExpirationIndex(InternalDataContainer<K, V> container) {
+      this.container = container;
+   }
+
+   /**
+    * Records that the entry for the given key expires at the given time.
+    * @param segment the segment of the key
+    * @param key the key of the entry
+    * @param expiryTime when the entry expires, in milliseconds
+    */
+   void add(int segment, K key, long expiryTime) {
+      Long bucketNumber = expiryTime / RESOLUTION;
+      while (true) {
+         ConcurrentMap<K, Integer> bucket = buckets.computeIfAbsent(bucketNumber, ignore -> new ConcurrentHashMap<>());
+         bucket.put(key, segment);
+         // The reaper may have just dropped the bucket because it was empty, in which case the key has to be added
+         // to a new one
+         if (buckets.get(bucketNumber) == bucket) {
+            return;
+         }
+      }
+   }
+
+   /**
+    * Removes the key of an entry that is no longer in the container. The key is only found if the entry was not
+    * touched since it was indexed, otherwise it will be dropped once it is due.
+    * @param key the key of the entry
+    * @param expiryTime when the entry was going to expire, in milliseconds
+    */
+   void remove(K key, long expiryTime) {
+      ConcurrentMap<K, Integer> bucket = buckets.get(expiryTime / RESOLUTION);
+      if (bucket != null) {
+         bucket.remove(key);
+      }
+   }
+
+   /**
+    * Removes the keys of the given segments, once the container no longer holds their entries.
+    * @param segments the segments removed from the container
+    */
+   void removeSegments(IntSet segments) {
+      for (ConcurrentMap<K, Integer> bucket : buckets.values()) {
+         bucket.values().removeIf(segments::contains);
+      }
+   }
+
+   void clear() {
+      buckets.clear();
+   }
+
+   /**
+    * @return the number of keys in the index
+    */
+   int size() {
+      int size = 0;
+      for (ConcurrentMap<K, Integer> bucket : buckets.values()) {
+         size += bucket.size();
+      }
+      return size;
+   }
+
+   /**
+    * Returns the entries whose keys are due at the given time and that are expired. The keys of the returned entries
+    * are moved to the next bucket, so they are checked again in case the caller decides the entry should not expire
+    * yet.
+    * @param segments the segments of the entries to return, or {@code null} for all of them
+    * @param currentTime the current time, in milliseconds
+    * @return iterator over the expired entries
+    */
+   Iterator<InternalCacheEntry<K, V>> expiredIterator(IntSet segments, long currentTime) {
+      return new ExpiredIterator(segments, currentTime);
+   }
+
+   private class ExpiredIterator extends AbstractIterator<InternalCacheEntry<K, V>> {
+      private final IntSet segments;
+      private final long currentTime;
+      private final long currentBucketNumber;
+      private final Iterator<Map.Entry<Long, ConcurrentMap<K, Integer>>> bucketIterator;
+
+      private Long bucketNumber;
+      private ConcurrentMap<K, Integer> bucket;
+      private Iterator<Map.Entry<K, Integer>> keyIterator;
+
+      ExpiredIterator(IntSet segments, long currentTime) {
+         this.segments = segments;
+         this.currentTime = currentTime;
+         this.currentBucketNumber = currentTime / RESOLUTION;
+         ConcurrentNavigableMap<Long, ConcurrentMap<K, Integer>> due = buckets.headMap(currentBucketNumber, true);
+         // Copy the due buckets, so that buckets created during the iteration are not visited
+         this.bucketIterator = new ArrayList<>(due.entrySet()).iterator();
+      }
+
+      @Override
+      protected InternalCacheEntry<K, V> getNext() {
+         while (true) {
+            while (keyIterator == null || !keyIterator.hasNext()) {
+               if (bucket != null) {
+                  dropIfEmpty(bucketNumber, bucket);
+               }
+               if (!bucketIterator.hasNext()) {
+                  bucket = null;
+                  return null;
+               }
+               Map.Entry<Long, ConcurrentMap<K, Integer>> next = bucketIterator.next();
+               bucketNumber = next.getKey();
+               bucket = next.getValue();
+               keyIterator = bucket.entrySet().iterator();
+            }
+            Map.Entry<K, Integer> keyEntry = keyIterator.next();
+            K key = keyEntry.getKey();
+            int segment = keyEntry.getValue();
+            boolean included = segments == null || segments.contains(segment);
+            if (!included && bucketNumber == currentBucketNumber) {
+               // Nothing to re-bucket, leave the key for whoever processes its segment without looking it up
+               continue;
+            }
+            InternalCacheEntry<K, V> ice = container.peek(segment, key);
+            if (ice == null || !ice.canExpire()) {
+               keyIterator.remove();
+               continue;
+            }
+            if (ice.isExpired(currentTime)) {
+               if (!included) {
+                  // Leave the key for whoever processes its segment
+                  continue;
+               }
+               // Keep the key in the next bucket, which is not visited by this iteration, in case the caller
+               // doesn't remove the entry
+               keyIterator.remove();
+               add(segment, key, (currentBucketNumber + 1) * RESOLUTION);
+               return ice;
+            }
+            if (bucketNumber != currentBucketNumber) {
+               // The entry was touched or updated since it was indexed, whatever its segment is, so that later
+               // iterations don't visit it again until it is due
+               keyIterator.remove();
+               add(segment, key, ice.getExpiryTime());
+            }
+         }
+      }
+
+      private void dropIfEmpty(Long number, ConcurrentMap<K, Integer> emptyBucket) {
+         if (emptyBucket.isEmpty() && buckets.remove(number, emptyBucket) && !emptyBucket.isEmpty()) {
+            // A key was added concurrently before the bucket was dropped, put it back
+            emptyBucket.forEach((key, segment) -> add(segment, key, number * RESOLUTION));
+         }
+      }
+   }
+}
@@ -0,0 +1,136 @@
+package org.infinispan.container.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.infinispan.commons.util.Util;
+
+/**
+ * Count-min sketch estimating how often a key was used recently, which is the frequency filter of the TinyLFU
+ * admission policy. Every key maps to four 4 bit counters, one per row, and its frequency is the smallest of them.
+ * <p>
+ * Once the number of increments reaches ten times the number of counters per row all the counters are halved, so
+ * the popularity of keys that are no longer used fades away.
+ * <p>
+ * The sketch is meant to be shared by all the threads using a container, so the counters are updated with compare
+ * and swap and no external lock is required. Lost increments due to a concurrent reset are tolerated, as the
+ * frequencies are only estimates anyway.
+ * @since 10.1
+ */
+public final class FrequencySketch {
+   // Every slot of the table is a long, so keep it below 128MB even for huge containers
+   private static final int MAXIMUM_LENGTH = 1 << 24;
+   private static final int MINIMUM_LENGTH = 16;
+   private static final long RESET_MASK = 0x7777777777777777L;
+   private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+         0xcbf29ce484222325L};
+
+   private final AtomicInteger additions = new AtomicInteger();
+   private volatile AtomicLongArray table;
+   private volatile int sampleSize;
+
+   /**
+    * @param expectedSize the number of entries the sketch should be able to tell apart
+    */
+   public FrequencySketch(long expectedSize) {
+      ensureCapacity(expectedSize);
+   }
+
+   /**
+    * Grows the sketch so that it can tell apart the given number of entries. Growing the sketch discards all the
+    * frequencies recorded so far.
+    * @param expectedSize the number of entries the sketch should be able to tell apart
+    */
+   public synchronized void ensureCapacity(long expectedSize) {
+      int length = Util.findNextHighestPowerOfTwo((int) Math.min(Math.max(expectedSize, MINIMUM_LENGTH), MAXIMUM_LENGTH));
+      AtomicLongArray current = table;
+      if (current != null && current.length() >= length) {
+         return;
+      }
+      sampleSize = 10 * length;
+      additions.set(0);
+      table = new AtomicLongArray(length);
+   }
+
+   /**
+    * @return the number of entries the sketch is able to tell apart
+    */
+   public int capacity() {
+      return table.length();
+   }
+
+   /**
+    * Returns the estimated number of times the key with the given hash code was used, up to 15.
+    * @param hashCode the hash code of the key
+    * @return how often the key was used recently
+    */
+   public int frequency(int hashCode) {
+      AtomicLongArray t = table;
+      int hash = spread(hashCode);
+      int start = (hash & 3) << 2;
+      int frequency = 15;
+      for (int i = 0; i < 4; ++i) {
+         int index = indexOf(t, hash, i);
+         int count = (int) ((t.get(index) >>> ((start + i) << 2)) & 0xfL);
+         frequency = Math.min(frequency, count);
+      }
+      return frequency;
+   }
+
+   /**
+    * Records a use of the key with the given hash code, halving all the counters when the sample size is reached.
+    * @param hashCode the hash code of the key
+    */
+   public void increment(int hashCode) {
+      AtomicLongArray t = table;
+      int hash = spread(hashCode);
+      int start = (hash & 3) << 2;
+      boolean added = false;
+      for (int i = 0; i < 4; ++i) {
+         added |= incrementAt(t, indexOf(t, hash, i), (start + i) << 2);
+      }
+      if (added && additions.incrementAndGet() >= sampleSize) {
+         reset(t);
+      }
+   }
+
+   private static boolean incrementAt(AtomicLongArray t, int index, int offset) {
+      long mask = 0xfL << offset;
+      while (true) {
+         long value = t.get(index);
+         if ((value & mask) == mask) {
+            // The counter is saturated
+            return false;
+         }
+         if (t.compareAndSet(index, value, value + (1L << offset))) {
+            return true;
+         }
+      }
+   }
+
+   private void reset(AtomicLongArray t) {
+      int current = additions.get();
+      // Only the thread that halves the number of additions halves the counters
+      if (current < sampleSize || !additions.compareAndSet(current, current >>> 1)) {
+         return;
+      }
+      for (int i = 0; i < t.length(); ++i) {
+         long value;
+         do {
+            value = t.get(i);
+         } while (!t.compareAndSet(i, value, (value >>> 1) & RESET_MASK));
+      }
+   }
+
+   private static int indexOf(AtomicLongArray t, int hash, int row) {
+      long h = (hash + SEEDS[row]) * SEEDS[row];
+      h += h >>> 32;
+      return (int) h & (t.length() - 1);
+   }
+
+   private static int spread(int x) {
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      return (x >>> 16) ^ x;
+   }
+}
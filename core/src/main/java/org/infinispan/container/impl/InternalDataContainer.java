@@ -5,6 +5,7 @@
 import java.util.concurrent.CompletionStage;
 import java.util.function.Consumer;
 
+import org.infinispan.commons.util.FilterIterator;
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.commons.util.IntSets;
 import org.infinispan.container.DataContainer;
@@ -119,6 +120,19 @@ default int size(IntSet segments) {
       return size;
    }
 
+   /**
+    * Returns how much memory is used by the entries that map to the given segment, as estimated for memory based
+    * eviction. The amount is updated on every write and removal, so it is cheap to read. This is only supported if
+    * the container is bounded by memory and stores each segment separately. An {@link UnsupportedOperationException}
+    * is thrown otherwise: unbounded and count bounded containers never compute the size of their entries, which is
+    * only possible with binary storage, and off-heap containers do not keep the size per segment.
+    * @param segment the segment
+    * @return the amount of memory in bytes used by the entries of the segment, or 0 if the segment is not owned
+    */
+   default long getSegmentMemoryUsage(int segment) {
+      throw new UnsupportedOperationException();
+   }
+
    /**
     * Returns how many entries are present in the data container that map to the given segments including any entries
     * that may be expired
@@ -173,6 +187,30 @@ default int sizeIncludingExpired(IntSet segments) {
     */
    Iterator<InternalCacheEntry<K, V>> iteratorIncludingExpired(IntSet segments);
 
+   /**
+    * Returns an iterator over the entries that are expired at the given time. Implementations may keep track of when
+    * entries expire, so that only the entries that are due are visited instead of the whole container.
+    * <p>
+    * The returned entries may be touched or updated concurrently, so callers must still verify they are expired while
+    * removing them.
+    * @param currentTime the current wall clock time in milliseconds
+    * @return iterator over the expired entries
+    */
+   default Iterator<InternalCacheEntry<K, V>> expiredIterator(long currentTime) {
+      return new FilterIterator<>(iteratorIncludingExpired(), ice -> ice.canExpire() && ice.isExpired(currentTime));
+   }
+
+   /**
+    * Same as {@link #expiredIterator(long)} except that only entries that map to the provided segments are returned.
+    * @param segments segments of entries to use
+    * @param currentTime the current wall clock time in milliseconds
+    * @return iterator over the expired entries mapped to the given segments
+    */
+   default Iterator<InternalCacheEntry<K, V>> expiredIterator(IntSet segments, long currentTime) {
+      return new FilterIterator<>(iteratorIncludingExpired(segments),
+            ice -> ice.canExpire() && ice.isExpired(currentTime));
+   }
+
    default Publisher<InternalCacheEntry<K, V>> publisher(int segment) {
       return Flowable.fromIterable(() -> iterator(IntSets.immutableSet(segment)));
    }
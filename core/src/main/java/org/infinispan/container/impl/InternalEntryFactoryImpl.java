@@ -21,6 +21,7 @@
 import org.infinispan.container.entries.metadata.MetadataTransientCacheValue;
 import org.infinispan.container.entries.metadata.MetadataTransientMortalCacheEntry;
 import org.infinispan.container.entries.metadata.MetadataTransientMortalCacheValue;
+import org.infinispan.container.entries.versioned.AbstractVersionedCacheEntry;
 import org.infinispan.container.versioning.EntryVersion;
 import org.infinispan.container.versioning.EntryVersionsMap;
 import org.infinispan.context.InvocationContext;
@@ -53,10 +54,8 @@ public InternalCacheEntry create(Object key, Object value, Metadata metadata) {
          if (lifespan < 0 && maxIdle > -1) return new TransientCacheEntry(key, value, maxIdle, timeService.wallClockTime());
          return new TransientMortalCacheEntry(key, value, maxIdle, lifespan, timeService.wallClockTime());
       } else {
-         if (lifespan < 0 && maxIdle < 0) return new MetadataImmortalCacheEntry(key, value, metadata);
-         if (lifespan > -1 && maxIdle < 0) return new MetadataMortalCacheEntry(key, value, metadata, timeService.wallClockTime());
-         if (lifespan < 0 && maxIdle > -1) return new MetadataTransientCacheEntry(key, value, metadata, timeService.wallClockTime());
-         return new MetadataTransientMortalCacheEntry(key, value, metadata, timeService.wallClockTime());
+         long ctm = timeService.wallClockTime();
+         return createMetadataAware(key, value, metadata, ctm, ctm);
       }
    }
 
@@ -90,10 +89,7 @@ public InternalCacheEntry create(Object key, Object value, EntryVersion version,
          // If no metadata passed, assumed embedded metadata
          Metadata metadata = new EmbeddedMetadata.Builder()
                .lifespan(lifespan).maxIdle(maxIdle).version(version).build();
-         if (lifespan < 0 && maxIdle < 0) return new MetadataImmortalCacheEntry(key, value, metadata);
-         if (lifespan > -1 && maxIdle < 0) return new MetadataMortalCacheEntry(key, value, metadata, created);
-         if (lifespan < 0 && maxIdle > -1) return new MetadataTransientCacheEntry(key, value, metadata, lastUsed);
-         return new MetadataTransientMortalCacheEntry(key, value, metadata, lastUsed, created);
+         return createMetadataAware(key, value, metadata, created, lastUsed);
       }
    }
 
@@ -106,12 +102,7 @@ public InternalCacheEntry create(Object key, Object value, Metadata metadata, lo
          return new TransientMortalCacheEntry(key, value, maxIdle, lifespan, lastUsed, created);
       } else {
          // Metadata to store, take lifespan and maxIdle settings from it
-         long metaLifespan = metadata.lifespan();
-         long metaMaxIdle = metadata.maxIdle();
-         if (metaLifespan < 0 && metaMaxIdle < 0) return new MetadataImmortalCacheEntry(key, value, metadata);
-         if (metaLifespan > -1 && metaMaxIdle < 0) return new MetadataMortalCacheEntry(key, value, metadata, created);
-         if (metaLifespan < 0 && metaMaxIdle > -1) return new MetadataTransientCacheEntry(key, value, metadata, lastUsed);
-         return new MetadataTransientMortalCacheEntry(key, value, metadata, lastUsed, created);
+         return createMetadataAware(key, value, metadata, created, lastUsed);
       }
    }
 
@@ -152,12 +143,8 @@ public InternalCacheEntry create(Object key, Object value, Metadata metadata, lo
          return new TransientMortalCacheEntry(key, value, maxIdle, lifespan, timeService.wallClockTime());
       } else {
          // Metadata to store, take lifespan and maxIdle settings from it
-         long metaLifespan = metadata.lifespan();
-         long metaMaxIdle = metadata.maxIdle();
-         if (metaLifespan < 0 && metaMaxIdle < 0) return new MetadataImmortalCacheEntry(key, value, metadata);
-         if (metaLifespan > -1 && metaMaxIdle < 0) return new MetadataMortalCacheEntry(key, value, metadata, timeService.wallClockTime());
-         if (metaLifespan < 0 && metaMaxIdle > -1) return new MetadataTransientCacheEntry(key, value, metadata, timeService.wallClockTime());
-         return new MetadataTransientMortalCacheEntry(key, value, metadata, timeService.wallClockTime());
+         long ctm = timeService.wallClockTime();
+         return createMetadataAware(key, value, metadata, ctm, ctm);
       }
    }
 
@@ -306,10 +293,35 @@ private InternalCacheEntry updateMetadataUnawareEntry(InternalCacheEntry ice, lo
       return ice;
    }
 
+   /**
+    * Creates an entry storing the given metadata, using one of the versioned entries when the metadata can be inlined
+    * so that no metadata or version instance is kept around.
+    */
+   private InternalCacheEntry createMetadataAware(Object key, Object value, Metadata metadata, long created, long lastUsed) {
+      if (AbstractVersionedCacheEntry.isInlinable(metadata)) {
+         return AbstractVersionedCacheEntry.create(key, value, metadata, created, lastUsed);
+      }
+      long lifespan = metadata.lifespan();
+      long maxIdle = metadata.maxIdle();
+      if (lifespan < 0 && maxIdle < 0) return new MetadataImmortalCacheEntry(key, value, metadata);
+      if (lifespan > -1 && maxIdle < 0) return new MetadataMortalCacheEntry(key, value, metadata, created);
+      if (lifespan < 0 && maxIdle > -1) return new MetadataTransientCacheEntry(key, value, metadata, lastUsed);
+      return new MetadataTransientMortalCacheEntry(key, value, metadata, lastUsed, created);
+   }
+
    private InternalCacheEntry updateMetadataAwareEntry(InternalCacheEntry ice, Metadata metadata) {
       long lifespan = metadata.lifespan();
       long maxIdle = metadata.maxIdle();
-      if (ice instanceof MetadataImmortalCacheEntry) {
+      if (ice instanceof AbstractVersionedCacheEntry) {
+         AbstractVersionedCacheEntry versionedEntry = (AbstractVersionedCacheEntry) ice;
+         if (versionedEntry.canUpdate(metadata)) {
+            versionedEntry.setMetadata(metadata);
+            return ice;
+         } else {
+            long ctm = timeService.wallClockTime();
+            return createMetadataAware(ice.getKey(), ice.getValue(), metadata, ctm, ctm);
+         }
+      } else if (ice instanceof MetadataImmortalCacheEntry) {
          if (lifespan < 0) {
             if (maxIdle < 0) {
                ice.setMetadata(metadata);
@@ -396,7 +408,8 @@ public static boolean isStoreMetadata(Metadata metadata, InternalCacheEntry ice)
 
 
    private static boolean isEntryMetadataAware(InternalCacheEntry ice) {
-      return ice instanceof MetadataImmortalCacheEntry
+      return ice instanceof AbstractVersionedCacheEntry
+            || ice instanceof MetadataImmortalCacheEntry
             || ice instanceof MetadataMortalCacheEntry
             || ice instanceof MetadataTransientCacheEntry
             || ice instanceof MetadataTransientMortalCacheEntry;
@@ -166,6 +166,7 @@ public void clear(IntSet segments) {
          IntSet finalExtraSegments = extraSegments;
          nonOwnedEntries.keySet().removeIf(k -> finalExtraSegments.contains(getSegmentForKey(k)));
       }
+      removeExpirationIndex(segments);
    }
 
    @Override
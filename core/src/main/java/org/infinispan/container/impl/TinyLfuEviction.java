@@ -0,0 +1,537 @@
+package org.infinispan.container.impl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.infinispan.commons.util.AbstractEntrySizeCalculatorHelper;
+import org.infinispan.commons.util.EntrySizeCalculator;
+import org.infinispan.commons.util.ProcessorInfo;
+import org.infinispan.commons.util.Util;
+import org.infinispan.container.entries.CacheEntrySizeCalculator;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.PrimitiveEntrySizeCalculator;
+import org.infinispan.eviction.EvictionType;
+import org.infinispan.marshall.core.WrappedByteArraySizeCalculator;
+
+/**
+ * Size based eviction for the bounded heap containers, using the W-TinyLFU policy.
+ * <p>
+ * The entries themselves are stored in {@link BoundedEntryMap}s, each map tracking its keys in one or more
+ * {@link Stripe}s. Every stripe has its own lock and its own admission window, probation and protected LRU queues,
+ * only the {@link FrequencySketch} and the total weight are shared. Recording a write only locks the stripe that owns
+ * the key, and recording a read never waits: if the stripe is busy the reordering is skipped, although the frequency
+ * is always updated. Dropping a map releases its stripes without touching any other stripe.
+ * <p>
+ * When the total weight exceeds the maximum the writing thread evicts entries itself, visiting the stripes in turn.
+ * Only the stripes weighing more than the average are visited, as long as there are any, so that the segments holding
+ * more than their share of the entries are reduced first. In each stripe the entry most recently admitted to the
+ * probation queue competes with the least recently used one, and the winners of a few stripes are compared again: the
+ * entry with the lowest estimated frequency is evicted, or the least recently used one if they are tied.
+ * <p>
+ * Every stripe keeps the weight of its own entries, which is the size in bytes of the entries unless the eviction
+ * counts them. With {@link EvictionType#MEMORY} the size of an entry includes the {@link #ENTRY_OVERHEAD} of tracking
+ * it in its stripe.
+ * @since 10.1
+ */
+final class TinyLfuEviction<K, V> {
+   private static final int DEFAULT_STRIPES = Math.min(Util.findNextHighestPowerOfTwo(ProcessorInfo.availableProcessors()) << 2, 64);
+
+   // Number of non empty stripes compared to pick each victim
+   private static final int SAMPLED_STRIPES = 4;
+
+   /**
+    * Bytes used by a stripe to track an entry: its {@link Node} plus the {@link HashMap} node and table slot mapping
+    * the key to it
+    */
+   static final long ENTRY_OVERHEAD = entryOverhead();
+
+   private static final byte WINDOW = 0;
+   private static final byte PROBATION = 1;
+   private static final byte PROTECTED = 2;
+
+   private final EntrySizeCalculator<? super K, ? super InternalCacheEntry<K, V>> sizeCalculator;
+   private final boolean countBased;
+   private final FrequencySketch sketch;
+   private final LongAdder weightedSize = new LongAdder();
+   private final LongAdder entryCount = new LongAdder();
+   private final AtomicInteger nextStripe = new AtomicInteger();
+   private volatile long maximum;
+   private volatile Stripe<K, V>[] stripes = newStripeArray(0);
+   private Listener<K, V> listener;
+
+   /**
+    * Callbacks invoked when an entry is evicted
+    */
+   interface Listener<K, V> {
+      /**
+       * Invoked while the map still holds the lock for the key, right before the entry is removed
+       */
+      void onEntryChosenForEviction(K key, InternalCacheEntry<K, V> value);
+
+      /**
+       * Invoked after the entry was removed and the lock for the key was released
+       */
+      void onEntryEvicted(K key, InternalCacheEntry<K, V> value);
+   }
+
+   TinyLfuEviction(long maximum, EvictionType evictionType) {
+      this(maximum, sizeCalculator(evictionType), evictionType == EvictionType.COUNT);
+   }
+
+   TinyLfuEviction(long maximum, EntrySizeCalculator<? super K, ? super InternalCacheEntry<K, V>> sizeCalculator) {
+      this(maximum, sizeCalculator, false);
+   }
+
+   private TinyLfuEviction(long maximum, EntrySizeCalculator<? super K, ? super InternalCacheEntry<K, V>> sizeCalculator,
+         boolean countBased) {
+      this.maximum = maximum;
+      this.sizeCalculator = sizeCalculator;
+      this.countBased = countBased;
+      // The number of entries is only known up front when counting them
+      this.sketch = new FrequencySketch(countBased ? maximum : 0);
+   }
+
+   private static <K, V> EntrySizeCalculator<K, InternalCacheEntry<K, V>> sizeCalculator(EvictionType evictionType) {
+      switch (evictionType) {
+         case MEMORY:
+            CacheEntrySizeCalculator<K, V> calculator =
+                  new CacheEntrySizeCalculator<>(new WrappedByteArraySizeCalculator<>(new PrimitiveEntrySizeCalculator()));
+            return (k, v) -> calculator.calculateSize(k, v) + ENTRY_OVERHEAD;
+         case COUNT:
+            return (k, v) -> 1;
+         default:
+            throw new UnsupportedOperationException("Policy not supported: " + evictionType);
+      }
+   }
+
+   private static long entryOverhead() {
+      int header = AbstractEntrySizeCalculatorHelper.OBJECT_SIZE + AbstractEntrySizeCalculatorHelper.POINTER_SIZE;
+      // Node has the key, previous and next references, the hash, the weight, the access time and the queue
+      long node = roundUpToNearest8(header + 3 * AbstractEntrySizeCalculatorHelper.POINTER_SIZE + 4 + 8 + 8 + 1);
+      // HashMap.Node has the key, value and next references and the hash
+      long mapNode = roundUpToNearest8(header + 3 * AbstractEntrySizeCalculatorHelper.POINTER_SIZE + 4);
+      return node + mapNode + AbstractEntrySizeCalculatorHelper.POINTER_SIZE;
+   }
+
+   private static long roundUpToNearest8(long size) {
+      return (size + 7) & ~0x7;
+   }
+
+   @SuppressWarnings("unchecked")
+   private static <K, V> Stripe<K, V>[] newStripeArray(int length) {
+      return new Stripe[length];
+   }
+
+   void setListener(Listener<K, V> listener) {
+      this.listener = listener;
+   }
+
+   /**
+    * Creates a map tracked by a single stripe, for containers that already split their entries in segments
+    */
+   BoundedEntryMap<K, V> newMap() {
+      return new BoundedEntryMap<>(this, 1);
+   }
+
+   /**
+    * Creates a map tracked by multiple stripes, for containers that store all their entries in the same map
+    */
+   BoundedEntryMap<K, V> newStripedMap() {
+      return new BoundedEntryMap<>(this, DEFAULT_STRIPES);
+   }
+
+   long maximum() {
+      return maximum;
+   }
+
+   long weightedSize() {
+      return weightedSize.sum();
+   }
+
+   /**
+    * @return whether the weight of an entry is 1 instead of its size in bytes
+    */
+   boolean isCountBased() {
+      return countBased;
+   }
+
+   void resize(long newMaximum) {
+      maximum = newMaximum;
+      if (countBased) {
+         sketch.ensureCapacity(newMaximum);
+      }
+      evict();
+   }
+
+   Listener<K, V> listener() {
+      return listener;
+   }
+
+   long weigh(K key, InternalCacheEntry<K, V> value) {
+      return sizeCalculator.calculateSize(key, value);
+   }
+
+   /**
+    * Evicts entries until the total weight is no longer above the maximum. Must not be invoked while holding the lock
+    * of any key.
+    */
+   void evict() {
+      int misses = 0;
+      while (weightedSize.sum() > maximum) {
+         Stripe<K, V>[] current = stripes;
+         if (misses > current.length) {
+            // Every stripe is empty or all the victims were removed concurrently
+            return;
+         }
+         // Compare the victims of a few stripes, so that eviction stays close to a global policy without having to
+         // lock all the stripes
+         int start = nextStripe.getAndIncrement();
+         Stripe<K, V> victimStripe = null;
+         Node victim = null;
+         int victimFrequency = 0;
+         // The stripes below the average weight are only visited if no stripe above it has a victim
+         for (long minimumWeight = current.length == 0 ? 0 : weightedSize.sum() / current.length; ; minimumWeight = 0) {
+            for (int i = 0, sampled = 0; i < current.length && sampled < SAMPLED_STRIPES; ++i) {
+               Stripe<K, V> stripe = current[Math.floorMod(start + i, current.length)];
+               if (stripe.size == 0 || stripe.weight() < minimumWeight) {
+                  continue;
+               }
+               Node candidate = stripe.selectVictim();
+               if (candidate == null) {
+                  continue;
+               }
+               sampled++;
+               int candidateFrequency = sketch.frequency(candidate.hash);
+               if (victim == null || candidateFrequency < victimFrequency ||
+                     (candidateFrequency == victimFrequency && candidate.accessTime < victim.accessTime)) {
+                  victimStripe = stripe;
+                  victim = candidate;
+                  victimFrequency = candidateFrequency;
+               }
+            }
+            if (victim != null || minimumWeight == 0) {
+               break;
+            }
+         }
+         if (victim != null && victimStripe.map.evictEntry(victimStripe, victim.key)) {
+            misses = 0;
+         } else {
+            misses++;
+         }
+      }
+   }
+
+   synchronized void register(Stripe<K, V>[] added) {
+      Stripe<K, V>[] current = stripes;
+      Stripe<K, V>[] updated = Arrays.copyOf(current, current.length + added.length);
+      System.arraycopy(added, 0, updated, current.length, added.length);
+      stripes = updated;
+   }
+
+   synchronized void unregister(BoundedEntryMap<K, V> map) {
+      Stripe<K, V>[] current = stripes;
+      Stripe<K, V>[] updated = newStripeArray(current.length);
+      int i = 0;
+      for (Stripe<K, V> stripe : current) {
+         if (stripe.map != map) {
+            updated[i++] = stripe;
+         } else {
+            stripe.release();
+         }
+      }
+      stripes = Arrays.copyOf(updated, i);
+   }
+
+   private void ensureSketchCapacity() {
+      long count = entryCount.sum();
+      if (count > sketch.capacity()) {
+         sketch.ensureCapacity(count << 1);
+      }
+   }
+
+   private static final class Node {
+      final Object key;
+      final int hash;
+      long weight;
+      long accessTime;
+      byte queue;
+      Node prev;
+      Node next;
+
+      Node(Object key, int hash) {
+         this.key = key;
+         this.hash = hash;
+      }
+   }
+
+   /**
+    * Intrusive doubly linked list of nodes, least recently used first
+    */
+   private static final class NodeQueue {
+      private final Node head = new Node(null, 0);
+
+      NodeQueue() {
+         head.prev = head.next = head;
+      }
+
+      Node first() {
+         return head.next == head ? null : head.next;
+      }
+
+      Node last() {
+         return head.prev == head ? null : head.prev;
+      }
+
+      void addLast(Node node) {
+         node.prev = head.prev;
+         node.next = head;
+         head.prev.next = node;
+         head.prev = node;
+      }
+
+      void remove(Node node) {
+         node.prev.next = node.next;
+         node.next.prev = node.prev;
+         node.prev = node.next = null;
+      }
+
+      void moveToLast(Node node) {
+         remove(node);
+         addLast(node);
+      }
+
+      void clear() {
+         head.prev = head.next = head;
+      }
+   }
+
+   /**
+    * The eviction state of a subset of the keys of a map. All the fields are guarded by the lock, although the size and
+    * the weight may be read without it.
+    */
+   static final class Stripe<K, V> {
+      final TinyLfuEviction<K, V> eviction;
+      final BoundedEntryMap<K, V> map;
+      private final ReentrantLock lock = new ReentrantLock();
+      private final Map<Object, Node> nodes = new HashMap<>();
+      private final NodeQueue window = new NodeQueue();
+      private final NodeQueue probation = new NodeQueue();
+      private final NodeQueue protectedQueue = new NodeQueue();
+      private long windowWeight;
+      private long protectedWeight;
+      // Only written while holding the lock
+      private volatile long weight;
+      private int insertions;
+      private boolean released;
+      // Read without the lock to skip empty stripes when evicting
+      private volatile int size;
+
+      Stripe(TinyLfuEviction<K, V> eviction, BoundedEntryMap<K, V> map) {
+         this.eviction = eviction;
+         this.map = map;
+      }
+
+      /**
+       * @return the total weight of the entries tracked by this stripe
+       */
+      long weight() {
+         return weight;
+      }
+
+      /**
+       * Records that the key was inserted or updated with the given weight. The caller must hold the map lock for
+       * the key.
+       */
+      void recordWrite(Object key, long entryWeight) {
+         int hash = key.hashCode();
+         long delta;
+         boolean inserted = false;
+         boolean checkSketch = false;
+         lock.lock();
+         try {
+            if (released) {
+               return;
+            }
+            Node node = nodes.get(key);
+            if (node == null) {
+               node = new Node(key, hash);
+               node.weight = entryWeight;
+               node.accessTime = System.nanoTime();
+               node.queue = WINDOW;
+               nodes.put(key, node);
+               size = nodes.size();
+               window.addLast(node);
+               windowWeight += entryWeight;
+               delta = entryWeight;
+               inserted = true;
+               checkSketch = (++insertions & 0x3f) == 0;
+            } else {
+               delta = entryWeight - node.weight;
+               node.weight = entryWeight;
+               if (node.queue == WINDOW) {
+                  windowWeight += delta;
+               } else if (node.queue == PROTECTED) {
+                  protectedWeight += delta;
+               }
+               onHit(node);
+            }
+            weight += delta;
+            balance();
+         } finally {
+            lock.unlock();
+         }
+         eviction.weightedSize.add(delta);
+         eviction.sketch.increment(hash);
+         if (inserted && !eviction.countBased) {
+            eviction.entryCount.increment();
+            if (checkSketch) {
+               eviction.ensureSketchCapacity();
+            }
+         }
+      }
+
+      /**
+       * Records a read of the key. Reordering the queues is skipped if another thread holds the stripe lock.
+       */
+      void recordAccess(Object key) {
+         eviction.sketch.increment(key.hashCode());
+         if (lock.tryLock()) {
+            try {
+               Node node = nodes.get(key);
+               if (node != null) {
+                  onHit(node);
+                  balance();
+               }
+            } finally {
+               lock.unlock();
+            }
+         }
+      }
+
+      /**
+       * Records that the key was removed. The caller must hold the map lock for the key.
+       */
+      void recordRemoval(Object key) {
+         Node node;
+         lock.lock();
+         try {
+            node = nodes.remove(key);
+            if (node == null) {
+               return;
+            }
+            size = nodes.size();
+            switch (node.queue) {
+               case WINDOW:
+                  window.remove(node);
+                  windowWeight -= node.weight;
+                  break;
+               case PROBATION:
+                  probation.remove(node);
+                  break;
+               default:
+                  protectedQueue.remove(node);
+                  protectedWeight -= node.weight;
+            }
+            weight -= node.weight;
+         } finally {
+            lock.unlock();
+         }
+         eviction.weightedSize.add(-node.weight);
+         if (!eviction.countBased) {
+            eviction.entryCount.decrement();
+         }
+      }
+
+      /**
+       * Picks the entry to evict from this stripe, without removing it
+       * @return the node of the entry to evict or null if the stripe is empty
+       */
+      Node selectVictim() {
+         lock.lock();
+         try {
+            Node victim = probation.first();
+            if (victim == null) {
+               victim = protectedQueue.first();
+               if (victim == null) {
+                  victim = window.first();
+               }
+               return victim;
+            }
+            // The most recent entry admitted from the window is only kept if it was used more often than the victim
+            Node candidate = probation.last();
+            if (candidate != victim && eviction.sketch.frequency(candidate.hash) <= eviction.sketch.frequency(victim.hash)) {
+               return candidate;
+            }
+            return victim;
+         } finally {
+            lock.unlock();
+         }
+      }
+
+      private void release() {
+         long releasedWeight;
+         int releasedCount;
+         lock.lock();
+         try {
+            released = true;
+            releasedWeight = weight;
+            releasedCount = nodes.size();
+            nodes.clear();
+            size = 0;
+            window.clear();
+            probation.clear();
+            protectedQueue.clear();
+            windowWeight = protectedWeight = weight = 0;
+         } finally {
+            lock.unlock();
+         }
+         eviction.weightedSize.add(-releasedWeight);
+         if (!eviction.countBased) {
+            eviction.entryCount.add(-releasedCount);
+         }
+      }
+
+      private void onHit(Node node) {
+         node.accessTime = System.nanoTime();
+         switch (node.queue) {
+            case WINDOW:
+               window.moveToLast(node);
+               break;
+            case PROBATION:
+               probation.remove(node);
+               node.queue = PROTECTED;
+               protectedQueue.addLast(node);
+               protectedWeight += node.weight;
+               break;
+            default:
+               protectedQueue.moveToLast(node);
+         }
+      }
+
+      /**
+       * Keeps the window at 1% of the stripe, moving the overflow to the probation queue, and the protected queue at
+       * 80% of the main space, demoting the overflow to the probation queue.
+       */
+      private void balance() {
+         long windowMaximum = Math.max(1, weight / 100);
+         Node node;
+         while (windowWeight > windowMaximum && (node = window.first()) != window.last()) {
+            window.remove(node);
+            windowWeight -= node.weight;
+            node.queue = PROBATION;
+            probation.addLast(node);
+         }
+         long protectedMaximum = (weight - windowWeight) / 5 * 4;
+         while (protectedWeight > protectedMaximum && (node = protectedQueue.first()) != null) {
+            protectedQueue.remove(node);
+            protectedWeight -= node.weight;
+            node.queue = PROBATION;
+            probation.addLast(node);
+         }
+      }
+   }
+}
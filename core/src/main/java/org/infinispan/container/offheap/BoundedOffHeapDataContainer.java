@@ -11,6 +11,7 @@
 import org.infinispan.commons.util.FilterIterator;
 import org.infinispan.commons.util.FilterSpliterator;
 import org.infinispan.commons.util.IntSet;
+import org.infinispan.configuration.cache.OffHeapEvictionPolicy;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.distribution.ch.KeyPartitioner;
 import org.infinispan.eviction.EvictionType;
@@ -32,6 +33,10 @@ public BoundedOffHeapDataContainer(long maxSize, EvictionType type) {
       super(1, maxSize, type);
    }
 
+   public BoundedOffHeapDataContainer(long maxSize, EvictionType type, OffHeapEvictionPolicy evictionPolicy) {
+      super(1, maxSize, type, evictionPolicy);
+   }
+
    @Override
    protected OffHeapConcurrentMap getMapThatContainsKey(byte[] key) {
       return (OffHeapConcurrentMap) dataContainer.getMapForSegment(0);
@@ -0,0 +1,92 @@
+package org.infinispan.container.offheap;
+
+import java.util.Arrays;
+
+import org.infinispan.commons.marshall.WrappedBytes;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Table holding the values of the entries created by {@link HybridOffHeapEntryFactoryImpl}. The off-heap entry only
+ * stores the index of its value in this table, so that the value remains a regular heap object.
+ * <p>
+ * The table is made of chunks of a fixed size that are never moved, thus growing the table never copies the values.
+ * Released indexes are reused before the table grows. Only the allocation and release of indexes are synchronized on
+ * the table, a slot is only read and written while holding the {@link OffHeapConcurrentMap} lock of the entry that
+ * references it.
+ * @since 10.1
+ */
+final class HeapValueTable {
+   private static final int CHUNK_SHIFT = 12;
+   private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+   private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+   // Readers do not synchronize on the table, so a new array is published every time a chunk is added
+   private volatile WrappedBytes[][] chunks = new WrappedBytes[0][];
+
+   @GuardedBy("this")
+   private int[] freeIndexes = new int[16];
+   @GuardedBy("this")
+   private int freeCount;
+   @GuardedBy("this")
+   private int nextIndex;
+   @GuardedBy("this")
+   private int count;
+
+   /**
+    * Stores the value in a free slot.
+    * @param value the value to store
+    * @return the index of the slot
+    */
+   int register(WrappedBytes value) {
+      int index = allocateIndex();
+      chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = value;
+      return index;
+   }
+
+   /**
+    * Returns the value stored in the given slot.
+    * @param index the index returned by {@link #register(WrappedBytes)}
+    * @return the value
+    */
+   WrappedBytes get(int index) {
+      return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+   }
+
+   /**
+    * Frees the given slot, which may be reused by a later {@link #register(WrappedBytes)}.
+    * @param index the index returned by {@link #register(WrappedBytes)}
+    */
+   void release(int index) {
+      chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = null;
+      synchronized (this) {
+         if (freeCount == freeIndexes.length) {
+            freeIndexes = Arrays.copyOf(freeIndexes, freeCount << 1);
+         }
+         freeIndexes[freeCount++] = index;
+         count--;
+      }
+   }
+
+   /**
+    * @return how many values are stored in the table
+    */
+   synchronized int size() {
+      return count;
+   }
+
+   private synchronized int allocateIndex() {
+      count++;
+      if (freeCount > 0) {
+         return freeIndexes[--freeCount];
+      }
+      int index = nextIndex++;
+      if ((index & CHUNK_MASK) == 0) {
+         WrappedBytes[][] current = chunks;
+         WrappedBytes[][] newChunks = Arrays.copyOf(current, current.length + 1);
+         newChunks[current.length] = new WrappedBytes[CHUNK_SIZE];
+         chunks = newChunks;
+      }
+      return index;
+   }
+}
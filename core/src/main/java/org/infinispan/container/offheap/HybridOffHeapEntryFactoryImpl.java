@@ -0,0 +1,84 @@
+package org.infinispan.container.offheap;
+
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.commons.util.AbstractEntrySizeCalculatorHelper;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.metadata.Metadata;
+
+import sun.misc.Unsafe;
+
+/**
+ * Factory that stores the keys and metadata of the entries off-heap, like {@link OffHeapEntryFactoryImpl}, but keeps
+ * the values on the heap. The off-heap entry only contains the index of its value in a {@link HeapValueTable} in
+ * place of the value bytes.
+ * <p>
+ * This fits caches with a large number of keys and small values: the keys no longer add objects for the garbage
+ * collector to trace, while reading an entry does not have to copy the value out of native memory.
+ * @since 10.1
+ */
+@Scope(Scopes.NAMED_CACHE)
+public class HybridOffHeapEntryFactoryImpl extends OffHeapEntryFactoryImpl {
+   private static final OffHeapMemory MEMORY = OffHeapMemory.INSTANCE;
+   // The WrappedByteArray object, with its class pointer and the pointer to the byte[]
+   private static final long WRAPPER_SIZE = roundUpToNearest8(AbstractEntrySizeCalculatorHelper.OBJECT_SIZE +
+         AbstractEntrySizeCalculatorHelper.POINTER_SIZE * 2);
+
+   private final HeapValueTable values = new HeapValueTable();
+
+   @Override
+   protected int valueLength(WrappedBytes value) {
+      // Only the index in the table is stored off-heap
+      return 4;
+   }
+
+   @Override
+   protected void writeValue(long address, int offset, WrappedBytes value) {
+      MEMORY.putInt(address, offset, values.register(value));
+   }
+
+   @Override
+   protected WrappedBytes readValue(long address, int offset, int length) {
+      return values.get(MEMORY.getInt(address, offset));
+   }
+
+   @Override
+   public void release(long address) {
+      values.release(MEMORY.getInt(address, valueOffset(address)));
+   }
+
+   /**
+    * {@inheritDoc}
+    * <p>
+    * When the allocation overhead is included, which is how memory based eviction accounts for the entry, the estimated
+    * heap size of the value is included as well.
+    */
+   @Override
+   public long getSize(long address, boolean includeAllocationOverhead) {
+      long size = super.getSize(address, includeAllocationOverhead);
+      if (includeAllocationOverhead) {
+         size += heapSize(values.get(MEMORY.getInt(address, valueOffset(address))));
+      }
+      return size;
+   }
+
+   @Override
+   public long calculateSize(WrappedBytes key, WrappedBytes value, Metadata metadata) {
+      return super.calculateSize(key, value, metadata) + heapSize(value);
+   }
+
+   /**
+    * @return how many values are currently kept on the heap
+    */
+   int heapValueCount() {
+      return values.size();
+   }
+
+   private static long heapSize(WrappedBytes value) {
+      return WRAPPER_SIZE + roundUpToNearest8(Unsafe.ARRAY_BYTE_BASE_OFFSET + value.getLength());
+   }
+
+   private static long roundUpToNearest8(long size) {
+      return (size + 7) & ~7;
+   }
+}
@@ -43,6 +43,14 @@ public void deallocate() {
       allocator.deallocate(memory, pointerCount << 3);
    }
 
+   /**
+    * Deallocates the pointers once no concurrent reader can be reading them anymore.
+    * @param reclaimer the reclaimer that will deallocate the pointers
+    */
+   void retire(OffHeapMemoryReclaimer reclaimer) {
+      reclaimer.retire(allocator, memory, ((long) pointerCount) << 3);
+   }
+
    /**
     * Returns a stream of longs that are all of the various memory locations
     * @return stream of the various memory locations
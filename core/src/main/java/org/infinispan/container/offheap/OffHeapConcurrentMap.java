@@ -70,6 +70,13 @@
  * write lock for the lock region, are ({@code put}, {@code remove}, {@code replace}, {@code compute}. A clear
  * will acquire all write locks when invoked. This allows the clear to also resize the map down to the initial size.
  * <p>
+ * The {@code get} and {@code peek} operations first attempt an optimistic read, which does not write to the lock at
+ * all. The stamp of the lock region is validated after the entry was read and if a write occurred concurrently the
+ * read is retried while holding the read lock. Since an optimistic reader may still be traversing memory that a
+ * concurrent writer unlinked, memory is never deallocated directly but rather retired to the
+ * {@link OffHeapMemoryReclaimer}, which only frees it once no reader can reference it anymore. A {@code get} is only
+ * optimistic when there is no {@link EntryListener}, as the listener must be notified while holding the read lock.
+ * <p>
  * When this map is constructed it is also possible to provide an {@link EntryListener} that is invoked when various
  * operations are performed in the map. Note that the various modification callbacks <b>MUST</b> free the old address,
  * or else a memory leak will occur. Please see the various methods for clarification on these methods.
@@ -116,8 +123,11 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
 
    private final OffHeapMemoryAllocator allocator;
    private final OffHeapEntryFactory offHeapEntryFactory;
+   // Each map has its own epochs, so close() only waits for readers of this map
+   private final OffHeapMemoryReclaimer reclaimer = new OffHeapMemoryReclaimer();
 
    private final EntryListener listener;
+   private final boolean optimisticReads;
 
    // Once this threshold size is met, the underlying buckets will be re-sized if possible
    // This variable can be read outside of locks - thus is volatile, however should only be modified while holding
@@ -144,9 +154,19 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
 
    public OffHeapConcurrentMap(OffHeapMemoryAllocator allocator,
          OffHeapEntryFactory offHeapEntryFactory, EntryListener listener) {
+      this(allocator, offHeapEntryFactory, listener, true);
+   }
+
+   /**
+    * @param optimisticReads whether reads should first be attempted without acquiring the read lock, only disabled to
+    *                        compare the performance of both read paths
+    */
+   OffHeapConcurrentMap(OffHeapMemoryAllocator allocator,
+         OffHeapEntryFactory offHeapEntryFactory, EntryListener listener, boolean optimisticReads) {
       this.allocator = Objects.requireNonNull(allocator);
       this.offHeapEntryFactory = Objects.requireNonNull(offHeapEntryFactory);
       this.listener = listener;
+      this.optimisticReads = optimisticReads;
 
       locks = new StripedLock(LOCK_COUNT);
 
@@ -219,7 +239,8 @@ private void entryRemoved(long removedAddress) {
       if (listener != null) {
          listener.entryRemoved(removedAddress);
       }
-      allocator.deallocate(removedAddress, offHeapEntryFactory.getSize(removedAddress, false));
+      offHeapEntryFactory.release(removedAddress);
+      reclaimer.retire(allocator, removedAddress, offHeapEntryFactory.getSize(removedAddress, false));
    }
 
    @GuardedBy("locks#writeLock")
@@ -227,7 +248,8 @@ private void entryReplaced(long newAddress, long oldAddress) {
       if (listener != null) {
          listener.entryReplaced(newAddress, oldAddress);
       }
-      allocator.deallocate(oldAddress, offHeapEntryFactory.getSize(oldAddress, false));
+      offHeapEntryFactory.release(oldAddress);
+      reclaimer.retire(allocator, oldAddress, offHeapEntryFactory.getSize(oldAddress, false));
    }
 
    @GuardedBy("locks#readLock")
@@ -394,6 +416,7 @@ private void checkResize() {
          } finally {
             locks.unlockAll();
          }
+         reclaimer.reclaim();
       }
    }
 
@@ -410,7 +433,7 @@ private void transferComplete() {
       }
       this.oldMemoryLookup = null;
 
-      oldMemoryLookup.deallocate();
+      oldMemoryLookup.retire(reclaimer);
    }
 
    /**
@@ -492,11 +515,13 @@ public void close() {
       locks.lockAll();
       try {
          actualClear();
-         memoryLookup.deallocate();
+         memoryLookup.retire(reclaimer);
          memoryLookup = null;
       } finally {
          locks.unlockAll();
       }
+      // The allocator may be stopped after we are closed, so we have to make sure everything was freed
+      reclaimer.drain();
    }
 
    @Override
@@ -545,6 +570,7 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> compute(WrappedBytes key,
          }
       } finally {
          stampedLock.unlockWrite(writeStamp);
+         reclaimer.reclaim();
       }
       if (prev == null && result != null) {
          checkResize();
@@ -566,6 +592,29 @@ private InternalCacheEntry<WrappedBytes, WrappedBytes> peekOrGet(WrappedBytes k,
       int hashCode = k.hashCode();
       int lockOffset = getLockOffset(hashCode);
       StampedLock stampedLock = locks.getLockWithOffset(lockOffset);
+      // The listener has to be notified of a retrieval while holding the lock
+      if (optimisticReads && (peek || listener == null)) {
+         long optimisticStamp = stampedLock.tryOptimisticRead();
+         if (optimisticStamp != 0) {
+            InternalCacheEntry<WrappedBytes, WrappedBytes> ice;
+            OffHeapMemoryReclaimer.ReaderSlot slot = reclaimer.enterRead();
+            try {
+               ice = optimisticPeek(k, hashCode, lockOffset);
+            } catch (RuntimeException e) {
+               // We may have read inconsistent state - the locked read below will throw the exception if it is valid
+               if (trace) {
+                  log.tracef(e, "Optimistic read for key %s failed, retrying with lock", k);
+               }
+               ice = null;
+               optimisticStamp = 0;
+            } finally {
+               slot.exit();
+            }
+            if (optimisticStamp != 0 && stampedLock.validate(optimisticStamp)) {
+               return ice;
+            }
+         }
+      }
       long readStamp = stampedLock.readLock();
       try {
          checkDeallocation();
@@ -581,6 +630,23 @@ private InternalCacheEntry<WrappedBytes, WrappedBytes> peekOrGet(WrappedBytes k,
       }
    }
 
+   /**
+    * Same as {@link #lockedPeekOrGet(MemoryAddressHash, WrappedBytes, int, boolean)} with peek semantics but without
+    * holding the lock. The caller must be in a read section of the {@link OffHeapMemoryReclaimer} and must validate
+    * its optimistic stamp before using the returned value, as any field read here could be concurrently modified.
+    */
+   private InternalCacheEntry<WrappedBytes, WrappedBytes> optimisticPeek(WrappedBytes k, int hashCode, int lockOffset) {
+      checkDeallocation();
+      IntSet pendingBlocks = this.pendingBlocks;
+      MemoryAddressHash memoryLookup;
+      if (pendingBlocks != null && pendingBlocks.contains(lockOffset)) {
+         memoryLookup = this.oldMemoryLookup;
+      } else {
+         memoryLookup = this.memoryLookup;
+      }
+      return lockedPeekOrGet(memoryLookup, k, hashCode, true);
+   }
+
    @GuardedBy("locks#readLock")
    private InternalCacheEntry<WrappedBytes, WrappedBytes> lockedPeekOrGet(MemoryAddressHash memoryLookup,
          WrappedBytes k, int hashCode, boolean peek) {
@@ -653,6 +719,7 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> put(WrappedBytes key,
          returnedValue = performPut(address, 0, newAddress, key, memoryOffset, true, false);
       } finally {
          stampedLock.unlockWrite(writeStamp);
+         reclaimer.reclaim();
       }
       // If we added a new entry, check the resize
       if (returnedValue == null) {
@@ -763,6 +830,7 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> remove(Object key) {
          return performRemove(address, 0, (WrappedBytes) key, null, memoryOffset,true);
       } finally {
          stampedLock.unlockWrite(writeStamp);
+         reclaimer.reclaim();
       }
    }
 
@@ -783,6 +851,7 @@ void remove(WrappedBytes key, long address) {
       long bucketAddress = memoryLookup.getMemoryAddressOffset(memoryOffset);
       assert bucketAddress != 0;
       performRemove(bucketAddress, address, key, null, memoryOffset, false);
+      reclaimer.reclaim();
    }
 
    /**
@@ -850,6 +919,7 @@ public void clear() {
       } finally {
          locks.unlockAll();
       }
+      reclaimer.reclaim();
    }
 
    @GuardedBy("locks#lockAll")
@@ -867,7 +937,7 @@ private void actualClear() {
       };
       int pointerCount = memoryLookup.getPointerCount();
       memoryLookup.removeAll().forEach(removeEntries);
-      memoryLookup.deallocate();
+      memoryLookup.retire(reclaimer);
       memoryLookup = null;
       if (listener != null) {
          boolean resized = listener.resize(-pointerCount);
@@ -920,6 +990,7 @@ public boolean remove(Object key, Object value) {
          return address != 0 && performRemove(address, 0, (WrappedBytes) key, (WrappedBytes) innerValue, memoryOffset, true) != null;
       } finally {
          stampedLock.unlockWrite(writeStamp);
+         reclaimer.reclaim();
       }
    }
 
@@ -939,6 +1010,7 @@ public boolean replace(WrappedBytes key, InternalCacheEntry<WrappedBytes, Wrappe
          return address != 0 && performReplace(address, key, hashCode, memoryOffset, oldValue, newValue) != null;
       } finally {
          stampedLock.unlockWrite(writeStamp);
+         reclaimer.reclaim();
       }
    }
 
@@ -961,6 +1033,7 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> replace(WrappedBytes key,
          return performReplace(address, key, hashCode, memoryOffset, null, value);
       } finally {
          stampedLock.unlockWrite(writeStamp);
+         reclaimer.reclaim();
       }
    }
 
@@ -42,6 +42,15 @@ default long create(WrappedBytes key, WrappedBytes value, Metadata metadata) {
     */
    long getSize(long address, boolean includeAllocationOverhead);
 
+   /**
+    * Invoked when the entry at the given address has been unlinked and its memory is about to be retired. Any resource
+    * referenced by the entry, other than its off-heap memory, must be released here. Readers that may still be reading
+    * the entry concurrently always validate their read afterwards.
+    * @param address the address of the entry
+    */
+   default void release(long address) {
+   }
+
    /**
     * Returns the address to the next linked pointer if there is one for this bucket or 0 if there isn't one
     * @param address the address of the entry
@@ -122,7 +122,7 @@ public long create(WrappedBytes key, int hashCode, WrappedBytes value, Metadata
       }
       int keySize = key.getLength();
       int metadataSize = metadataBytes.length;
-      int valueSize = value.getLength();
+      int valueSize = valueLength(value);
 
       // Eviction requires 2 additional pointers at the beginning
       int offset = evictionEnabled ? 16 : 0;
@@ -147,7 +147,7 @@ public long create(WrappedBytes key, int hashCode, WrappedBytes value, Metadata
          MEMORY.putInt(memoryAddress, offset, metadataBytes.length);
          offset += 4;
       }
-      MEMORY.putInt(memoryAddress, offset, value.getLength());
+      MEMORY.putInt(memoryAddress, offset, valueSize);
       offset += 4;
 
       MEMORY.putBytes(key.getBytes(), key.backArrayOffset(), memoryAddress, offset, keySize);
@@ -156,7 +156,7 @@ public long create(WrappedBytes key, int hashCode, WrappedBytes value, Metadata
       MEMORY.putBytes(metadataBytes, 0, memoryAddress, offset, metadataSize);
       offset += metadataSize;
 
-      MEMORY.putBytes(value.getBytes(), value.backArrayOffset(), memoryAddress, offset, valueSize);
+      writeValue(memoryAddress, offset, value);
       offset += valueSize;
 
       assert offset == totalSize;
@@ -179,25 +179,83 @@ public long getSize(long entryAddress, boolean includeAllocationOverhead) {
          metadataLength = MEMORY.getInt(entryAddress, headerOffset);
          headerOffset += 4;
       } else {
-         switch (type) {
-            case MORTAL:
-            case TRANSIENT:
-               metadataLength = 16;
-               break;
-            case TRANSIENT_MORTAL:
-               metadataLength = 32;
-               break;
-            default:
-               metadataLength = 0;
-               break;
-         }
+         metadataLength = metadataLength(type);
       }
 
       int valueLength = MEMORY.getInt(entryAddress, headerOffset);
       headerOffset += 4;
 
       int size = headerOffset + keyLength + metadataLength + valueLength;
-      return includeAllocationOverhead ? UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(size) : size;
+      return includeAllocationOverhead ? allocator.getAllocationSize(size) : size;
+   }
+
+   /**
+    * Returns how many bytes the value occupies in the entry.
+    * @param value the value to store
+    * @return the number of bytes written by {@link #writeValue(long, int, WrappedBytes)}
+    */
+   protected int valueLength(WrappedBytes value) {
+      return value.getLength();
+   }
+
+   /**
+    * Writes the value in the entry being created.
+    * @param address the address of the entry
+    * @param offset the offset of the value in the entry
+    * @param value the value to write
+    */
+   protected void writeValue(long address, int offset, WrappedBytes value) {
+      MEMORY.putBytes(value.getBytes(), value.backArrayOffset(), address, offset, value.getLength());
+   }
+
+   /**
+    * Reads the value of an entry.
+    * @param address the address of the entry
+    * @param offset the offset of the value in the entry
+    * @param length how many bytes were written for the value
+    * @return the value of the entry
+    */
+   protected WrappedBytes readValue(long address, int offset, int length) {
+      byte[] valueBytes = new byte[length];
+      MEMORY.getBytes(address, offset, valueBytes, 0, length);
+      return new WrappedByteArray(valueBytes);
+   }
+
+   /**
+    * Returns the offset of the value in the entry at the given address.
+    * @param address the address of the entry
+    * @return the offset of the value
+    */
+   protected int valueOffset(long address) {
+      int offset = evictionEnabled ? 24 : 8;
+      byte type = MEMORY.getByte(address, offset);
+      offset += 1;
+      // Skip the hashCode
+      offset += 4;
+      int keyLength = MEMORY.getInt(address, offset);
+      offset += 4;
+      int metadataLength;
+      if (requiresMetadataSize(type)) {
+         metadataLength = MEMORY.getInt(address, offset);
+         offset += 4;
+      } else {
+         metadataLength = metadataLength(type);
+      }
+      // Skip the value length
+      offset += 4;
+      return offset + keyLength + metadataLength;
+   }
+
+   private static int metadataLength(byte type) {
+      switch (type) {
+         case MORTAL:
+         case TRANSIENT:
+            return 16;
+         case TRANSIENT_MORTAL:
+            return 32;
+         default:
+            return 0;
+      }
    }
 
    @Override
@@ -283,15 +341,14 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address) {
             offset += 4;
       }
 
-      byte[] valueBytes = new byte[MEMORY.getInt(address, offset)];
+      int valueLength = MEMORY.getInt(address, offset);
       offset += 4;
 
       MEMORY.getBytes(address, offset, keyBytes, 0, keyBytes.length);
       offset += keyBytes.length;
       MEMORY.getBytes(address, offset, metadataBytes, 0, metadataBytes.length);
       offset += metadataBytes.length;
-      MEMORY.getBytes(address, offset, valueBytes, 0, valueBytes.length);
-      offset += valueBytes.length;
+      WrappedBytes value = readValue(address, offset, valueLength);
 
       Metadata metadata;
       // This is a custom metadata
@@ -302,7 +359,7 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address) {
             throw new CacheException(e);
          }
          return internalEntryFactory.create(new WrappedByteArray(keyBytes, hashCode),
-               new WrappedByteArray(valueBytes), metadata);
+               value, metadata);
       } else {
          long lifespan;
          long maxIdle;
@@ -344,13 +401,13 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address) {
                EntryVersion version = (EntryVersion) marshaller.objectFromByteBuffer(metadataBytes, offset,
                      metadataBytes.length - offset);
                return internalEntryFactory.create(new WrappedByteArray(keyBytes, hashCode),
-                     new WrappedByteArray(valueBytes), version, created, lifespan, lastUsed, maxIdle);
+                     value, version, created, lifespan, lastUsed, maxIdle);
             } catch (IOException | ClassNotFoundException e) {
                throw new CacheException(e);
             }
          } else {
             return internalEntryFactory.create(new WrappedByteArray(keyBytes, hashCode),
-                  new WrappedByteArray(valueBytes), (Metadata) null, created, lifespan, lastUsed, maxIdle);
+                  value, (Metadata) null, created, lifespan, lastUsed, maxIdle);
          }
       }
    }
@@ -473,7 +530,7 @@ static private boolean requiresMetadataSize(byte type) {
    public long calculateSize(WrappedBytes key, WrappedBytes value, Metadata metadata) {
       long totalSize = evictionEnabled ? 24 : 8;
       totalSize += HEADER_LENGTH;
-      totalSize += key.getLength() + value.getLength();
+      totalSize += key.getLength() + valueLength(value);
       long metadataSize = 0;
       if (metadata instanceof EmbeddedMetadata) {
          EntryVersion version = metadata.version();
@@ -501,6 +558,6 @@ public long calculateSize(WrappedBytes key, WrappedBytes value, Metadata metadat
             throw new CacheException(e);
          }
       }
-      return UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(totalSize + metadataSize);
+      return allocator.getAllocationSize(totalSize + metadataSize);
    }
 }
@@ -166,4 +166,34 @@ void free(long address) {
       }
       UNSAFE.freeMemory(address);
    }
+
+   /**
+    * Allocates a region that is not itself addressable, but rather has blocks carved out of it that are then
+    * registered via {@link #trackBlock(long, long)}.
+    */
+   long allocateRegion(long size) {
+      return UNSAFE.allocateMemory(size);
+   }
+
+   void freeRegion(long address) {
+      UNSAFE.freeMemory(address);
+   }
+
+   void trackBlock(long address, long size) {
+      if (trace) {
+         Long prev = allocatedBlocks.put(address, size);
+         if (prev != null) {
+            throw new IllegalArgumentException();
+         }
+      }
+   }
+
+   void untrackBlock(long address) {
+      if (trace) {
+         Long prev = allocatedBlocks.remove(address);
+         if (prev == null) {
+            throw new IllegalArgumentException();
+         }
+      }
+   }
 }
@@ -23,4 +23,14 @@ public interface OffHeapMemoryAllocator {
    void deallocate(long memoryAddress, long size);
 
    long getAllocatedAmount();
+
+   /**
+    * Returns how much memory an allocation of the given size really uses, including the overhead of this allocator.
+    * This is the size charged to an entry when evicting based on memory.
+    * @param size the size that is provided to allocate
+    * @return the size of the allocation including the allocator overhead
+    */
+   default long getAllocationSize(long size) {
+      return UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(size);
+   }
 }
@@ -0,0 +1,192 @@
+package org.infinispan.container.offheap;
+
+import java.lang.ref.WeakReference;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import net.jcip.annotations.GuardedBy;
+import sun.misc.Unsafe;
+
+/**
+ * Epoch based reclamation of off-heap memory, which allows readers to traverse entries without holding any lock.
+ * <p>
+ * A reader publishes the global epoch it observed in a slot owned by its thread before reading any memory and clears
+ * it once done. Writers never free memory that could still be reachable by a reader directly, instead they
+ * {@link #retire(OffHeapMemoryAllocator, long, long) retire} it with the epoch at the time it was unlinked. The global
+ * epoch can only advance when all active readers have observed the current epoch, thus once it is two ahead of the
+ * epoch a block was retired with no reader can still hold a reference to it and it is deallocated.
+ * <p>
+ * Reclamation is attempted by writers through {@link #reclaim()} and is eager: when no reader is active all retired
+ * memory is freed immediately, so the allocated amount only lags behind while reads are in progress.
+ * <p>
+ * Every {@link OffHeapConcurrentMap} has its own reclaimer, so readers of one map never delay the reclamation of
+ * another map nor its {@link #drain()} when it is closed.
+ * @since 10.1
+ */
+final class OffHeapMemoryReclaimer {
+   private static final Log log = LogFactory.getLog(OffHeapMemoryReclaimer.class);
+   private static final boolean trace = log.isTraceEnabled();
+   private static final Unsafe UNSAFE = UnsafeHolder.UNSAFE;
+
+   private static final long INACTIVE = 0;
+
+   // Only advanced while holding reclaimLock
+   private volatile long epoch = 1;
+
+   private final CopyOnWriteArrayList<ReaderSlot> slots = new CopyOnWriteArrayList<>();
+   private final ThreadLocal<ReaderSlot> threadSlot = ThreadLocal.withInitial(this::registerSlot);
+   private final Queue<Retired> retired = new ConcurrentLinkedQueue<>();
+   private final Lock reclaimLock = new ReentrantLock();
+
+   OffHeapMemoryReclaimer() { }
+
+   private ReaderSlot registerSlot() {
+      ReaderSlot slot = new ReaderSlot(Thread.currentThread());
+      slots.add(slot);
+      return slot;
+   }
+
+   /**
+    * Marks the current thread as reading off-heap memory. The returned slot <b>MUST</b> be exited in a finally block,
+    * otherwise no retired memory will ever be freed again. Read sections must not be nested.
+    * @return the slot to exit once the read is complete
+    */
+   ReaderSlot enterRead() {
+      ReaderSlot slot = threadSlot.get();
+      long observed = epoch;
+      slot.epoch = observed;
+      // Re-read the epoch after publishing, as it could have been advanced without seeing our slot
+      long current;
+      while ((current = epoch) != observed) {
+         observed = current;
+         slot.epoch = observed;
+      }
+      return slot;
+   }
+
+   /**
+    * Hands over a block of memory that has been unlinked and will be deallocated once no reader can reference it.
+    * @param allocator the allocator the memory came from
+    * @param address the address to deallocate
+    * @param size the size that was provided to allocate
+    */
+   void retire(OffHeapMemoryAllocator allocator, long address, long size) {
+      // The unlink of the memory must be visible before we read the epoch
+      UNSAFE.fullFence();
+      retired.add(new Retired(allocator, address, size, epoch));
+   }
+
+   /**
+    * Frees all retired memory that is no longer reachable by readers. This method does not block and returns
+    * immediately if another thread is already reclaiming.
+    */
+   void reclaim() {
+      if (retired.isEmpty() || !reclaimLock.tryLock()) {
+         return;
+      }
+      try {
+         reclaimLocked();
+      } finally {
+         reclaimLock.unlock();
+      }
+   }
+
+   /**
+    * Frees all memory that was retired before this invocation, waiting for concurrent readers to complete if
+    * required. This must be invoked before the allocator the memory was retired to is stopped.
+    */
+   void drain() {
+      reclaimLock.lock();
+      try {
+         while (!retired.isEmpty()) {
+            if (!reclaimLocked()) {
+               Thread.yield();
+            }
+         }
+      } finally {
+         reclaimLock.unlock();
+      }
+   }
+
+   /**
+    * @return whether any progress was made
+    */
+   @GuardedBy("reclaimLock")
+   private boolean reclaimLocked() {
+      long current = epoch;
+      // At most two advancements are needed for the head to become free
+      for (int i = 0; i < 2; ++i) {
+         Retired head = retired.peek();
+         if (head == null || head.epoch <= current - 2 || !canAdvance(current)) {
+            break;
+         }
+         current = ++epoch;
+      }
+      boolean progress = false;
+      Retired head;
+      while ((head = retired.peek()) != null && head.epoch <= current - 2) {
+         retired.poll();
+         head.allocator.deallocate(head.address, head.size);
+         progress = true;
+      }
+      return progress;
+   }
+
+   @GuardedBy("reclaimLock")
+   private boolean canAdvance(long current) {
+      for (ReaderSlot slot : slots) {
+         long slotEpoch = slot.epoch;
+         if (slotEpoch == INACTIVE) {
+            if (slot.thread.get() == null) {
+               // Thread is gone, it will never read again
+               slots.remove(slot);
+            }
+         } else if (slotEpoch != current) {
+            if (trace) {
+               log.tracef("Reader %s still in epoch %d, unable to advance from %d", slot.thread.get(), slotEpoch, current);
+            }
+            return false;
+         }
+      }
+      return true;
+   }
+
+   static final class ReaderSlot {
+      // Padding to prevent false sharing between slots of different threads
+      @SuppressWarnings("unused")
+      private long p1, p2, p3, p4, p5, p6, p7;
+      private volatile long epoch = INACTIVE;
+      @SuppressWarnings("unused")
+      private long q1, q2, q3, q4, q5, q6, q7;
+
+      private final WeakReference<Thread> thread;
+
+      private ReaderSlot(Thread thread) {
+         this.thread = new WeakReference<>(thread);
+      }
+
+      void exit() {
+         epoch = INACTIVE;
+      }
+   }
+
+   private static final class Retired {
+      private final OffHeapMemoryAllocator allocator;
+      private final long address;
+      private final long size;
+      private final long epoch;
+
+      private Retired(OffHeapMemoryAllocator allocator, long address, long size, long epoch) {
+         this.allocator = allocator;
+         this.address = address;
+         this.size = size;
+         this.epoch = epoch;
+      }
+   }
+}
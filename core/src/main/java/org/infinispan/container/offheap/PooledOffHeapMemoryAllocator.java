@@ -0,0 +1,293 @@
+package org.infinispan.container.offheap;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.commons.util.Util;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.Units;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Memory allocator that carves allocations out of larger slabs instead of invoking the native allocator for every
+ * entry.
+ * <p>
+ * Requested sizes are rounded up to a size class. Every size class has a free list per arena, where the first 8 bytes
+ * of a freed block store the address of the next free block. When the free list is empty a new block is bump allocated
+ * from the current slab of the arena. Threads are spread over the arenas by their id, so that concurrent writers
+ * normally do not contend on the same arena. Allocations larger than the biggest size class (for example the address
+ * table of {@link OffHeapConcurrentMap}) are delegated to the native allocator.
+ * <p>
+ * Slabs are only returned to the operating system when the allocator is stopped, so the reserved memory of this
+ * allocator is its historical peak. In exchange there is no per entry native allocator overhead and fragmentation
+ * is limited to the size class rounding and the unused tail of each slab.
+ * @since 10.1
+ */
+@MBean(objectName = "OffHeapMemoryAllocator", description = "Pooled allocator for off-heap entries")
+@Scope(Scopes.NAMED_CACHE)
+public class PooledOffHeapMemoryAllocator implements OffHeapMemoryAllocator {
+   private static final Log log = LogFactory.getLog(PooledOffHeapMemoryAllocator.class, Log.class);
+   private static final boolean trace = log.isTraceEnabled();
+   private static final OffHeapMemory MEMORY = OffHeapMemory.INSTANCE;
+
+   static final int DEFAULT_SLAB_SIZE = 1 << 20;
+
+   // 16 byte quantum up to 256 bytes, then 4 classes per doubling up to 4096 bytes
+   private static final int QUANTUM = 16;
+   private static final int QUANTUM_LIMIT = 256;
+   private static final int[] SIZE_CLASSES;
+
+   static {
+      int[] classes = new int[QUANTUM_LIMIT / QUANTUM + 16];
+      int i = 0;
+      for (int size = QUANTUM; size <= QUANTUM_LIMIT; size += QUANTUM) {
+         classes[i++] = size;
+      }
+      for (int base = QUANTUM_LIMIT; i < classes.length; base <<= 1) {
+         for (int step = 1; step <= 4; ++step) {
+            classes[i++] = base + (base >> 2) * step;
+         }
+      }
+      SIZE_CLASSES = classes;
+   }
+
+   static final int MAX_POOLED_SIZE = SIZE_CLASSES[SIZE_CLASSES.length - 1];
+
+   private final int slabSize;
+   private final Arena[] arenas;
+   private final int arenaMask;
+
+   private final LongAdder requestedAmount = new LongAdder();
+   private final LongAdder usedAmount = new LongAdder();
+   private final LongAdder reservedAmount = new LongAdder();
+   private final LongAdder slabCount = new LongAdder();
+   private final LongAdder directAmount = new LongAdder();
+
+   public PooledOffHeapMemoryAllocator() {
+      this(Runtime.getRuntime().availableProcessors(), DEFAULT_SLAB_SIZE);
+   }
+
+   PooledOffHeapMemoryAllocator(int concurrency, int slabSize) {
+      if (slabSize < MAX_POOLED_SIZE) {
+         throw new IllegalArgumentException("Slab size " + slabSize + " must be at least " + MAX_POOLED_SIZE);
+      }
+      this.slabSize = slabSize;
+      int arenaCount = Util.findNextHighestPowerOfTwo(Math.max(1, concurrency));
+      this.arenas = new Arena[arenaCount];
+      for (int i = 0; i < arenaCount; ++i) {
+         arenas[i] = new Arena();
+      }
+      this.arenaMask = arenaCount - 1;
+   }
+
+   /**
+    * Returns the size class that will be used for an allocation of the given size or -1 if the allocation is
+    * too large to be pooled
+    * @param size the requested size
+    * @return index of the size class in {@link #SIZE_CLASSES}
+    */
+   static int sizeClass(long size) {
+      if (size <= QUANTUM_LIMIT) {
+         return size <= QUANTUM ? 0 : (int) ((size + QUANTUM - 1) / QUANTUM) - 1;
+      }
+      if (size > MAX_POOLED_SIZE) {
+         return -1;
+      }
+      int index = Arrays.binarySearch(SIZE_CLASSES, (int) size);
+      return index >= 0 ? index : -index - 1;
+   }
+
+   static int sizeOfClass(int sizeClass) {
+      return SIZE_CLASSES[sizeClass];
+   }
+
+   @Override
+   public long allocate(long memoryLength) {
+      int sizeClass = sizeClass(memoryLength);
+      if (sizeClass < 0) {
+         long estimatedMemoryLength = UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(memoryLength);
+         long memoryLocation = MEMORY.allocate(memoryLength);
+         directAmount.add(estimatedMemoryLength);
+         if (trace) {
+            log.tracef("Allocated unpooled off heap memory at 0x%016x with %d bytes", memoryLocation, memoryLength);
+         }
+         return memoryLocation;
+      }
+      long memoryLocation = currentArena().allocate(sizeClass);
+      requestedAmount.add(memoryLength);
+      usedAmount.add(SIZE_CLASSES[sizeClass]);
+      if (trace) {
+         log.tracef("Allocated pooled off heap memory at 0x%016x with %d bytes (size class %d)", memoryLocation,
+               memoryLength, SIZE_CLASSES[sizeClass]);
+      }
+      return memoryLocation;
+   }
+
+   @Override
+   public void deallocate(long memoryAddress, long size) {
+      int sizeClass = sizeClass(size);
+      if (sizeClass < 0) {
+         directAmount.add(-UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(size));
+         if (trace) {
+            log.tracef("Deallocating unpooled off heap memory at 0x%016x with %d bytes", memoryAddress, size);
+         }
+         MEMORY.free(memoryAddress);
+         return;
+      }
+      if (trace) {
+         log.tracef("Deallocating pooled off heap memory at 0x%016x with %d bytes (size class %d)", memoryAddress,
+               size, SIZE_CLASSES[sizeClass]);
+      }
+      requestedAmount.add(-size);
+      usedAmount.add(-SIZE_CLASSES[sizeClass]);
+      currentArena().free(memoryAddress, sizeClass);
+   }
+
+   /**
+    * Pooled allocations use their whole size class and have no other overhead.
+    */
+   @Override
+   public long getAllocationSize(long size) {
+      int sizeClass = sizeClass(size);
+      return sizeClass < 0 ? UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(size) : SIZE_CLASSES[sizeClass];
+   }
+
+   private Arena currentArena() {
+      return arenas[(int) Thread.currentThread().getId() & arenaMask];
+   }
+
+   /**
+    * Releases all slabs back to the operating system. Any pooled address handed out before is invalid afterwards,
+    * this is only invoked after the data containers using this allocator have been stopped.
+    */
+   @Stop
+   public void stop() {
+      long leaked = requestedAmount.sum();
+      if (leaked != 0) {
+         log.debugf("Releasing off heap slabs while %d bytes are still allocated", leaked);
+      }
+      for (Arena arena : arenas) {
+         arena.release();
+      }
+      requestedAmount.reset();
+      usedAmount.reset();
+   }
+
+   @ManagedAttribute(description = "Amount of off-heap memory reserved by this allocator, including unused slab space",
+         displayName = "Allocated off-heap memory", units = Units.BYTES)
+   @Override
+   public long getAllocatedAmount() {
+      return reservedAmount.sum() + directAmount.sum();
+   }
+
+   @ManagedAttribute(description = "Number of slabs currently reserved", displayName = "Slab count")
+   public long getSlabCount() {
+      return slabCount.sum();
+   }
+
+   @ManagedAttribute(description = "Amount of off-heap memory reserved for slabs", displayName = "Slab memory",
+         units = Units.BYTES)
+   public long getSlabMemory() {
+      return reservedAmount.sum();
+   }
+
+   @ManagedAttribute(description = "Amount of off-heap memory requested by live pooled allocations",
+         displayName = "Requested pooled memory", units = Units.BYTES)
+   public long getRequestedMemory() {
+      return requestedAmount.sum();
+   }
+
+   @ManagedAttribute(description = "Amount of slab memory handed out to live allocations, including the size class " +
+         "rounding", displayName = "Used pooled memory", units = Units.BYTES)
+   public long getUsedMemory() {
+      return usedAmount.sum();
+   }
+
+   @ManagedAttribute(description = "Amount of off-heap memory allocated outside of slabs as it exceeds the largest size class",
+         displayName = "Unpooled memory", units = Units.BYTES)
+   public long getUnpooledMemory() {
+      return directAmount.sum();
+   }
+
+   @ManagedAttribute(description = "Percentage of slab memory handed out to live allocations",
+         displayName = "Slab utilisation", units = Units.PERCENTAGE)
+   public double getSlabUtilization() {
+      long reserved = reservedAmount.sum();
+      return reserved == 0 ? 0 : 100d * usedAmount.sum() / reserved;
+   }
+
+   @ManagedAttribute(description = "Percentage of slab memory that does not hold requested data, due to size class " +
+         "rounding, free blocks and unused slab space", displayName = "Slab fragmentation", units = Units.PERCENTAGE)
+   public double getFragmentation() {
+      long reserved = reservedAmount.sum();
+      return reserved == 0 ? 0 : 100d * (reserved - requestedAmount.sum()) / reserved;
+   }
+
+   /**
+    * An arena owns the slabs it bump allocates from and has a free list per size class. All of its state is guarded
+    * by the arena monitor.
+    */
+   private class Arena {
+      private final long[] freeLists = new long[SIZE_CLASSES.length];
+      private long[] slabs = new long[4];
+      private int slabsUsed;
+      private long bumpAddress;
+      private long bumpLimit;
+
+      synchronized long allocate(int sizeClass) {
+         int classSize = SIZE_CLASSES[sizeClass];
+         long address = freeLists[sizeClass];
+         if (address != 0) {
+            MEMORY.trackBlock(address, classSize);
+            freeLists[sizeClass] = MEMORY.getLong(address, 0);
+            return address;
+         }
+         if (bumpAddress == 0 || bumpAddress + classSize > bumpLimit) {
+            newSlab();
+         }
+         address = bumpAddress;
+         bumpAddress += classSize;
+         MEMORY.trackBlock(address, classSize);
+         return address;
+      }
+
+      synchronized void free(long address, int sizeClass) {
+         MEMORY.putLong(address, 0, freeLists[sizeClass]);
+         MEMORY.untrackBlock(address);
+         freeLists[sizeClass] = address;
+      }
+
+      private void newSlab() {
+         long slab = MEMORY.allocateRegion(slabSize);
+         if (slabsUsed == slabs.length) {
+            slabs = Arrays.copyOf(slabs, slabs.length << 1);
+         }
+         slabs[slabsUsed++] = slab;
+         bumpAddress = slab;
+         bumpLimit = slab + slabSize;
+         reservedAmount.add(slabSize);
+         slabCount.increment();
+         if (trace) {
+            log.tracef("Reserved new off heap slab at 0x%016x with %d bytes", slab, slabSize);
+         }
+      }
+
+      synchronized void release() {
+         for (int i = 0; i < slabsUsed; ++i) {
+            MEMORY.freeRegion(slabs[i]);
+            slabs[i] = 0;
+         }
+         reservedAmount.add(-(long) slabsUsed * slabSize);
+         slabCount.add(-slabsUsed);
+         slabsUsed = 0;
+         bumpAddress = 0;
+         bumpLimit = 0;
+         Arrays.fill(freeLists, 0);
+      }
+   }
+}
@@ -8,10 +8,12 @@
 import java.util.function.Supplier;
 
 import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.configuration.cache.OffHeapEvictionPolicy;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.impl.AbstractDelegatingInternalDataContainer;
 import org.infinispan.container.impl.AbstractInternalDataContainer;
 import org.infinispan.container.impl.DefaultSegmentedDataContainer;
+import org.infinispan.container.impl.FrequencySketch;
 import org.infinispan.container.impl.InternalDataContainer;
 import org.infinispan.eviction.EvictionManager;
 import org.infinispan.eviction.EvictionType;
@@ -29,6 +31,15 @@
 import org.infinispan.util.logging.LogFactory;
 
 /**
+ * Off heap data container that evicts entries once the configured size is exceeded. All the entries are linked
+ * together in a native list, whose order depends on the {@link OffHeapEvictionPolicy}:
+ * <ul>
+ *    <li>{@link OffHeapEvictionPolicy#LRU} moves an entry to the end of the list every time it is read, so the head is
+ *    always the least recently used entry</li>
+ *    <li>{@link OffHeapEvictionPolicy#TINY_LFU} keeps the entries in insertion order and only records reads in a
+ *    {@link FrequencySketch}, so reads never acquire the {@link #lruLock}. The head of the list is used as the hand of a
+ *    clock, where entries used more often than the newest entry get a second chance</li>
+ * </ul>
  * @author wburns
  * @since 9.4
  */
@@ -36,6 +47,8 @@
 public class SegmentedBoundedOffHeapDataContainer extends AbstractDelegatingInternalDataContainer<WrappedBytes, WrappedBytes> {
    private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
    private static final boolean trace = log.isTraceEnabled();
+   // How many entries at most are moved to the end of the list before the new entry is rejected
+   private static final int MAX_SECOND_CHANCES = 8;
 
    private final OffHeapMapSupplier offHeapMapSupplier;
    private final OffHeapListener offHeapListener;
@@ -53,20 +66,39 @@ public class SegmentedBoundedOffHeapDataContainer extends AbstractDelegatingInte
    protected final Lock lruLock;
    protected final boolean useCount;
    protected final int numSegments;
+   protected final OffHeapEvictionPolicy evictionPolicy;
+   // Only used with TINY_LFU, null otherwise
+   protected final FrequencySketch sketch;
 
    // Must be updated inside lruLock#writeLock - but can be read outside of lock
    protected volatile long currentSize;
    protected long firstAddress;
    protected long lastAddress;
+   // Only maintained with TINY_LFU, to grow the sketch along with the number of entries
+   protected long entryCount;
+   // Number of nodes unlinked from the LRU list, so that a victim selected earlier is known to be still linked
+   protected long lruRemovals;
 
    protected DefaultSegmentedDataContainer dataContainer;
 
    public SegmentedBoundedOffHeapDataContainer(int numSegments, long maxSize, EvictionType type) {
+      this(numSegments, maxSize, type, OffHeapEvictionPolicy.LRU);
+   }
+
+   public SegmentedBoundedOffHeapDataContainer(int numSegments, long maxSize, EvictionType type,
+         OffHeapEvictionPolicy evictionPolicy) {
       this.numSegments = numSegments;
       offHeapListener = new OffHeapListener();
 
       this.maxSize = maxSize;
       this.useCount = type == EvictionType.COUNT;
+      this.evictionPolicy = evictionPolicy;
+      if (evictionPolicy == OffHeapEvictionPolicy.TINY_LFU) {
+         // The number of entries is not known up front with memory based eviction, so it grows in entryCreated
+         sketch = new FrequencySketch(useCount ? maxSize : 0);
+      } else {
+         sketch = null;
+      }
       offHeapMapSupplier = new OffHeapMapSupplier();
       this.lruLock = new ReentrantLock();
       firstAddress = 0;
@@ -140,8 +172,8 @@ protected OffHeapConcurrentMap getMapThatContainsKey(byte[] key) {
    }
 
    /**
-    * This method repeatedly removes the head of the LRU list until there the current size is less than or equal to
-    * `maxSize`.
+    * This method repeatedly removes the entry returned by {@link #selectVictim()}, which is the head of the LRU list
+    * unless TINY_LFU is used, until there the current size is less than or equal to `maxSize`.
     * <p>
     * We need to hold the LRU lock in order to check the current size and to read the head entry,
     * and then we need to hold the head entry's write lock in order to remove it.
@@ -162,6 +194,8 @@ private void ensureSize() {
 
       while (true) {
          long addressToRemove;
+         long selectedVictim;
+         long removalsAtSelection;
          StampedLock stampedLock;
          long writeStamp;
          OffHeapConcurrentMap map;
@@ -170,19 +204,20 @@ private void ensureSize() {
             if (currentSize <= maxSize) {
                break;
             }
-            // We shouldn't be able to get into this state
-            assert firstAddress > 0;
+            long victimAddress = selectVictim();
+            selectedVictim = victimAddress;
+            removalsAtSelection = lruRemovals;
             // We read the key before hashCode due to how off heap bytes are written (key requires reading metadata
             // which comes before hashCode, which should keep hashCode bytes in memory register in most cases)
-            byte[] key = offHeapEntryFactory.getKey(firstAddress);
+            byte[] key = offHeapEntryFactory.getKey(victimAddress);
 
             map = getMapThatContainsKey(key);
             if (map != null) {
-               int hashCode = offHeapEntryFactory.getHashCode(firstAddress);
+               int hashCode = offHeapEntryFactory.getHashCode(victimAddress);
                // This is always non null
                stampedLock = map.getStampedLock(hashCode);
                if ((writeStamp = stampedLock.tryWriteLock()) != 0) {
-                  addressToRemove = firstAddress;
+                  addressToRemove = victimAddress;
                } else {
                   addressToRemove = 0;
                }
@@ -206,15 +241,18 @@ private void ensureSize() {
                   if (currentSize <= maxSize) {
                      break;
                   }
-                  // Now that we have locks we have to verify the first address is protected by the same lock still
-                  byte[] key = offHeapEntryFactory.getKey(firstAddress);
+                  // Now that we have locks we have to verify the victim is protected by the same lock still
+                  // Selecting again would give a second chance to more entries, so keep the first victim if it is
+                  // still linked
+                  long victimAddress = lruRemovals == removalsAtSelection ? selectedVictim : selectVictim();
+                  byte[] key = offHeapEntryFactory.getKey(victimAddress);
 
                   OffHeapConcurrentMap protectedMap = getMapThatContainsKey(key);
                   if (protectedMap == map) {
-                     int hashCode = offHeapEntryFactory.getHashCode(firstAddress);
+                     int hashCode = offHeapEntryFactory.getHashCode(victimAddress);
                      StampedLock innerLock = map.getStampedLock(hashCode);
                      if (innerLock == stampedLock) {
-                        addressToRemove = firstAddress;
+                        addressToRemove = victimAddress;
                      }
                   }
                } finally {
@@ -245,6 +283,47 @@ private void ensureSize() {
       }
    }
 
+   /**
+    * Returns the address of the next entry to evict. With LRU this is simply the head of the list.
+    * <p>
+    * With TINY_LFU the newest entry, at the end of the list, is the candidate that caused the container to go over
+    * its size. Starting from the head, the first entry used at most as often as the candidate is evicted, while the
+    * entries used more often are given a second chance by moving them to the end of the list. If more than
+    * {@link #MAX_SECOND_CHANCES} entries are all used more often, the candidate itself is evicted, so entries that
+    * are only used once can't push out the entries used frequently.
+    * <p>
+    * The {@link #lruLock} <b>must</b> be held when invoking this and the container must not be empty
+    * @return the address of the entry to evict
+    */
+   private long selectVictim() {
+      // We shouldn't be able to get into this state
+      assert firstAddress > 0;
+      if (sketch == null) {
+         return firstAddress;
+      }
+      long candidateAddress = lastAddress;
+      int candidateFrequency = frequency(candidateAddress);
+      for (int i = 0; i < MAX_SECOND_CHANCES; ++i) {
+         long address = firstAddress;
+         if (address == candidateAddress || frequency(address) <= candidateFrequency) {
+            return address;
+         }
+         if (trace) {
+            log.tracef("Moving entry 0x%016x to the end of the list as it is used more often than 0x%016x",
+                  address, candidateAddress);
+         }
+         offHeapListener.moveToEnd(address);
+      }
+      if (trace) {
+         log.tracef("Rejecting entry 0x%016x as it is used less often than the eviction candidates", candidateAddress);
+      }
+      return candidateAddress;
+   }
+
+   private int frequency(long address) {
+      return sketch.frequency(offHeapEntryFactory.getHashCode(address));
+   }
+
    private class OffHeapMapSupplier implements Supplier<ConcurrentMap<WrappedBytes,
          InternalCacheEntry<WrappedBytes, WrappedBytes>>> {
       @Override
@@ -264,7 +343,7 @@ public boolean resize(int pointerCount) {
          try {
             boolean isNegative = pointerCount < 0;
             long memoryUsed = ((long) Math.abs(pointerCount)) << 3;
-            long change = UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(memoryUsed);
+            long change = allocator.getAllocationSize(memoryUsed);
 
             // We only attempt to deny resizes that are an increase in pointers
             if (!isNegative) {
@@ -288,13 +367,23 @@ public boolean resize(int pointerCount) {
       @Override
       public void entryCreated(long newAddress) {
          long newSize = getSize(newAddress);
+         long sketchSize = 0;
+         if (sketch != null) {
+            sketch.increment(offHeapEntryFactory.getHashCode(newAddress));
+         }
          lruLock.lock();
          try {
             currentSize += newSize;
             addEntryAddressToEnd(newAddress);
+            if (sketch != null && ++entryCount > sketch.capacity()) {
+               sketchSize = entryCount;
+            }
          } finally {
             lruLock.unlock();
          }
+         if (sketchSize > 0) {
+            sketch.ensureCapacity(sketchSize);
+         }
       }
 
       @Override
@@ -305,6 +394,9 @@ public void entryRemoved(long removedAddress) {
             // Current size has to be updated in the lock
             currentSize -=  removedSize;
             removeNode(removedAddress);
+            if (sketch != null) {
+               entryCount--;
+            }
          } finally {
             lruLock.unlock();
          }
@@ -314,6 +406,9 @@ public void entryRemoved(long removedAddress) {
       public void entryReplaced(long newAddress, long oldAddress) {
          long oldSize = getSize(oldAddress);
          long newSize = getSize(newAddress);
+         if (sketch != null) {
+            sketch.increment(offHeapEntryFactory.getHashCode(newAddress));
+         }
          lruLock.lock();
          try {
             removeNode(oldAddress);
@@ -328,6 +423,11 @@ public void entryReplaced(long newAddress, long oldAddress) {
 
       @Override
       public void entryRetrieved(long entryAddress) {
+         if (sketch != null) {
+            // The position in the list doesn't change with TINY_LFU, so there is no need for the lruLock
+            sketch.increment(offHeapEntryFactory.getHashCode(entryAddress));
+            return;
+         }
          lruLock.lock();
          try {
             if (trace) {
@@ -374,6 +474,7 @@ private void addEntryAddressToEnd(long entryAddress) {
        * @param address
        */
       private void removeNode(long address) {
+         lruRemovals++;
          boolean middleNode = true;
          if (address == lastAddress) {
             if (trace) {
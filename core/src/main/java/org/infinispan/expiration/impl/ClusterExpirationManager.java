@@ -122,7 +122,7 @@ private boolean purgeInMemoryContents(LocalizedCacheTopology topology) {
 
          IntSet segments = IntSets.from(topology.getReadConsistentHash().getPrimarySegmentsForOwner(localAddress));
 
-         for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = dataContainer.running().iteratorIncludingExpired(segments);
+         for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = dataContainer.running().expiredIterator(segments, currentTimeMillis);
               purgeCandidates.hasNext();) {
             InternalCacheEntry<K, V> ice = purgeCandidates.next();
             if (ice.canExpire()) {
@@ -76,9 +76,10 @@ public Object construct(String componentName) {
          if (shouldSegment) {
             int segments = clusteringConfiguration.hash().numSegments();
             dataContainer = new SegmentedBoundedOffHeapDataContainer(segments, thresholdSize,
-                  memoryConfiguration.evictionType());
+                  memoryConfiguration.evictionType(), memoryConfiguration.offHeapEvictionPolicy());
          } else {
-            dataContainer = new BoundedOffHeapDataContainer(thresholdSize, memoryConfiguration.evictionType());
+            dataContainer = new BoundedOffHeapDataContainer(thresholdSize, memoryConfiguration.evictionType(),
+                  memoryConfiguration.offHeapEvictionPolicy());
          }
       } else if (shouldSegment) {
          int segments = clusteringConfiguration.hash().numSegments();
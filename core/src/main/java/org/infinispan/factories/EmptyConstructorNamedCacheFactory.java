@@ -11,9 +11,12 @@
 import org.infinispan.commons.io.ByteBufferFactoryImpl;
 import org.infinispan.configuration.cache.BiasAcquisition;
 import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.OffHeapAllocatorType;
+import org.infinispan.container.offheap.HybridOffHeapEntryFactoryImpl;
 import org.infinispan.container.offheap.OffHeapEntryFactory;
 import org.infinispan.container.offheap.OffHeapEntryFactoryImpl;
 import org.infinispan.container.offheap.OffHeapMemoryAllocator;
+import org.infinispan.container.offheap.PooledOffHeapMemoryAllocator;
 import org.infinispan.container.offheap.UnpooledOffHeapMemoryAllocator;
 import org.infinispan.context.InvocationContextFactory;
 import org.infinispan.context.impl.NonTransactionalInvocationContextFactory;
@@ -192,8 +195,14 @@ public Object construct(String componentName) {
             return null;
          }
       } else if (componentName.equals(OffHeapEntryFactory.class.getName())) {
+         if (configuration.memory().valuesOnHeap()) {
+            return new HybridOffHeapEntryFactoryImpl();
+         }
          return new OffHeapEntryFactoryImpl();
       } else if (componentName.equals(OffHeapMemoryAllocator.class.getName())) {
+         if (configuration.memory().offHeapAllocator() == OffHeapAllocatorType.POOLED) {
+            return new PooledOffHeapMemoryAllocator();
+         }
          return new UnpooledOffHeapMemoryAllocator();
       } else if (componentName.equals(ClusterCacheNotifier.class.getName())) {
          return ComponentAlias.of(CacheNotifier.class);
@@ -5,9 +5,12 @@
 import static org.infinispan.persistence.manager.PersistenceManager.AccessMode.SHARED;
 
 import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Spliterator;
@@ -159,7 +162,26 @@ public Object visitGetCacheEntryCommand(InvocationContext ctx,
 
    @Override
    public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) {
-      return visitManyDataCommand(ctx, command, command.getKeys());
+      if (activation) {
+         // Activation orders each load with the other operations on the same key
+         return visitManyDataCommand(ctx, command, command.getKeys());
+      }
+      List<Object> keysToLoad = null;
+      for (Object key : command.getKeys()) {
+         if (!skipLoad(command, key, ctx)) {
+            if (keysToLoad == null) {
+               keysToLoad = new ArrayList<>();
+            }
+            keysToLoad.add(key);
+         }
+      }
+      if (keysToLoad == null) {
+         return invokeNext(ctx, command);
+      }
+      CompletionStage<Void> stage = keysToLoad.size() == 1 ?
+            loadInContext(ctx, keysToLoad.get(0), command) :
+            loadAllInContext(ctx, keysToLoad, command);
+      return asyncInvokeNext(ctx, command, stage);
    }
 
    @Override
@@ -372,15 +394,7 @@ protected CompletionStage<Void> loadInContext(InvocationContext ctx, Object key,
 
       CompletionStage<InternalCacheEntry<K, V>> otherCF = pendingLoads.putIfAbsent(key, cf);
 
-      Consumer<? super InternalCacheEntry<K, V>> action = entry -> {
-         if (entry != null) {
-            entryFactory.wrapExternalEntry(ctx, key, entry, true, cmd instanceof WriteCommand);
-         }
-         CacheEntry contextEntry = ctx.lookupEntry(key);
-         if (contextEntry instanceof MVCCEntry) {
-            ((MVCCEntry) contextEntry).setLoaded(true);
-         }
-      };
+      Consumer<? super InternalCacheEntry<K, V>> action = wrapInContext(ctx, key, cmd);
 
       // If another thread is completing the request, then resume on a different CPU thread so we don't have to
       // wait until the other command completes
@@ -405,6 +419,89 @@ protected CompletionStage<Void> loadInContext(InvocationContext ctx, Object key,
       return cf.thenAccept(action);
    }
 
+   private Consumer<InternalCacheEntry<K, V>> wrapInContext(InvocationContext ctx, Object key, FlagAffectedCommand cmd) {
+      return entry -> {
+         if (entry != null) {
+            entryFactory.wrapExternalEntry(ctx, key, entry, true, cmd instanceof WriteCommand);
+         }
+         CacheEntry contextEntry = ctx.lookupEntry(key);
+         if (contextEntry instanceof MVCCEntry) {
+            ((MVCCEntry) contextEntry).setLoaded(true);
+         }
+      };
+   }
+
+   /**
+    * Same as {@link #loadInContext(InvocationContext, Object, FlagAffectedCommand)} for several keys. The keys that are
+    * not in memory and not being loaded already are loaded from the stores with a single
+    * {@link PersistenceManager#loadFromAllStores(Set, boolean, boolean)} invocation.
+    * @param ctx context for this invocation
+    * @param keys keys to find the entries for
+    * @param cmd the command that initiated this load
+    * @return a stage that when complete will have the entries loaded into the provided context
+    */
+   protected CompletionStage<Void> loadAllInContext(InvocationContext ctx, Collection<?> keys, FlagAffectedCommand cmd) {
+      AggregateCompletionStage<Void> aggregateStage = CompletionStages.aggregateCompletionStage();
+      Map<Object, CompletableFuture<InternalCacheEntry<K, V>>> batch = new HashMap<>(keys.size());
+      for (Object key : keys) {
+         int segment = SegmentSpecificCommand.extractSegment(cmd, key, partitioner);
+         if (dataContainer.peek(segment, key) != null) {
+            // The entry is in memory or expired, neither needs a batch load
+            aggregateStage.dependsOn(loadInContext(ctx, key, cmd));
+            continue;
+         }
+         CompletableFuture<InternalCacheEntry<K, V>> cf = new CompletableFuture<>();
+         CompletionStage<InternalCacheEntry<K, V>> otherCF = pendingLoads.putIfAbsent(key, cf);
+         if (otherCF != null) {
+            if (trace) {
+               log.tracef("Piggybacking on concurrent cache loader for key %s", key);
+            }
+            aggregateStage.dependsOn(otherCF.thenAcceptAsync(wrapInContext(ctx, key, cmd), cpuExecutor));
+            continue;
+         }
+         batch.put(key, cf);
+         aggregateStage.dependsOn(cf.thenAccept(wrapInContext(ctx, key, cmd)));
+      }
+      if (batch.isEmpty()) {
+         return aggregateStage.freeze();
+      }
+
+      if (trace) {
+         log.tracef("Loading entries for keys %s", batch.keySet());
+      }
+      persistenceManager.<K, V>loadFromAllStores(batch.keySet(), ctx.isOriginLocal(), true)
+            .thenCompose(entries -> {
+               Map<Object, InternalCacheEntry<K, V>> loaded = new HashMap<>(entries.size());
+               for (Object key : batch.keySet()) {
+                  int segment = SegmentSpecificCommand.extractSegment(cmd, key, partitioner);
+                  InternalCacheEntry<K, V> ice = storeInDataContainer(key, segment, entries.get(key));
+                  if (ice != null) {
+                     loaded.put(key, ice);
+                  }
+               }
+               if (notifier.hasListener(CacheEntryLoaded.class) || notifier.hasListener(CacheEntryActivated.class)) {
+                  CompletionStage<Void> notificationStage = CompletableFutures.completedNull();
+                  for (InternalCacheEntry<K, V> ice : loaded.values()) {
+                     notificationStage = notificationStage.thenCompose(ignore -> notifyLoaded(ctx, ice, cmd));
+                  }
+                  return notificationStage.thenApply(ignore -> loaded);
+               }
+               return CompletableFuture.completedFuture(loaded);
+            })
+            .whenComplete((loaded, throwable) -> {
+               // Make sure we clean up our pendingLoads properly and before completing any responses
+               for (Map.Entry<Object, CompletableFuture<InternalCacheEntry<K, V>>> e : batch.entrySet()) {
+                  pendingLoads.remove(e.getKey());
+                  if (throwable != null) {
+                     e.getValue().completeExceptionally(throwable);
+                  } else {
+                     e.getValue().complete(loaded.get(e.getKey()));
+                  }
+               }
+            });
+      return aggregateStage.freeze();
+   }
+
    public CompletionStage<InternalCacheEntry<K, V>> loadAndStoreInDataContainer(InvocationContext ctx, Object key,
                                                                                 int segment, FlagAffectedCommand cmd) {
       InternalCacheEntry<K, V> entry = dataContainer.peek(segment, key);
@@ -420,45 +517,12 @@ public CompletionStage<InternalCacheEntry<K, V>> loadAndStoreInDataContainer(Inv
          log.tracef("Loading entry for key %s", key);
       }
       CompletionStage<InternalCacheEntry<K, V>> resultStage = persistenceManager.<K, V>loadFromAllStores(key, segment,
-            ctx.isOriginLocal(), includeStores).thenApply(me -> {
-         if (me != null) {
-            InternalCacheEntry<K, V> ice = PersistenceUtil.convert(me, iceFactory);
-            if (getStatisticsEnabled()) {
-               cacheLoads.incrementAndGet();
-            }
-            if (trace) {
-               log.tracef("Loaded entry: %s for key %s from store and attempting to insert into data container",
-                     ice, key);
-            }
-
-            DataContainer.ComputeAction<K, V> putIfAbsentOrExpired = (k, oldEntry, factory) -> {
-               if (oldEntry != null &&
-                     (!oldEntry.canExpire() || !oldEntry.isExpired(timeService.wallClockTime()))) {
-                  return oldEntry;
-               }
-               return ice;
-            };
-
-            dataContainer.compute(segment, (K) key, putIfAbsentOrExpired);
-            return ice;
-         } else {
-            if (trace) {
-               log.tracef("Missed entry load for key %s from store", key);
-            }
-            if (getStatisticsEnabled()) {
-               cacheMisses.incrementAndGet();
-            }
-            return null;
-         }
-      });
+            ctx.isOriginLocal(), includeStores).thenApply(me -> storeInDataContainer(key, segment, me));
 
       if (notifier.hasListener(CacheEntryLoaded.class) || notifier.hasListener(CacheEntryActivated.class)) {
          return resultStage.thenCompose(ice -> {
             if (ice != null) {
-               V value = ice.getValue();
-               CompletionStage<Void> notificationStage = sendNotification(key, value, true, ctx, cmd);
-               notificationStage = notificationStage.thenCompose(v -> sendNotification(key, value, false, ctx, cmd));
-               return notificationStage.thenApply(ignore -> ice);
+               return notifyLoaded(ctx, ice, cmd).thenApply(ignore -> ice);
             } else {
                return CompletableFutures.completedNull();
             }
@@ -467,6 +531,45 @@ public CompletionStage<InternalCacheEntry<K, V>> loadAndStoreInDataContainer(Inv
       return resultStage;
    }
 
+   private InternalCacheEntry<K, V> storeInDataContainer(Object key, int segment, MarshallableEntry<K, V> me) {
+      if (me != null) {
+         InternalCacheEntry<K, V> ice = PersistenceUtil.convert(me, iceFactory);
+         if (getStatisticsEnabled()) {
+            cacheLoads.incrementAndGet();
+         }
+         if (trace) {
+            log.tracef("Loaded entry: %s for key %s from store and attempting to insert into data container",
+                  ice, key);
+         }
+
+         DataContainer.ComputeAction<K, V> putIfAbsentOrExpired = (k, oldEntry, factory) -> {
+            if (oldEntry != null &&
+                  (!oldEntry.canExpire() || !oldEntry.isExpired(timeService.wallClockTime()))) {
+               return oldEntry;
+            }
+            return ice;
+         };
+
+         dataContainer.compute(segment, (K) key, putIfAbsentOrExpired);
+         return ice;
+      } else {
+         if (trace) {
+            log.tracef("Missed entry load for key %s from store", key);
+         }
+         if (getStatisticsEnabled()) {
+            cacheMisses.incrementAndGet();
+         }
+         return null;
+      }
+   }
+
+   private CompletionStage<Void> notifyLoaded(InvocationContext ctx, InternalCacheEntry<K, V> ice, FlagAffectedCommand cmd) {
+      K key = ice.getKey();
+      V value = ice.getValue();
+      CompletionStage<Void> notificationStage = sendNotification(key, value, true, ctx, cmd);
+      return notificationStage.thenCompose(v -> sendNotification(key, value, false, ctx, cmd));
+   }
+
    private boolean skipLoad(FlagAffectedCommand cmd, Object key, InvocationContext ctx) {
       CacheEntry e = ctx.lookupEntry(key);
       if (e == null) {
@@ -54,7 +54,9 @@
 import org.infinispan.functional.impl.StatsEnvelope;
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Parameter;
 import org.infinispan.jmx.annotations.Units;
 import org.infinispan.topology.CacheTopology;
 
@@ -630,6 +632,18 @@ public long getDataMemoryUsed() {
       return 0;
    }
 
+   @ManagedOperation(
+         description = "Amount of memory in bytes used by the entries of the given segment, or -1 if the memory used by each segment is not tracked. It is only tracked by segmented heap containers with memory based eviction",
+         displayName = "Memory used by the data of a segment"
+   )
+   public long getDataMemoryUsedBySegment(@Parameter(name = "segment", description = "The segment") int segment) {
+      try {
+         return dataContainer.getSegmentMemoryUsage(segment);
+      } catch (UnsupportedOperationException e) {
+         return -1;
+      }
+   }
+
    @ManagedAttribute(
          description = "Amount off-heap memory used by this cache (bytes)",
          displayName = "Off-Heap memory used"
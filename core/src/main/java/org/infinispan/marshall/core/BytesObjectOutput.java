@@ -17,7 +17,11 @@ final class BytesObjectOutput implements ObjectOutput {
    int pos;
 
    BytesObjectOutput(int size, GlobalMarshaller marshaller) {
-      this.bytes = new byte[size];
+      this(new byte[size], marshaller);
+   }
+
+   BytesObjectOutput(byte[] bytes, GlobalMarshaller marshaller) {
+      this.bytes = bytes;
       this.marshaller = marshaller;
    }
 
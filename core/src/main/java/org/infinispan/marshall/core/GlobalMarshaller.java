@@ -14,6 +14,7 @@
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.dataconversion.MediaType;
 import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.io.ByteBufferImpl;
 import org.infinispan.commons.io.ExposedByteArrayOutputStream;
 import org.infinispan.commons.marshall.AdvancedExternalizer;
 import org.infinispan.commons.marshall.BufferSizePredictor;
@@ -103,8 +104,17 @@ public class GlobalMarshaller implements StreamingMarshaller {
    static final int FLAG_ARRAY_MEDIUM              = 0x80;
    static final int FLAG_ARRAY_LARGE               = 0xC0;
 
+   // Initial size of the output reused by each thread, and the largest size it may keep between invocations
+   private static final int SCRATCH_OUTPUT_SIZE = 512;
+   private static final int MAX_SCRATCH_OUTPUT_SIZE = 16 * 1024;
+
 
    private final MarshallableTypeHints marshallableTypeHints = new MarshallableTypeHints();
+   // Commands and responses are marshalled into an output reused by the thread and then copied to an array of the exact
+   // size, instead of allocating an array sized by the BufferSizePredictor that may need to grow several times.
+   // The copy cannot be avoided, because JGroups keeps the message buffer until the message is acknowledged.
+   // The thread only keeps the array, so that it doesn't keep the marshaller alive after the cache manager stops.
+   private static final ThreadLocal<ScratchBuffer> scratchBuffer = ThreadLocal.withInitial(ScratchBuffer::new);
 
    @Inject GlobalComponentRegistry gcr;
    @Inject RemoteCommandsFactory cmdFactory;
@@ -161,15 +171,27 @@ public PersistenceMarshaller getPersistenceMarshaller() {
    @Override
    public byte[] objectToByteBuffer(Object obj) throws IOException, InterruptedException {
       try {
-         BytesObjectOutput out = writeObjectOutput(obj);
-         return out.toBytes(); // trim out unused bytes
+         ScratchBuffer scratch = scratchBuffer.get();
+         if (scratch.inUse) {
+            // Nested invocation, e.g. from an externalizer
+            return writeObjectOutput(obj).toBytes();
+         }
+         scratch.inUse = true;
+         BytesObjectOutput out = new BytesObjectOutput(scratch.bytes, this);
+         try {
+            writeNullableObject(obj, out);
+            return out.toBytes(); // trim out unused bytes
+         } finally {
+            scratch.release(out.bytes);
+         }
       } catch (java.io.NotSerializableException nse) {
          if (log.isDebugEnabled()) log.debug("Object is not serializable", nse);
          throw new NotSerializableException(nse.getMessage(), nse.getCause());
       }
    }
 
-   private BytesObjectOutput writeObjectOutput(Object obj) throws IOException {
+   /* visible for testing */
+   BytesObjectOutput writeObjectOutput(Object obj) throws IOException {
       BufferSizePredictor sizePredictor = marshallableTypeHints.getBufferSizePredictor(obj);
       BytesObjectOutput out = writeObjectOutput(obj, sizePredictor.nextSize(obj));
       sizePredictor.recordSize(out.pos);
@@ -299,8 +321,23 @@ public MediaType mediaType() {
    @Override
    public ByteBuffer objectToBuffer(Object o) throws IOException, InterruptedException {
       try {
-         BytesObjectOutput out = writeObjectOutput(o);
-         return out.toByteBuffer();
+         ScratchBuffer scratch = scratchBuffer.get();
+         if (scratch.inUse) {
+            // Nested invocation, e.g. from an externalizer
+            return writeObjectOutput(o).toByteBuffer();
+         }
+         scratch.inUse = true;
+         BytesObjectOutput out = new BytesObjectOutput(scratch.bytes, this);
+         try {
+            writeNullableObject(o, out);
+            if (out.bytes.length > MAX_SCRATCH_OUTPUT_SIZE) {
+               // The array is too large to be kept by the thread, so it can be handed over without copying it
+               return out.toByteBuffer();
+            }
+            return new ByteBufferImpl(out.toBytes());
+         } finally {
+            scratch.release(out.bytes);
+         }
       } catch (java.io.NotSerializableException nse) {
          if (log.isDebugEnabled()) log.debug("Object is not serializable", nse);
          throw new NotSerializableException(nse.getMessage(), nse.getCause());
@@ -906,4 +943,23 @@ Object readUnknown(Marshaller marshaller, ObjectInput in) throws IOException, Cl
          return marshaller.objectFromByteBuffer(bytes);
       }
    }
+
+   /**
+    * The array reused by a thread to marshall objects, unless it is already marshalling an object with it.
+    * It must not reference any marshaller, because it is shared by all the marshallers in the JVM.
+    */
+   private static final class ScratchBuffer {
+      byte[] bytes = new byte[SCRATCH_OUTPUT_SIZE];
+      boolean inUse;
+
+      /**
+       * @param usedBytes the array of the output, which replaces the initial one if the output had to grow
+       */
+      void release(byte[] usedBytes) {
+         if (usedBytes.length <= MAX_SCRATCH_OUTPUT_SIZE) {
+            bytes = usedBytes;
+         }
+         inUse = false;
+      }
+   }
 }
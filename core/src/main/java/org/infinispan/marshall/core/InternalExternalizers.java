@@ -35,6 +35,7 @@
 import org.infinispan.container.entries.metadata.MetadataTransientCacheValue;
 import org.infinispan.container.entries.metadata.MetadataTransientMortalCacheEntry;
 import org.infinispan.container.entries.metadata.MetadataTransientMortalCacheValue;
+import org.infinispan.container.entries.versioned.AbstractVersionedCacheEntry;
 import org.infinispan.container.versioning.NumericVersion;
 import org.infinispan.container.versioning.SimpleClusteredVersion;
 import org.infinispan.context.Flag;
@@ -248,6 +249,7 @@ static ClassToExternalizerMap load(GlobalComponentRegistry gcr, RemoteCommandsFa
       addInternalExternalizer(new UnsuccessfulResponse.Externalizer(), exts);
       addInternalExternalizer(new UnsureResponse.Externalizer(), exts);
       addInternalExternalizer(new UuidExternalizer(), exts);
+      addInternalExternalizer(new AbstractVersionedCacheEntry.Externalizer(), exts);
       addInternalExternalizer(new VersionedResult.Externalizer(), exts);
       addInternalExternalizer(new VersionedResults.Externalizer(), exts);
       addInternalExternalizer(new WrappedByteArray.Externalizer(), exts);
@@ -128,7 +128,7 @@ private void marshallParameters(CacheRpcCommand cmd, ObjectOutput oo) throws IOE
    public CacheRpcCommand readObject(ObjectInput input) throws IOException, ClassNotFoundException {
       //header
       byte type = input.readByte();
-      byte methodId = (byte) input.readShort();
+      byte methodId = input.readByte();
       ByteString cacheName = ByteString.readObject(input);
 
       //create the object input
@@ -23,6 +23,7 @@
 import org.infinispan.commands.functional.WriteOnlyManyEntriesCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.commands.remote.CoalescedRpcCommand;
 import org.infinispan.commands.remote.GetKeysInGroupCommand;
 import org.infinispan.commands.write.ClearCommand;
 import org.infinispan.commands.write.ComputeCommand;
@@ -35,6 +36,7 @@
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.commands.write.RemoveExpiredCommand;
 import org.infinispan.commands.write.ReplaceCommand;
+import org.infinispan.commons.io.UnsignedNumeric;
 import org.infinispan.commons.marshall.AbstractExternalizer;
 import org.infinispan.commons.util.Util;
 import org.infinispan.factories.GlobalComponentRegistry;
@@ -69,7 +71,7 @@ public void writeObject(ObjectOutput output, ReplicableCommand command) throws I
    protected void writeCommandParameters(ObjectOutput output, ReplicableCommand command) throws IOException {
       command.writeTo(output);
       if (command instanceof TopologyAffectedCommand) {
-         output.writeInt(((TopologyAffectedCommand) command).getTopologyId());
+         UnsignedNumeric.writeUnsignedInt(output, ((TopologyAffectedCommand) command).getTopologyId());
       }
    }
 
@@ -83,7 +85,7 @@ protected void writeCommandHeader(ObjectOutput output, ReplicableCommand command
       else
          output.writeByte(0);
 
-      output.writeShort(command.getCommandId());
+      output.writeByte(command.getCommandId());
    }
 
    @Override
@@ -95,14 +97,14 @@ public ReplicableCommand readObject(ObjectInput input) throws IOException, Class
 
    private ReplicableCommand readCommandHeader(ObjectInput input) throws IOException {
       byte type = input.readByte();
-      short methodId = input.readShort();
-      return cmdFactory.fromStream((byte) methodId, type);
+      byte methodId = input.readByte();
+      return cmdFactory.fromStream(methodId, type);
    }
 
    void readCommandParameters(ObjectInput input, ReplicableCommand command) throws IOException, ClassNotFoundException {
       command.readFrom(input);
       if (command instanceof TopologyAffectedCommand) {
-         ((TopologyAffectedCommand) command).setTopologyId(input.readInt());
+         ((TopologyAffectedCommand) command).setTopologyId(UnsignedNumeric.readUnsignedInt(input));
       }
    }
 
@@ -134,7 +136,7 @@ public Set<Class<? extends ReplicableCommand>> getTypeClasses() {
             ReadWriteManyCommand.class, ReadWriteManyEntriesCommand.class,
             TxReadOnlyKeyCommand.class, TxReadOnlyManyCommand.class,
             ReplicableRunnableCommand.class, ReplicableManagerFunctionCommand.class,
-            HeartBeatCommand.class);
+            HeartBeatCommand.class, CoalescedRpcCommand.class);
       // Search only those commands that replicable and not cache specific replicable commands
       Collection<Class<? extends ReplicableCommand>> moduleCommands = globalComponentRegistry.getModuleProperties().moduleOnlyReplicableCommands();
       if (moduleCommands != null && !moduleCommands.isEmpty()) coreCommands.addAll(moduleCommands);
@@ -1,5 +1,10 @@
 package org.infinispan.persistence.async;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.infinispan.persistence.spi.MarshallableEntry;
@@ -45,6 +50,31 @@ public MarshallableEntry<K, V> loadEntry(Object key) {
       return super.loadEntry(key);
    }
 
+   @Override
+   public Map<Object, MarshallableEntry<K, V>> loadEntries(Collection<?> keys) {
+      State s = state.get();
+      Map<Object, MarshallableEntry<K, V>> entries = new HashMap<>(keys.size());
+      List<Object> notQueued = new ArrayList<>(keys.size());
+      for (Object key : keys) {
+         Modification mod = s.get(key);
+         if (mod != null) {
+            switch (mod.getType()) {
+               case REMOVE:
+               case CLEAR:
+                  continue;
+               case STORE:
+                  entries.put(key, ((Store) mod).getStoredValue());
+                  continue;
+            }
+         }
+         notQueued.add(key);
+      }
+      if (!notQueued.isEmpty()) {
+         entries.putAll(super.loadEntries(notQueued));
+      }
+      return entries;
+   }
+
 
    @Override
    public boolean contains(Object key) {
@@ -3,6 +3,7 @@
 import static org.infinispan.util.logging.Log.PERSISTENCE;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Spliterator;
@@ -16,7 +17,9 @@
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -25,9 +28,12 @@
 
 import org.infinispan.Cache;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.time.TimeService;
 import org.infinispan.configuration.cache.AsyncStoreConfiguration;
 import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.Configurations;
 import org.infinispan.configuration.cache.PersistenceConfiguration;
+import org.infinispan.distribution.ch.KeyPartitioner;
 import org.infinispan.factories.threads.DefaultThreadFactory;
 import org.infinispan.persistence.modifications.Modification;
 import org.infinispan.persistence.modifications.ModificationsList;
@@ -63,6 +69,12 @@
  * <p/>
  * Write operations affecting same key are now coalesced so that only the final state is actually stored.
  * <p/>
+ * Modifications are flushed as soon as a thread is free to apply them, or, if a maximum flush delay is configured,
+ * once the flush batch size is reached or the delay elapses. While the underlying store is applying a batch, new
+ * modifications accumulate, so batches grow with the latency of the store. Modifications are partitioned by segment:
+ * all modifications of a segment in a batch are applied by the same thread. The modifications of a key are not applied
+ * before the modification of the key from the previous batch.
+ * <p/>
  *
  * @author Manik Surtani
  * @author Galder Zamarreño
@@ -74,12 +86,18 @@
 public class AsyncCacheWriter extends DelegatingCacheWriter {
    private static final Log log = LogFactory.getLog(AsyncCacheWriter.class);
    private static final boolean trace = log.isTraceEnabled();
+   // number of partitions the keys are hashed into when the cache is not segmented
+   private static final int HASH_PARTITIONS = 256;
 
    private ExecutorService executor;
    private Thread coordinator;
    private int concurrencyLevel;
    private String cacheName;
    private String nodeName;
+   private KeyPartitioner keyPartitioner;
+   private TimeService timeService;
+   private long maxFlushDelay;
+   private AsyncStoreStatistics statistics;
 
    protected BufferLock stateLock;
    @GuardedBy("stateLock")
@@ -94,6 +112,12 @@ public class AsyncCacheWriter extends DelegatingCacheWriter {
 
    protected AsyncStoreConfiguration asyncConfiguration;
 
+   private final LongAdder coalescedModifications = new LongAdder();
+   private final LongAdder flushes = new LongAdder();
+   private final LongAdder flushedModifications = new LongAdder();
+   private final LongAdder flushNanos = new LongAdder();
+   private final AtomicLong maxFlushNanos = new AtomicLong();
+
    public AsyncCacheWriter(CacheWriter delegate) {
       super(delegate);
    }
@@ -108,6 +132,8 @@ public void init(InitializationContext ctx) {
       concurrencyLevel = cacheCfg != null ? cacheCfg.locking().concurrencyLevel() : 16;
       cacheName = cache != null ? cache.getName() : null;
       nodeName = cache != null ? cache.getCacheManager().getCacheManagerConfiguration().transport().nodeName() : null;
+      keyPartitioner = cacheCfg != null && Configurations.needSegments(cacheCfg) ? ctx.getKeyPartitioner() : null;
+      timeService = ctx.getTimeService();
    }
 
    @Override
@@ -115,7 +141,12 @@ public void start() {
       log.debugf("Async cache loader starting %s", this);
       state.set(newState(false, null));
       stopped = false;
-      stateLock = new BufferLock(asyncConfiguration.modificationQueueSize());
+      int queueSize = asyncConfiguration.modificationQueueSize();
+      int batchSize = asyncConfiguration.flushBatchSize() > 0 ? asyncConfiguration.flushBatchSize() : queueSize;
+      if (batchSize <= 0 || (queueSize > 0 && batchSize > queueSize))
+         batchSize = queueSize > 0 ? queueSize : Integer.MAX_VALUE;
+      maxFlushDelay = asyncConfiguration.maxFlushDelay();
+      stateLock = new BufferLock(queueSize, batchSize);
 
       // Create a thread pool with unbounded work queue, so that all work is accepted and eventually
       // executed. A bounded queue could throw RejectedExecutionException and thus lose data.
@@ -133,14 +164,26 @@ public void start() {
 
       coordinator = coordinatorThreadFactory.newThread(new AsyncStoreCoordinator(asyncConfiguration.failSilently()));
       coordinator.start();
+
+      Cache cache = ctx.getCache();
+      if (cache != null && cache.getCacheConfiguration().jmxStatistics().enabled()) {
+         statistics = AsyncStoreStatistics.getOrCreate(cache.getAdvancedCache().getComponentRegistry());
+         statistics.addWriter(this);
+      }
    }
 
    @Override
    public void stop() {
       if (trace) log.tracef("Stop async store %s", this);
+      if (statistics != null) {
+         statistics.removeWriter(this);
+         statistics = null;
+      }
       stateLock.writeLock(0);
       stopped = true;
       stateLock.writeUnlock();
+      // don't wait for the flush delay to elapse
+      stateLock.flush();
 
       try {
          if (!asyncConfiguration.failSilently() && !delegateAvailable) {
@@ -267,7 +310,7 @@ private void put(Modification mod, int count) {
             log.tracef("Queue modification: %s", mod);
 
          assertNotStopped();
-         state.get().put(mod);
+         recordCoalesced(state.get().put(mod));
       } finally {
          stateLock.writeUnlock();
       }
@@ -276,16 +319,89 @@ private void put(Modification mod, int count) {
    private void putAll(List<Modification> mods) {
       stateLock.writeLock(mods.size());
       try {
-         state.get().put(new ModificationsList(mods));
+         recordCoalesced(state.get().put(new ModificationsList(mods)));
       } finally {
          stateLock.writeUnlock();
       }
    }
 
+   private void recordCoalesced(int coalesced) {
+      if (coalesced > 0)
+         coalescedModifications.add(coalesced);
+   }
+
+   private void recordFlush(int modifications, long nanos) {
+      flushes.increment();
+      flushedModifications.add(modifications);
+      flushNanos.add(nanos);
+      maxFlushNanos.accumulateAndGet(nanos, Math::max);
+   }
+
+   private int partition(Object key) {
+      return keyPartitioner != null ? keyPartitioner.getSegment(key) : Math.floorMod(key.hashCode(), HASH_PARTITIONS);
+   }
+
+   private static Object key(Modification mod) {
+      return mod.getType() == Modification.Type.STORE ? ((Store) mod).getKey() : ((Remove) mod).getKey();
+   }
+
    public AtomicReference<State> getState() {
       return state;
    }
 
+   /**
+    * @return the number of modifications that are buffered or being applied to the underlying store, after
+    *         coalescing
+    */
+   public int getQueueDepth() {
+      State s = state.get();
+      return s != null ? s.size() : 0;
+   }
+
+   /**
+    * @return the number of modifications that were not applied to the underlying store because a later modification
+    *         of the same key replaced them while they were buffered
+    */
+   public long getCoalescedModifications() {
+      return coalescedModifications.sum();
+   }
+
+   /**
+    * @return the number of batches applied to the underlying store
+    */
+   public long getFlushes() {
+      return flushes.sum();
+   }
+
+   /**
+    * @return the number of modifications applied to the underlying store
+    */
+   public long getFlushedModifications() {
+      return flushedModifications.sum();
+   }
+
+   /**
+    * @return the average time in nanoseconds the underlying store took to apply a batch
+    */
+   public long getAverageFlushLatency() {
+      long count = flushes.sum();
+      return count > 0 ? flushNanos.sum() / count : 0;
+   }
+
+   /**
+    * @return the total time in nanoseconds the underlying store took to apply the batches
+    */
+   long getFlushLatency() {
+      return flushNanos.sum();
+   }
+
+   /**
+    * @return the maximum time in nanoseconds the underlying store took to apply a batch
+    */
+   public long getMaxFlushLatency() {
+      return maxFlushNanos.get();
+   }
+
    protected void clearStore() {
       // No-op, not supported for async
    }
@@ -305,6 +421,16 @@ public void run() {
             for (;;) {
                final State s, head, tail;
                final boolean shouldStop;
+               if (maxFlushDelay > 0) {
+                  try {
+                     // Give the writers a chance to fill a batch and to coalesce repeated writes
+                     stateLock.awaitBatch(maxFlushDelay, TimeUnit.MILLISECONDS);
+                  } catch (InterruptedException e) {
+                     log.debugf("%s interrupted: %s", this, e);
+                     Thread.currentThread().interrupt();
+                     return;
+                  }
+               }
                stateLock.readLock();
                if (!failSilently) {
                   availabilityLock.lock();
@@ -350,7 +476,7 @@ public void run() {
                   final List<Modification> mods = new ArrayList<>(s.modifications.size());
                   final List<Modification> deferredMods = new ArrayList<>();
                   if (tail != null && tail.workerThreads.getCount() > 0) {
-                     // sort out modifications that are still in use by tail's AsyncStoreProcessors
+                     // sort out modifications of keys that are still in use by tail's AsyncStoreProcessors
                      for (Map.Entry<Object, Modification> e : s.modifications.entrySet()) {
                         if (!tail.modifications.containsKey(e.getKey()))
                            mods.add(e.getValue());
@@ -395,20 +521,20 @@ public void run() {
       }
 
       private List<AsyncStoreProcessor> createProcessors(State state, List<Modification> mods) {
-         List<AsyncStoreProcessor> result = new ArrayList<>();
-         // distribute modifications evenly across worker threads
          int threads = Math.min(mods.size(), asyncConfiguration.threadPoolSize());
-         if (threads > 0) {
-            // create background threads
-            int start = 0;
-            int quotient = mods.size() / threads;
-            int remainder = mods.size() % threads;
-            for (int i = 0; i < threads; i++) {
-               int end = start + quotient + (i < remainder ? 1 : 0);
-               result.add(new AsyncStoreProcessor(mods.subList(start, end), state, failSilently));
-               start = end;
-            }
-            assert start == mods.size() : "Thread distribution is broken!";
+         if (threads == 0)
+            return Collections.emptyList();
+         // distribute modifications across worker threads, keeping all modifications of a segment on the same thread
+         List<List<Modification>> partitions = new ArrayList<>(threads);
+         for (int i = 0; i < threads; i++)
+            partitions.add(new ArrayList<>(mods.size() / threads + 1));
+         for (Modification mod : mods)
+            partitions.get(partition(key(mod)) % threads).add(mod);
+
+         List<AsyncStoreProcessor> result = new ArrayList<>(threads);
+         for (List<Modification> partition : partitions) {
+            if (!partition.isEmpty())
+               result.add(new AsyncStoreProcessor(partition, state, failSilently));
          }
          return result;
       }
@@ -470,7 +596,9 @@ private void retryWork(int maxRetries) {
                      availabilityLock.unlock();
                   }
                }
+               long start = timeService.time();
                AsyncCacheWriter.this.applyModificationsSync(modifications);
+               recordFlush(modifications.size(), timeService.timeDuration(start, TimeUnit.NANOSECONDS));
                return;
             } catch (Exception e) {
                if (log.isDebugEnabled())
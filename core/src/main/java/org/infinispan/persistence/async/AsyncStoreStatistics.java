@@ -0,0 +1,123 @@
+package org.infinispan.persistence.async;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
+
+/**
+ * Exposes the statistics of the write-behind stores of a cache, summed over all of them. The statistics are only
+ * exposed when the cache statistics are enabled.
+ *
+ * @since 10.1
+ */
+@MBean(objectName = "AsyncStore", description = "Statistics of the write-behind stores")
+public class AsyncStoreStatistics {
+   private final Set<AsyncCacheWriter> writers = ConcurrentHashMap.newKeySet();
+
+   /**
+    * Returns the statistics of the cache, registering them the first time. They are registered before the cache
+    * registers its MBeans, and kept across restarts of the stores.
+    */
+   static AsyncStoreStatistics getOrCreate(ComponentRegistry componentRegistry) {
+      synchronized (AsyncStoreStatistics.class) {
+         AsyncStoreStatistics statistics = componentRegistry.getComponent(AsyncStoreStatistics.class);
+         if (statistics == null) {
+            statistics = new AsyncStoreStatistics();
+            componentRegistry.registerComponent(statistics, AsyncStoreStatistics.class);
+         }
+         return statistics;
+      }
+   }
+
+   void addWriter(AsyncCacheWriter writer) {
+      writers.add(writer);
+   }
+
+   void removeWriter(AsyncCacheWriter writer) {
+      writers.remove(writer);
+   }
+
+   @ManagedAttribute(
+         description = "Number of modifications that are buffered or being applied to the underlying stores",
+         displayName = "Queue depth"
+   )
+   public long getQueueDepth() {
+      long depth = 0;
+      for (AsyncCacheWriter writer : writers) {
+         depth += writer.getQueueDepth();
+      }
+      return depth;
+   }
+
+   @ManagedAttribute(
+         description = "Number of modifications that were replaced by a later modification of the same key while they were buffered",
+         displayName = "Coalesced modifications",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getCoalescedModifications() {
+      long coalesced = 0;
+      for (AsyncCacheWriter writer : writers) {
+         coalesced += writer.getCoalescedModifications();
+      }
+      return coalesced;
+   }
+
+   @ManagedAttribute(
+         description = "Number of batches applied to the underlying stores",
+         displayName = "Flushes",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getFlushes() {
+      long flushes = 0;
+      for (AsyncCacheWriter writer : writers) {
+         flushes += writer.getFlushes();
+      }
+      return flushes;
+   }
+
+   @ManagedAttribute(
+         description = "Number of modifications applied to the underlying stores",
+         displayName = "Flushed modifications",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getFlushedModifications() {
+      long modifications = 0;
+      for (AsyncCacheWriter writer : writers) {
+         modifications += writer.getFlushedModifications();
+      }
+      return modifications;
+   }
+
+   @ManagedAttribute(
+         description = "Average time the underlying stores took to apply a batch",
+         displayName = "Average flush latency",
+         units = Units.NANOSECONDS
+   )
+   public long getAverageFlushLatency() {
+      long flushes = 0;
+      long nanos = 0;
+      for (AsyncCacheWriter writer : writers) {
+         flushes += writer.getFlushes();
+         nanos += writer.getFlushLatency();
+      }
+      return flushes > 0 ? nanos / flushes : 0;
+   }
+
+   @ManagedAttribute(
+         description = "Maximum time the underlying stores took to apply a batch",
+         displayName = "Maximum flush latency",
+         units = Units.NANOSECONDS
+   )
+   public long getMaxFlushLatency() {
+      long max = 0;
+      for (AsyncCacheWriter writer : writers) {
+         max = Math.max(max, writer.getMaxFlushLatency());
+      }
+      return max;
+   }
+}
@@ -1,5 +1,6 @@
 package org.infinispan.persistence.async;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.AbstractQueuedSynchronizer;
 
 /**
@@ -10,7 +11,8 @@
  * data off to the back-end store.
  * <p/>
  * Additionally, {@link #writeLock(int)} blocks if the buffer is full, and {@link #readLock()}
- * blocks if no data is available.
+ * blocks if no data is available. If a batch size is configured, {@link #awaitBatch(long, TimeUnit)}
+ * lets the reader wait until enough data has been written.
  * <p/>
  * This lock implementation is <em>not</em> reentrant!
  *
@@ -71,6 +73,34 @@ protected boolean tryReleaseShared(int state) {
       }
    }
 
+   /**
+    * AQS state is the number of items written since the last reset, saturating at
+    * Integer.MAX_VALUE which is also used to request an immediate flush. AcquireShared blocks
+    * until the state reaches the requested batch size.
+    */
+   private static class Batch extends AbstractQueuedSynchronizer {
+      private static final long serialVersionUID = -4190233263717254436L;
+
+      @Override
+      protected int tryAcquireShared(int batchSize) {
+         return getState() >= batchSize ? 1 : -1;
+      }
+
+      @Override
+      protected boolean tryReleaseShared(int count) {
+         for (;;) {
+            int state = getState();
+            int next = state > Integer.MAX_VALUE - count ? Integer.MAX_VALUE : state + count;
+            if (compareAndSetState(state, next))
+               return true;
+         }
+      }
+
+      void reset(int count) {
+         setState(count);
+      }
+   }
+
    /**
     * Minimal non-reentrant read-write-lock. AQS state is number of concurrent shared locks, or 0
     * if unlocked, or -1 if locked exclusively.
@@ -117,6 +147,8 @@ protected boolean tryReleaseShared(int unused) {
    private final Sync sync;
    private final Counter counter;
    private final Available available;
+   private final Batch batch;
+   private final int batchSize;
 
    /**
     * Create a new BufferLock with the specified buffer size.
@@ -125,9 +157,24 @@ protected boolean tryReleaseShared(int unused) {
     *           the buffer size
     */
    BufferLock(int size) {
+      this(size, size > 0 ? size : Integer.MAX_VALUE);
+   }
+
+   /**
+    * Create a new BufferLock with the specified buffer and batch size.
+    *
+    * @param size
+    *           the buffer size
+    * @param batchSize
+    *           the number of items {@link #awaitBatch(long, TimeUnit)} waits for, should not be
+    *           greater than the buffer size
+    */
+   BufferLock(int size, int batchSize) {
       sync = new Sync();
       counter = size > 0 ? new Counter(size) : null;
       available = new Available();
+      batch = new Batch();
+      this.batchSize = batchSize;
    }
 
    /**
@@ -141,6 +188,8 @@ void writeLock(int count) {
       if (count > 0 && counter != null)
          counter.acquireShared(count);
       sync.acquireShared(1);
+      if (count > 0)
+         batch.releaseShared(count);
    }
 
    /**
@@ -160,6 +209,28 @@ void readLock() {
       sync.acquire(1);
    }
 
+   /**
+    * Waits until the buffer is not empty, and then until the batch size is reached, a flush is
+    * requested or the timeout elapses. Does not acquire the read lock.
+    *
+    * @param timeout
+    *           the maximum time to wait for the batch once the buffer is not empty
+    * @param unit
+    *           the time unit of the timeout argument
+    */
+   void awaitBatch(long timeout, TimeUnit unit) throws InterruptedException {
+      available.acquireSharedInterruptibly(1);
+      batch.tryAcquireSharedNanos(batchSize, unit.toNanos(timeout));
+   }
+
+   /**
+    * Makes a reader in {@link #awaitBatch(long, TimeUnit)} proceed without waiting for a full
+    * batch.
+    */
+   void flush() {
+      batch.releaseShared(Integer.MAX_VALUE);
+   }
+
    /**
     * Releases the read lock.
     */
@@ -176,6 +247,7 @@ void readUnlock() {
    void reset(int count) {
       if (counter != null)
          counter.releaseShared(count);
+      batch.reset(count);
       available.releaseShared(count);
    }
 
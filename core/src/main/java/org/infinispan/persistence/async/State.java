@@ -85,21 +85,32 @@ Map<Object, Modification> flattenModifications(ByRef<Boolean> containsClear) {
     *
     * @param mod
     *           the Modification to add, supports modification types STORE, REMOVE and LIST
+    * @return the number of modifications that replaced a modification of the same key
     */
-   void put(Modification mod) {
+   int put(Modification mod) {
       switch (mod.getType()) {
          case STORE:
-            modifications.put(((Store) mod).getKey(), mod);
-            break;
+            return modifications.put(((Store) mod).getKey(), mod) != null ? 1 : 0;
          case REMOVE:
-            modifications.put(((Remove) mod).getKey(), mod);
-            break;
+            return modifications.put(((Remove) mod).getKey(), mod) != null ? 1 : 0;
          case LIST:
+            int coalesced = 0;
             for (Modification m : ((ModificationsList) mod).getList())
-               put(m);
-            break;
+               coalesced += put(m);
+            return coalesced;
          default:
             throw new IllegalArgumentException("Unknown modification type " + mod.getType());
       }
    }
+
+   /**
+    * @return the number of modifications in this State object and chained (<code>next</code>)
+    *         State objects
+    */
+   int size() {
+      int size = 0;
+      for (State state = this; state != null; state = state.next)
+         size += state.modifications.size();
+      return size;
+   }
 }
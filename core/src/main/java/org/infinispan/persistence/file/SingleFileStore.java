@@ -10,14 +10,20 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Predicate;
@@ -26,7 +32,10 @@
 import org.infinispan.commons.io.ByteBufferFactory;
 import org.infinispan.commons.persistence.Store;
 import org.infinispan.commons.time.TimeService;
+import org.infinispan.commons.util.ByRef;
 import org.infinispan.configuration.cache.SingleFileStoreConfiguration;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.factories.KnownComponentNames;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
 import org.infinispan.persistence.spi.CacheLoader;
 import org.infinispan.persistence.spi.InitializationContext;
@@ -61,7 +70,16 @@
  * source.
  * <p/>
  * This class is fully thread safe, yet allows for concurrent load / store
- * of individual cache entries.
+ * of individual cache entries. Unless the store is bounded the index is a concurrent map and free space is kept in
+ * concurrent lists bucketed by size, so writers only contend when they pick the same free block. When the store is
+ * {@link SingleFileStoreConfiguration#segmented() segmented} (the default) there is a store with its own file per
+ * segment, which also allows a segment to be dropped by just deleting its file.
+ * <p/>
+ * Free blocks are only reused when a new entry fits into them, and only free blocks at the end of the file are
+ * truncated. When {@link SingleFileStoreConfiguration#compactionInterval() compaction} is enabled, entries at the end
+ * of a fragmented file are periodically moved into free blocks closer to its start, copying at most
+ * {@link SingleFileStoreConfiguration#compactionRate()} bytes per second in total for the stores of all the segments,
+ * so that the file can shrink again.
  *
  * @author Karsten Blees
  * @author Mircea Markus
@@ -86,15 +104,22 @@
    protected InitializationContext ctx;
 
    private FileChannel channel;
+   // When the store is bounded this is a synchronized access ordered map, which even reads modify: iterating it
+   // requires holding its monitor
    private Map<K, FileEntry> entries;
-   private SortedSet<FileEntry> freeList;
-   private long filePos = MAGIC.length;
+   private FreeList freeList;
+   private final AtomicLong filePos = new AtomicLong(MAGIC.length);
    private File file;
    private float fragmentationFactor = .75f;
-   // Prevent clear() from truncating the file after a write() allocated the entry but before it wrote the data
+   // Prevent clear() from truncating the file after a write() allocated the entry but before it wrote the data.
+   // Also held exclusively while free entries are merged or truncated, as that is not safe with concurrent allocations
    private ReadWriteLock resizeLock = new ReentrantReadWriteLock();
    private TimeService timeService;
    private MarshallableEntryFactory<K, V> entryFactory;
+   private SingleFileStoreCompactor compactor;
+   private SingleFileStoreStatistics statistics;
+   private final LongAdder compactedBytes = new LongAdder();
+   private final LongAdder reclaimedBytes = new LongAdder();
 
    @Override
    public void init(InitializationContext ctx) {
@@ -122,11 +147,10 @@ public void start() {
          channel = new RandomAccessFile(file, "rw").getChannel();
 
          // initialize data structures. Only use LinkedHashMap (LRU) for entries when cache store is bounded
-         Map<K, FileEntry> entryMap = configuration.maxEntries() > 0 ?
-               new LinkedHashMap<>(16, 0.75f, true) :
-               new HashMap<>();
-         entries = Collections.synchronizedMap(entryMap);
-         freeList = Collections.synchronizedSortedSet(new TreeSet<>());
+         entries = configuration.maxEntries() > 0 ?
+               Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true)) :
+               new ConcurrentHashMap<>();
+         freeList = new FreeList();
 
          // check file format and read persistent state if enabled for the cache
          byte[] header = new byte[MAGIC.length];
@@ -139,6 +163,19 @@ public void start() {
 
          // Initialize the fragmentation factor
          fragmentationFactor = configuration.fragmentationFactor();
+
+         ComponentRegistry componentRegistry = ctx.getCache().getAdvancedCache().getComponentRegistry();
+         if (ctx.getCache().getCacheConfiguration().jmxStatistics().enabled()) {
+            statistics = SingleFileStoreStatistics.getOrCreate(componentRegistry);
+            statistics.addStore(this);
+         }
+         if (configuration.compactionInterval() > 0) {
+            // With segmentation every segment has its own store, which share a single compaction task and rate
+            ScheduledExecutorService scheduledExecutor = componentRegistry.getComponent(ScheduledExecutorService.class,
+                  KnownComponentNames.EXPIRATION_SCHEDULED_EXECUTOR);
+            compactor = SingleFileStoreCompactor.getOrCreate(componentRegistry);
+            compactor.register(this, scheduledExecutor, ctx.getExecutor());
+         }
       } catch (Exception e) {
          throw new PersistenceException(e);
       }
@@ -146,6 +183,16 @@ public void start() {
 
    @Override
    public void stop() {
+      if (compactor != null) {
+         compactor.unregister(this);
+         compactor = null;
+      }
+      if (statistics != null) {
+         statistics.removeStore(this);
+         statistics = null;
+      }
+      // Wait for a concurrent compaction to finish moving its current entry
+      resizeLock.writeLock().lock();
       try {
          if (channel != null) {
             log.tracef("Stopping store %s, size = %d, file size = %d", ctx.getCache().getName(), entries.size(), channel.size());
@@ -155,10 +202,12 @@ public void stop() {
             channel = null;
             entries = null;
             freeList = null;
-            filePos = MAGIC.length;
+            filePos.set(MAGIC.length);
          }
       } catch (Exception e) {
          throw new PersistenceException(e);
+      } finally {
+         resizeLock.writeLock().unlock();
       }
    }
 
@@ -185,7 +234,8 @@ private void rebuildIndex() throws Exception {
       for (; ; ) {
          // read FileEntry fields from file (size, keyLen etc.)
          buf.clear().limit(KEY_POS);
-         channel.read(buf, filePos);
+         long offset = filePos.get();
+         channel.read(buf, offset);
          // return if end of file is reached
          if (buf.remaining() > 0)
             return;
@@ -197,15 +247,15 @@ private void rebuildIndex() throws Exception {
          int dataLen = buf.getInt();
          int metadataLen = buf.getInt();
          long expiryTime = buf.getLong();
-         FileEntry fe = new FileEntry(filePos, entrySize, keyLen, dataLen, metadataLen, expiryTime);
+         FileEntry fe = new FileEntry(offset, entrySize, keyLen, dataLen, metadataLen, expiryTime);
 
          // sanity check
          if (fe.size < KEY_POS + fe.keyLen + fe.dataLen + fe.metadataLen) {
-            throw PERSISTENCE.errorReadingFileStore(file.getPath(), filePos);
+            throw PERSISTENCE.errorReadingFileStore(file.getPath(), offset);
          }
 
          // update file pointer
-         filePos += fe.size;
+         filePos.set(offset + fe.size);
 
          // check if the entry is used or free
          if (fe.keyLen > 0) {
@@ -219,7 +269,11 @@ private void rebuildIndex() throws Exception {
             // deserialize key and add to entries map
             // Marshaller should allow for provided type return for safety
             K key = (K) ctx.getPersistenceMarshaller().objectFromByteBuffer(buf.array(), 0, fe.keyLen);
-            entries.put(key, fe);
+            FileEntry previous = entries.put(key, fe);
+            if (previous != null) {
+               // Written again or moved by compaction, but the process stopped before the old block was freed
+               free(previous);
+            }
          } else {
             // add to free list
             freeList.add(fe);
@@ -239,39 +293,23 @@ public boolean contains(Object key) {
 
    /**
     * Allocates the requested space in the file.
+    * <p/>
+    * Note: Caller must hold the {@code resizeLock} in shared mode.
     *
     * @param len requested space
     * @return allocated file position and length as FileEntry object
     */
    private FileEntry allocate(int len) {
-      synchronized (freeList) {
-         // lookup a free entry of sufficient size
-         SortedSet<FileEntry> candidates = freeList.tailSet(new FileEntry(0, len));
-         for (Iterator<FileEntry> it = candidates.iterator(); it.hasNext(); ) {
-            FileEntry free = it.next();
-            // ignore entries that are still in use by concurrent readers
-            if (free.isLocked())
-               continue;
-
-            // There's no race condition risk between locking the entry on
-            // loading and checking whether it's locked (or store allocation),
-            // because for the entry to be lockable, it needs to be in the
-            // entries collection, in which case it's not in the free list.
-            // The only way an entry can be found in the free list is if it's
-            // been removed, and to remove it, lock on "entries" needs to be
-            // acquired, which is also a pre-requisite for loading data.
-
-            // found one, remove from freeList
-            it.remove();
-            return allocateExistingEntry(free, len);
-         }
-
-         // no appropriate free section available, append at end of file
-         FileEntry fe = new FileEntry(filePos, len);
-         filePos += len;
-         if (trace) log.tracef("New entry allocated at %d:%d, %d free entries, file size is %d", fe.offset, fe.size, freeList.size(), filePos);
-         return fe;
+      // lookup a free entry of sufficient size
+      FileEntry free = freeList.take(len);
+      if (free != null) {
+         return allocateExistingEntry(free, len);
       }
+
+      // no appropriate free section available, append at end of file
+      FileEntry fe = new FileEntry(filePos.getAndAdd(len), len);
+      if (trace) log.tracef("New entry allocated at %d:%d, %d free entries, file size is %d", fe.offset, fe.size, freeList.size(), fe.offset + len);
+      return fe;
    }
 
    private FileEntry allocateExistingEntry(FileEntry free, int len) {
@@ -411,23 +449,21 @@ public void clear() {
       resizeLock.writeLock().lock();
       try {
          synchronized (entries) {
-            synchronized (freeList) {
-               // wait until all readers are done reading file entries
-               for (FileEntry fe : entries.values())
-                  fe.waitUnlocked();
-               for (FileEntry fe : freeList)
-                  fe.waitUnlocked();
-
-               // clear in-memory state
-               entries.clear();
-               freeList.clear();
-
-               // reset file
-               if (trace) log.tracef("Truncating file, current size is %d", filePos);
-               channel.truncate(0);
-               channel.write(ByteBuffer.wrap(MAGIC), 0);
-               filePos = MAGIC.length;
-            }
+            // wait until all readers are done reading file entries
+            for (FileEntry fe : entries.values())
+               fe.waitUnlocked();
+            for (FileEntry fe : freeList.entries())
+               fe.waitUnlocked();
+
+            // clear in-memory state
+            entries.clear();
+            freeList.clear();
+
+            // reset file
+            if (trace) log.tracef("Truncating file, current size is %d", filePos.get());
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(MAGIC), 0);
+            filePos.set(MAGIC.length);
          }
       } catch (Exception e) {
          throw new PersistenceException(e);
@@ -459,19 +495,19 @@ private MarshallableEntry<K, V> _load(Object key, boolean loadValue, boolean loa
       final FileEntry fe;
       resizeLock.readLock().lock();
       try {
-         synchronized (entries) {
-            // lookup FileEntry of the key
-            fe = entries.get(key);
-            if (fe == null)
-               return null;
-
-            // Entries are removed due to expiration from {@link SingleFileStore#purge}
-            if (fe.isExpired(timeService.wallClockTime())) {
-               return null;
-            } else {
-               // lock entry for reading before releasing entries monitor
-               fe.lock();
-            }
+         // lookup FileEntry of the key and lock it for reading atomically with regards to a concurrent removal,
+         // otherwise the entry could already be in the free list and allocated again before we read it
+         fe = entries.computeIfPresent((K) key, (k, e) -> {
+            e.lock();
+            return e;
+         });
+         if (fe == null)
+            return null;
+
+         // Entries are removed due to expiration from {@link SingleFileStore#purge}
+         if (fe.isExpired(timeService.wallClockTime())) {
+            fe.unlock();
+            return null;
          }
       } finally {
          resizeLock.readLock().unlock();
@@ -580,7 +616,7 @@ public Flowable<MarshallableEntry<K, V>> entryPublisher(Predicate<? super K> fil
    private void processFreeEntries() {
       // Get a reverse sorted list of free entries based on file offset (bigger entries will be ahead of smaller entries)
       // This helps to work backwards with free entries at end of the file
-      List<FileEntry> l  = new ArrayList<>(freeList);
+      List<FileEntry> l  = freeList.entries();
       l.sort((o1, o2) -> {
          long diff = o1.offset - o2.offset;
          return (diff == 0) ? 0 : ((diff > 0) ? -1 : 1);
@@ -605,12 +641,13 @@ private void truncateFile(List<FileEntry> entries) {
          // Till we have free entries at the end of the file,
          // we can remove them and contract the file to release disk
          // space.
-         if (!fe.isLocked() && ((fe.offset + fe.size) == filePos)) {
+         if (!fe.isLocked() && ((fe.offset + fe.size) == filePos.get())) {
             truncateOffset = fe.offset;
-            filePos = fe.offset;
+            filePos.set(fe.offset);
             freeList.remove(fe);
             it.remove();
             reclaimedSpace += fe.size;
+            reclaimedBytes.add(fe.size);
             removedEntries++;
          } else {
             break;
@@ -682,13 +719,11 @@ private void mergeAndLogEntry(FileEntry entry, int mergeCounter) {
    @Override
    public void purge(Executor threadPool, final PurgeListener task) {
       long now = timeService.wallClockTime();
-      List<KeyValuePair<Object, FileEntry>> entriesToPurge = new ArrayList<>();
+      List<KeyValuePair<K, FileEntry>> entriesToPurge = new ArrayList<>();
       synchronized (entries) {
-         for (Iterator<Map.Entry<K, FileEntry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
-            Map.Entry<K, FileEntry> next = it.next();
+         for (Map.Entry<K, FileEntry> next : entries.entrySet()) {
             FileEntry fe = next.getValue();
             if (fe.isExpired(now)) {
-               it.remove();
                entriesToPurge.add(new KeyValuePair<>(next.getKey(), fe));
             }
          }
@@ -696,11 +731,18 @@ public void purge(Executor threadPool, final PurgeListener task) {
 
       resizeLock.readLock().lock();
       try {
-         for (Iterator<KeyValuePair<Object, FileEntry>> it = entriesToPurge.iterator(); it.hasNext(); ) {
-            KeyValuePair<Object, FileEntry> next = it.next();
+         for (KeyValuePair<K, FileEntry> next : entriesToPurge) {
             FileEntry fe = next.getValue();
-            if (fe.isExpired(now)) {
-               it.remove();
+            // Only remove the entry if it wasn't concurrently replaced, the writer frees the old one otherwise.
+            // FileEntry.equals only compares the position, and a new entry for the same key may reuse the block.
+            ByRef.Boolean removed = new ByRef.Boolean(false);
+            entries.computeIfPresent(next.getKey(), (k, v) -> {
+               if (v != fe)
+                  return v;
+               removed.set(true);
+               return null;
+            });
+            if (removed.get()) {
                try {
                   free(fe);
                } catch (Exception e) {
@@ -709,14 +751,243 @@ public void purge(Executor threadPool, final PurgeListener task) {
                if (task != null) task.entryPurged(next.getKey());
             }
          }
+      } finally {
+         resizeLock.readLock().unlock();
+      }
+
+      // Disk space optimizations
+      resizeLock.writeLock().lock();
+      try {
+         processFreeEntries();
+      } finally {
+         resizeLock.writeLock().unlock();
+      }
+   }
 
-         // Disk space optimizations
-         synchronized (freeList) {
-           processFreeEntries();
+   /**
+    * @return the number of bytes copied
+    */
+   long compactIfFragmented(long budget) {
+      if (channel == null || getFragmentationRatio() < configuration.compactionThreshold()) {
+         return 0;
+      }
+      try {
+         return compact(budget);
+      } catch (IOException e) {
+         PERSISTENCE.errorCompactingFile(file.getPath(), e);
+         return 0;
+      }
+   }
+
+   /**
+    * Moves the live entries closest to the end of the file into free blocks closer to its start and truncates the
+    * free blocks this leaves at the end of the file. Entries that do not fit in a free block before them stay in place.
+    * <p/>
+    * Compaction does not count as an access to the entries, so it does not change the LRU order of a bounded store.
+    *
+    * @param budget maximum number of bytes to copy
+    * @return the number of bytes copied
+    */
+   long compact(long budget) throws IOException {
+      long startTime = 0;
+      if (trace) startTime = timeService.wallClockTime();
+      long copied = 0;
+      // Reading or updating a mapping of the access-ordered map of a bounded store moves it to the MRU end
+      boolean bounded = configuration.maxEntries() > 0;
+      resizeLock.readLock().lock();
+      try {
+         // stop() closes the channel while holding the write lock
+         if (channel == null) {
+            return 0;
+         }
+         // Only keep the entries closest to the end of the file that fit in the budget, instead of copying and
+         // sorting the whole index
+         PriorityQueue<KeyValuePair<Map.Entry<K, FileEntry>, FileEntry>> candidates = new PriorityQueue<>(
+               Comparator.comparingLong(kvp -> kvp.getValue().offset));
+         long candidateBytes = 0;
+         synchronized (entries) {
+            for (Map.Entry<K, FileEntry> e : entries.entrySet()) {
+               FileEntry fe = e.getValue();
+               if (candidateBytes >= budget && fe.offset < candidates.peek().getValue().offset) {
+                  continue;
+               }
+               if (bounded) {
+                  // The map is locked, so the entry cannot be removed before it is locked like a reader would.
+                  // Its block cannot be reused until the end of the run.
+                  fe.lock();
+               }
+               candidates.add(new KeyValuePair<>(e, fe));
+               candidateBytes += fe.actualSize();
+               while (candidateBytes - candidates.peek().getValue().actualSize() >= budget) {
+                  FileEntry skipped = candidates.poll().getValue();
+                  candidateBytes -= skipped.actualSize();
+                  if (bounded) skipped.unlock();
+               }
+            }
+         }
+         List<KeyValuePair<Map.Entry<K, FileEntry>, FileEntry>> sorted = new ArrayList<>(candidates.size());
+         while (!candidates.isEmpty()) {
+            sorted.add(candidates.poll());
+         }
+
+         try {
+            for (int i = sorted.size() - 1; i >= 0 && copied < budget; --i) {
+               copied += bounded ?
+                     moveLocked(sorted.get(i).getKey(), sorted.get(i).getValue()) :
+                     move(sorted.get(i).getKey().getKey(), sorted.get(i).getValue());
+            }
+         } finally {
+            if (bounded) {
+               for (KeyValuePair<Map.Entry<K, FileEntry>, FileEntry> candidate : sorted) {
+                  candidate.getValue().unlock();
+               }
+            }
          }
       } finally {
          resizeLock.readLock().unlock();
       }
+      compactedBytes.add(copied);
+
+      resizeLock.writeLock().lock();
+      try {
+         if (channel != null) {
+            processFreeEntries();
+         }
+      } finally {
+         resizeLock.writeLock().unlock();
+      }
+      if (trace) log.tracef("Compaction copied %d bytes in %d (ms), file size is %d, fragmentation is %f",
+            copied, timeService.wallClockTime() - startTime, filePos.get(), getFragmentationRatio());
+      return copied;
+   }
+
+   /**
+    * Copies the entry of an unbounded store into a free block before it.
+    * <p/>
+    * Note: Caller must hold the {@code resizeLock} in shared mode.
+    *
+    * @return the number of bytes copied, or 0 if the entry was not moved
+    */
+   private int move(K key, FileEntry fe) throws IOException {
+      int len = fe.actualSize();
+      // Only moving the entry towards the start of the file allows it to shrink
+      FileEntry free = freeList.take(len, fe.offset);
+      if (free == null) {
+         return 0;
+      }
+      // Lock the entry like a reader would, so that its block cannot be reused while it is copied
+      if (entries.computeIfPresent(key, (k, e) -> {
+         if (e == fe) {
+            e.lock();
+         }
+         return e;
+      }) != fe) {
+         // Removed or written concurrently, nothing to move
+         freeList.add(free);
+         return 0;
+      }
+      try {
+         FileEntry moved = copy(fe, free);
+         // Compare by identity, FileEntry.equals only compares the position
+         if (entries.computeIfPresent(key, (k, e) -> e == fe ? moved : e) == moved) {
+            free(fe);
+         } else {
+            free(moved);
+         }
+         if (trace) log.tracef("Moved entry %s from %d:%d to %d:%d", key, fe.offset, fe.size, moved.offset, moved.size);
+         return len;
+      } finally {
+         fe.unlock();
+      }
+   }
+
+   /**
+    * Copies the entry of a bounded store into a free block before it, without moving its mapping to the MRU end of
+    * the access-ordered map.
+    * <p/>
+    * Note: Caller must hold the {@code resizeLock} in shared mode, and the entry must have been locked while it was
+    * still mapped.
+    *
+    * @param mapping the node of the map that pointed to the entry when it was locked
+    * @return the number of bytes copied, or 0 if the entry was not moved
+    */
+   private int moveLocked(Map.Entry<K, FileEntry> mapping, FileEntry fe) throws IOException {
+      int len = fe.actualSize();
+      FileEntry free = freeList.take(len, fe.offset);
+      if (free == null) {
+         return 0;
+      }
+      FileEntry moved = copy(fe, free);
+      boolean replaced;
+      synchronized (entries) {
+         // A write replaces the value of the node, and a removal unlinks it. As the entry is locked its block
+         // cannot be reused, so if the key still maps to an entry at the same position it is this node.
+         // Neither the identity check nor entrySet().contains() count as an access.
+         replaced = mapping.getValue() == fe && entries.entrySet().contains(mapping);
+         if (replaced) {
+            mapping.setValue(moved);
+         }
+      }
+      if (replaced) {
+         free(fe);
+      } else {
+         free(moved);
+      }
+      if (trace) log.tracef("Moved entry %s from %d:%d to %d:%d", mapping.getKey(), fe.offset, fe.size, moved.offset, moved.size);
+      return len;
+   }
+
+   /**
+    * Copies a locked entry into a free block.
+    *
+    * @return the entry in its new position
+    */
+   private FileEntry copy(FileEntry fe, FileEntry free) throws IOException {
+      int len = fe.actualSize();
+      FileEntry target = allocateExistingEntry(free, len);
+      ByteBuffer buf = ByteBuffer.allocate(len);
+      channel.read(buf, fe.offset);
+      buf.putInt(0, target.size);
+      buf.flip();
+      channel.write(buf, target.offset);
+      return new FileEntry(target.offset, target.size, fe.keyLen, fe.dataLen, fe.metadataLen, fe.expiryTime);
+   }
+
+   /**
+    * @return the ratio of free space in the file, between 0 and 1
+    */
+   public double getFragmentationRatio() {
+      long dataSize = getDataBytes();
+      return dataSize <= 0 ? 0 : Math.min(1, (double) getFreeBytes() / dataSize);
+   }
+
+   /**
+    * @return the number of bytes in the free blocks of the file
+    */
+   long getFreeBytes() {
+      FreeList freeList = this.freeList;
+      return freeList == null ? 0 : freeList.bytes();
+   }
+
+   /**
+    * @return the number of bytes in the file after the header
+    */
+   long getDataBytes() {
+      return filePos.get() - MAGIC.length;
+   }
+
+   /**
+    * @return the number of bytes copied by compaction since the store was created
+    */
+   public long getCompactedBytes() {
+      return compactedBytes.sum();
+   }
+
+   /**
+    * @return the number of bytes the file was truncated by since the store was created
+    */
+   public long getReclaimedBytes() {
+      return reclaimedBytes.sum();
    }
 
    @Override
@@ -728,18 +999,139 @@ Map<K, FileEntry> getEntries() {
       return entries;
    }
 
-   SortedSet<FileEntry> getFreeList() {
+   FreeList getFreeList() {
       return freeList;
    }
 
    long getFileSize() {
-      return filePos;
+      return filePos.get();
    }
 
    public SingleFileStoreConfiguration getConfiguration() {
       return configuration;
    }
 
+   /**
+    * Free blocks of the file, bucketed by the highest bit of their size. Every bucket is sorted by size and then offset,
+    * so that the smallest free block that fits is found by looking at the bucket of the requested size first and then
+    * at the smallest block of the next non empty buckets. All operations are lock free, a block is only handed out to
+    * the thread that managed to remove it.
+    */
+   static class FreeList {
+      private final NavigableSet<FileEntry>[] buckets;
+      private final AtomicInteger size = new AtomicInteger();
+      private final AtomicLong bytes = new AtomicLong();
+
+      @SuppressWarnings("unchecked")
+      FreeList() {
+         buckets = new NavigableSet[Integer.SIZE];
+         for (int i = 0; i < buckets.length; ++i) {
+            buckets[i] = new ConcurrentSkipListSet<>();
+         }
+      }
+
+      private static int bucket(int size) {
+         return Integer.SIZE - 1 - Integer.numberOfLeadingZeros(size);
+      }
+
+      boolean add(FileEntry fe) {
+         if (buckets[bucket(fe.size)].add(fe)) {
+            size.incrementAndGet();
+            bytes.addAndGet(fe.size);
+            return true;
+         }
+         return false;
+      }
+
+      boolean remove(FileEntry fe) {
+         if (buckets[bucket(fe.size)].remove(fe)) {
+            size.decrementAndGet();
+            bytes.addAndGet(-fe.size);
+            return true;
+         }
+         return false;
+      }
+
+      /**
+       * Removes the smallest free block of at least the given length that has no readers
+       * @param len required length
+       * @return the block, or null if there is none large enough
+       */
+      FileEntry take(int len) {
+         return take(len, Long.MAX_VALUE);
+      }
+
+      /**
+       * Removes the smallest free block of at least the given length that starts before the given offset and has no
+       * readers
+       * @param len required length
+       * @param limit offset the block must start before
+       * @return the block, or null if there is none large enough
+       */
+      FileEntry take(int len, long limit) {
+         int bucket = bucket(len);
+         FileEntry fe = takeUnlocked(buckets[bucket].tailSet(new FileEntry(0, len), true), limit);
+         for (int i = bucket + 1; fe == null && i < buckets.length; ++i) {
+            fe = takeUnlocked(buckets[i], limit);
+         }
+         return fe;
+      }
+
+      private FileEntry takeUnlocked(Iterable<FileEntry> candidates, long limit) {
+         for (FileEntry free : candidates) {
+            // ignore entries that are still in use by concurrent readers
+            if (free.offset >= limit || free.isLocked())
+               continue;
+
+            // There's no race condition risk between locking the entry on
+            // loading and checking whether it's locked (or store allocation),
+            // because for the entry to be lockable, it needs to be in the
+            // entries collection, in which case it's not in the free list.
+            // The only way an entry can be found in the free list is if it's
+            // been removed, and removal is atomic with the lock acquired
+            // when loading data.
+
+            // found one, claim it unless another writer was faster
+            if (remove(free)) {
+               return free;
+            }
+         }
+         return null;
+      }
+
+      int size() {
+         return size.get();
+      }
+
+      long bytes() {
+         return bytes.get();
+      }
+
+      void clear() {
+         for (NavigableSet<FileEntry> bucket : buckets) {
+            bucket.clear();
+         }
+         size.set(0);
+         bytes.set(0);
+      }
+
+      /**
+       * @return a copy of all free blocks
+       */
+      List<FileEntry> entries() {
+         List<FileEntry> list = new ArrayList<>(size());
+         for (NavigableSet<FileEntry> bucket : buckets) {
+            list.addAll(bucket);
+         }
+         return list;
+      }
+
+      @Override
+      public String toString() {
+         return entries().toString();
+      }
+   }
+
    /**
     * Helper class to represent an entry in the cache file.
     * <p/>
@@ -0,0 +1,103 @@
+package org.infinispan.persistence.file;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.infinispan.configuration.cache.SingleFileStoreConfiguration;
+import org.infinispan.factories.ComponentRegistry;
+
+/**
+ * Runs the background compaction of all the {@link SingleFileStore} instances of a cache. When the store is segmented
+ * there is one instance per segment, and a single task shares the {@link SingleFileStoreConfiguration#compactionRate()}
+ * between them, starting each run with the store where the previous run ran out of budget.
+ *
+ * @since 10.1
+ */
+class SingleFileStoreCompactor {
+   private final List<SingleFileStore<?, ?>> stores = new ArrayList<>();
+   private final AtomicBoolean running = new AtomicBoolean();
+   private ScheduledFuture<?> task;
+   private int next;
+
+   /**
+    * Returns the compactor of the cache, registering it the first time. It is kept across restarts of the stores.
+    */
+   static SingleFileStoreCompactor getOrCreate(ComponentRegistry componentRegistry) {
+      synchronized (SingleFileStoreCompactor.class) {
+         SingleFileStoreCompactor compactor = componentRegistry.getComponent(SingleFileStoreCompactor.class);
+         if (compactor == null) {
+            compactor = new SingleFileStoreCompactor();
+            componentRegistry.registerComponent(compactor, SingleFileStoreCompactor.class);
+         }
+         return compactor;
+      }
+   }
+
+   /**
+    * Adds a started store, and schedules the compaction task with its configuration if it is the first one.
+    */
+   synchronized void register(SingleFileStore<?, ?> store, ScheduledExecutorService scheduledExecutor, Executor executor) {
+      add(store);
+      if (task == null) {
+         SingleFileStoreConfiguration configuration = store.getConfiguration();
+         long interval = configuration.compactionInterval();
+         // Each run copies at most what the rate allows for the interval since the previous run
+         long runBudget = Math.max(1, configuration.compactionRate() * interval / 1000);
+         task = scheduledExecutor.scheduleWithFixedDelay(() -> executor.execute(() -> compact(runBudget)),
+               interval, interval, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   /**
+    * Removes a stopped store, and cancels the compaction task once there are no stores left.
+    */
+   synchronized void unregister(SingleFileStore<?, ?> store) {
+      stores.remove(store);
+      if (stores.isEmpty() && task != null) {
+         task.cancel(false);
+         task = null;
+      }
+   }
+
+   synchronized void add(SingleFileStore<?, ?> store) {
+      stores.add(store);
+   }
+
+   /**
+    * Compacts the fragmented stores until they copied {@code budget} bytes in total.
+    *
+    * @return the number of bytes copied, or 0 if a run is already in progress
+    */
+   long compact(long budget) {
+      if (!running.compareAndSet(false, true)) {
+         return 0;
+      }
+      try {
+         List<SingleFileStore<?, ?>> stores;
+         int start;
+         synchronized (this) {
+            stores = new ArrayList<>(this.stores);
+            start = next;
+         }
+         long copied = 0;
+         int i = 0;
+         for (; i < stores.size() && copied < budget; ++i) {
+            copied += stores.get((start + i) % stores.size()).compactIfFragmented(budget - copied);
+         }
+         if (copied >= budget) {
+            synchronized (this) {
+               // The store that used up the budget may still have entries to move
+               next = (start + i - 1) % stores.size();
+            }
+         }
+         return copied;
+      } finally {
+         running.set(false);
+      }
+   }
+}
@@ -0,0 +1,91 @@
+package org.infinispan.persistence.file;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
+
+/**
+ * Exposes the statistics of the single file stores of a cache. When the store is segmented there is one store per
+ * segment, and the statistics are those of all of them together. The statistics are only exposed when the cache
+ * statistics are enabled.
+ *
+ * @since 10.1
+ */
+@MBean(objectName = "SingleFileStore", description = "Statistics of the single file store")
+public class SingleFileStoreStatistics {
+   private final Set<SingleFileStore<?, ?>> stores = ConcurrentHashMap.newKeySet();
+
+   private SingleFileStoreStatistics() {
+   }
+
+   /**
+    * Returns the statistics of the cache, registering them the first time. They are registered before the cache
+    * registers its MBeans, and kept across restarts of the stores.
+    */
+   static SingleFileStoreStatistics getOrCreate(ComponentRegistry componentRegistry) {
+      synchronized (SingleFileStoreStatistics.class) {
+         SingleFileStoreStatistics statistics = componentRegistry.getComponent(SingleFileStoreStatistics.class);
+         if (statistics == null) {
+            statistics = new SingleFileStoreStatistics();
+            componentRegistry.registerComponent(statistics, SingleFileStoreStatistics.class);
+         }
+         return statistics;
+      }
+   }
+
+   void addStore(SingleFileStore<?, ?> store) {
+      stores.add(store);
+   }
+
+   void removeStore(SingleFileStore<?, ?> store) {
+      stores.remove(store);
+   }
+
+   private long sum(ToLongFunction<SingleFileStore<?, ?>> getter) {
+      long sum = 0;
+      for (SingleFileStore<?, ?> store : stores) {
+         sum += getter.applyAsLong(store);
+      }
+      return sum;
+   }
+
+   @ManagedAttribute(
+         description = "Ratio of free space in the data files, between 0 and 1",
+         displayName = "Fragmentation ratio"
+   )
+   public double getFragmentationRatio() {
+      long freeBytes = 0;
+      long dataBytes = 0;
+      for (SingleFileStore<?, ?> store : stores) {
+         freeBytes += store.getFreeBytes();
+         dataBytes += store.getDataBytes();
+      }
+      return dataBytes <= 0 ? 0 : Math.min(1, (double) freeBytes / dataBytes);
+   }
+
+   @ManagedAttribute(
+         description = "Number of bytes copied by compaction since the store was created",
+         displayName = "Compacted bytes",
+         units = Units.BYTES,
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getCompactedBytes() {
+      return sum(SingleFileStore::getCompactedBytes);
+   }
+
+   @ManagedAttribute(
+         description = "Number of bytes the data files were truncated by since the store was created",
+         displayName = "Reclaimed bytes",
+         units = Units.BYTES,
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getReclaimedBytes() {
+      return sum(SingleFileStore::getReclaimedBytes);
+   }
+}
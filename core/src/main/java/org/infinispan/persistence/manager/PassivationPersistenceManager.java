@@ -72,6 +72,35 @@ public <K, V> CompletionStage<MarshallableEntry<K, V>> loadFromAllStores(Object
       return super.loadFromAllStores(key, localInvocation, includeStores);
    }
 
+   @Override
+   public <K, V> CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadFromAllStores(Set<?> keys,
+                                                                                        boolean localInvocation,
+                                                                                        boolean includeStores) {
+      if (map.isEmpty()) {
+         return super.loadFromAllStores(keys, localInvocation, includeStores);
+      }
+      Map<Object, MarshallableEntry<K, V>> passivating = new HashMap<>();
+      Set<Object> keysToLoad = new HashSet<>(keys.size());
+      for (Object key : keys) {
+         MarshallableEntry entry = map.get(key);
+         if (entry != null) {
+            if (trace) {
+               log.tracef("Retrieved entry for key %s from temporary passivation map", key);
+            }
+            passivating.put(key, entry);
+         } else {
+            keysToLoad.add(key);
+         }
+      }
+      if (keysToLoad.isEmpty()) {
+         return CompletableFuture.completedFuture(passivating);
+      }
+      return super.<K, V>loadFromAllStores(keysToLoad, localInvocation, includeStores).thenApply(entries -> {
+         passivating.putAll(entries);
+         return passivating;
+      });
+   }
+
    @Override
    public <K> Publisher<K> publishKeys(Predicate<? super K> filter, Predicate<? super StoreConfiguration> predicate) {
       if (map.isEmpty()) {
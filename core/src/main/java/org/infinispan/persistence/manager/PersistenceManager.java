@@ -1,8 +1,10 @@
 package org.infinispan.persistence.manager;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
 import javax.transaction.Transaction;
@@ -14,6 +16,7 @@
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.persistence.support.BatchModification;
+import org.infinispan.util.concurrent.AggregateCompletionStage;
 import org.infinispan.util.concurrent.CompletableFutures;
 import org.infinispan.util.concurrent.CompletionStages;
 import org.reactivestreams.Publisher;
@@ -191,6 +194,31 @@ default <K, V> MarshallableEntry<K, V> loadFromAllStoresSync(Object key, int seg
       return CompletionStages.join(loadFromAllStores(key, segment, localInvocation, includeStores));
    }
 
+   /**
+    * Loads the entries for several keys from the persistence stores. As with {@link #loadFromAllStores(Object, boolean,
+    * boolean)} the first store that has an entry for a key wins, but each store is asked for all the keys that are
+    * still missing at once, using {@link org.infinispan.persistence.spi.CacheLoader#loadEntries(Collection)}. The
+    * returned entries are guaranteed to not be expired when they were returned.
+    * @param keys keys to read the entries from
+    * @param localInvocation whether this invocation is a local invocation. Some loaders may be ignored if it is not local
+    * @param includeStores if a loader that is also a store can be loaded from
+    * @return the entries that were found, by key
+    * @implSpec default implementation invokes {@link #loadFromAllStores(Object, boolean, boolean)} for each key
+    * @since 10.1
+    */
+   default <K, V> CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadFromAllStores(Set<?> keys, boolean localInvocation, boolean includeStores) {
+      Map<Object, MarshallableEntry<K, V>> entries = new ConcurrentHashMap<>();
+      AggregateCompletionStage<Map<Object, MarshallableEntry<K, V>>> stage = CompletionStages.aggregateCompletionStage(entries);
+      for (Object key : keys) {
+         stage.dependsOn(this.<K, V>loadFromAllStores(key, localInvocation, includeStores).thenAccept(entry -> {
+            if (entry != null) {
+               entries.put(key, entry);
+            }
+         }));
+      }
+      return stage.freeze();
+   }
+
    default CompletionStage<Integer> size() {
        return size(AccessMode.BOTH);
    }
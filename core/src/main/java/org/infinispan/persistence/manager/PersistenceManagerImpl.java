@@ -32,6 +32,7 @@
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -39,6 +40,7 @@
 import java.util.function.IntConsumer;
 import java.util.function.IntFunction;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import javax.transaction.Transaction;
 import javax.transaction.TransactionManager;
@@ -50,12 +52,15 @@
 import org.infinispan.commons.marshall.StreamAwareMarshaller;
 import org.infinispan.commons.time.TimeService;
 import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.commons.util.ProcessorInfo;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.AbstractSegmentedStoreConfiguration;
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.StoreConfiguration;
 import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.container.impl.InternalDataContainer;
 import org.infinispan.context.Flag;
 import org.infinispan.distribution.ch.KeyPartitioner;
 import org.infinispan.eviction.EvictionType;
@@ -75,6 +80,8 @@
 import org.infinispan.interceptors.impl.TransactionalStoreInterceptor;
 import org.infinispan.marshall.core.MarshalledEntryFactory;
 import org.infinispan.marshall.persistence.PersistenceMarshaller;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
 import org.infinispan.metadata.impl.InternalMetadataImpl;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.persistence.InitializationContextImpl;
@@ -110,6 +117,8 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import org.reactivestreams.Publisher;
+
 import io.reactivex.Flowable;
 import io.reactivex.Scheduler;
 import io.reactivex.schedulers.Schedulers;
@@ -138,6 +147,8 @@ public class PersistenceManagerImpl implements PersistenceManager {
    @Inject MarshallableEntryFactory marshallableEntryFactory;
    @Inject CacheStoreFactoryRegistry cacheStoreFactoryRegistry;
    @Inject ComponentRef<InternalExpirationManager<Object, Object>> expirationManager;
+   @Inject ComponentRef<InternalDataContainer<Object, Object>> dataContainer;
+   @Inject ComponentRef<PreloadManager> preloadManager;
    @Inject CacheNotifier cacheNotifier;
    @Inject KeyPartitioner keyPartitioner;
    @Inject Transport transport;
@@ -375,20 +386,93 @@ public CompletionStage<Void> preload() {
       long start = timeService.time();
 
       final long maxEntries = getMaxEntries();
-      final AdvancedCache<Object, Object> flaggedCache = getCacheForStateInsertion();
-      return Flowable.fromPublisher(preloadCl.entryPublisher(null, true, true))
-            .take(maxEntries)
-            .observeOn(cpuScheduler)
-            .doOnNext(me -> preloadKey(flaggedCache, me))
-            .count()
-            .subscribeOn(persistenceScheduler)
-            .to(RxJavaInterop.singleToCompletionStage())
+      final PreloadManager preloadStats = preloadManager.wired();
+      CompletionStage<Long> stage;
+      if (isDirectPreload()) {
+         stage = preloadIntoDataContainer(preloadCl, maxEntries, preloadStats);
+      } else {
+         final AdvancedCache<Object, Object> flaggedCache = getCacheForStateInsertion();
+         stage = Flowable.fromPublisher(preloadCl.entryPublisher(null, true, true))
+               .take(maxEntries)
+               .observeOn(cpuScheduler)
+               .doOnNext(me -> {
+                  preloadKey(flaggedCache, me);
+                  preloadStats.entriesPreloaded(1);
+               })
+               .count()
+               .subscribeOn(persistenceScheduler)
+               .to(RxJavaInterop.singleToCompletionStage());
+      }
+      return stage
             .thenAccept(insertAmount -> {
                this.preloaded = insertAmount < maxEntries;
                log.debugf("Preloaded %d keys in %s", insertAmount, Util.prettyPrintTime(timeService.timeDuration(start, MILLISECONDS)));
             });
    }
 
+   /**
+    * Direct preload skips the interceptor chain, so it can't be used when the preloaded entries must be activated or
+    * indexed.
+    */
+   private boolean isDirectPreload() {
+      if (!configuration.persistence().directPreload()) {
+         return false;
+      }
+      if (configuration.persistence().passivation() ||
+            configuration.indexing().index().isEnabled() && hasSharedStore() && !indexShareable()) {
+         log.debug("Preloading through the interceptor chain, entries must be activated or indexed");
+         return false;
+      }
+      return true;
+   }
+
+   /**
+    * Inserts the entries of the loader directly in the data container. Segmented stores are read in parallel, each
+    * publisher reading a share of the segments on the persistence executor.
+    */
+   private CompletionStage<Long> preloadIntoDataContainer(AdvancedCacheLoader<Object, Object> loader, long maxEntries,
+                                                          PreloadManager preloadStats) {
+      InternalDataContainer<Object, Object> container = dataContainer.running();
+      Metadata defaultMetadata = new EmbeddedMetadata.Builder()
+            .lifespan(configuration.expiration().lifespan()).maxIdle(configuration.expiration().maxIdle()).build();
+      AtomicLong remaining = new AtomicLong(maxEntries);
+      return publishersForPreload(loader)
+            .flatMapSingle(publisher -> Flowable.fromPublisher(publisher)
+                  .takeWhile(me -> remaining.getAndDecrement() > 0)
+                  .doOnNext(me -> {
+                     Object key = me.getKey();
+                     Metadata metadata = me.getMetadata();
+                     Metadata.Builder builder = metadata == null ? null : metadata.builder();
+                     if (metadata == null) {
+                        metadata = defaultMetadata;
+                     } else if (builder != null) {
+                        metadata = builder.merge(defaultMetadata).build();
+                     }
+                     container.put(keyPartitioner.getSegment(key), key, me.getValue(), metadata, me.created(), me.lastUsed());
+                     preloadStats.entriesPreloaded(1);
+                  })
+                  .count()
+                  .subscribeOn(persistenceScheduler))
+            .reduce(0L, Long::sum)
+            .to(RxJavaInterop.singleToCompletionStage());
+   }
+
+   private Flowable<Publisher<MarshallableEntry<Object, Object>>> publishersForPreload(AdvancedCacheLoader<Object, Object> loader) {
+      int numSegments = configuration.clustering().hash().numSegments();
+      int partitions = Math.min(numSegments, ProcessorInfo.availableProcessors());
+      if (!(loader instanceof SegmentedAdvancedLoadWriteStore) || partitions <= 1) {
+         return Flowable.just(loader.entryPublisher(null, true, true));
+      }
+      SegmentedAdvancedLoadWriteStore<Object, Object> segmentedStore = (SegmentedAdvancedLoadWriteStore<Object, Object>) loader;
+      return Flowable.range(0, partitions).map(partition -> {
+         IntSet segments = IntSets.mutableEmptySet(numSegments);
+         for (int segment = partition; segment < numSegments; segment += partitions) {
+            segments.set(segment);
+         }
+         return segmentedStore.entryPublisher(segments, null, true, true);
+      });
+   }
+
    @Override
    public void disableStore(String storeType) {
       if (enabled) {
@@ -847,6 +931,42 @@ public <K, V> CompletionStage<MarshallableEntry<K, V>> loadFromAllStores(Object
             "Loading from first store for id %d");
    }
 
+   @Override
+   public <K, V> CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadFromAllStores(Set<?> keys, boolean localInvocation, boolean includeStores) {
+      assert !Thread.currentThread().getName().startsWith("persistence") : "Thread name is: " + Thread.currentThread().getName();
+      return supplyOnPersistenceExAndContinue(traceId -> loadFromAllStoresSync(keys, localInvocation, includeStores, traceId),
+            "Loading entries from stores for id %d");
+   }
+
+   private <K, V> Map<Object, MarshallableEntry<K, V>> loadFromAllStoresSync(Set<?> keys, boolean localInvocation, boolean includeStores, int traceId) {
+      storesMutex.readLock().lock();
+      try {
+         checkStoreAvailability();
+         if (trace) {
+            log.tracef("Loading entries for keys %s from stores with includeStores %s for id: %d",
+                  keys, includeStores, traceId);
+         }
+         Map<Object, MarshallableEntry<K, V>> entries = new HashMap<>(keys.size());
+         Collection<?> missingKeys = keys;
+         for (CacheLoader<K, V> l : loaders) {
+            if (allowLoad(l, localInvocation, includeStores)) {
+               entries.putAll(l.loadEntries(missingKeys));
+               if (entries.size() == keys.size())
+                  break;
+               if (!entries.isEmpty()) {
+                  missingKeys = keys.stream().filter(k -> !entries.containsKey(k)).collect(Collectors.toList());
+               }
+            }
+         }
+         if (trace) {
+            log.tracef("Loaded %d entries for %d keys from stores for id: %d", entries.size(), keys.size(), traceId);
+         }
+         return entries;
+      } finally {
+         storesMutex.readLock().unlock();
+      }
+   }
+
    private boolean allowLoad(CacheLoader loader, boolean localInvocation, boolean includeStores) {
       return (localInvocation || !isLocalOnlyLoader(loader)) && (includeStores || !(loader instanceof CacheWriter));
    }
@@ -1353,27 +1473,28 @@ private AdvancedCache<Object, Object> getCacheForStateInsertion() {
             CACHE_MODE_LOCAL, SKIP_OWNERSHIP_CHECK, IGNORE_RETURN_VALUES, SKIP_CACHE_STORE, SKIP_LOCKING,
             SKIP_XSITE_BACKUP));
 
-      boolean hasShared = false;
+      if (hasSharedStore()) {
+         if (indexShareable())
+            flags.add(SKIP_INDEXING);
+      } else {
+         flags.add(SKIP_INDEXING);
+      }
+
+      return cache.wired().withFlags(flags.toArray(new Flag[flags.size()]));
+   }
+
+   private boolean hasSharedStore() {
       storesMutex.readLock().lock();
       try {
          for (CacheWriter w : nonTxWriters) {
             if (getStoreConfig(w).shared()) {
-               hasShared = true;
-               break;
+               return true;
             }
          }
+         return false;
       } finally {
          storesMutex.readLock().unlock();
       }
-
-      if (hasShared) {
-         if (indexShareable())
-            flags.add(SKIP_INDEXING);
-      } else {
-         flags.add(SKIP_INDEXING);
-      }
-
-      return cache.wired().withFlags(flags.toArray(new Flag[flags.size()]));
    }
 
    private boolean indexShareable() {
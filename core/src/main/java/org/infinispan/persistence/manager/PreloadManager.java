@@ -1,20 +1,88 @@
 package org.infinispan.persistence.manager;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.commons.time.TimeService;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
 import org.infinispan.util.concurrent.CompletionStages;
 
 /**
  * Separate the preload into its own component
  */
+@MBean(objectName = "Preload", description = "Component that preloads the cache from the cache stores on startup.")
 @Scope(Scopes.NAMED_CACHE)
 public class PreloadManager {
    @Inject PersistenceManager persistenceManager;
+   @Inject TimeService timeService;
+
+   private final LongAdder preloadedEntries = new LongAdder();
+   private volatile long startTime;
+   private volatile long endTime;
+   private volatile boolean preloading;
 
    @Start
    public void start() {
-      CompletionStages.join(persistenceManager.preload());
+      startTime = timeService.time();
+      preloading = true;
+      try {
+         CompletionStages.join(persistenceManager.preload());
+      } finally {
+         endTime = timeService.time();
+         preloading = false;
+      }
+   }
+
+   /**
+    * Records that entries were inserted in memory by the preload.
+    */
+   void entriesPreloaded(long count) {
+      preloadedEntries.add(count);
+   }
+
+   @ManagedAttribute(
+         description = "Number of entries preloaded from the cache stores so far",
+         displayName = "Number of preloaded entries",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getPreloadedEntries() {
+      return preloadedEntries.sum();
+   }
+
+   @ManagedAttribute(
+         description = "Time spent preloading the cache, or the time elapsed so far if the preload is still running",
+         displayName = "Preload time",
+         units = Units.MILLISECONDS
+   )
+   public long getPreloadTime() {
+      return timeService.timeDuration(startTime, preloading ? timeService.time() : endTime, MILLISECONDS);
+   }
+
+   @ManagedAttribute(
+         description = "Number of entries preloaded per second",
+         displayName = "Preload throughput",
+         units = Units.PER_SECOND
+   )
+   public long getPreloadThroughput() {
+      long millis = getPreloadTime();
+      return millis > 0 ? getPreloadedEntries() * 1000 / millis : 0;
+   }
+
+   @ManagedAttribute(
+         description = "Whether the cache is preloading entries from the cache stores",
+         displayName = "Preloading",
+         dataType = DataType.TRAIT
+   )
+   public boolean isPreloading() {
+      return preloading;
    }
 }
@@ -1,5 +1,9 @@
 package org.infinispan.persistence.spi;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.infinispan.commons.api.Lifecycle;
 import org.infinispan.marshall.core.MarshalledEntry;
 
@@ -49,6 +53,27 @@ default MarshallableEntry<K, V> loadEntry(Object key) {
       return load(key);
    }
 
+   /**
+    * Fetches the entries of several keys from the storage. Stores that can read several keys in a single round trip
+    * should override this method.
+    *
+    * @param keys the keys to load
+    * @return the entries that exist, by key; keys that have no entry are not present in the map
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    * @implSpec The default implementation invokes {@link #loadEntry(Object)} for each key.
+    * @since 10.1
+    */
+   default Map<Object, MarshallableEntry<K, V>> loadEntries(Collection<?> keys) {
+      Map<Object, MarshallableEntry<K, V>> entries = new HashMap<>(keys.size());
+      for (Object key : keys) {
+         MarshallableEntry<K, V> entry = loadEntry(key);
+         if (entry != null) {
+            entries.put(key, entry);
+         }
+      }
+      return entries;
+   }
+
    /**
     * Returns true if the storage contains an entry associated with the given key.
     *
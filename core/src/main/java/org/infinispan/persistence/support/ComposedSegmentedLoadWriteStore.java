@@ -1,5 +1,10 @@
 package org.infinispan.persistence.support;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.PrimitiveIterator;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
@@ -69,6 +74,23 @@ public MarshallableEntry<K, V> get(int segment, Object key) {
       return null;
    }
 
+   @Override
+   public Map<Object, MarshallableEntry<K, V>> loadEntries(Collection<?> keys) {
+      // Each segment is a separate store, so group the keys by segment to load them in batches
+      Map<Integer, List<Object>> keysBySegment = new HashMap<>();
+      for (Object key : keys) {
+         keysBySegment.computeIfAbsent(keyPartitioner.getSegment(key), s -> new ArrayList<>()).add(key);
+      }
+      Map<Object, MarshallableEntry<K, V>> entries = new HashMap<>(keys.size());
+      keysBySegment.forEach((segment, segmentKeys) -> {
+         AdvancedLoadWriteStore<K, V> store = stores.get(segment);
+         if (store != null) {
+            entries.putAll(store.loadEntries(segmentKeys));
+         }
+      });
+      return entries;
+   }
+
    @Override
    public boolean contains(int segment, Object key) {
       AdvancedLoadWriteStore<K, V> store = stores.get(segment);
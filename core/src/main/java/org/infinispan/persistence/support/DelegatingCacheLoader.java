@@ -1,5 +1,9 @@
 package org.infinispan.persistence.support;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.CacheLoader;
 import org.infinispan.persistence.spi.InitializationContext;
@@ -48,6 +52,11 @@ public MarshallableEntry<K, V> loadEntry(Object key) {
       return actual != null ? actual.loadEntry(key) : null;
    }
 
+   @Override
+   public Map<Object, MarshallableEntry<K, V>> loadEntries(Collection<?> keys) {
+      return actual != null ? actual.loadEntries(keys) : Collections.emptyMap();
+   }
+
    public CacheLoader undelegate() {
       CacheLoader cl = this;
       do {
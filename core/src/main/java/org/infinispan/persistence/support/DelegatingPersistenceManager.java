@@ -1,6 +1,7 @@
 package org.infinispan.persistence.support;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
 import java.util.function.Predicate;
@@ -223,6 +224,13 @@ public <K, V> MarshallableEntry<K, V> loadFromAllStoresSync(Object key, int segm
       return persistenceManager.loadFromAllStoresSync(key, segment, localInvocation, includeStores);
    }
 
+   @Override
+   public <K, V> CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadFromAllStores(Set<?> keys,
+                                                                                        boolean localInvocation,
+                                                                                        boolean includeStores) {
+      return persistenceManager.loadFromAllStores(keys, localInvocation, includeStores);
+   }
+
    @Override
    public CompletionStage<Integer> size() {
       return persistenceManager.size();
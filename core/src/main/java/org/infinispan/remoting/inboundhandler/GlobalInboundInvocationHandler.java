@@ -11,6 +11,7 @@
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.ReplicableCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.commands.remote.CoalescedRpcCommand;
 import org.infinispan.commons.CacheException;
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.factories.GlobalComponentRegistry;
@@ -74,6 +75,8 @@ public void handleFromCluster(Address origin, ReplicableCommand command, Reply r
             reply.reply(null);
          } else if (command instanceof CacheRpcCommand) {
             handleCacheRpcCommand(origin, (CacheRpcCommand) command, reply, order);
+         } else if (command.getCommandId() == CoalescedRpcCommand.COMMAND_ID) {
+            handleCoalescedCommand(origin, (CoalescedRpcCommand) command, reply, order);
          } else {
             handleReplicableCommand(origin, command, reply, order);
          }
@@ -99,6 +102,17 @@ public void handleFromRemoteSite(String origin, XSiteReplicateCommand command, R
       command.performInLocalSite(receiver, order.preserveOrder()).whenComplete(new ResponseConsumer(command, reply));
    }
 
+   private void handleCoalescedCommand(Address origin, CoalescedRpcCommand command, Reply reply, DeliverOrder order) {
+      CacheRpcCommand[] commands = command.getCommands();
+      if (trace) {
+         log.tracef("Handling %d coalesced commands from %s", commands.length, origin);
+      }
+      // Only one-way commands are coalesced
+      for (CacheRpcCommand cmd : commands) {
+         handleFromCluster(origin, cmd, Reply.NO_OP, order);
+      }
+   }
+
    private void handleCacheRpcCommand(Address origin, CacheRpcCommand command, Reply reply, DeliverOrder mode) {
       if (trace) {
          log.tracef("Attempting to execute CacheRpcCommand: %s [sender=%s]", command, origin);
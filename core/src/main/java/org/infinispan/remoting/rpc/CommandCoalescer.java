@@ -0,0 +1,143 @@
+package org.infinispan.remoting.rpc;
+
+import static org.infinispan.util.logging.Log.CLUSTER;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.commands.remote.CoalescedRpcCommand;
+import org.infinispan.commands.triangle.SingleKeyBackupWriteCommand;
+import org.infinispan.commands.triangle.SingleKeyFunctionalBackupWriteCommand;
+import org.infinispan.commands.write.BackupAckCommand;
+import org.infinispan.commands.write.BackupMultiKeyAckCommand;
+import org.infinispan.commands.write.ExceptionAckCommand;
+import org.infinispan.remoting.inboundhandler.DeliverOrder;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.Transport;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Groups the one-way triangle backup and acknowledgement commands sent to the same node in a single
+ * {@link CoalescedRpcCommand}.
+ * <p>
+ * The commands are queued per destination and the caller returns immediately. A single task per destination, running
+ * in the async transport executor, sends the queued commands in batches until the queue is empty. Commands queued
+ * while a message is being sent go in the next message, so the batches grow with the load and a command sent alone
+ * is not delayed.
+ * <p>
+ * Requests are never coalesced: a slow command would delay the responses of all the other commands in its batch.
+ * Only commands that do not need any ordering guarantee ({@link DeliverOrder#NONE}) are coalesced.
+ *
+ * @since 10.1
+ */
+final class CommandCoalescer {
+   private static final Log log = LogFactory.getLog(CommandCoalescer.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   static final int MAX_BATCH_SIZE = 64;
+
+   private final Transport transport;
+   private final ExecutorService executor;
+   private final ConcurrentMap<Address, Destination> destinations = new ConcurrentHashMap<>();
+
+   CommandCoalescer(Transport transport, ExecutorService executor) {
+      this.transport = transport;
+      this.executor = executor;
+   }
+
+   /**
+    * @return {@code true} if the command can be sent as part of a {@link CoalescedRpcCommand}.
+    */
+   static boolean canCoalesce(CacheRpcCommand command, DeliverOrder deliverOrder) {
+      if (deliverOrder != DeliverOrder.NONE)
+         return false;
+      return command instanceof SingleKeyBackupWriteCommand ||
+            command instanceof SingleKeyFunctionalBackupWriteCommand ||
+            command instanceof BackupAckCommand ||
+            command instanceof BackupMultiKeyAckCommand ||
+            command instanceof ExceptionAckCommand;
+   }
+
+   void sendTo(Address target, CacheRpcCommand command) {
+      Destination destination = destination(target);
+      destination.queue.add(command);
+      destination.scheduleFlush();
+   }
+
+   void stop() {
+      destinations.clear();
+   }
+
+   private Destination destination(Address target) {
+      return destinations.computeIfAbsent(target, Destination::new);
+   }
+
+   private class Destination implements Runnable {
+      final Address target;
+      final Queue<CacheRpcCommand> queue = new ConcurrentLinkedQueue<>();
+      final AtomicBoolean scheduled = new AtomicBoolean();
+
+      Destination(Address target) {
+         this.target = target;
+      }
+
+      void scheduleFlush() {
+         if (scheduled.compareAndSet(false, true)) {
+            try {
+               executor.execute(this);
+            } catch (Throwable t) {
+               scheduled.set(false);
+               // Send from the caller, as it would without coalescing
+               flush();
+            }
+         }
+      }
+
+      @Override
+      public void run() {
+         do {
+            flush();
+            scheduled.set(false);
+            // A command queued after the last poll but before the flag was cleared didn't schedule a new task
+         } while (!queue.isEmpty() && scheduled.compareAndSet(false, true));
+      }
+
+      private void flush() {
+         List<CacheRpcCommand> batch = new ArrayList<>();
+         CacheRpcCommand command;
+         while (true) {
+            while (batch.size() < MAX_BATCH_SIZE && (command = queue.poll()) != null) {
+               batch.add(command);
+            }
+            if (batch.isEmpty()) {
+               return;
+            }
+            send(batch);
+            batch.clear();
+         }
+      }
+
+      private void send(List<CacheRpcCommand> batch) {
+         try {
+            if (batch.size() == 1) {
+               transport.sendTo(target, batch.get(0), DeliverOrder.NONE);
+            } else {
+               if (trace) log.tracef("Sending %d coalesced commands to %s", batch.size(), target);
+               transport.sendTo(target, new CoalescedRpcCommand(batch.toArray(new CacheRpcCommand[0])),
+                     DeliverOrder.NONE);
+            }
+         } catch (Throwable t) {
+            // The caller already returned, the same as when an asynchronous message is lost
+            CLUSTER.unexpectedErrorReplicating(t);
+         }
+      }
+   }
+}
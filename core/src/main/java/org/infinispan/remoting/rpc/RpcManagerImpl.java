@@ -11,6 +11,7 @@
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
@@ -30,6 +31,8 @@
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.distribution.DistributionManager;
 import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
@@ -83,6 +86,8 @@ public class RpcManagerImpl implements RpcManager, JmxStatisticsExposer {
    @Inject ComponentRef<CommandsFactory> cf;
    @Inject DistributionManager distributionManager;
    @Inject TimeService timeService;
+   @Inject @ComponentName(KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR)
+   ExecutorService asyncTransportExecutor;
 
    private final Function<ReplicableCommand, ReplicableCommand> toCacheRpcCommand = this::toCacheRpcCommand;
    private final AttributeListener<Long> updateRpcOptions = this::updateRpcOptions;
@@ -99,6 +104,7 @@ public class RpcManagerImpl implements RpcManager, JmxStatisticsExposer {
 
    private volatile RpcOptions syncRpcOptions;
    private volatile RpcOptions totalSyncRpcOptions;
+   private CommandCoalescer coalescer;
 
 
    @Start(priority = 9)
@@ -112,6 +118,10 @@ void start() {
                    .attributes().attribute(ClusteringConfiguration.REMOTE_TIMEOUT)
                    .addListener(updateRpcOptions);
       updateRpcOptions(configuration.clustering().attributes().attribute(ClusteringConfiguration.REMOTE_TIMEOUT), null);
+
+      if (configuration.clustering().coalesceCommands()) {
+         coalescer = new CommandCoalescer(t, asyncTransportExecutor);
+      }
    }
 
    @Stop
@@ -119,6 +129,9 @@ void stop() {
       configuration.clustering()
                    .attributes().attribute(ClusteringConfiguration.REMOTE_TIMEOUT)
                    .removeListener(updateRpcOptions);
+      if (coalescer != null) {
+         coalescer.stop();
+      }
    }
 
    private void updateRpcOptions(Attribute<Long> attribute, Long oldValue) {
@@ -152,21 +165,30 @@ public <T> CompletionStage<T> invokeCommand(Address target, ReplicableCommand co
       CacheRpcCommand cacheRpc = toCacheRpcCommand(command);
 
       if (!statisticsEnabled) {
-         return t.invokeCommand(target, cacheRpc, collector, rpcOptions.deliverOrder(),
-                                rpcOptions.timeout(), rpcOptions.timeUnit());
+         return invokeSingleTarget(target, cacheRpc, collector, rpcOptions);
       }
 
       long startTimeNanos = timeService.time();
       CompletionStage<T> invocation;
       try {
-         invocation = t.invokeCommand(target, cacheRpc, collector, rpcOptions.deliverOrder(),
-                                      rpcOptions.timeout(), rpcOptions.timeUnit());
+         invocation = invokeSingleTarget(target, cacheRpc, collector, rpcOptions);
       } catch (Exception e) {
          return errorReplicating(e);
       }
       return invocation.handle((response, throwable) -> updateStatistics(startTimeNanos, response, throwable));
    }
 
+   private <T> CompletionStage<T> invokeSingleTarget(Address target, CacheRpcCommand cacheRpc,
+                                                     ResponseCollector<T> collector, RpcOptions rpcOptions) {
+      return t.invokeCommand(target, cacheRpc, collector, rpcOptions.deliverOrder(),
+                             rpcOptions.timeout(), rpcOptions.timeUnit());
+   }
+
+   private boolean shouldCoalesce(Address target, CacheRpcCommand cacheRpc, DeliverOrder deliverOrder) {
+      return coalescer != null && !target.equals(t.getAddress()) &&
+            CommandCoalescer.canCoalesce(cacheRpc, deliverOrder);
+   }
+
    private void checkTopologyId(ReplicableCommand command) {
       if (command instanceof TopologyAffectedCommand && ((TopologyAffectedCommand) command).getTopologyId() < 0) {
          throw new IllegalArgumentException("Command does not have a topology id");
@@ -380,7 +402,11 @@ public void sendTo(Address destination, ReplicableCommand command, DeliverOrder
       CacheRpcCommand cacheRpc = toCacheRpcCommand(command);
 
       try {
-         t.sendTo(destination, cacheRpc, deliverOrder);
+         if (shouldCoalesce(destination, cacheRpc, deliverOrder)) {
+            coalescer.sendTo(destination, cacheRpc);
+         } else {
+            t.sendTo(destination, cacheRpc, deliverOrder);
+         }
       } catch (Exception e) {
          errorReplicating(e);
       }
@@ -393,7 +419,16 @@ public void sendToMany(Collection<Address> destinations, ReplicableCommand comma
       CacheRpcCommand cacheRpc = toCacheRpcCommand(command);
 
       try {
-         t.sendToMany(destinations, cacheRpc, deliverOrder);
+         if (coalescer != null && destinations != null && CommandCoalescer.canCoalesce(cacheRpc, deliverOrder)) {
+            Address self = t.getAddress();
+            for (Address destination : destinations) {
+               if (!destination.equals(self)) {
+                  coalescer.sendTo(destination, cacheRpc);
+               }
+            }
+         } else {
+            t.sendToMany(destinations, cacheRpc, deliverOrder);
+         }
       } catch (Exception e) {
          errorReplicating(e);
       }
@@ -85,7 +85,7 @@ private CompletableFuture<Void> replicateAndInvalidate(CacheTopology cacheTopolo
          CompletableFuture<Void> invalidationFuture = new CompletableFuture<>();
          OutboundTransferTask outboundTransferTask =
             new OutboundTransferTask(nextMember, oldSegments, cacheTopology.getCurrentCH().getNumSegments(), chunkSize,
-                                     cacheTopology.getTopologyId(), keyPartitioner,
+                                     chunkSizeBytes, maxInFlightChunks, cacheTopology.getTopologyId(), keyPartitioner,
                                      chunks -> invalidateChunks(chunks, otherMembers, outboundInvalidations,
                                                                 invalidationFuture, cacheTopology),
                                      rpcManager, commandsFactory,
@@ -178,7 +178,8 @@ public void startKeysTransfer(IntSet segments, Address origin) {
       CacheTopology cacheTopology = distributionManager.getCacheTopology();
       OutboundTransferTask outboundTransferTask =
          new OutboundTransferTask(origin, segments, cacheTopology.getCurrentCH().getNumSegments(), chunkSize,
-                                  cacheTopology.getTopologyId(), keyPartitioner, chunks -> {},
+                                  chunkSizeBytes, maxInFlightChunks, cacheTopology.getTopologyId(), keyPartitioner,
+                                  chunks -> {},
                                   rpcManager, commandsFactory,
                                   timeout, cacheName, true, false);
       addTransfer(outboundTransferTask);
@@ -113,14 +113,25 @@ public Address getSource() {
     * @return a {@code CompletableFuture} that completes when the transfer is done.
     */
    public CompletableFuture<Void> requestSegments() {
-      return startTransfer(applyState ? StateRequestCommand.Type.START_STATE_TRANSFER : StateRequestCommand.Type.START_CONSISTENCY_CHECK);
+      return requestSegments(null);
+   }
+
+   /**
+    * Send START_STATE_TRANSFER request to source node, with the digest of the entries this node already has.
+    *
+    * @param digest the digest of the local entries, or {@code null} to request all the entries.
+    * @return a {@code CompletableFuture} that completes when the transfer is done.
+    */
+   public CompletableFuture<Void> requestSegments(StateDigest digest) {
+      return startTransfer(applyState ? StateRequestCommand.Type.START_STATE_TRANSFER : StateRequestCommand.Type.START_CONSISTENCY_CHECK,
+                           digest);
    }
 
    public CompletableFuture<Void> requestKeys() {
-      return startTransfer(StateRequestCommand.Type.START_KEYS_TRANSFER);
+      return startTransfer(StateRequestCommand.Type.START_KEYS_TRANSFER, null);
    }
 
-   private CompletableFuture<Void> startTransfer(StateRequestCommand.Type type) {
+   private CompletableFuture<Void> startTransfer(StateRequestCommand.Type type, StateDigest digest) {
       if (!isCancelled) {
          IntSet segmentsCopy = getSegments();
          if (segmentsCopy.isEmpty()) {
@@ -134,6 +145,9 @@ private CompletableFuture<Void> startTransfer(StateRequestCommand.Type type) {
          // start transfer of cache entries
          try {
             StateRequestCommand cmd = commandsFactory.buildStateRequestCommand(type, rpcManager.getAddress(), topologyId, segmentsCopy);
+            if (type == StateRequestCommand.Type.START_STATE_TRANSFER) {
+               cmd.setDigest(digest);
+            }
             Response response = rpcManager.blocking(rpcManager.invokeCommand(source, cmd,
                                                                              SingleResponseCollector.validOnly(),
                                                                              rpcOptions));
@@ -17,6 +17,7 @@
 
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commons.IllegalLifecycleStateException;
+import org.infinispan.commons.marshall.WrappedBytes;
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.commons.util.IntSets;
 import org.infinispan.container.entries.InternalCacheEntry;
@@ -60,6 +61,10 @@ public class OutboundTransferTask {
 
    private final int chunkSize;
 
+   private final long chunkSizeBytes;
+
+   private final int maxInFlightChunks;
+
    private final KeyPartitioner keyPartitioner;
 
    private final RpcManager rpcManager;
@@ -80,7 +85,7 @@ public class OutboundTransferTask {
    private volatile boolean cancelled;
 
    public OutboundTransferTask(Address destination, IntSet segments, int segmentCount, int chunkSize,
-                               int topologyId, KeyPartitioner keyPartitioner,
+                               long chunkSizeBytes, int maxInFlightChunks, int topologyId, KeyPartitioner keyPartitioner,
                                Consumer<Collection<StateChunk>> onChunkReplicated,
                                RpcManager rpcManager,
                                CommandsFactory commandsFactory, long timeout, String cacheName,
@@ -94,10 +99,18 @@ public OutboundTransferTask(Address destination, IntSet segments, int segmentCou
       if (chunkSize <= 0) {
          throw new IllegalArgumentException("chunkSize must be greater than 0");
       }
+      if (chunkSizeBytes <= 0) {
+         throw new IllegalArgumentException("chunkSizeBytes must be greater than 0");
+      }
+      if (maxInFlightChunks <= 0) {
+         throw new IllegalArgumentException("maxInFlightChunks must be greater than 0");
+      }
       this.onChunkReplicated = onChunkReplicated;
       this.destination = destination;
       this.segments = IntSets.concurrentCopyFrom(segments, segmentCount);
       this.chunkSize = chunkSize;
+      this.chunkSizeBytes = chunkSizeBytes;
+      this.maxInFlightChunks = maxInFlightChunks;
       this.topologyId = topologyId;
       this.keyPartitioner = keyPartitioner;
       this.rpcManager = rpcManager;
@@ -125,6 +138,11 @@ public int getTopologyId() {
    /**
     * Starts sending entries from the data container and the first loader with fetch persistent data enabled
     * to the target node.
+    * <p>
+    * Chunks are limited both by the number of entries and by their estimated size in bytes. At most
+    * {@code maxInFlightChunks} chunks are sent before the destination confirms that it applied them, so the
+    * destination never holds more than that many chunks from this task. The last chunk, which marks the segments
+    * as finished, is only sent after all the other chunks were confirmed.
     *
     * @return a completion stage that completes when all the entries have been sent.
     * @param entries a {@code Flowable} with all the entries that need to be sent
@@ -135,8 +153,9 @@ public CompletionStage<Void> execute(Flowable<InternalCacheEntry<Object, Object>
          AtomicReference<List<InternalCacheEntry<Object, Object>>> batchRef =
             new AtomicReference<>(Collections.emptyList());
          entries.buffer(chunkSize)
+                .concatMapIterable(this::splitBySize)
                 .takeUntil(batch -> cancelled)
-                .concatMapCompletable(batch -> {
+                .flatMapCompletable(batch -> {
                    // Send the previous batch, not the current one
                    // This allows us to mark all the segments as finished in the same RPC with the
                    // last batch
@@ -145,7 +164,7 @@ public CompletionStage<Void> execute(Flowable<InternalCacheEntry<Object, Object>
                       return Completable.complete();
 
                    return completionStageToCompletable(sendEntries(previousBatch, false));
-                }, 1)
+                }, false, maxInFlightChunks)
                 .subscribe(new CompletableObserver() {
                    @Override
                    public void onSubscribe(Disposable d) {
@@ -176,6 +195,63 @@ public void onError(Throwable e) {
       return taskFuture;
    }
 
+   private List<List<InternalCacheEntry<Object, Object>>> splitBySize(List<InternalCacheEntry<Object, Object>> batch) {
+      List<List<InternalCacheEntry<Object, Object>>> chunks = null;
+      int start = 0;
+      long size = 0;
+      for (int i = 0; i < batch.size(); i++) {
+         long entrySize = estimateSize(batch.get(i));
+         if (size > 0 && size + entrySize > chunkSizeBytes) {
+            if (chunks == null) {
+               chunks = new ArrayList<>();
+            }
+            chunks.add(batch.subList(start, i));
+            start = i;
+            size = 0;
+         }
+         size += entrySize;
+      }
+      if (chunks == null) {
+         return Collections.singletonList(batch);
+      }
+      chunks.add(batch.subList(start, batch.size()));
+      return chunks;
+   }
+
+   /**
+    * Estimates the marshalled size of an entry. Only keys and values stored in binary form, byte arrays and strings
+    * are counted, the size of other objects cannot be known without marshalling them. This is why the byte limit
+    * only applies to {@code BINARY} and {@code OFF_HEAP} storage, and to byte array or string keys and values.
+    */
+   static long estimateSize(InternalCacheEntry<Object, Object> entry) {
+      return estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+   }
+
+   private static long estimateSize(Object o) {
+      if (o instanceof WrappedBytes) {
+         return ((WrappedBytes) o).getLength();
+      } else if (o instanceof byte[]) {
+         return ((byte[]) o).length;
+      } else if (o instanceof String) {
+         return utf8Length((String) o);
+      }
+      return 0;
+   }
+
+   private static long utf8Length(String s) {
+      // Strings are marshalled in UTF-8, a surrogate pair is counted as 6 bytes instead of 4
+      long length = s.length();
+      for (int i = 0; i < s.length(); i++) {
+         char c = s.charAt(i);
+         if (c >= 0x800) {
+            length += 2;
+         } else if (c >= 0x80) {
+            length++;
+         }
+      }
+      return length;
+   }
+
    private CompletionStage<Void> sendEntries(List<InternalCacheEntry<Object, Object>> entries, boolean isLast) {
       Map<Integer, StateChunk> chunks = new HashMap<>();
       for (InternalCacheEntry<Object, Object> ice : entries) {
@@ -282,6 +358,8 @@ public String toString() {
             ", destination=" + destination +
             ", segments=" + segments +
             ", chunkSize=" + chunkSize +
+            ", chunkSizeBytes=" + chunkSizeBytes +
+            ", maxInFlightChunks=" + maxInFlightChunks +
             ", timeout=" + timeout +
             ", cacheName='" + cacheName + '\'' +
             '}';
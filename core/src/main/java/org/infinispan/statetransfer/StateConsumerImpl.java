@@ -76,6 +76,7 @@
 import org.infinispan.notifications.cachelistener.annotation.DataRehashed;
 import org.infinispan.notifications.cachelistener.cluster.ClusterListenerReplicateCallable;
 import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.reactive.RxJavaInterop;
 import org.infinispan.reactive.publisher.impl.LocalPublisherManager;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
@@ -157,6 +158,7 @@ public class StateConsumerImpl implements StateConsumer {
    protected boolean isTransactional;
    protected boolean isInvalidationMode;
    protected boolean isTotalOrder;
+   protected boolean isDeltaTransfer;
    protected volatile KeyInvalidationListener keyInvalidationListener; //for test purpose only!
 
    protected volatile CacheTopology cacheTopology;
@@ -779,6 +781,10 @@ public void start() {
       isFetchEnabled = mode.needsStateTransfer() &&
               (configuration.clustering().stateTransfer().fetchInMemoryState() || configuration.persistence().fetchPersistentState());
 
+      // Only a node that keeps its entries in a store across restarts has anything to compare
+      isDeltaTransfer = configuration.clustering().stateTransfer().deltaTransfer() &&
+            configuration.persistence().stores().stream().anyMatch(Configurations::isStateTransferStore);
+
       rpcOptions = new RpcOptions(DeliverOrder.NONE, timeout, TimeUnit.MILLISECONDS);
 
       stateRequestExecutor = new LimitedExecutor("StateRequest-" + cacheName, stateTransferExecutor, 1);
@@ -1143,7 +1149,8 @@ private InboundTransferTask addTransfer(Address source, IntSet segmentsFromSourc
       }
 
       stateRequestExecutor.executeAsync(() -> {
-         CompletableFuture<Void> transferStarted = inboundTransfer.requestSegments();
+         StateDigest digest = isDeltaTransfer ? computeDigest(inboundTransfer.getSegments()) : null;
+         CompletableFuture<Void> transferStarted = inboundTransfer.requestSegments(digest);
 
          if (trace)
             log.tracef("Waiting for inbound transfer to finish: %s", inboundTransfer);
@@ -1152,6 +1159,35 @@ private InboundTransferTask addTransfer(Address source, IntSet segmentsFromSourc
       return inboundTransfer;
    }
 
+   /**
+    * Hash the keys and versions of the entries this node already has in the given segments, so that the source only
+    * sends the entries that differ.
+    *
+    * @return the digest, or {@code null} if there are no local entries or they cannot be read.
+    */
+   private StateDigest computeDigest(IntSet segments) {
+      StateDigest digest = new StateDigest(configuration.clustering().hash().numSegments());
+      try {
+         dataContainer.iterator(segments).forEachRemaining(ice -> {
+            if (!ice.isL1Entry()) {
+               digest.add(getSegment(ice.getKey()), ice);
+            }
+         });
+         Publisher<MarshallableEntry<Object, Object>> publisher = persistenceManager.publishEntries(
+               segments, k -> !dataContainer.containsKey(k), false, true, Configurations::isStateTransferStore);
+         CompletionStage<Void> stage = Flowable.fromPublisher(publisher)
+               .doOnNext(me -> digest.add(getSegment(me.getKey()), me.getKey(), me.getMetadata()))
+               .to(RxJavaInterop.flowableToCompletionStage());
+         CompletionStages.join(stage);
+      } catch (CacheException e) {
+         // Request all the entries instead
+         log.failedLoadingKeysFromCacheStore(e);
+         return null;
+      }
+      if (trace) log.tracef("Computed %s for segments %s", digest, segments);
+      return digest.isEmpty() ? null : digest;
+   }
+
    @GuardedBy("transferMapsLock")
    protected void addTransfer(InboundTransferTask inboundTransfer, IntSet segments) {
       if (!running)
@@ -0,0 +1,173 @@
+package org.infinispan.statetransfer;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.commons.io.UnsignedNumeric;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.versioning.EntryVersion;
+import org.infinispan.container.versioning.NumericVersion;
+import org.infinispan.container.versioning.SimpleClusteredVersion;
+import org.infinispan.metadata.Metadata;
+
+/**
+ * Hashes of the keys and versions of the entries a node has in some segments.
+ * <p>
+ * The entries of each segment are split in {@link #NUM_BUCKETS} buckets by key hash, and each bucket keeps the sum of
+ * the hashes of its keys and versions, so the result does not depend on the order in which the entries are added.
+ * A state consumer that already has entries in its stores sends its digest with the state request, and the provider
+ * only sends the entries in the buckets where the two digests differ.
+ * <p>
+ * Entries without a {@link NumericVersion} or a {@link SimpleClusteredVersion} cannot be compared, so a bucket with
+ * such an entry on either node is always sent.
+ *
+ * @since 10.1
+ */
+public final class StateDigest {
+   static final int NUM_BUCKETS = 32;
+
+   private static final MurmurHash3 HASH = MurmurHash3.getInstance();
+
+   private final int numSegments;
+   // The bucket hashes of each segment, null if the segment has no entries
+   private final long[][] buckets;
+   // One bit for each bucket that has an entry without version
+   private final int[] unversioned;
+
+   public StateDigest(int numSegments) {
+      this.numSegments = numSegments;
+      this.buckets = new long[numSegments][];
+      this.unversioned = new int[numSegments];
+   }
+
+   public void add(int segment, InternalCacheEntry<?, ?> entry) {
+      add(segment, entry.getKey(), entry.getMetadata());
+   }
+
+   public void add(int segment, Object key, Metadata metadata) {
+      long[] segmentBuckets = buckets[segment];
+      if (segmentBuckets == null) {
+         segmentBuckets = buckets[segment] = new long[NUM_BUCKETS];
+      }
+      int keyHash = HASH.hash(key);
+      int bucket = bucket(keyHash);
+      EntryVersion version = metadata != null ? metadata.version() : null;
+      if (version instanceof SimpleClusteredVersion) {
+         SimpleClusteredVersion clusteredVersion = (SimpleClusteredVersion) version;
+         segmentBuckets[bucket] += hash(keyHash, clusteredVersion.getTopologyId(), clusteredVersion.getVersion());
+      } else if (version instanceof NumericVersion) {
+         segmentBuckets[bucket] += hash(keyHash, -1, ((NumericVersion) version).getVersion());
+      } else {
+         unversioned[segment] |= 1 << bucket;
+      }
+   }
+
+   /**
+    * @return {@code true} if the bucket of the key differs between this digest and the other digest, or if either of
+    *    them has entries without version in that bucket.
+    */
+   public boolean differs(StateDigest other, int segment, Object key) {
+      long[] otherBuckets = other.buckets[segment];
+      if (otherBuckets == null)
+         return true;
+
+      long[] segmentBuckets = buckets[segment];
+      int bucket = bucket(HASH.hash(key));
+      if (segmentBuckets == null || ((unversioned[segment] | other.unversioned[segment]) & (1 << bucket)) != 0)
+         return true;
+
+      return segmentBuckets[bucket] != otherBuckets[bucket];
+   }
+
+   /**
+    * @return {@code true} if no entries were added.
+    */
+   public boolean isEmpty() {
+      for (long[] segmentBuckets : buckets) {
+         if (segmentBuckets != null)
+            return false;
+      }
+      return true;
+   }
+
+   public int getNumSegments() {
+      return numSegments;
+   }
+
+   private static int bucket(int keyHash) {
+      // The segment is computed from the high bits of the same hash
+      return keyHash & (NUM_BUCKETS - 1);
+   }
+
+   private static long hash(int keyHash, int topologyId, long version) {
+      long h = mix(((long) keyHash << 32) | (topologyId & 0xFFFFFFFFL));
+      return mix(h ^ version);
+   }
+
+   private static long mix(long k) {
+      // The MurmurHash3 finalizer
+      k ^= k >>> 33;
+      k *= 0xff51afd7ed558ccdL;
+      k ^= k >>> 33;
+      k *= 0xc4ceb9fe1a85ec53L;
+      k ^= k >>> 33;
+      return k;
+   }
+
+   public static void writeTo(ObjectOutput output, StateDigest digest) throws IOException {
+      if (digest == null) {
+         UnsignedNumeric.writeUnsignedInt(output, 0);
+         return;
+      }
+      UnsignedNumeric.writeUnsignedInt(output, digest.numSegments);
+      UnsignedNumeric.writeUnsignedInt(output, digest.countSegmentsWithEntries());
+      for (int segment = 0; segment < digest.numSegments; ++segment) {
+         long[] segmentBuckets = digest.buckets[segment];
+         if (segmentBuckets != null) {
+            UnsignedNumeric.writeUnsignedInt(output, segment);
+            output.writeInt(digest.unversioned[segment]);
+            for (long bucketHash : segmentBuckets) {
+               output.writeLong(bucketHash);
+            }
+         }
+      }
+   }
+
+   public static StateDigest readFrom(ObjectInput input) throws IOException {
+      int numSegments = UnsignedNumeric.readUnsignedInt(input);
+      if (numSegments == 0)
+         return null;
+
+      StateDigest digest = new StateDigest(numSegments);
+      int count = UnsignedNumeric.readUnsignedInt(input);
+      for (int i = 0; i < count; ++i) {
+         int segment = UnsignedNumeric.readUnsignedInt(input);
+         digest.unversioned[segment] = input.readInt();
+         long[] segmentBuckets = digest.buckets[segment] = new long[NUM_BUCKETS];
+         for (int bucket = 0; bucket < NUM_BUCKETS; ++bucket) {
+            segmentBuckets[bucket] = input.readLong();
+         }
+      }
+      return digest;
+   }
+
+   @Override
+   public String toString() {
+      return "StateDigest{" +
+            "numSegments=" + numSegments +
+            ", segmentsWithEntries=" + countSegmentsWithEntries() +
+            '}';
+   }
+
+   private int countSegmentsWithEntries() {
+      int count = 0;
+      for (long[] segmentBuckets : buckets) {
+         if (segmentBuckets != null) {
+            count++;
+         }
+      }
+      return count;
+   }
+}
@@ -51,12 +51,17 @@ public interface StateProvider {
     *
     * If the applyState field is set to false, then upon delivery at the destination the cache entries are processed
     * by a {@link StateReceiver} and are not applied to the local cache.
+    *
+    * If the requester sent a digest of the entries it already has, only the entries whose digest bucket differs are
+    * sent.
     *  @param destination the address of the requester
     * @param topologyId
     * @param segments
     * @param applyState
+    * @param digest the digest of the entries of the requester, or {@code null} to send all the entries
     */
-   void startOutboundTransfer(Address destination, int topologyId, IntSet segments, boolean applyState);
+   void startOutboundTransfer(Address destination, int topologyId, IntSet segments, boolean applyState,
+                              StateDigest digest);
 
    /**
     * Cancel sending of cache entries that belong to the given set of segments. This is invoked in response to a
@@ -13,9 +13,11 @@
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.write.WriteCommand;
@@ -54,6 +56,8 @@
 import org.reactivestreams.Publisher;
 
 import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
 
 /**
  * {@link StateProvider} implementation.
@@ -83,9 +87,13 @@ public class StateProviderImpl implements StateProvider {
    @Inject protected TransactionOriginatorChecker transactionOriginatorChecker;
    @ComponentName(KnownComponentNames.TIMEOUT_SCHEDULE_EXECUTOR)
    @Inject ScheduledExecutorService timeoutExecutor;
+   @ComponentName(KnownComponentNames.STATE_TRANSFER_EXECUTOR)
+   @Inject ExecutorService stateTransferExecutor;
 
    protected long timeout;
    protected int chunkSize;
+   protected long chunkSizeBytes;
+   protected int maxInFlightChunks;
 
    /**
     * A map that keeps track of current outbound state transfers by destination address. There could be multiple transfers
@@ -129,6 +137,8 @@ public CompletableFuture<Void> onTopologyUpdate(CacheTopology cacheTopology, boo
    public void start() {
       timeout = configuration.clustering().stateTransfer().timeout();
       chunkSize = configuration.clustering().stateTransfer().chunkSize();
+      chunkSizeBytes = configuration.clustering().stateTransfer().chunkSizeBytes();
+      maxInFlightChunks = configuration.clustering().stateTransfer().maxInFlightChunks();
    }
 
    @Stop(priority = 0)
@@ -275,19 +285,23 @@ private void collectTransactionsToTransfer(Address destination,
    }
 
    @Override
-   public void startOutboundTransfer(Address destination, int requestTopologyId, IntSet segments, boolean applyState) {
+   public void startOutboundTransfer(Address destination, int requestTopologyId, IntSet segments, boolean applyState,
+                                     StateDigest digest) {
       if (trace) {
-         log.tracef("Starting outbound transfer to node %s for cache %s, topology id %d, segments %s", destination,
-                    cacheName, requestTopologyId, segments);
+         log.tracef("Starting outbound transfer to node %s for cache %s, topology id %d, segments %s, digest %s",
+                    destination, cacheName, requestTopologyId, segments, digest);
       }
 
       // the destination node must already have an InboundTransferTask waiting for these segments
       OutboundTransferTask outboundTransfer =
          new OutboundTransferTask(destination, segments, this.configuration.clustering().hash().numSegments(),
-                                  chunkSize, requestTopologyId, keyPartitioner, chunks -> {}, rpcManager,
+                                  chunkSize, chunkSizeBytes, maxInFlightChunks, requestTopologyId, keyPartitioner,
+                                  chunks -> {}, rpcManager,
                                   commandsFactory, timeout, cacheName, applyState, false);
       addTransfer(outboundTransfer);
-      outboundTransfer.execute(Flowable.concat(publishDataContainerEntries(segments), publishStoreEntries(segments)))
+      Flowable<InternalCacheEntry<Object, Object>> entries = digest == null ? publishEntries(segments) :
+            publishDivergentEntries(segments, digest);
+      outboundTransfer.execute(entries)
                       .whenComplete((ignored, throwable) -> {
                          if (throwable != null) {
                             logError(outboundTransfer, throwable);
@@ -296,6 +310,45 @@ public void startOutboundTransfer(Address destination, int requestTopologyId, In
                       });
    }
 
+   private Flowable<InternalCacheEntry<Object, Object>> publishEntries(IntSet segments) {
+      return Flowable.concat(publishDataContainerEntries(segments), publishStoreEntries(segments));
+   }
+
+   /**
+    * Compute the digest of the local keys and metadata first, without loading the values from the stores, then
+    * iterate again and only publish the entries in the buckets that differ from the requester's digest. The stores
+    * only load the values of the keys that pass the filter.
+    */
+   private Flowable<InternalCacheEntry<Object, Object>> publishDivergentEntries(IntSet segments,
+                                                                               StateDigest remoteDigest) {
+      return computeDigest(segments, remoteDigest.getNumSegments())
+            .flatMapPublisher(localDigest -> {
+               Predicate<Object> differs =
+                     key -> localDigest.differs(remoteDigest, keyPartitioner.getSegment(key), key);
+               return Flowable.concat(publishDataContainerEntries(segments).filter(ice -> differs.test(ice.getKey())),
+                                      publishStoreEntries(segments, differs));
+            });
+   }
+
+   private Single<StateDigest> computeDigest(IntSet segments, int numSegments) {
+      // The same digest as the consumer's, the values are not needed
+      // The whole container and store are iterated before the first entry is sent, so do it on the state transfer
+      // executor instead of blocking the remote command thread that started the transfer
+      return Single.defer(() -> {
+         StateDigest digest = new StateDigest(numSegments);
+         Publisher<MarshallableEntry<Object, Object>> loaderPublisher =
+               persistenceManager.publishEntries(segments, k -> !dataContainer.containsKey(k), false, true,
+                                                 Configurations::isStateTransferStore);
+         return publishDataContainerEntries(segments)
+               .doOnNext(ice -> digest.add(keyPartitioner.getSegment(ice.getKey()), ice))
+               .ignoreElements()
+               .andThen(loaderPublisher)
+               .doOnNext(me -> digest.add(keyPartitioner.getSegment(me.getKey()), me.getKey(), me.getMetadata()))
+               .ignoreElements()
+               .toSingleDefault(digest);
+      }).subscribeOn(Schedulers.from(stateTransferExecutor));
+   }
+
    protected Flowable<InternalCacheEntry<Object, Object>> publishDataContainerEntries(IntSet segments) {
       return Flowable.fromIterable(() -> dataContainer.iterator(segments))
                      // TODO Investigate removing the filter, we clear L1 entries before becoming an owner
@@ -303,9 +356,14 @@ protected Flowable<InternalCacheEntry<Object, Object>> publishDataContainerEntri
    }
 
    protected Flowable<InternalCacheEntry<Object, Object>> publishStoreEntries(IntSet segments) {
+      return publishStoreEntries(segments, k -> true);
+   }
+
+   private Flowable<InternalCacheEntry<Object, Object>> publishStoreEntries(IntSet segments,
+                                                                           Predicate<Object> keyFilter) {
       Publisher<MarshallableEntry<Object, Object>> loaderPublisher =
-         persistenceManager.publishEntries(segments, k -> !dataContainer.containsKey(k), true, true,
-                                           Configurations::isStateTransferStore);
+         persistenceManager.publishEntries(segments, k -> !dataContainer.containsKey(k) && keyFilter.test(k), true,
+                                           true, Configurations::isStateTransferStore);
       return Flowable.fromPublisher(loaderPublisher).map(this::defaultMapEntryFromStore);
    }
 
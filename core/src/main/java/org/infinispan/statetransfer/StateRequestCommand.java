@@ -55,6 +55,8 @@ public enum Type {
 
    private IntSet segments;
 
+   private StateDigest digest;
+
    private StateProvider stateProvider;
    private BiasManager biasManager;
 
@@ -92,7 +94,7 @@ public CompletableFuture<Object> invokeAsync() throws Throwable {
                return transactionsStage.toCompletableFuture();
 
             case START_CONSISTENCY_CHECK:
-               stateProvider.startOutboundTransfer(getOrigin(), topologyId, segments, false);
+               stateProvider.startOutboundTransfer(getOrigin(), topologyId, segments, false, null);
                return CompletableFutures.completedNull();
 
             case START_KEYS_TRANSFER:
@@ -100,7 +102,7 @@ public CompletableFuture<Object> invokeAsync() throws Throwable {
                return CompletableFutures.completedNull();
 
             case START_STATE_TRANSFER:
-               stateProvider.startOutboundTransfer(getOrigin(), topologyId, segments, true);
+               stateProvider.startOutboundTransfer(getOrigin(), topologyId, segments, true, digest);
                return CompletableFutures.completedNull();
 
             case CANCEL_CONSISTENCY_CHECK:
@@ -157,6 +159,17 @@ public IntSet getSegments() {
       return segments;
    }
 
+   public StateDigest getDigest() {
+      return digest;
+   }
+
+   /**
+    * Sets the digest of the entries the requester already has, only used by {@link Type#START_STATE_TRANSFER}.
+    */
+   public void setDigest(StateDigest digest) {
+      this.digest = digest;
+   }
+
    @Override
    public byte getCommandId() {
       return COMMAND_ID;
@@ -167,10 +180,11 @@ public byte getCommandId() {
    public void writeTo(ObjectOutput output) throws IOException {
       MarshallUtil.marshallEnum(type, output);
       switch (type) {
+         case START_STATE_TRANSFER:
+            StateDigest.writeTo(output, digest);
          case START_CONSISTENCY_CHECK:
          case CANCEL_CONSISTENCY_CHECK:
          case START_KEYS_TRANSFER:
-         case START_STATE_TRANSFER:
          case GET_TRANSACTIONS:
          case CANCEL_STATE_TRANSFER:
             output.writeObject(getOrigin());
@@ -188,10 +202,11 @@ public void writeTo(ObjectOutput output) throws IOException {
    public void readFrom(ObjectInput input) throws IOException, ClassNotFoundException {
       type = MarshallUtil.unmarshallEnum(input, ordinal -> Type.CACHED_VALUES[ordinal]);
       switch (type) {
+         case START_STATE_TRANSFER:
+            digest = StateDigest.readFrom(input);
          case START_CONSISTENCY_CHECK:
          case CANCEL_CONSISTENCY_CHECK:
          case START_KEYS_TRANSFER:
-         case START_STATE_TRANSFER:
          case GET_TRANSACTIONS:
          case CANCEL_STATE_TRANSFER:
             setOrigin((Address) input.readObject());
@@ -213,6 +228,7 @@ public String toString() {
             ", type=" + type +
             ", topologyId=" + topologyId +
             ", segments=" + segments +
+            ", digest=" + digest +
             '}';
    }
 }
@@ -1926,4 +1926,20 @@ CacheConfigurationException offHeapMemoryEvictionSizeNotLargeEnoughForAddresses(
 
    @Message(value = "Thread Pool Factory %s is blocking, but this pool requires non blocking threads", id = 566)
    CacheConfigurationException threadPoolFactoryIsBlocking(String name);
+
+   @Message(value = "Compaction threshold of store '%s' must be between 0 and 1, was %f", id = 567)
+   CacheConfigurationException invalidCompactionThreshold(String storeName, float threshold);
+
+   @Message(value = "Compaction rate of store '%s' must be positive when compaction is enabled, was %d", id = 568)
+   CacheConfigurationException invalidCompactionRate(String storeName, long rate);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Error while compacting file %s", id = 569)
+   void errorCompactingFile(String file, @Cause Throwable t);
+
+   @Message(value = "State transfer chunk size in bytes must be positive, got %d", id = 570)
+   CacheConfigurationException invalidChunkSizeBytes(long chunkSizeBytes);
+
+   @Message(value = "State transfer maximum number of chunks in flight must be positive, got %d", id = 571)
+   CacheConfigurationException invalidMaxInFlightChunks(int maxInFlightChunks);
 }
@@ -37,9 +37,12 @@
 import org.infinispan.configuration.cache.Index;
 import org.infinispan.configuration.cache.InterceptorConfiguration;
 import org.infinispan.configuration.cache.MemoryConfiguration;
+import org.infinispan.configuration.cache.OffHeapAllocatorType;
+import org.infinispan.configuration.cache.OffHeapEvictionPolicy;
 import org.infinispan.configuration.cache.PartitionHandlingConfiguration;
 import org.infinispan.configuration.cache.PersistenceConfiguration;
 import org.infinispan.configuration.cache.SingleFileStoreConfiguration;
+import org.infinispan.configuration.cache.StateTransferConfiguration;
 import org.infinispan.configuration.cache.StorageType;
 import org.infinispan.configuration.cache.StoreConfiguration;
 import org.infinispan.configuration.global.GlobalConfiguration;
@@ -110,6 +113,29 @@ public void testParseAndConstructUnifiedXmlFile(Path config) throws IOException
    }
 
    public enum ParserVersionCheck {
+      INFINISPAN_101(10, 1) {
+         @Override
+         public void check(ConfigurationBuilderHolder holder) {
+            MemoryConfiguration mc = getConfiguration(holder, "off-heap-memory").memory();
+            assertEquals(StorageType.OFF_HEAP, mc.storageType());
+            assertEquals(OffHeapAllocatorType.POOLED, mc.offHeapAllocator());
+            assertEquals(OffHeapEvictionPolicy.TINY_LFU, mc.offHeapEvictionPolicy());
+            assertTrue(mc.valuesOnHeap());
+            SingleFileStoreConfiguration fileStore = getStoreConfiguration(getConfiguration(holder, "local"), SingleFileStoreConfiguration.class);
+            assertEquals(60000, fileStore.compactionInterval());
+            assertEquals(0.7f, fileStore.compactionThreshold(), 0f);
+            assertEquals(1048576, fileStore.compactionRate());
+            assertEquals(512, fileStore.async().flushBatchSize());
+            assertEquals(100, fileStore.async().maxFlushDelay());
+            assertTrue(getConfiguration(holder, "local").persistence().directPreload());
+            assertTrue(getConfiguration(holder, "dist").clustering().coalesceCommands());
+            StateTransferConfiguration stateTransfer = getConfiguration(holder, "dist").clustering().stateTransfer();
+            assertEquals(1048576, stateTransfer.chunkSizeBytes());
+            assertEquals(4, stateTransfer.maxInFlightChunks());
+            assertTrue(stateTransfer.deltaTransfer());
+         }
+      },
+
       INFINISPAN_100(10, 0) {
          @Override
          public void check(ConfigurationBuilderHolder holder) {
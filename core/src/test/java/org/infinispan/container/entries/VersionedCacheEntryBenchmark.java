@@ -0,0 +1,83 @@
+package org.infinispan.container.entries;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.container.entries.metadata.MetadataMortalCacheEntry;
+import org.infinispan.container.entries.versioned.VersionedMortalCacheEntry;
+import org.infinispan.container.versioning.EntryVersion;
+import org.infinispan.container.versioning.SimpleClusteredVersion;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testng.annotations.Test;
+
+/**
+ * Compares reading the version and the metadata of a {@link VersionedMortalCacheEntry}, which rebuilds the metadata,
+ * with a {@link MetadataMortalCacheEntry}, which references it. The GC profiler reports the bytes allocated by each
+ * operation ({@code gc.alloc.rate.norm}).
+ *
+ * @since 10.1
+ */
+@Test(groups = "profiling", testName = "container.entries.VersionedCacheEntryBenchmark")
+public class VersionedCacheEntryBenchmark {
+
+   private static final int MEASUREMENT_ITERATIONS_COUNT = 5;
+   private static final int WARMUP_ITERATIONS_COUNT = 5;
+
+   public void performBenchmark() throws Exception {
+      Options opt = new OptionsBuilder()
+            .include(this.getClass().getName() + ".*")
+            .mode(Mode.AverageTime)
+            .timeUnit(TimeUnit.NANOSECONDS)
+            .warmupIterations(WARMUP_ITERATIONS_COUNT)
+            .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+            .forks(1)
+            .addProfiler(GCProfiler.class)
+            .shouldFailOnError(true)
+            .build();
+
+      new Runner(opt).run();
+   }
+
+   @State(Scope.Thread)
+   public static class EntryState {
+      VersionedMortalCacheEntry versioned;
+      MetadataMortalCacheEntry metadataAware;
+
+      @Setup
+      public void setup() {
+         SimpleClusteredVersion version = new SimpleClusteredVersion(3, 7);
+         Metadata metadata = new EmbeddedMetadata.Builder().version(version).lifespan(1000).build();
+         versioned = new VersionedMortalCacheEntry("key", "value", version, 1000, 0);
+         metadataAware = new MetadataMortalCacheEntry("key", "value", metadata, 0);
+      }
+   }
+
+   @Benchmark
+   public EntryVersion versionedGetVersion(EntryState state) {
+      return state.versioned.getVersion();
+   }
+
+   @Benchmark
+   public Metadata versionedGetMetadata(EntryState state) {
+      return state.versioned.getMetadata();
+   }
+
+   @Benchmark
+   public EntryVersion metadataAwareGetVersion(EntryState state) {
+      return state.metadataAware.getMetadata().version();
+   }
+
+   @Benchmark
+   public Metadata metadataAwareGetMetadata(EntryState state) {
+      return state.metadataAware.getMetadata();
+   }
+}
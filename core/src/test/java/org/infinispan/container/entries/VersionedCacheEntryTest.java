@@ -0,0 +1,128 @@
+package org.infinispan.container.entries;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.container.entries.metadata.MetadataImmortalCacheEntry;
+import org.infinispan.container.entries.versioned.VersionedImmortalCacheEntry;
+import org.infinispan.container.entries.versioned.VersionedMortalCacheEntry;
+import org.infinispan.container.entries.versioned.VersionedTransientCacheEntry;
+import org.infinispan.container.entries.versioned.VersionedTransientMortalCacheEntry;
+import org.infinispan.container.impl.InternalEntryFactoryImpl;
+import org.infinispan.container.versioning.NumericVersion;
+import org.infinispan.container.versioning.SimpleClusteredVersion;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.util.ControlledTimeService;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * @since 10.1
+ */
+@Test(groups = "unit", testName = "container.entries.VersionedCacheEntryTest")
+public class VersionedCacheEntryTest extends AbstractInfinispanTest {
+   private InternalEntryFactoryImpl factory;
+   private ControlledTimeService timeService;
+
+   @BeforeMethod
+   public void setUp() {
+      factory = new InternalEntryFactoryImpl();
+      timeService = new ControlledTimeService();
+      TestingUtil.inject(factory, timeService);
+   }
+
+   public void testLayoutDependsOnExpiration() {
+      assertLayout(new EmbeddedMetadata.Builder().version(new NumericVersion(1)).build(),
+            VersionedImmortalCacheEntry.class);
+      assertLayout(new EmbeddedMetadata.Builder().version(new NumericVersion(1)).lifespan(1000).build(),
+            VersionedMortalCacheEntry.class);
+      assertLayout(new EmbeddedMetadata.Builder().version(new SimpleClusteredVersion(3, 1)).maxIdle(1000).build(),
+            VersionedTransientCacheEntry.class);
+      assertLayout(new EmbeddedMetadata.Builder().version(new SimpleClusteredVersion(3, 1)).lifespan(2000)
+            .maxIdle(1000).build(), VersionedTransientMortalCacheEntry.class);
+   }
+
+   public void testMetadataNotInlinedWithoutKnownVersion() {
+      // Unknown metadata implementations must be kept as they are
+      Metadata metadata = new RemoteMetadata(null, new SimpleClusteredVersion(3, 1));
+      assertEquals(MetadataImmortalCacheEntry.class, factory.create("k", "v", metadata).getClass());
+      // Metadata built with only lifespan -1 is not the class the builder would recreate
+      metadata = new EmbeddedMetadata.Builder().version(new NumericVersion(1)).lifespan(-1).build();
+      assertEquals(MetadataImmortalCacheEntry.class, factory.create("k", "v", metadata).getClass());
+   }
+
+   public void testExpiration() {
+      long now = timeService.wallClockTime();
+      Metadata metadata = new EmbeddedMetadata.Builder().version(new NumericVersion(1))
+            .lifespan(10, TimeUnit.SECONDS).maxIdle(1, TimeUnit.SECONDS).build();
+      InternalCacheEntry ice = factory.create("k", "v", metadata);
+      assertEquals(now, ice.getCreated());
+      assertEquals(now + 1000, ice.getExpiryTime());
+      ice.touch(now + 500);
+      assertEquals(now + 1500, ice.getExpiryTime());
+      assertFalse(ice.isExpired(now + 1500));
+      assertTrue(ice.isExpired(now + 1501));
+   }
+
+   public void testUpdateKeepsLayout() {
+      InternalCacheEntry ice = factory.create("k", "v",
+            new EmbeddedMetadata.Builder().version(new NumericVersion(1)).lifespan(1000).build());
+      Metadata updated = new EmbeddedMetadata.Builder().version(new NumericVersion(2)).lifespan(2000).build();
+      assertSame(ice, factory.update(ice, "v2", updated));
+      assertEquals("v2", ice.getValue());
+      assertEquals(updated, ice.getMetadata());
+
+      Metadata immortal = new EmbeddedMetadata.Builder().version(new NumericVersion(3)).build();
+      InternalCacheEntry recreated = factory.update(ice, immortal);
+      assertEquals(VersionedImmortalCacheEntry.class, recreated.getClass());
+      assertEquals(immortal, recreated.getMetadata());
+      assertEquals("v2", recreated.getValue());
+   }
+
+   public void testInternalCacheValueRoundTrip() {
+      Metadata metadata = new EmbeddedMetadata.Builder().version(new SimpleClusteredVersion(3, 7)).maxIdle(1000)
+            .build();
+      timeService.advance(500);
+      InternalCacheEntry ice = factory.create("k", "v", metadata);
+      InternalCacheEntry copy = ice.toInternalCacheValue().toInternalCacheEntry("k");
+      assertEquals(metadata, copy.getMetadata());
+      assertEquals(ice.getLastUsed(), copy.getLastUsed());
+      assertEquals(ice.getValue(), copy.getValue());
+   }
+
+   public void testVersionNotRebuilt() {
+      SimpleClusteredVersion version = new SimpleClusteredVersion(3, 7);
+      InternalCacheEntry ice = factory.create("k", "v", new EmbeddedMetadata.Builder().version(version).build());
+      // Reading the version, directly or through the metadata, must not allocate a new one
+      assertSame(version, ((VersionedImmortalCacheEntry) ice).getVersion());
+      assertSame(version, ice.getMetadata().version());
+   }
+
+   public void testMetadataRebuiltOnce() {
+      InternalCacheEntry ice = factory.create("k", "v",
+            new EmbeddedMetadata.Builder().version(new NumericVersion(1)).lifespan(1000).build());
+      Metadata metadata = ice.getMetadata();
+      assertSame(metadata, ice.getMetadata());
+
+      // The rebuilt metadata must not survive an update
+      Metadata updated = new EmbeddedMetadata.Builder().version(new NumericVersion(2)).lifespan(2000).build();
+      ice.setMetadata(updated);
+      assertEquals(updated, ice.getMetadata());
+      assertSame(ice.getMetadata(), ice.getMetadata());
+   }
+
+   private void assertLayout(Metadata metadata, Class<?> expectedClass) {
+      InternalCacheEntry ice = factory.create("k", "v", metadata);
+      assertEquals(expectedClass, ice.getClass());
+      // The metadata is rebuilt on demand, it must not be distinguishable from the original one
+      assertEquals(metadata, ice.getMetadata());
+      assertEquals(metadata.getClass(), ice.getMetadata().getClass());
+   }
+}
@@ -0,0 +1,41 @@
+package org.infinispan.container.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the keys of evicted entries don't stay in the {@link ExpirationIndex} until they are due.
+ *
+ * @since 10.1
+ */
+@Test(groups = "functional", testName = "container.impl.ExpirationIndexEvictionTest")
+public class ExpirationIndexEvictionTest extends SingleCacheManagerTest {
+   private static final int MAX_ENTRIES = 10;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.memory().size(MAX_ENTRIES);
+      builder.expiration().lifespan(1, TimeUnit.HOURS);
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   public void testEvictedKeysRemovedFromIndex() {
+      for (int i = 0; i < 100 * MAX_ENTRIES; i++) {
+         cache.put("k" + i, "v" + i);
+      }
+      AbstractInternalDataContainer<?, ?> container =
+            (AbstractInternalDataContainer<?, ?>) TestingUtil.extractComponent(cache, InternalDataContainer.class);
+      assertNotNull(container.expirationIndex);
+      assertEquals(container.sizeIncludingExpired(), container.expirationIndex.size());
+   }
+}
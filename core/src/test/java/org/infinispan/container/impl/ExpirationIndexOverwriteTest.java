@@ -0,0 +1,50 @@
+package org.infinispan.container.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.time.TimeService;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.ControlledTimeService;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that overwriting an expiring entry drops its key from the {@link ExpirationIndex} bucket of the previous
+ * entry.
+ *
+ * @since 10.1
+ */
+@Test(groups = "functional", testName = "container.impl.ExpirationIndexOverwriteTest")
+public class ExpirationIndexOverwriteTest extends SingleCacheManagerTest {
+   private ControlledTimeService timeService;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(builder);
+      timeService = new ControlledTimeService();
+      TestingUtil.replaceComponent(cm, TimeService.class, timeService, true);
+      return cm;
+   }
+
+   public void testOverwrittenKeyIndexedOnce() {
+      AbstractInternalDataContainer<?, ?> container =
+            (AbstractInternalDataContainer<?, ?>) TestingUtil.extractComponent(cache, InternalDataContainer.class);
+      assertNotNull(container.expirationIndex);
+      for (int i = 0; i < 100; i++) {
+         // Every write expires in a different bucket
+         timeService.advance(TimeUnit.SECONDS.toMillis(1));
+         cache.put("k", "v" + i, 1, TimeUnit.DAYS);
+         assertEquals(1, container.expirationIndex.size());
+      }
+      // The key no longer expires
+      cache.put("k", "immortal");
+      assertEquals(0, container.expirationIndex.size());
+   }
+}
@@ -0,0 +1,133 @@
+package org.infinispan.container.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.MortalCacheEntry;
+import org.infinispan.container.entries.TransientCacheEntry;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+/**
+ * @since 10.1
+ */
+@Test(groups = "unit", testName = "container.impl.ExpirationIndexTest")
+public class ExpirationIndexTest extends AbstractInfinispanTest {
+
+   public void testOnlyExpiredEntriesReturned() {
+      Map<Object, InternalCacheEntry<Object, Object>> entries = new HashMap<>();
+      ExpirationIndex<Object, Object> index = newIndex(entries);
+      for (int i = 0; i < 10; ++i) {
+         put(index, entries, 0, new MortalCacheEntry(i, "value", 1000 * (i + 1), 0));
+      }
+      assertEquals(keys(index.expiredIterator(null, 3500)), list(0, 1, 2));
+      // The returned entries are checked again if they were not removed
+      entries.remove(0);
+      entries.remove(1);
+      assertEquals(keys(index.expiredIterator(null, 4900)), list(2, 3));
+   }
+
+   public void testTouchedEntryIsMoved() {
+      Map<Object, InternalCacheEntry<Object, Object>> entries = new HashMap<>();
+      ExpirationIndex<Object, Object> index = newIndex(entries);
+      TransientCacheEntry entry = new TransientCacheEntry("k", "value", 1000, 0);
+      put(index, entries, 0, entry);
+      entry.touch(2500);
+      assertEquals(keys(index.expiredIterator(null, 3000)), list());
+      assertEquals(keys(index.expiredIterator(null, 4000)), list("k"));
+   }
+
+   public void testRemovedEntriesAreDropped() {
+      Map<Object, InternalCacheEntry<Object, Object>> entries = new HashMap<>();
+      ExpirationIndex<Object, Object> index = newIndex(entries);
+      MortalCacheEntry removed = new MortalCacheEntry("removed", "value", 1000, 0);
+      put(index, entries, 0, removed);
+      put(index, entries, 0, new MortalCacheEntry("gone", "value", 1000, 0));
+      entries.remove("removed");
+      index.remove("removed", removed.getExpiryTime());
+      entries.remove("gone");
+      assertEquals(keys(index.expiredIterator(null, 5000)), list());
+   }
+
+   public void testSegmentsFilter() {
+      Map<Object, InternalCacheEntry<Object, Object>> entries = new HashMap<>();
+      ExpirationIndex<Object, Object> index = newIndex(entries);
+      put(index, entries, 0, new MortalCacheEntry("first", "value", 1000, 0));
+      put(index, entries, 1, new MortalCacheEntry("second", "value", 1000, 0));
+      assertEquals(keys(index.expiredIterator(IntSets.immutableSet(1), 5000)), list("second"));
+      // The keys of other segments are kept for whoever processes them
+      assertEquals(keys(index.expiredIterator(IntSets.immutableSet(0), 5000)), list("first"));
+   }
+
+   public void testOtherSegmentsAreRebucketed() {
+      Map<Object, InternalCacheEntry<Object, Object>> entries = new HashMap<>();
+      InternalDataContainer<Object, Object> container = newContainer(entries);
+      ExpirationIndex<Object, Object> index = new ExpirationIndex<>(container);
+      TransientCacheEntry touched = new TransientCacheEntry("touched", "value", 1000, 0);
+      put(index, entries, 0, touched);
+      put(index, entries, 0, new MortalCacheEntry("current", "value", 3200, 0));
+      touched.touch(2500);
+      assertEquals(keys(index.expiredIterator(IntSets.immutableSet(1), 3000)), list());
+      // The key in the current bucket has nothing to re-bucket, so it is not looked up
+      verify(container, never()).peek(anyInt(), eq("current"));
+      // The touched key was moved to its new bucket even though its segment was filtered out
+      assertEquals(keys(index.expiredIterator(IntSets.immutableSet(0), 3000)), list());
+      assertEquals(keys(index.expiredIterator(IntSets.immutableSet(0), 4000)), list("current", "touched"));
+   }
+
+   public void testRemoveSegments() {
+      Map<Object, InternalCacheEntry<Object, Object>> entries = new HashMap<>();
+      ExpirationIndex<Object, Object> index = newIndex(entries);
+      put(index, entries, 0, new MortalCacheEntry("first", "value", 1000, 0));
+      put(index, entries, 1, new MortalCacheEntry("second", "value", 2000, 0));
+      put(index, entries, 1, new MortalCacheEntry("third", "value", 3000, 0));
+      index.removeSegments(IntSets.immutableSet(1));
+      assertEquals(1, index.size());
+      assertEquals(keys(index.expiredIterator(null, 5000)), list("first"));
+   }
+
+   private static ExpirationIndex<Object, Object> newIndex(Map<Object, InternalCacheEntry<Object, Object>> entries) {
+      return new ExpirationIndex<>(newContainer(entries));
+   }
+
+   private static InternalDataContainer<Object, Object> newContainer(Map<Object, InternalCacheEntry<Object, Object>> entries) {
+      InternalDataContainer<Object, Object> container = mock(InternalDataContainer.class);
+      when(container.peek(anyInt(), any())).thenAnswer(invocation -> entries.get(invocation.getArgument(1)));
+      return container;
+   }
+
+   private static void put(ExpirationIndex<Object, Object> index, Map<Object, InternalCacheEntry<Object, Object>> entries,
+         int segment, InternalCacheEntry<Object, Object> entry) {
+      entries.put(entry.getKey(), entry);
+      index.add(segment, entry.getKey(), entry.getExpiryTime());
+   }
+
+   private static List<Object> keys(Iterator<InternalCacheEntry<Object, Object>> iterator) {
+      List<Object> keys = new ArrayList<>();
+      iterator.forEachRemaining(ice -> keys.add(ice.getKey()));
+      keys.sort((a, b) -> a.toString().compareTo(b.toString()));
+      return keys;
+   }
+
+   private static List<Object> list(Object... keys) {
+      List<Object> list = new ArrayList<>();
+      for (Object key : keys) {
+         list.add(key);
+      }
+      return list;
+   }
+}
@@ -0,0 +1,194 @@
+package org.infinispan.container.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.infinispan.container.entries.CacheEntrySizeCalculator;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.PrimitiveEntrySizeCalculator;
+import org.infinispan.eviction.EvictionType;
+import org.infinispan.marshall.core.WrappedByteArraySizeCalculator;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+/**
+ * @since 10.1
+ */
+@Test(groups = "unit", testName = "container.impl.TinyLfuEvictionTest")
+public class TinyLfuEvictionTest extends AbstractInfinispanTest {
+
+   public void testSizeBoundAcrossMaps() {
+      RecordingListener listener = new RecordingListener();
+      TinyLfuEviction<Object, Object> eviction = newEviction(100, listener);
+      List<BoundedEntryMap<Object, Object>> maps = new ArrayList<>();
+      for (int i = 0; i < 8; ++i) {
+         maps.add(eviction.newMap());
+      }
+      for (int i = 0; i < 1000; ++i) {
+         put(maps.get(i % maps.size()), i);
+      }
+      int size = maps.stream().mapToInt(BoundedEntryMap::size).sum();
+      assertEquals(100, size);
+      assertEquals(100, eviction.weightedSize());
+      assertEquals(900, listener.evicted.size());
+   }
+
+   public void testFrequentKeysSurviveScan() {
+      TinyLfuEviction<Object, Object> eviction = newEviction(100, new RecordingListener());
+      BoundedEntryMap<Object, Object> map = eviction.newMap();
+      for (int i = 0; i < 100; ++i) {
+         put(map, i);
+      }
+      for (int round = 0; round < 5; ++round) {
+         for (int i = 0; i < 50; ++i) {
+            assertNotNull(map.get(i));
+         }
+      }
+      // Keys only used once should not push out the keys used several times
+      for (int i = 1000; i < 2000; ++i) {
+         put(map, i);
+      }
+      int hot = 0;
+      for (int i = 0; i < 50; ++i) {
+         if (map.peek(i) != null) {
+            hot++;
+         }
+      }
+      assertTrue("Only " + hot + " frequently used keys survived", hot >= 45);
+   }
+
+   public void testCloseReleasesWeight() {
+      RecordingListener listener = new RecordingListener();
+      TinyLfuEviction<Object, Object> eviction = newEviction(100, listener);
+      BoundedEntryMap<Object, Object> first = eviction.newMap();
+      BoundedEntryMap<Object, Object> second = eviction.newMap();
+      for (int i = 0; i < 50; ++i) {
+         put(first, i);
+         put(second, -i - 1);
+      }
+      first.close();
+      assertEquals(50, eviction.weightedSize());
+      // The space of the closed map can be used without evicting anything
+      for (int i = 100; i < 150; ++i) {
+         put(second, i);
+      }
+      assertEquals(100, second.size());
+      assertEquals(0, listener.evicted.size());
+   }
+
+   public void testResize() {
+      TinyLfuEviction<Object, Object> eviction = newEviction(100, new RecordingListener());
+      BoundedEntryMap<Object, Object> map = eviction.newStripedMap();
+      for (int i = 0; i < 100; ++i) {
+         put(map, i);
+      }
+      eviction.resize(10);
+      assertEquals(10, map.size());
+      assertEquals(10, eviction.weightedSize());
+   }
+
+   public void testRemovalsUpdateWeight() {
+      TinyLfuEviction<Object, Object> eviction = newEviction(100, new RecordingListener());
+      BoundedEntryMap<Object, Object> map = eviction.newStripedMap();
+      for (int i = 0; i < 10; ++i) {
+         put(map, i);
+      }
+      map.remove(0);
+      map.compute(1, (k, v) -> null);
+      map.values().removeIf(ice -> ice.getKey().equals(2));
+      assertEquals(7, eviction.weightedSize());
+      map.clear();
+      assertEquals(0, eviction.weightedSize());
+   }
+
+   public void testWeightTrackedPerMap() {
+      TinyLfuEviction<Object, Object> eviction = new TinyLfuEviction<>(10_000,
+            (k, v) -> 10L + ((String) v.getValue()).length());
+      eviction.setListener(new RecordingListener());
+      BoundedEntryMap<Object, Object> first = eviction.newMap();
+      BoundedEntryMap<Object, Object> second = eviction.newMap();
+      first.put(1, new ImmortalCacheEntry(1, "a"));
+      first.put(2, new ImmortalCacheEntry(2, "bb"));
+      second.put(3, new ImmortalCacheEntry(3, "ccc"));
+      assertEquals(23, first.weightedSize());
+      assertEquals(13, second.weightedSize());
+
+      first.put(1, new ImmortalCacheEntry(1, "aaaa"));
+      assertEquals(26, first.weightedSize());
+      first.remove(2);
+      assertEquals(14, first.weightedSize());
+      assertEquals(27, eviction.weightedSize());
+   }
+
+   public void testMemoryWeightIncludesEntryOverhead() {
+      TinyLfuEviction<Object, Object> eviction = new TinyLfuEviction<>(10_000, EvictionType.MEMORY);
+      eviction.setListener(new RecordingListener());
+      BoundedEntryMap<Object, Object> map = eviction.newMap();
+      ImmortalCacheEntry entry = new ImmortalCacheEntry("key", "value");
+      map.put("key", entry);
+      long entrySize = new CacheEntrySizeCalculator<>(new WrappedByteArraySizeCalculator<>(
+            new PrimitiveEntrySizeCalculator())).calculateSize("key", entry);
+      assertTrue(TinyLfuEviction.ENTRY_OVERHEAD > 0);
+      assertEquals(entrySize + TinyLfuEviction.ENTRY_OVERHEAD, eviction.weightedSize());
+   }
+
+   public void testHeavierMapsEvictedFirst() {
+      RecordingListener listener = new RecordingListener();
+      TinyLfuEviction<Object, Object> eviction = newEviction(100, listener);
+      BoundedEntryMap<Object, Object> heavy = eviction.newMap();
+      BoundedEntryMap<Object, Object> light = eviction.newMap();
+      for (int i = 0; i < 80; ++i) {
+         put(heavy, i);
+      }
+      for (int i = 100; i < 120; ++i) {
+         put(light, i);
+      }
+      // The light map is below the average weight, so only the heavy map loses entries
+      for (int i = 120; i < 130; ++i) {
+         put(light, i);
+      }
+      assertEquals(10, listener.evicted.size());
+      assertEquals(30, light.size());
+      assertEquals(70, heavy.size());
+      assertEquals(70, heavy.weightedSize());
+   }
+
+   public void testFrequencySketch() {
+      FrequencySketch sketch = new FrequencySketch(512);
+      for (int i = 0; i < 20; ++i) {
+         sketch.increment(42);
+      }
+      sketch.increment(43);
+      assertEquals(15, sketch.frequency(42));
+      assertTrue(sketch.frequency(43) >= 1);
+      assertTrue(sketch.frequency(44) <= 1);
+   }
+
+   private static TinyLfuEviction<Object, Object> newEviction(long maximum, RecordingListener listener) {
+      TinyLfuEviction<Object, Object> eviction = new TinyLfuEviction<>(maximum, EvictionType.COUNT);
+      eviction.setListener(listener);
+      return eviction;
+   }
+
+   private static void put(BoundedEntryMap<Object, Object> map, int key) {
+      map.put(key, new ImmortalCacheEntry(key, "value" + key));
+   }
+
+   private static class RecordingListener implements TinyLfuEviction.Listener<Object, Object> {
+      final List<Object> evicted = new ArrayList<>();
+
+      @Override
+      public void onEntryChosenForEviction(Object key, InternalCacheEntry<Object, Object> value) {
+      }
+
+      @Override
+      public void onEntryEvicted(Object key, InternalCacheEntry<Object, Object> value) {
+         evicted.add(key);
+      }
+   }
+}
@@ -0,0 +1,143 @@
+package org.infinispan.container.offheap;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.impl.InternalEntryFactoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testng.annotations.Test;
+
+/**
+ * Compares the throughput and the garbage collection cost of storing many long keys with small values on the heap,
+ * as {@link org.infinispan.container.impl.DefaultDataContainer} does, fully off-heap, as
+ * {@link OffHeapDataContainer} does, and with only the keys off-heap using {@link HybridOffHeapEntryFactoryImpl}.
+ *
+ * @since 10.1
+ */
+@Test(groups = "profiling", testName = "container.offheap.HybridOffHeapStorageBenchmark")
+public class HybridOffHeapStorageBenchmark {
+
+   private static final int MEASUREMENT_ITERATIONS_COUNT = 5;
+   private static final int WARMUP_ITERATIONS_COUNT = 5;
+
+   public void performStorageBenchmark() throws Exception {
+      Options opt = new OptionsBuilder()
+            .include(this.getClass().getName() + ".*")
+            .mode(Mode.Throughput)
+            .timeUnit(TimeUnit.MICROSECONDS)
+            .warmupIterations(WARMUP_ITERATIONS_COUNT)
+            .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+            .threads(4)
+            .forks(1)
+            .addProfiler(GCProfiler.class)
+            .shouldFailOnError(true)
+            .shouldDoGC(true)
+            .build();
+
+      new Runner(opt).run();
+   }
+
+   public enum Storage {
+      HEAP, OFF_HEAP, HYBRID
+   }
+
+   @State(Scope.Benchmark)
+   public static class StorageState {
+      private static final int KEY_COUNT = 1 << 20;
+
+      @Param({"HEAP", "OFF_HEAP", "HYBRID"})
+      public Storage storage;
+
+      @Param({"10"})
+      public int writePercentage;
+
+      @Param({"128"})
+      public int keySize;
+
+      @Param({"8"})
+      public int valueSize;
+
+      private Map<WrappedBytes, InternalCacheEntry<WrappedBytes, WrappedBytes>> map;
+      private String keyPrefix;
+
+      @Setup(Level.Trial)
+      public void setup() {
+         switch (storage) {
+            case HEAP:
+               map = new ConcurrentHashMap<>();
+               break;
+            case OFF_HEAP:
+               map = newOffHeapMap(new OffHeapEntryFactoryImpl());
+               break;
+            case HYBRID:
+               map = newOffHeapMap(new HybridOffHeapEntryFactoryImpl());
+               break;
+         }
+         StringBuilder prefix = new StringBuilder();
+         while (prefix.length() < keySize) {
+            prefix.append("org.infinispan.benchmark.key.");
+         }
+         prefix.setLength(keySize - 8);
+         keyPrefix = prefix.toString();
+         for (int i = 0; i < KEY_COUNT; ++i) {
+            WrappedBytes key = key(i);
+            map.put(key, entry(key));
+         }
+      }
+
+      // Keys are created for every operation, so that only the map keeps them alive
+      WrappedBytes key(int index) {
+         return new WrappedByteArray(String.format("%s%08x", keyPrefix, index).getBytes(StandardCharsets.UTF_8));
+      }
+
+      InternalCacheEntry<WrappedBytes, WrappedBytes> entry(WrappedBytes key) {
+         return new ImmortalCacheEntry(key, new WrappedByteArray(new byte[valueSize]));
+      }
+
+      private static OffHeapConcurrentMap newOffHeapMap(OffHeapEntryFactoryImpl offHeapEntryFactory) {
+         OffHeapMemoryAllocator allocator = new UnpooledOffHeapMemoryAllocator();
+         offHeapEntryFactory.allocator = allocator;
+         offHeapEntryFactory.internalEntryFactory = new InternalEntryFactoryImpl();
+         offHeapEntryFactory.configuration = new ConfigurationBuilder().build();
+         offHeapEntryFactory.start();
+         return new OffHeapConcurrentMap(allocator, offHeapEntryFactory, null);
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown() {
+         if (map instanceof OffHeapConcurrentMap) {
+            ((OffHeapConcurrentMap) map).close();
+         }
+         map = null;
+      }
+   }
+
+   @Benchmark
+   public Object get(StorageState state) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      WrappedBytes key = state.key(random.nextInt(StorageState.KEY_COUNT));
+      if (random.nextInt(100) < state.writePercentage) {
+         return state.map.put(key, state.entry(key));
+      }
+      return state.map.get(key);
+   }
+}
@@ -16,6 +16,7 @@
 import org.infinispan.Cache;
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.OffHeapEvictionPolicy;
 import org.infinispan.configuration.cache.StorageType;
 import org.infinispan.eviction.EvictionType;
 import org.infinispan.util.concurrent.IsolationLevel;
@@ -28,10 +29,36 @@ public class OffHeapBoundedSingleNodeTest extends OffHeapSingleNodeTest {
 
    private static final int COUNT = 51;
 
+   protected OffHeapEvictionPolicy evictionPolicy;
+
+   @Override
+   public Object[] factory() {
+      return new Object[]{
+            new OffHeapBoundedSingleNodeTest().evictionPolicy(OffHeapEvictionPolicy.LRU),
+            new OffHeapBoundedSingleNodeTest().evictionPolicy(OffHeapEvictionPolicy.TINY_LFU),
+      };
+   }
+
+   OffHeapBoundedSingleNodeTest evictionPolicy(OffHeapEvictionPolicy evictionPolicy) {
+      this.evictionPolicy = evictionPolicy;
+      return this;
+   }
+
+   @Override
+   protected String[] parameterNames() {
+      return concat(super.parameterNames(), "policy");
+   }
+
+   @Override
+   protected Object[] parameterValues() {
+      return concat(super.parameterValues(), evictionPolicy);
+   }
+
    @Override
    protected void createCacheManagers() throws Throwable {
       ConfigurationBuilder dcc = getDefaultClusteredCacheConfig(CacheMode.LOCAL, false);
-      dcc.memory().storageType(StorageType.OFF_HEAP).size(COUNT).evictionType(EvictionType.COUNT);
+      dcc.memory().storageType(StorageType.OFF_HEAP).size(COUNT).evictionType(EvictionType.COUNT)
+            .offHeapEvictionPolicy(evictionPolicy);
       dcc.locking().isolationLevel(IsolationLevel.READ_COMMITTED);
       // Only start up the 1 cache
       addClusterEnabledCacheManager(dcc);
@@ -0,0 +1,125 @@
+package org.infinispan.container.offheap;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.impl.InternalEntryFactoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testng.annotations.Test;
+
+/**
+ * Compares the throughput of reads from {@link OffHeapConcurrentMap} with optimistic reads enabled and disabled, with
+ * and without a concurrent writer, for an increasing number of reading threads.
+ *
+ * @since 10.1
+ */
+@Test(groups = "profiling", testName = "container.offheap.OffHeapConcurrentMapReadBenchmark")
+public class OffHeapConcurrentMapReadBenchmark {
+
+   private static final int MEASUREMENT_ITERATIONS_COUNT = 5;
+   private static final int WARMUP_ITERATIONS_COUNT = 5;
+   private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+
+   public void performReadBenchmark() throws Exception {
+      for (int threads : THREADS) {
+         Options opt = new OptionsBuilder()
+               .include(this.getClass().getName() + ".*")
+               .mode(Mode.Throughput)
+               .timeUnit(TimeUnit.MICROSECONDS)
+               .warmupIterations(WARMUP_ITERATIONS_COUNT)
+               .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+               .threads(threads)
+               .forks(1)
+               .shouldFailOnError(true)
+               .shouldDoGC(true)
+               .build();
+
+         new Runner(opt).run();
+      }
+   }
+
+   @State(Scope.Benchmark)
+   public static class MapState {
+      private static final int KEY_COUNT = 1 << 16;
+
+      @Param({"true", "false"})
+      public boolean optimisticReads;
+
+      /**
+       * Percentage of operations that are writes, performed by the benchmark threads themselves
+       */
+      @Param({"0", "10"})
+      public int writePercentage;
+
+      @Param({"64"})
+      public int valueSize;
+
+      private OffHeapConcurrentMap map;
+      private WrappedBytes[] keys;
+      private InternalCacheEntry<WrappedBytes, WrappedBytes>[] entries;
+
+      @Setup(Level.Trial)
+      @SuppressWarnings("unchecked")
+      public void setup() {
+         OffHeapMemoryAllocator allocator = new UnpooledOffHeapMemoryAllocator();
+         OffHeapEntryFactoryImpl offHeapEntryFactory = new OffHeapEntryFactoryImpl();
+         offHeapEntryFactory.allocator = allocator;
+         offHeapEntryFactory.internalEntryFactory = new InternalEntryFactoryImpl();
+         offHeapEntryFactory.configuration = new ConfigurationBuilder().build();
+         offHeapEntryFactory.start();
+
+         map = new OffHeapConcurrentMap(allocator, offHeapEntryFactory, null, optimisticReads);
+         keys = new WrappedBytes[KEY_COUNT];
+         entries = new InternalCacheEntry[KEY_COUNT];
+         for (int i = 0; i < KEY_COUNT; ++i) {
+            byte[] keyBytes = new byte[8];
+            for (int j = 0; j < 8; ++j) {
+               keyBytes[j] = (byte) (i >>> (j * 8));
+            }
+            keys[i] = new WrappedByteArray(keyBytes);
+            entries[i] = new ImmortalCacheEntry(keys[i], new WrappedByteArray(new byte[valueSize]));
+            map.put(keys[i], entries[i]);
+         }
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown() {
+         map.close();
+      }
+   }
+
+   @Benchmark
+   public Object get(MapState state) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int index = random.nextInt(MapState.KEY_COUNT);
+      if (state.writePercentage > 0 && random.nextInt(100) < state.writePercentage) {
+         return state.map.put(state.keys[index], state.entries[index]);
+      }
+      return state.map.get(state.keys[index]);
+   }
+
+   @Benchmark
+   public Object peek(MapState state) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int index = random.nextInt(MapState.KEY_COUNT);
+      if (state.writePercentage > 0 && random.nextInt(100) < state.writePercentage) {
+         return state.map.put(state.keys[index], state.entries[index]);
+      }
+      return state.map.peek(state.keys[index]);
+   }
+}
@@ -4,10 +4,18 @@
 import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.marshall.WrappedBytes;
@@ -132,6 +140,70 @@ public void testIterationCreatedButNotUsedUntilAfterAResize() {
       assertEquals(RESIZE_LIMITATION, entriesFound);
    }
 
+   public void testOptimisticReadsDuringConcurrentWrites() throws Exception {
+      int keyCount = 64;
+      WrappedBytes[] keys = new WrappedBytes[keyCount];
+      for (int i = 0; i < keyCount; ++i) {
+         keys[i] = new WrappedByteArray(new byte[] { (byte) i });
+         map.put(keys[i], new ImmortalCacheEntry(keys[i], valueFor(i, 1)));
+      }
+      AtomicBoolean stop = new AtomicBoolean();
+      ExecutorService executor = Executors.newFixedThreadPool(6);
+      try {
+         List<Future<?>> futures = new ArrayList<>();
+         for (int w = 0; w < 2; ++w) {
+            futures.add(executor.submit(() -> {
+               ThreadLocalRandom random = ThreadLocalRandom.current();
+               while (!stop.get()) {
+                  int i = random.nextInt(keyCount);
+                  if (random.nextInt(10) == 0) {
+                     map.remove(keys[i]);
+                  } else {
+                     map.put(keys[i], new ImmortalCacheEntry(keys[i], valueFor(i, random.nextInt(1, 64))));
+                  }
+                  // Additional keys cause resizes while reading
+                  if (random.nextInt(100) == 0) {
+                     putInMap(map, valueByteArray);
+                  }
+               }
+               return null;
+            }));
+         }
+         for (int r = 0; r < 4; ++r) {
+            futures.add(executor.submit(() -> {
+               ThreadLocalRandom random = ThreadLocalRandom.current();
+               while (!stop.get()) {
+                  int i = random.nextInt(keyCount);
+                  InternalCacheEntry<WrappedBytes, WrappedBytes> ice = random.nextBoolean() ? map.get(keys[i]) :
+                        map.peek(keys[i]);
+                  if (ice != null) {
+                     assertEquals(keys[i], ice.getKey());
+                     WrappedBytes value = ice.getValue();
+                     for (int j = 0; j < value.getLength(); ++j) {
+                        assertEquals(i, value.getByte(j));
+                     }
+                  }
+               }
+               return null;
+            }));
+         }
+         Thread.sleep(TimeUnit.SECONDS.toMillis(2));
+         stop.set(true);
+         for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+         }
+      } finally {
+         stop.set(true);
+         executor.shutdownNow();
+      }
+   }
+
+   private WrappedBytes valueFor(int key, int length) {
+      byte[] bytes = new byte[length];
+      Arrays.fill(bytes, (byte) key);
+      return new WrappedByteArray(bytes);
+   }
+
    WrappedBytes putInMap(OffHeapConcurrentMap map, WrappedBytes value) {
       InternalCacheEntry<WrappedBytes, WrappedBytes> ice;
       WrappedBytes key;
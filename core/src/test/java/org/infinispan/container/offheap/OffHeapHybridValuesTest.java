@@ -0,0 +1,52 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that the values kept on the heap are released with their off-heap entries. The single node off-heap tests
+ * also run with the values on the heap, see {@link OffHeapSingleNodeTest}.
+ * @since 10.1
+ */
+@Test(groups = "functional", testName = "container.offheap.OffHeapHybridValuesTest")
+public class OffHeapHybridValuesTest extends SingleCacheManagerTest {
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.memory().storageType(StorageType.OFF_HEAP).valuesOnHeap(true);
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   public void testHeapValuesReleased() {
+      HybridOffHeapEntryFactoryImpl entryFactory =
+            (HybridOffHeapEntryFactoryImpl) TestingUtil.extractComponent(cache, OffHeapEntryFactory.class);
+      assertEquals(0, entryFactory.heapValueCount());
+
+      for (int i = 0; i < 100; ++i) {
+         cache.put("key" + i, "value" + i);
+      }
+      assertEquals(100, entryFactory.heapValueCount());
+
+      // Replacing an entry must release the previous value
+      for (int i = 0; i < 100; ++i) {
+         assertEquals("value" + i, cache.put("key" + i, "new-value" + i));
+      }
+      assertEquals(100, entryFactory.heapValueCount());
+
+      for (int i = 0; i < 50; ++i) {
+         assertEquals("new-value" + i, cache.remove("key" + i));
+      }
+      assertEquals(50, entryFactory.heapValueCount());
+
+      cache.clear();
+      assertEquals(0, entryFactory.heapValueCount());
+   }
+}
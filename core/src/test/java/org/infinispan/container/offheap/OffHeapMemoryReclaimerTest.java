@@ -0,0 +1,96 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+/**
+ * @since 10.1
+ */
+@Test(groups = "unit", testName = "container.offheap.OffHeapMemoryReclaimerTest")
+public class OffHeapMemoryReclaimerTest extends AbstractInfinispanTest {
+
+   public void testReclaimWithoutReaders() {
+      OffHeapMemoryReclaimer reclaimer = new OffHeapMemoryReclaimer();
+      RecordingAllocator allocator = new RecordingAllocator();
+      reclaimer.retire(allocator, 1, 16);
+      reclaimer.retire(allocator, 2, 32);
+      reclaimer.reclaim();
+      assertEquals(2, allocator.deallocated.size());
+   }
+
+   public void testReaderPreventsReclaim() throws Exception {
+      OffHeapMemoryReclaimer reclaimer = new OffHeapMemoryReclaimer();
+      RecordingAllocator allocator = new RecordingAllocator();
+      CountDownLatch entered = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      Future<?> reader = fork(() -> {
+         OffHeapMemoryReclaimer.ReaderSlot slot = reclaimer.enterRead();
+         try {
+            entered.countDown();
+            release.await(10, TimeUnit.SECONDS);
+         } finally {
+            slot.exit();
+         }
+         return null;
+      });
+      assertEquals(true, entered.await(10, TimeUnit.SECONDS));
+
+      reclaimer.retire(allocator, 1, 16);
+      reclaimer.reclaim();
+      assertEquals(0, allocator.deallocated.size());
+
+      release.countDown();
+      reader.get(10, TimeUnit.SECONDS);
+
+      reclaimer.reclaim();
+      assertEquals(1, allocator.deallocated.size());
+   }
+
+   public void testDrainWaitsForReader() throws Exception {
+      OffHeapMemoryReclaimer reclaimer = new OffHeapMemoryReclaimer();
+      RecordingAllocator allocator = new RecordingAllocator();
+      CountDownLatch entered = new CountDownLatch(1);
+      Future<?> reader = fork(() -> {
+         OffHeapMemoryReclaimer.ReaderSlot slot = reclaimer.enterRead();
+         try {
+            entered.countDown();
+            Thread.sleep(100);
+         } finally {
+            slot.exit();
+         }
+         return null;
+      });
+      assertEquals(true, entered.await(10, TimeUnit.SECONDS));
+      reclaimer.retire(allocator, 1, 16);
+      reclaimer.drain();
+      assertEquals(1, allocator.deallocated.size());
+      reader.get(10, TimeUnit.SECONDS);
+   }
+
+   private static class RecordingAllocator implements OffHeapMemoryAllocator {
+      private final List<Long> deallocated = new ArrayList<>();
+
+      @Override
+      public long allocate(long memoryLength) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public synchronized void deallocate(long memoryAddress, long size) {
+         deallocated.add(memoryAddress);
+      }
+
+      @Override
+      public long getAllocatedAmount() {
+         return 0;
+      }
+   }
+}
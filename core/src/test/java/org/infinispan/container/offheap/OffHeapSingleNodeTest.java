@@ -14,6 +14,7 @@
 import org.infinispan.commons.marshall.WrappedBytes;
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.OffHeapAllocatorType;
 import org.infinispan.configuration.cache.StorageType;
 import org.infinispan.container.DataContainer;
 import org.infinispan.test.TestingUtil;
@@ -27,11 +28,48 @@
 public class OffHeapSingleNodeTest extends OffHeapMultiNodeTest {
 
    protected ControlledTimeService timeService;
+   protected OffHeapAllocatorType allocatorType;
+   protected Boolean valuesOnHeap;
+
+   @Override
+   public Object[] factory() {
+      return new Object[]{
+            new OffHeapSingleNodeTest().allocatorType(OffHeapAllocatorType.UNPOOLED),
+            new OffHeapSingleNodeTest().allocatorType(OffHeapAllocatorType.POOLED),
+            new OffHeapSingleNodeTest().valuesOnHeap(true),
+      };
+   }
+
+   OffHeapSingleNodeTest allocatorType(OffHeapAllocatorType allocatorType) {
+      this.allocatorType = allocatorType;
+      return this;
+   }
+
+   OffHeapSingleNodeTest valuesOnHeap(boolean valuesOnHeap) {
+      this.valuesOnHeap = valuesOnHeap;
+      return this;
+   }
+
+   @Override
+   protected String[] parameterNames() {
+      return concat(super.parameterNames(), "allocator", "valuesOnHeap");
+   }
+
+   @Override
+   protected Object[] parameterValues() {
+      return concat(super.parameterValues(), allocatorType, valuesOnHeap);
+   }
 
    @Override
    protected void createCacheManagers() throws Throwable {
       ConfigurationBuilder dcc = getDefaultClusteredCacheConfig(CacheMode.LOCAL, false);
       dcc.memory().storageType(StorageType.OFF_HEAP);
+      if (allocatorType != null) {
+         dcc.memory().offHeapAllocator(allocatorType);
+      }
+      if (valuesOnHeap != null) {
+         dcc.memory().valuesOnHeap(valuesOnHeap);
+      }
       // Only start up the 1 cache
       addClusterEnabledCacheManager(dcc);
 
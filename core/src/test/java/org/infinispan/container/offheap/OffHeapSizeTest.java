@@ -8,6 +8,7 @@
 import org.infinispan.commons.marshall.WrappedBytes;
 import org.infinispan.commons.util.MemoryUnit;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.OffHeapAllocatorType;
 import org.infinispan.configuration.cache.StorageType;
 import org.infinispan.container.impl.KeyValueMetadataSizeCalculator;
 import org.infinispan.container.versioning.EntryVersion;
@@ -22,6 +23,7 @@
 import org.infinispan.test.fwk.TestCacheManagerFactory;
 import org.infinispan.transaction.TransactionMode;
 import org.testng.annotations.DataProvider;
+import org.testng.annotations.Factory;
 import org.testng.annotations.Test;
 
 /**
@@ -30,12 +32,33 @@
  */
 @Test(groups = "functional", testName = "container.offheap.OffHeapSizeTest")
 public class OffHeapSizeTest extends SingleCacheManagerTest {
+   protected OffHeapAllocatorType allocatorType;
+
+   @Override
+   protected String parameters() {
+      return "[" + allocatorType + "]";
+   }
+
+   @Factory
+   public Object[] factory() {
+      return new Object[]{
+            new OffHeapSizeTest().withAllocatorType(OffHeapAllocatorType.UNPOOLED),
+            new OffHeapSizeTest().withAllocatorType(OffHeapAllocatorType.POOLED),
+      };
+   }
+
+   OffHeapSizeTest withAllocatorType(OffHeapAllocatorType allocatorType) {
+      this.allocatorType = allocatorType;
+      return this;
+   }
+
    @Override
    protected EmbeddedCacheManager createCacheManager() throws Exception {
       ConfigurationBuilder builder = new ConfigurationBuilder();
       builder
             .memory()
                .storageType(StorageType.OFF_HEAP)
+               .offHeapAllocator(allocatorType)
                .size(MemoryUnit.MEGABYTES.toBytes(10))
                .evictionType(EvictionType.MEMORY)
                .evictionStrategy(EvictionStrategy.EXCEPTION)
@@ -44,6 +67,14 @@ protected EmbeddedCacheManager createCacheManager() throws Exception {
       return TestCacheManagerFactory.createCacheManager(builder);
    }
 
+   private long allocatedAmount(OffHeapMemoryAllocator allocator) {
+      if (allocatorType == OffHeapAllocatorType.POOLED) {
+         // The slabs are reserved in advance, only the memory handed out to the entries grows with them
+         return ((PooledOffHeapMemoryAllocator) allocator).getUsedMemory();
+      }
+      return allocator.getAllocatedAmount();
+   }
+
    @DataProvider(name = "sizeMatchData")
    public Object[][] sizeMatchData() {
       return new Object[][] {
@@ -61,7 +92,7 @@ public Object[][] sizeMatchData() {
    @Test(dataProvider = "sizeMatchData")
    public void testSizeMatch(int keyLength, int valueLength, long maxIdle, long lifespan, EntryVersion version) {
       OffHeapMemoryAllocator allocator = TestingUtil.extractComponent(cache, OffHeapMemoryAllocator.class);
-      long beginningSize = allocator.getAllocatedAmount();
+      long beginningSize = allocatedAmount(allocator);
 
       // We write directly to data container to avoid transformations
       ThreadLocalRandom threadLocalRandom = ThreadLocalRandom.current();
@@ -94,7 +125,7 @@ public void testSizeMatch(int keyLength, int valueLength, long maxIdle, long lif
 
       cache.getAdvancedCache().getDataContainer().put(key, value, metadata);
 
-      long endingSize = allocator.getAllocatedAmount();
+      long endingSize = allocatedAmount(allocator);
 
       assertEquals(endingSize - beginningSize, estimateSize);
    }
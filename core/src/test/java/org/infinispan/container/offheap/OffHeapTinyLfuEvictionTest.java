@@ -0,0 +1,58 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.OffHeapEvictionPolicy;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.eviction.EvictionType;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that the TinyLFU eviction policy keeps the frequently read entries. The bounded single node off-heap tests
+ * also run with this policy, see {@link OffHeapBoundedSingleNodeTest}.
+ * @since 10.1
+ */
+@Test(groups = "functional", testName = "container.offheap.OffHeapTinyLfuEvictionTest")
+public class OffHeapTinyLfuEvictionTest extends SingleCacheManagerTest {
+
+   private static final int COUNT = 51;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.memory().storageType(StorageType.OFF_HEAP).size(COUNT).evictionType(EvictionType.COUNT)
+            .offHeapEvictionPolicy(OffHeapEvictionPolicy.TINY_LFU);
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   public void testFrequentKeysSurviveScan() {
+      for (int i = 0; i < COUNT; ++i) {
+         cache.put("hot" + i, "value" + i);
+      }
+      int hotKeys = COUNT / 2;
+      for (int round = 0; round < 5; ++round) {
+         for (int i = 0; i < hotKeys; ++i) {
+            assertNotNull(cache.get("hot" + i));
+         }
+      }
+      // Keys that are only written once should not push out the keys read several times
+      for (int i = 0; i < COUNT * 3; ++i) {
+         cache.put("cold" + i, "value" + i);
+      }
+
+      assertEquals(COUNT, cache.size());
+      int survivors = 0;
+      for (int i = 0; i < hotKeys; ++i) {
+         if (cache.containsKey("hot" + i)) {
+            survivors++;
+         }
+      }
+      assertTrue("Only " + survivors + " frequently read keys survived", survivors >= hotKeys * 9 / 10);
+   }
+}
@@ -0,0 +1,113 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * @since 10.1
+ */
+@Test(groups = "unit", testName = "container.offheap.PooledOffHeapMemoryAllocatorTest")
+public class PooledOffHeapMemoryAllocatorTest extends AbstractInfinispanTest {
+   private static final int SLAB_SIZE = 64 * 1024;
+
+   private PooledOffHeapMemoryAllocator allocator;
+
+   @BeforeMethod
+   void createAllocator() {
+      allocator = new PooledOffHeapMemoryAllocator(1, SLAB_SIZE);
+   }
+
+   @AfterMethod
+   void stopAllocator() {
+      allocator.stop();
+   }
+
+   public void testSizeClasses() {
+      assertEquals(16, PooledOffHeapMemoryAllocator.sizeOfClass(PooledOffHeapMemoryAllocator.sizeClass(1)));
+      assertEquals(16, PooledOffHeapMemoryAllocator.sizeOfClass(PooledOffHeapMemoryAllocator.sizeClass(16)));
+      assertEquals(32, PooledOffHeapMemoryAllocator.sizeOfClass(PooledOffHeapMemoryAllocator.sizeClass(17)));
+      assertEquals(256, PooledOffHeapMemoryAllocator.sizeOfClass(PooledOffHeapMemoryAllocator.sizeClass(256)));
+      assertEquals(320, PooledOffHeapMemoryAllocator.sizeOfClass(PooledOffHeapMemoryAllocator.sizeClass(257)));
+      assertEquals(PooledOffHeapMemoryAllocator.MAX_POOLED_SIZE, PooledOffHeapMemoryAllocator.sizeOfClass(
+            PooledOffHeapMemoryAllocator.sizeClass(PooledOffHeapMemoryAllocator.MAX_POOLED_SIZE)));
+      assertEquals(-1, PooledOffHeapMemoryAllocator.sizeClass(PooledOffHeapMemoryAllocator.MAX_POOLED_SIZE + 1));
+   }
+
+   public void testFreedBlockIsReused() {
+      long first = allocator.allocate(100);
+      allocator.deallocate(first, 100);
+      // Same size class so must come from the free list
+      long second = allocator.allocate(110);
+      assertEquals(first, second);
+      assertEquals(1, allocator.getSlabCount());
+      allocator.deallocate(second, 110);
+      assertEquals(0, allocator.getRequestedMemory());
+   }
+
+   public void testBumpAllocationDoesNotOverlap() {
+      Set<Long> addresses = new HashSet<>();
+      int size = 64;
+      int count = 3 * SLAB_SIZE / size;
+      for (int i = 0; i < count; ++i) {
+         long address = allocator.allocate(size);
+         assertTrue(addresses.add(address));
+         OffHeapMemory.INSTANCE.putLong(address, 56, address);
+      }
+      for (Long address : addresses) {
+         assertEquals(address.longValue(), OffHeapMemory.INSTANCE.getLong(address, 56));
+      }
+      assertEquals(3, allocator.getSlabCount());
+      assertEquals(3L * SLAB_SIZE, allocator.getAllocatedAmount());
+      assertEquals((long) count * size, allocator.getRequestedMemory());
+      assertEquals(100d, allocator.getSlabUtilization(), 0.001);
+
+      for (Long address : addresses) {
+         allocator.deallocate(address, size);
+      }
+      assertEquals(0, allocator.getRequestedMemory());
+      assertEquals(0d, allocator.getSlabUtilization(), 0.001);
+      assertEquals(100d, allocator.getFragmentation(), 0.001);
+   }
+
+   public void testLargeAllocationIsNotPooled() {
+      long size = PooledOffHeapMemoryAllocator.MAX_POOLED_SIZE + 1;
+      long address = allocator.allocate(size);
+      assertEquals(0, allocator.getSlabCount());
+      assertEquals(UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(size), allocator.getUnpooledMemory());
+      allocator.deallocate(address, size);
+      assertEquals(0, allocator.getAllocatedAmount());
+   }
+
+   public void testAllocationSize() {
+      // Pooled allocations are charged their size class, with no per allocation header
+      assertEquals(112, allocator.getAllocationSize(100));
+      assertEquals(320, allocator.getAllocationSize(257));
+      long size = PooledOffHeapMemoryAllocator.MAX_POOLED_SIZE + 1;
+      assertEquals(UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(size), allocator.getAllocationSize(size));
+
+      long address = allocator.allocate(100);
+      assertEquals(allocator.getAllocationSize(100), allocator.getUsedMemory());
+      allocator.deallocate(address, 100);
+   }
+
+   public void testStopReleasesSlabs() {
+      allocator.allocate(64);
+      allocator.allocate(1024);
+      assertEquals(1, allocator.getSlabCount());
+      allocator.stop();
+      assertEquals(0, allocator.getSlabCount());
+      assertEquals(0, allocator.getAllocatedAmount());
+      // Still usable after being stopped
+      long address = allocator.allocate(64);
+      allocator.deallocate(address, 64);
+      assertEquals(1, allocator.getSlabCount());
+   }
+}
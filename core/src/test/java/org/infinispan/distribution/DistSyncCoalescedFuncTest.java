@@ -0,0 +1,127 @@
+package org.infinispan.distribution;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.Cache;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.remote.CoalescedRpcCommand;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.remoting.inboundhandler.DeliverOrder;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.AbstractDelegatingTransport;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.Transport;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the distribution tests with the backup writes and acknowledgements sent to the same node coalesced in a single
+ * message.
+ *
+ * @since 10.1
+ */
+@Test(groups = "functional", testName = "distribution.DistSyncCoalescedFuncTest")
+public class DistSyncCoalescedFuncTest extends DistSyncFuncTest {
+   private static final int NUM_THREADS = 8;
+   private static final int NUM_KEYS = 200;
+
+   @Override
+   protected ConfigurationBuilder buildConfiguration() {
+      ConfigurationBuilder builder = super.buildConfiguration();
+      builder.clustering().coalesceCommands(true);
+      return builder;
+   }
+
+   public void testConcurrentWrites() throws Exception {
+      List<CountingTransport> transports = new ArrayList<>(caches.size());
+      for (Cache<Object, String> cache : caches) {
+         transports.add(replaceCoalescerTransport(cache));
+      }
+
+      writeConcurrently("v-", null);
+
+      for (int t = 0; t < NUM_THREADS; ++t) {
+         for (int i = 0; i < NUM_KEYS; ++i) {
+            assertOnAllCachesAndOwnership("k-" + t + "-" + i, "v-" + t + "-" + i);
+         }
+      }
+
+      // The requests to the primary owners are not coalesced, they still return the previous values
+      writeConcurrently("w-", "v-");
+
+      int coalescedMessages = 0;
+      int coalescedCommands = 0;
+      for (CountingTransport transport : transports) {
+         coalescedMessages += transport.coalescedMessages.get();
+         coalescedCommands += transport.coalescedCommands.get();
+      }
+      assertTrue("No coalesced message was sent", coalescedMessages > 0);
+      assertTrue("Coalesced messages " + coalescedMessages + " did not carry several commands: " +
+            coalescedCommands, coalescedCommands > coalescedMessages);
+
+      for (int i = 0; i < NUM_KEYS; ++i) {
+         caches.get(i % caches.size()).remove("k-0-" + i);
+      }
+      for (int i = 0; i < NUM_KEYS; ++i) {
+         assertRemovedOnAllCaches("k-0-" + i);
+      }
+   }
+
+   private void writeConcurrently(String valuePrefix, String previousValuePrefix) throws Exception {
+      // Many concurrent writers, so that the commands pile up while a message is being sent
+      List<Future<Void>> futures = new ArrayList<>(NUM_THREADS);
+      for (int t = 0; t < NUM_THREADS; ++t) {
+         int thread = t;
+         futures.add(fork(() -> {
+            for (int i = 0; i < NUM_KEYS; ++i) {
+               String key = "k-" + thread + "-" + i;
+               String previous = caches.get(i % caches.size()).put(key, valuePrefix + thread + "-" + i);
+               assertEquals(previousValuePrefix == null ? null : previousValuePrefix + thread + "-" + i, previous);
+            }
+            return null;
+         }));
+      }
+      for (Future<Void> future : futures) {
+         future.get(30, TimeUnit.SECONDS);
+      }
+   }
+
+   private CountingTransport replaceCoalescerTransport(Cache<?, ?> cache) {
+      // The coalescer keeps the transport it was created with
+      Object coalescer = TestingUtil.extractField(TestingUtil.extractComponent(cache, RpcManager.class), "coalescer");
+      CountingTransport[] transport = new CountingTransport[1];
+      TestingUtil.replaceField(coalescer, "transport", (Transport actual) -> transport[0] = new CountingTransport(actual));
+      return transport[0];
+   }
+
+   static class CountingTransport extends AbstractDelegatingTransport {
+      final AtomicInteger coalescedMessages = new AtomicInteger();
+      final AtomicInteger coalescedCommands = new AtomicInteger();
+
+      CountingTransport(Transport actual) {
+         super(actual);
+      }
+
+      @Override
+      public void start() {
+         //skip start it again.
+      }
+
+      @Override
+      public void sendTo(Address destination, ReplicableCommand rpcCommand, DeliverOrder deliverOrder)
+            throws Exception {
+         if (rpcCommand instanceof CoalescedRpcCommand) {
+            coalescedMessages.incrementAndGet();
+            coalescedCommands.addAndGet(((CoalescedRpcCommand) rpcCommand).getCommands().length);
+         }
+         super.sendTo(destination, rpcCommand, deliverOrder);
+      }
+   }
+}
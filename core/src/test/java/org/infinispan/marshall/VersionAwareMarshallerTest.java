@@ -47,6 +47,7 @@
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.commands.write.ReplaceCommand;
 import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.commons.marshall.AdvancedExternalizer;
 import org.infinispan.commons.marshall.MarshallingException;
 import org.infinispan.commons.marshall.PojoWithSerializeWith;
@@ -71,6 +72,7 @@
 import org.infinispan.container.entries.TransientMortalCacheValue;
 import org.infinispan.container.versioning.EntryVersionsMap;
 import org.infinispan.context.Flag;
+import org.infinispan.context.impl.FlagBitSets;
 import org.infinispan.distribution.ch.impl.DefaultConsistentHash;
 import org.infinispan.distribution.ch.impl.DefaultConsistentHashFactory;
 import org.infinispan.manager.EmbeddedCacheManager;
@@ -352,6 +354,28 @@ public void testLongPutKeyValueCommand() throws Exception {
       marshallAndAssertEquality(c);
    }
 
+   public void testCommandFlagsAndTopologyIdMarshalling() throws Exception {
+      long flags = FlagBitSets.IGNORE_RETURN_VALUES | FlagBitSets.SKIP_LOCKING | FlagBitSets.COMMAND_RETRY;
+      PutKeyValueCommand c = new PutKeyValueCommand("k", "v", false, new EmbeddedMetadata.Builder().build(), 1000,
+            flags, CommandInvocationId.generateId(null));
+      c.setTopologyId(Integer.MAX_VALUE);
+      PutKeyValueCommand rc = (PutKeyValueCommand) marshaller.objectFromByteBuffer(marshaller.objectToByteBuffer(c));
+      assertEquals(flags, rc.getFlagsBitSet());
+      assertEquals(Integer.MAX_VALUE, rc.getTopologyId());
+      assertEquals(1000, rc.getSegment());
+
+      ByteString cacheName = ByteString.fromString(TestingUtil.getDefaultCacheName(cm));
+      ClusteredGetCommand small = new ClusteredGetCommand("k", cacheName, 0, EnumUtil.EMPTY_BIT_SET);
+      small.setTopologyId(1);
+      ClusteredGetCommand large = new ClusteredGetCommand("k", cacheName, 0, FlagBitSets.SKIP_CACHE_LOAD);
+      large.setTopologyId(Integer.MAX_VALUE);
+      // Flags and topology ids are packed, so small values take less space
+      assertTrue(marshaller.objectToByteBuffer(small).length < marshaller.objectToByteBuffer(large).length);
+      ClusteredGetCommand rlarge = (ClusteredGetCommand) marshaller.objectFromByteBuffer(marshaller.objectToByteBuffer(large));
+      assertEquals(FlagBitSets.SKIP_CACHE_LOAD, rlarge.getFlagsBitSet());
+      assertEquals(Integer.MAX_VALUE, rlarge.getTopologyId());
+   }
+
    public void testExceptionResponse() throws Exception {
       ExceptionResponse er = new ExceptionResponse(new TimeoutException());
       byte[] bytes = marshaller.objectToByteBuffer(er);
@@ -454,6 +478,18 @@ public void testByteArray() throws Exception {
       marshallAndAssertByteArrayEquality(bytes);
    }
 
+   public void testBuffersNotShared() throws Exception {
+      // The marshaller reuses its output, the returned buffers must not change when marshalling the next object
+      byte[] large = new byte[64 * 1024];
+      Arrays.fill(large, (byte) 1);
+      ByteBuffer first = marshaller.objectToBuffer("first");
+      ByteBuffer second = marshaller.objectToBuffer(large);
+      ByteBuffer third = marshaller.objectToBuffer("third");
+      assertEquals("first", marshaller.objectFromByteBuffer(first.getBuf(), first.getOffset(), first.getLength()));
+      assertArrayEquals(large, (byte[]) marshaller.objectFromByteBuffer(second.getBuf(), second.getOffset(), second.getLength()));
+      assertEquals("third", marshaller.objectFromByteBuffer(third.getBuf(), third.getOffset(), third.getLength()));
+   }
+
    public void testExternalAndInternalWithOffset() throws Exception {
       PojoWithExternalAndInternal obj = new PojoWithExternalAndInternal(new Human().age(23), "value");
 
@@ -0,0 +1,117 @@
+package org.infinispan.marshall.core;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commands.CommandInvocationId;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
+import org.infinispan.commands.remote.ClusteredGetCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commons.util.EnumUtil;
+import org.infinispan.context.impl.FlagBitSets;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.ByteString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testng.annotations.Test;
+
+/**
+ * Measures the time to marshall and unmarshall the most frequent commands with the {@link GlobalMarshaller}.
+ *
+ * @since 10.1
+ */
+@Test(groups = "profiling", testName = "marshall.core.CommandMarshallingBenchmark")
+public class CommandMarshallingBenchmark {
+
+   private static final int MEASUREMENT_ITERATIONS_COUNT = 5;
+   private static final int WARMUP_ITERATIONS_COUNT = 5;
+
+   public void performCommandMarshallingBenchmark() throws Exception {
+      Options opt = new OptionsBuilder()
+            .include(this.getClass().getName() + ".*")
+            .mode(Mode.AverageTime)
+            .timeUnit(TimeUnit.NANOSECONDS)
+            .warmupIterations(WARMUP_ITERATIONS_COUNT)
+            .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+            .threads(4)
+            .forks(1)
+            .addProfiler(GCProfiler.class)
+            .shouldFailOnError(true)
+            .build();
+
+      new Runner(opt).run();
+   }
+
+   public enum CommandType {
+      PUT, CLUSTERED_GET, CLUSTERED_GET_ALL
+   }
+
+   @State(Scope.Benchmark)
+   public static class CommandState {
+      @Param({"PUT", "CLUSTERED_GET", "CLUSTERED_GET_ALL"})
+      public CommandType commandType;
+
+      private EmbeddedCacheManager cacheManager;
+      private GlobalMarshaller marshaller;
+      private ReplicableCommand command;
+      private byte[] bytes;
+
+      @Setup(Level.Trial)
+      public void setup() throws Exception {
+         cacheManager = TestCacheManagerFactory.createCacheManager();
+         marshaller = TestingUtil.extractGlobalMarshaller(cacheManager);
+         switch (commandType) {
+            case PUT:
+               PutKeyValueCommand put = new PutKeyValueCommand("key", "value", false,
+                     new EmbeddedMetadata.Builder().build(), 17, FlagBitSets.IGNORE_RETURN_VALUES,
+                     CommandInvocationId.generateId(null));
+               put.setTopologyId(5);
+               command = put;
+               break;
+            case CLUSTERED_GET:
+               ClusteredGetCommand clusteredGet = new ClusteredGetCommand("key", ByteString.fromString("cache"), 17,
+                     EnumUtil.EMPTY_BIT_SET);
+               clusteredGet.setTopologyId(5);
+               command = clusteredGet;
+               break;
+            case CLUSTERED_GET_ALL:
+               // GetAllCommand is executed locally, it goes to the owners as a ClusteredGetAllCommand
+               ClusteredGetAllCommand<?, ?> clusteredGetAll = new ClusteredGetAllCommand<>(ByteString.fromString("cache"),
+                     Arrays.asList("k1", "k2", "k3", "k4"), EnumUtil.EMPTY_BIT_SET, null);
+               clusteredGetAll.setTopologyId(5);
+               command = clusteredGetAll;
+               break;
+         }
+         bytes = marshaller.objectToByteBuffer(command);
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown() {
+         TestingUtil.killCacheManagers(cacheManager);
+      }
+   }
+
+   @Benchmark
+   public byte[] marshall(CommandState state) throws Exception {
+      return state.marshaller.objectToByteBuffer(state.command);
+   }
+
+   @Benchmark
+   public Object unmarshall(CommandState state) throws Exception {
+      return state.marshaller.objectFromByteBuffer(state.bytes);
+   }
+}
@@ -0,0 +1,96 @@
+package org.infinispan.marshall.core;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commands.remote.ClusteredGetCommand;
+import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.remoting.responses.SuccessfulResponse;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.ByteString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testng.annotations.Test;
+
+/**
+ * Compares the allocation rate of marshalling the commands and responses sent by the transport into an output
+ * reused by the thread with marshalling them into a new output sized by the
+ * {@link org.infinispan.commons.marshall.BufferSizePredictor}, as done before.
+ *
+ * @since 10.1
+ */
+@Test(groups = "profiling", testName = "marshall.core.GlobalMarshallerBenchmark")
+public class GlobalMarshallerBenchmark {
+
+   private static final int MEASUREMENT_ITERATIONS_COUNT = 5;
+   private static final int WARMUP_ITERATIONS_COUNT = 5;
+
+   public void performMarshallingBenchmark() throws Exception {
+      Options opt = new OptionsBuilder()
+            .include(this.getClass().getName() + ".*")
+            .mode(Mode.Throughput)
+            .timeUnit(TimeUnit.MICROSECONDS)
+            .warmupIterations(WARMUP_ITERATIONS_COUNT)
+            .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+            .threads(4)
+            .forks(1)
+            .addProfiler(GCProfiler.class)
+            .shouldFailOnError(true)
+            .build();
+
+      new Runner(opt).run();
+   }
+
+   @State(Scope.Benchmark)
+   public static class MarshallerState {
+      @Param({"32", "1024", "16384"})
+      public int valueSize;
+
+      private EmbeddedCacheManager cacheManager;
+      private GlobalMarshaller marshaller;
+      private Object[] objects;
+
+      @Setup(Level.Trial)
+      public void setup() {
+         cacheManager = TestCacheManagerFactory.createCacheManager();
+         marshaller = TestingUtil.extractGlobalMarshaller(cacheManager);
+         byte[] value = new byte[valueSize];
+         ThreadLocalRandom.current().nextBytes(value);
+         // A request for a key and the response carrying its value
+         objects = new Object[]{
+               new ClusteredGetCommand(new WrappedByteArray(new byte[]{1, 2, 3, 4}), ByteString.fromString("cache"), 1, 0),
+               SuccessfulResponse.create(new WrappedByteArray(value))
+         };
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown() {
+         TestingUtil.killCacheManagers(cacheManager);
+      }
+   }
+
+   @Benchmark
+   public ByteBuffer predictedOutput(MarshallerState state) throws Exception {
+      Object object = state.objects[ThreadLocalRandom.current().nextInt(state.objects.length)];
+      return state.marshaller.writeObjectOutput(object).toByteBuffer();
+   }
+
+   @Benchmark
+   public ByteBuffer scratchOutput(MarshallerState state) throws Exception {
+      Object object = state.objects[ThreadLocalRandom.current().nextInt(state.objects.length)];
+      return state.marshaller.objectToBuffer(object);
+   }
+}
@@ -13,6 +13,7 @@
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
@@ -498,6 +499,22 @@ public void testLoadAll() throws PersistenceException {
       }
    }
 
+   public void testLoadEntries() throws PersistenceException {
+      assertIsEmpty();
+
+      cl.write(marshalledEntry("k1", "v1"));
+      cl.write(marshalledEntry("k2", "v2"));
+      cl.write(marshalledEntry("k3", "v3"));
+      cl.delete("k3");
+
+      Map<Object, MarshallableEntry<Object, Object>> entries = cl.loadEntries(Arrays.asList("k1", "k2", "k3", "k4"));
+      assertEquals(entries.keySet().toString(), 2, entries.size());
+      assertEquals("v1", unwrap(entries.get("k1").getValue()));
+      assertEquals("v2", unwrap(entries.get("k2").getValue()));
+
+      assertTrue(cl.loadEntries(Collections.emptySet()).isEmpty());
+   }
+
    public void testReplaceEntry() {
       assertIsEmpty();
       InternalCacheEntry ice = internalCacheEntry("k1", "v1", -1);
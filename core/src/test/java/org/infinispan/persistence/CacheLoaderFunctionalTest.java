@@ -14,7 +14,9 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import javax.transaction.NotSupportedException;
 import javax.transaction.SystemException;
@@ -32,6 +34,7 @@
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.marshall.persistence.impl.MarshalledEntryUtil;
 import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.persistence.manager.PreloadManager;
 import org.infinispan.persistence.spi.AdvancedCacheLoader;
 import org.infinispan.persistence.spi.AdvancedCacheWriter;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
@@ -349,6 +352,23 @@ public void testPreloadingWithEviction() throws Exception {
       doPreloadingTestWithEviction(preloadingCfg.build(), "preloadingCache_4");
    }
 
+   public void testDirectPreloading() throws Exception {
+      ConfigurationBuilder preloadingCfg = newPreloadConfiguration(cfg.build(), this.getClass().getName() + "preloadingCache_5");
+      preloadingCfg.persistence().directPreload(true);
+      doPreloadingTest(preloadingCfg.build(), "preloadingCache_5");
+
+      PreloadManager preloadManager = TestingUtil.extractComponent(cm.getCache("preloadingCache_5"), PreloadManager.class);
+      assertEquals(4, preloadManager.getPreloadedEntries());
+      assertFalse(preloadManager.isPreloading());
+   }
+
+   public void testDirectPreloadingWithEviction() throws Exception {
+      ConfigurationBuilder preloadingCfg = newPreloadConfiguration(cfg.build(), this.getClass().getName() + "preloadingCache_6");
+      preloadingCfg.persistence().directPreload(true);
+      preloadingCfg.memory().size(3);
+      doPreloadingTestWithEviction(preloadingCfg.build(), "preloadingCache_6");
+   }
+
    ConfigurationBuilder newPreloadConfiguration(Configuration configuration, String storeName) {
       ConfigurationBuilder preloadingCfg = new ConfigurationBuilder();
       preloadingCfg.read(configuration);
@@ -513,6 +533,26 @@ public void testLoadingToMemory() throws PersistenceException {
       assertEquals("v2", cache.get("k2"));
    }
 
+   public void testGetAllLoadingToMemory() throws PersistenceException {
+      assertNotInCacheAndStore("k1", "k2", "k3", "k4");
+      cache.put("k1", "v1");
+      store.write(MarshalledEntryUtil.create("k2", "v2", cache));
+      store.write(MarshalledEntryUtil.create("k3", "v3", cache));
+
+      assertInStoreNotInCache("k2", "k3");
+
+      Map<String, String> values = cache.getAdvancedCache().getAll(new HashSet<>(Arrays.asList("k1", "k2", "k3", "k4")));
+      assertEquals(3, values.size());
+      assertEquals("v1", values.get("k1"));
+      assertEquals("v2", values.get("k2"));
+      assertEquals("v3", values.get("k3"));
+
+      assertInCacheAndStore("k2", "v2");
+      assertInCacheAndStore("k3", "v3");
+      assertNotInCacheAndStore("k4");
+      assertNoLocks(cache);
+   }
+
    public void testSkipLocking(Method m) {
       String name = m.getName();
       AdvancedCache<String, String> advancedCache = cache.getAdvancedCache();
@@ -2,11 +2,19 @@
 
 import static org.testng.AssertJUnit.assertEquals;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.configuration.cache.SingleFileStoreConfigurationBuilder;
 import org.infinispan.marshall.TestObjectStreamMarshaller;
 import org.infinispan.marshall.persistence.impl.MarshalledEntryUtil;
+import org.infinispan.metadata.EmbeddedMetadata;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.test.AbstractInfinispanTest;
 import org.infinispan.test.TestingUtil;
@@ -44,15 +52,19 @@ protected void clearTempDir() {
    @BeforeMethod
    public void setUp() throws Exception {
       clearTempDir();
+      marshaller = new TestObjectStreamMarshaller();
+      startStore(1);
+   }
+
+   private void startStore(int maxEntries) {
       store = new SingleFileStore();
       ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
       builder
             .persistence()
                .addStore(SingleFileStoreConfigurationBuilder.class)
                   .location(this.tmpDirectory)
-                  .maxEntries(1);
+                  .maxEntries(maxEntries);
 
-      marshaller = new TestObjectStreamMarshaller();
       store.init(PersistenceMockUtil.createContext(getClass(), builder.build(), marshaller));
       store.start();
    }
@@ -82,6 +94,71 @@ public void testStoreSizeExceeded() {
       }
    }
 
+   public void testFreeSpaceReused() {
+      TestObjectStreamMarshaller sm = new TestObjectStreamMarshaller();
+      try {
+         char[] large = new char[1024];
+         Arrays.fill(large, 'x');
+         store.write(MarshalledEntryUtil.create(1, new String(large), sm));
+         // Evicts the first entry, its block ends up in the free list
+         store.write(MarshalledEntryUtil.create(2, "v2", sm));
+         assertStoreSize(1, 1);
+         long fileSize = store.getFileSize();
+
+         // Allocated from the free block of the first entry, which is split
+         store.write(MarshalledEntryUtil.create(3, "v3", sm));
+         assertEquals(fileSize, store.getFileSize());
+         assertEquals(1, store.getEntries().size());
+      } finally {
+         sm.stop();
+      }
+   }
+
+   public void testPurgeWithConcurrentReadsAndWrites() throws Exception {
+      store.stop();
+      int numKeys = 100;
+      startStore(numKeys * 10);
+      EmbeddedMetadata expiring = new EmbeddedMetadata.Builder().lifespan(1, TimeUnit.MILLISECONDS).build();
+      long created = System.currentTimeMillis() - 1000;
+      for (int i = 0; i < numKeys; ++i) {
+         store.write(MarshalledEntryUtil.create("live" + i, "v" + i, marshaller));
+      }
+
+      AtomicBoolean stop = new AtomicBoolean();
+      List<Future<?>> futures = new ArrayList<>();
+      futures.add(fork(() -> {
+         // Reads move the entries in the access ordered index
+         while (!stop.get()) {
+            for (int i = 0; i < numKeys; ++i) {
+               assertEquals("v" + i, store.loadEntry("live" + i).getValue());
+            }
+         }
+      }));
+      futures.add(fork(() -> {
+         for (int round = 0; !stop.get(); ++round) {
+            for (int i = 0; i < numKeys; ++i) {
+               store.write(MarshalledEntryUtil.create("expired" + i, "v" + round, expiring, created, created, marshaller));
+            }
+         }
+      }));
+      try {
+         for (int i = 0; i < 200; ++i) {
+            store.purge(null, null);
+         }
+      } finally {
+         stop.set(true);
+      }
+      for (Future<?> future : futures) {
+         future.get(10, TimeUnit.SECONDS);
+      }
+
+      store.purge(null, null);
+      assertEquals(numKeys, store.getEntries().size());
+      for (int i = 0; i < numKeys; ++i) {
+         assertEquals("v" + i, store.loadEntry("live" + i).getValue());
+      }
+   }
+
    private void assertStoreSize(int expectedEntries, int expectedFree) {
       assertEquals("Entries: " + store.getEntries(), expectedEntries, store.getEntries().size());
       assertEquals("Free: " + store.getFreeList(), expectedFree, store.getFreeList().size());
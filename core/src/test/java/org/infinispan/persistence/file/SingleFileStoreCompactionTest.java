@@ -0,0 +1,229 @@
+package org.infinispan.persistence.file;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.io.File;
+
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.SingleFileStoreConfigurationBuilder;
+import org.infinispan.marshall.TestObjectStreamMarshaller;
+import org.infinispan.marshall.persistence.impl.MarshalledEntryUtil;
+import org.infinispan.persistence.spi.MarshallableEntry;
+import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.PersistenceMockUtil;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the compaction of the single-file cache store.
+ *
+ * @since 10.1
+ */
+@Test(groups = "unit", testName = "persistence.file.SingleFileStoreCompactionTest")
+public class SingleFileStoreCompactionTest extends AbstractInfinispanTest {
+
+   private static final int ENTRIES = 100;
+
+   SingleFileStore store;
+   String tmpDirectory;
+   private TestObjectStreamMarshaller marshaller;
+
+   @BeforeClass
+   protected void setUpTempDir() {
+      tmpDirectory = TestingUtil.tmpDirectory(this.getClass());
+   }
+
+   @AfterClass
+   protected void clearTempDir() {
+      Util.recursiveFileRemove(tmpDirectory);
+   }
+
+   @BeforeMethod
+   public void setUp() throws Exception {
+      clearTempDir();
+      marshaller = new TestObjectStreamMarshaller();
+      store = createStore(tmpDirectory);
+      store.start();
+   }
+
+   private SingleFileStore createStore(String location) {
+      return createStore(location, -1);
+   }
+
+   private SingleFileStore createStore(String location, int maxEntries) {
+      SingleFileStore store = new SingleFileStore();
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder
+            .persistence()
+               .addStore(SingleFileStoreConfigurationBuilder.class)
+                  .location(location)
+                  .maxEntries(maxEntries)
+                  .compactionThreshold(0.1f);
+      store.init(PersistenceMockUtil.createContext(getClass(), builder.build(), marshaller));
+      return store;
+   }
+
+   @AfterMethod
+   public void tearDown() throws PersistenceException {
+      try {
+         if (store != null) {
+            store.clear();
+            store.stop();
+         }
+         marshaller.stop();
+      } finally {
+         store = null;
+      }
+   }
+
+   public void testCompactionShrinksFile() throws Exception {
+      writeAndDeleteFirstHalf();
+      long fileSize = store.getFileSize();
+      assertTrue(store.getFragmentationRatio() > 0.4);
+
+      long copied = store.compact(Long.MAX_VALUE);
+
+      assertTrue(copied > 0);
+      assertEquals(copied, store.getCompactedBytes());
+      assertTrue(store.getFileSize() < fileSize);
+      assertEquals(fileSize - store.getFileSize(), store.getReclaimedBytes());
+      assertTrue(store.getFragmentationRatio() < 0.1);
+      assertLiveEntries(store);
+
+      // The moved entries must survive a restart
+      store.stop();
+      store = createStore(tmpDirectory);
+      store.start();
+      assertEquals(ENTRIES / 2, store.size());
+      assertLiveEntries(store);
+   }
+
+   public void testCompactionBudget() throws Exception {
+      writeAndDeleteFirstHalf();
+      long fileSize = store.getFileSize();
+
+      long copied = store.compact(1);
+
+      // At least one entry is moved even with the smallest budget, but no more than that
+      assertTrue(copied > 0);
+      assertTrue(store.getFileSize() < fileSize);
+      assertTrue(fileSize - store.getFileSize() <= 2 * copied);
+      assertLiveEntries(store);
+   }
+
+   public void testCompactionAfterStop() throws Exception {
+      writeAndDeleteFirstHalf();
+      store.stop();
+
+      // A compaction scheduled before stop() must not touch the closed channel
+      assertEquals(0, store.compact(Long.MAX_VALUE));
+      store.start();
+      assertLiveEntries(store);
+   }
+
+   public void testCompactionSkipsBestFitAfterEntry() throws Exception {
+      store.write(MarshalledEntryUtil.create("big", new String(new char[1000]), marshaller));
+      store.write(MarshalledEntryUtil.create("small1", value(1), marshaller));
+      store.write(MarshalledEntryUtil.create("small2", value(2), marshaller));
+      store.write(MarshalledEntryUtil.create("small3", value(3), marshaller));
+      // The best fit for small2 is now the block of small3, which is after it
+      assertTrue(store.delete("big"));
+      assertTrue(store.delete("small3"));
+      long fileSize = store.getFileSize();
+
+      long copied = store.compact(Long.MAX_VALUE);
+
+      assertTrue(copied > 0);
+      assertTrue(store.getFileSize() < fileSize);
+      assertEquals(value(1), store.loadEntry("small1").getValue());
+      assertEquals(value(2), store.loadEntry("small2").getValue());
+   }
+
+   public void testCompactionKeepsLruOrder() throws Exception {
+      store.stop();
+      store = createStore(tmpDirectory + File.separator + "bounded", ENTRIES);
+      store.start();
+      writeAndDeleteFirstHalf();
+      // The entries closest to the end of the file are the least recently used
+      for (int i = ENTRIES - 1; i >= ENTRIES / 2; --i) {
+         assertEquals(value(i), store.loadEntry(i).getValue());
+      }
+
+      assertTrue(store.compact(Long.MAX_VALUE) > 0);
+      // The last write evicts one entry
+      for (int i = ENTRIES; i <= ENTRIES + ENTRIES / 2; ++i) {
+         store.write(MarshalledEntryUtil.create(i, value(i), marshaller));
+      }
+
+      // Moving the entries must not make them the most recently used
+      assertNull(store.loadEntry(ENTRIES - 1));
+      for (int i = ENTRIES / 2; i < ENTRIES - 1; ++i) {
+         assertEquals(value(i), store.loadEntry(i).getValue());
+      }
+   }
+
+   public void testCompactorSharesBudget() throws Exception {
+      writeAndDeleteFirstHalf();
+      SingleFileStore other = createStore(tmpDirectory + File.separator + "other");
+      other.start();
+      try {
+         for (int i = 0; i < ENTRIES; ++i) {
+            other.write(MarshalledEntryUtil.create(i, value(i), marshaller));
+         }
+         for (int i = 0; i < ENTRIES / 2; ++i) {
+            assertTrue(other.delete(i));
+         }
+         SingleFileStoreCompactor compactor = new SingleFileStoreCompactor();
+         compactor.add(store);
+         compactor.add(other);
+         long budget = 2000;
+
+         long copied = compactor.compact(budget);
+
+         // The budget is shared, the first store used it up and the next run starts with it again
+         assertEquals(copied, store.getCompactedBytes() + other.getCompactedBytes());
+         assertTrue(copied < budget + 100);
+         assertEquals(0, other.getCompactedBytes());
+         compactor.compact(Long.MAX_VALUE);
+         assertTrue(other.getCompactedBytes() > 0);
+         assertLiveEntries(store);
+         assertLiveEntries(other);
+      } finally {
+         other.clear();
+         other.stop();
+      }
+   }
+
+   private void writeAndDeleteFirstHalf() {
+      for (int i = 0; i < ENTRIES; ++i) {
+         store.write(MarshalledEntryUtil.create(i, value(i), marshaller));
+      }
+      for (int i = 0; i < ENTRIES / 2; ++i) {
+         assertTrue(store.delete(i));
+      }
+   }
+
+   private void assertLiveEntries(SingleFileStore store) {
+      for (int i = 0; i < ENTRIES; ++i) {
+         MarshallableEntry entry = store.loadEntry(i);
+         if (i < ENTRIES / 2) {
+            assertNull(entry);
+         } else {
+            assertEquals(value(i), entry.getValue());
+         }
+      }
+   }
+
+   private static String value(int i) {
+      return String.format("value-%03d", i);
+   }
+}
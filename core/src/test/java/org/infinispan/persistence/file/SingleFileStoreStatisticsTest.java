@@ -0,0 +1,85 @@
+package org.infinispan.persistence.file;
+
+import static org.infinispan.test.TestingUtil.getCacheObjectName;
+import static org.testng.AssertJUnit.assertNull;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.SingleFileStoreConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the statistics of the single file store exposed through JMX.
+ *
+ * @since 10.1
+ */
+@Test(groups = "functional", testName = "persistence.file.SingleFileStoreStatisticsTest")
+public class SingleFileStoreStatisticsTest extends SingleCacheManagerTest {
+
+   private static final String JMX_DOMAIN = SingleFileStoreStatisticsTest.class.getSimpleName();
+   private static final float COMPACTION_THRESHOLD = 0.1f;
+
+   private final String tmpDirectory = TestingUtil.tmpDirectory(this.getClass());
+   private final MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+
+   @AfterClass(alwaysRun = true)
+   protected void clearTempDir() {
+      Util.recursiveFileRemove(tmpDirectory);
+   }
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      GlobalConfigurationBuilder globalBuilder = new GlobalConfigurationBuilder();
+      globalBuilder.globalJmxStatistics()
+            .mBeanServerLookup(properties -> mBeanServer)
+            .jmxDomain(JMX_DOMAIN)
+            .enable();
+      globalBuilder.globalState().persistentLocation(tmpDirectory);
+      return TestCacheManagerFactory.createCacheManager(globalBuilder, storeConfiguration(true));
+   }
+
+   private ConfigurationBuilder storeConfiguration(boolean statistics) {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.jmxStatistics().enabled(statistics);
+      // Every segment has its own store, the statistics cover all of them
+      builder.clustering().hash().numSegments(4);
+      builder.persistence().addStore(SingleFileStoreConfigurationBuilder.class)
+            .segmented(true)
+            .compactionInterval(100)
+            .compactionThreshold(COMPACTION_THRESHOLD);
+      return builder;
+   }
+
+   public void testCompactionStatistics() throws Exception {
+      ObjectName name = getCacheObjectName(JMX_DOMAIN, getDefaultCacheName() + "(local)", "SingleFileStore");
+      for (int i = 0; i < 100; i++) {
+         cache.put("k" + i, "v" + i);
+      }
+      for (int i = 0; i < 50; i++) {
+         cache.remove("k" + i);
+      }
+
+      eventually(() -> (Long) mBeanServer.getAttribute(name, "CompactedBytes") > 0);
+      eventually(() -> (Double) mBeanServer.getAttribute(name, "FragmentationRatio") < COMPACTION_THRESHOLD);
+      eventually(() -> (Long) mBeanServer.getAttribute(name, "ReclaimedBytes") > 0);
+   }
+
+   public void testStatisticsDisabled() {
+      cacheManager.defineConfiguration("disabled", storeConfiguration(false).build());
+      Cache<String, String> disabled = cacheManager.getCache("disabled");
+      disabled.put("k", "v");
+
+      assertNull(disabled.getAdvancedCache().getComponentRegistry().getComponent(SingleFileStoreStatistics.class));
+   }
+}
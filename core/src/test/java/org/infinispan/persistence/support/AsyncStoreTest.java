@@ -6,6 +6,7 @@
 import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
 import static org.testng.AssertJUnit.fail;
 
 import java.lang.reflect.Method;
@@ -18,6 +19,10 @@
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
 import org.infinispan.Cache;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.configuration.BuiltBy;
@@ -27,6 +32,7 @@
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.configuration.cache.PersistenceConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.marshall.TestObjectStreamMarshaller;
 import org.infinispan.marshall.persistence.impl.MarshalledEntryUtil;
@@ -541,6 +547,91 @@ public void run() {
       assertEquals(3, underlying.threads.size());
    }
 
+   public void testFlushBatchSize(final Method m) throws Exception {
+      DummyInMemoryStore underlying = createBatchingStore(m.getName(), 100, TimeUnit.HOURS.toMillis(1));
+      try {
+         for (int i = 0; i < 10; i++)
+            writer.write(MarshalledEntryUtil.create(k(m, 0), v(m, i), marshaller));
+         // repeated writes are coalesced and the batch is not full yet
+         assertEquals(9, writer.getCoalescedModifications());
+         assertEquals(1, writer.getQueueDepth());
+         TestingUtil.sleepThread(100);
+         assertTrue(underlying.isEmpty());
+
+         for (int i = 1; i < 91; i++)
+            writer.write(MarshalledEntryUtil.create(k(m, i), v(m, i), marshaller));
+         eventuallyEquals(91, underlying::size);
+         eventuallyEquals(0, writer::getQueueDepth);
+         assertEquals(91, writer.getFlushedModifications());
+         assertTrue(writer.getFlushes() > 0);
+         assertTrue(writer.getMaxFlushLatency() >= writer.getAverageFlushLatency());
+         assertEquals(v(m, 9), loader.loadEntry(k(m, 0)).getValue());
+      } finally {
+         writer.stop();
+      }
+   }
+
+   public void testMaxFlushDelay(final Method m) throws Exception {
+      DummyInMemoryStore underlying = createBatchingStore(m.getName(), 1000, 100);
+      try {
+         writer.write(MarshalledEntryUtil.create(k(m), v(m), marshaller));
+         eventually(() -> !underlying.isEmpty());
+         assertEquals(1, writer.getFlushedModifications());
+      } finally {
+         writer.stop();
+      }
+   }
+
+   public void testStatisticsExposedThroughJmx() throws Exception {
+      MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+      String jmxDomain = AsyncStoreTest.class.getSimpleName();
+      GlobalConfigurationBuilder global = new GlobalConfigurationBuilder();
+      global.globalJmxStatistics()
+            .mBeanServerLookup(properties -> mBeanServer)
+            .jmxDomain(jmxDomain)
+            .enable();
+      ConfigurationBuilder config = new ConfigurationBuilder();
+      config.jmxStatistics().enable();
+      config.persistence().addStore(DummyInMemoryStoreConfigurationBuilder.class).async().enable();
+      TestingUtil.withCacheManager(new CacheManagerCallable(TestCacheManagerFactory.createCacheManager(global, config)) {
+         @Override
+         public void call() throws Exception {
+            Cache<String, String> cache = cm.getCache();
+            for (int i = 0; i < 10; i++)
+               cache.put("k" + i, "v" + i);
+
+            ObjectName name = TestingUtil.getCacheObjectName(jmxDomain, cache.getName() + "(local)", "AsyncStore");
+            eventually(() -> (Long) mBeanServer.getAttribute(name, "FlushedModifications") == 10);
+            assertEquals(0L, mBeanServer.getAttribute(name, "QueueDepth"));
+            assertTrue((Long) mBeanServer.getAttribute(name, "Flushes") > 0);
+            assertTrue((Long) mBeanServer.getAttribute(name, "MaxFlushLatency") > 0);
+         }
+      });
+   }
+
+   private DummyInMemoryStore createBatchingStore(String storeName, int flushBatchSize, long maxFlushDelay) {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.persistence()
+            .addStore(DummyInMemoryStoreConfigurationBuilder.class)
+               .storeName(storeName)
+            .async()
+               .enable()
+               .threadPoolSize(3)
+               .flushBatchSize(flushBatchSize)
+               .maxFlushDelay(maxFlushDelay);
+      InitializationContext ctx = PersistenceMockUtil.createContext(getClass(), builder.build(), marshaller);
+      DummyInMemoryStore underlying = new DummyInMemoryStore();
+      underlying.init(ctx);
+      underlying.start();
+      writer = new AdvancedAsyncCacheWriter(underlying);
+      writer.init(ctx);
+      writer.start();
+      loader = new AdvancedAsyncCacheLoader(underlying, writer.getState());
+      loader.init(ctx);
+      loader.start();
+      return underlying;
+   }
+
    private static abstract class OneEntryCacheManagerCallable extends CacheManagerCallable {
       protected final Cache<String, String> cache;
       protected final LockableStore store;
@@ -0,0 +1,155 @@
+package org.infinispan.statetransfer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.TestAddress;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.util.ByteString;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import io.reactivex.Flowable;
+
+/**
+ * Tests the chunking and the flow control of {@link OutboundTransferTask}.
+ *
+ * @since 10.1
+ */
+@Test(groups = "unit", testName = "statetransfer.OutboundTransferTaskTest")
+public class OutboundTransferTaskTest {
+   private static final TestAddress A = new TestAddress(0, "A");
+   private static final TestAddress B = new TestAddress(1, "B");
+
+   private RpcManager rpcManager;
+   private CommandsFactory commandsFactory;
+   private List<StateResponseCommand> sentCommands;
+   private List<CompletableFuture<Object>> responses;
+
+   @BeforeMethod
+   public void setUp() {
+      sentCommands = new ArrayList<>();
+      responses = new ArrayList<>();
+      rpcManager = mock(RpcManager.class);
+      commandsFactory = mock(CommandsFactory.class);
+      when(rpcManager.getAddress()).thenReturn(A);
+      when(commandsFactory.buildStateResponseCommand(any(Address.class), anyInt(), any(), anyBoolean(), anyBoolean()))
+            .thenAnswer(invocation -> new StateResponseCommand(ByteString.fromString("testCache"),
+                                                               invocation.getArgument(0), invocation.getArgument(1),
+                                                               new ArrayList<>(invocation.<Collection<StateChunk>>getArgument(2)),
+                                                               true, false));
+      when(rpcManager.invokeCommand(any(Address.class), any(), any(), any())).thenAnswer(invocation -> {
+         CompletableFuture<Object> response = new CompletableFuture<>();
+         synchronized (this) {
+            sentCommands.add(invocation.getArgument(1));
+            responses.add(response);
+         }
+         return response;
+      });
+   }
+
+   public void testChunksLimitedByBytes() {
+      // 10 entries with 100 byte values, at most 250 bytes per chunk
+      OutboundTransferTask task = newTask(100, 250, 10);
+      CompletionStage<Void> stage = task.execute(entries(10, 100));
+      completeAllResponses();
+
+      assertTrue(stage.toCompletableFuture().isDone());
+      int totalEntries = 0;
+      for (StateResponseCommand command : sentCommands) {
+         int entries = entryCount(command);
+         assertTrue("Chunk too large: " + entries, entries <= 2);
+         totalEntries += entries;
+      }
+      assertEquals(10, totalEntries);
+      assertTrue(isLast(sentCommands.get(sentCommands.size() - 1)));
+   }
+
+   public void testChunksLimitedByCount() {
+      OutboundTransferTask task = newTask(3, Long.MAX_VALUE, 10);
+      CompletionStage<Void> stage = task.execute(entries(10, 100));
+      completeAllResponses();
+
+      assertTrue(stage.toCompletableFuture().isDone());
+      assertEquals(4, sentCommands.size());
+      assertEquals(3, entryCount(sentCommands.get(0)));
+      assertEquals(1, entryCount(sentCommands.get(3)));
+   }
+
+   public void testInFlightChunksBounded() {
+      OutboundTransferTask task = newTask(1, Long.MAX_VALUE, 2);
+      CompletionStage<Void> stage = task.execute(entries(5, 10));
+
+      // Only 2 chunks are sent before the destination confirms them
+      assertEquals(2, sentCommands.size());
+      responses.get(0).complete(null);
+      assertEquals(3, sentCommands.size());
+      responses.get(1).complete(null);
+      responses.get(2).complete(null);
+      assertEquals(4, sentCommands.size());
+      for (StateResponseCommand command : sentCommands) {
+         assertFalse(isLast(command));
+      }
+
+      // The last chunk is only sent after all the others were confirmed
+      responses.get(3).complete(null);
+      assertEquals(5, sentCommands.size());
+      assertTrue(isLast(sentCommands.get(4)));
+      assertFalse(stage.toCompletableFuture().isDone());
+      responses.get(4).complete(null);
+      assertTrue(stage.toCompletableFuture().isDone());
+   }
+
+   public void testEstimateSize() {
+      assertEquals(3 + 5, OutboundTransferTask.estimateSize(new ImmortalCacheEntry("key", new byte[5])));
+      assertEquals(3, OutboundTransferTask.estimateSize(new ImmortalCacheEntry("key", new Object())));
+      // Strings are counted in UTF-8 bytes, not chars
+      assertEquals(3 + 2 + 3, OutboundTransferTask.estimateSize(new ImmortalCacheEntry("key", "\u00e9\u20ac")));
+   }
+
+   private OutboundTransferTask newTask(int chunkSize, long chunkSizeBytes, int maxInFlightChunks) {
+      return new OutboundTransferTask(B, IntSets.immutableSet(0), 1, chunkSize, chunkSizeBytes, maxInFlightChunks, 1,
+                                      k -> 0, chunks -> {}, rpcManager, commandsFactory, 10000, "testCache", true,
+                                      false);
+   }
+
+   private void completeAllResponses() {
+      // Completing a response can send more chunks
+      for (int i = 0; i < responses.size(); i++) {
+         responses.get(i).complete(null);
+      }
+   }
+
+   private static Flowable<InternalCacheEntry<Object, Object>> entries(int count, int valueSize) {
+      List<InternalCacheEntry<Object, Object>> entries = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+         entries.add(new ImmortalCacheEntry("k" + i, new byte[valueSize]));
+      }
+      return Flowable.fromIterable(entries);
+   }
+
+   private static int entryCount(StateResponseCommand command) {
+      return command.getStateChunks().stream().mapToInt(chunk -> chunk.getCacheEntries().size()).sum();
+   }
+
+   private static boolean isLast(StateResponseCommand command) {
+      return command.getStateChunks().stream().allMatch(StateChunk::isLastChunk);
+   }
+}
@@ -183,7 +183,7 @@ public void test1() {
       when(persistenceManager.publishEntries(any(IntSet.class), any(), anyBoolean(), anyBoolean(), any()))
          .thenReturn(Flowable.empty());
 
-      stateProvider.startOutboundTransfer(F, 1, IntSets.immutableSet(0), true);
+      stateProvider.startOutboundTransfer(F, 1, IntSets.immutableSet(0), true, null);
 
       assertTrue(stateProvider.isStateTransferInProgress());
 
@@ -196,7 +196,7 @@ public void test1() {
 
       assertFalse(stateProvider.isStateTransferInProgress());
 
-      stateProvider.startOutboundTransfer(D, 1, IntSets.immutableSet(0), true);
+      stateProvider.startOutboundTransfer(D, 1, IntSets.immutableSet(0), true, null);
 
       assertTrue(stateProvider.isStateTransferInProgress());
 
@@ -274,7 +274,7 @@ public void test2() {
 
       verifyNoMoreInteractions(stateTransferLock);
 
-      stateProvider.startOutboundTransfer(F, 1, IntSets.immutableSet(0), true);
+      stateProvider.startOutboundTransfer(F, 1, IntSets.immutableSet(0), true, null);
 
       assertTrue(stateProvider.isStateTransferInProgress());
 
@@ -288,7 +288,7 @@ public void test2() {
 
       assertFalse(stateProvider.isStateTransferInProgress());
 
-      stateProvider.startOutboundTransfer(E, 1, IntSets.immutableSet(0), true);
+      stateProvider.startOutboundTransfer(E, 1, IntSets.immutableSet(0), true, null);
 
       assertTrue(stateProvider.isStateTransferInProgress());
 
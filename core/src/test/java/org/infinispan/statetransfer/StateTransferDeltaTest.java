@@ -0,0 +1,104 @@
+package org.infinispan.statetransfer;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.versioning.NumericVersion;
+import org.infinispan.context.Flag;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.persistence.dummy.DummyInMemoryStore;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that a node restarted with its store only receives the entries that changed while it was down, when
+ * {@code delta-transfer} is enabled.
+ *
+ * @since 10.1
+ */
+@Test(groups = "functional", testName = "statetransfer.StateTransferDeltaTest")
+public class StateTransferDeltaTest extends MultipleCacheManagersTest {
+   private static final int NUM_KEYS = 1000;
+
+   @Override
+   protected void createCacheManagers() {
+      addNode(0);
+      addNode(1);
+      waitForClusterToForm();
+   }
+
+   private void addNode(int index) {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC);
+      builder.clustering().hash().numOwners(2);
+      builder.clustering().stateTransfer().deltaTransfer(true);
+      DummyInMemoryStoreConfigurationBuilder store =
+            builder.persistence().addStore(DummyInMemoryStoreConfigurationBuilder.class);
+      // The restarted node finds the entries it had before
+      store.storeName(getClass().getSimpleName() + "-" + index).fetchPersistentState(true).shared(false);
+      addClusterEnabledCacheManager(builder);
+   }
+
+   public void testOnlyChangedEntriesTransferred() {
+      cache(0).clear();
+      for (int i = 0; i < NUM_KEYS; i++) {
+         putVersioned("k" + i, "v" + i, 1);
+      }
+
+      int writesBefore = storeWrites();
+      killMember(1);
+      // Update some entries and add some new ones while the node is down
+      for (int i = 0; i < 10; i++) {
+         putVersioned("k" + i, "updated" + i, 2);
+         putVersioned("new" + i, "new" + i, 1);
+      }
+
+      addNode(1);
+      waitForClusterToForm();
+      int writes = storeWrites() - writesBefore;
+
+      assertTrue("Too many entries transferred: " + writes, writes >= 20 && writes < 200);
+      AdvancedCache<Object, Object> restarted = advancedCache(1).withFlags(Flag.CACHE_MODE_LOCAL);
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertEquals(i < 10 ? "updated" + i : "v" + i, restarted.get("k" + i));
+      }
+      for (int i = 0; i < 10; i++) {
+         assertEquals("new" + i, restarted.get("new" + i));
+      }
+   }
+
+   public void testUnversionedEntriesTransferred() {
+      cache(0).clear();
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache(0).put("k" + i, "v" + i);
+      }
+
+      int writesBefore = storeWrites();
+      killMember(1);
+      cache(0).put("k0", "updated");
+
+      addNode(1);
+      waitForClusterToForm();
+      int writes = storeWrites() - writesBefore;
+
+      // Entries without version can't be compared
+      assertTrue("Too few entries transferred: " + writes, writes >= NUM_KEYS);
+      AdvancedCache<Object, Object> restarted = advancedCache(1).withFlags(Flag.CACHE_MODE_LOCAL);
+      assertEquals("updated", restarted.get("k0"));
+      assertEquals("v1", restarted.get("k1"));
+   }
+
+   private void putVersioned(String key, String value, long version) {
+      cache(0).getAdvancedCache().put(key, value, new EmbeddedMetadata.Builder().version(new NumericVersion(version)).build());
+   }
+
+   private int storeWrites() {
+      // The restarted store shares the statistics of the previous one
+      DummyInMemoryStore store = TestingUtil.getFirstWriter(cache(1));
+      return store.stats().get("write");
+   }
+}
@@ -12,6 +12,7 @@
 import org.infinispan.container.offheap.UnpooledOffHeapMemoryAllocator;
 import org.infinispan.context.Flag;
 import org.infinispan.eviction.EvictionType;
+import org.infinispan.interceptors.impl.CacheMgmtInterceptor;
 import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
 import org.infinispan.test.MultipleCacheManagersTest;
 import org.testng.annotations.AfterMethod;
@@ -157,6 +158,10 @@ public void testStats() {
       assertTrue(stats.getAverageWriteTimeNanos() >= 0);
       if (evictionType == EvictionType.COUNT) {
          assertEquals(0, stats.getDataMemoryUsed());
+         // The size of the entries is not computed, and cannot be reported per segment
+         CacheMgmtInterceptor interceptor = cache.getAdvancedCache().getAsyncInterceptorChain()
+               .findInterceptorExtending(CacheMgmtInterceptor.class);
+         assertEquals(-1, interceptor.getDataMemoryUsedBySegment(0));
       } else {
          assertTrue(stats.getDataMemoryUsed() > 0);
       }
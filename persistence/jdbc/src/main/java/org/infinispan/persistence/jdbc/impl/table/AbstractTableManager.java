@@ -24,6 +24,8 @@
 public abstract class AbstractTableManager implements TableManager {
 
    private static final String DEFAULT_IDENTIFIER_QUOTE_STRING = "\"";
+   // Oracle does not allow more than 1000 expressions in an IN list, which is a reasonable default for others too
+   private static final int DEFAULT_MAX_KEYS_PER_SELECT = 1000;
 
    private final Log log;
    protected final ConnectionFactory connectionFactory;
@@ -47,6 +49,7 @@ public abstract class AbstractTableManager implements TableManager {
    private final String loadAllNonExpiredRowsSql;
    private final String deleteAllRows;
    private final String selectExpiredRowsSql;
+   private final String idParameter;
 
    AbstractTableManager(ConnectionFactory connectionFactory, TableManipulationConfiguration config, DbMetaData metaData, String cacheName, Log log) {
       this(connectionFactory, config, metaData, cacheName, DEFAULT_IDENTIFIER_QUOTE_STRING, log);
@@ -76,6 +79,7 @@ public abstract class AbstractTableManager implements TableManager {
       this.loadAllNonExpiredRowsSql = initLoadNonExpiredAllRowsSql();
       this.deleteAllRows = initDeleteAllRowsSql();
       this.selectExpiredRowsSql = initSelectOnlyExpiredRowsSql();
+      this.idParameter = initIdParameter();
    }
 
    @Override
@@ -299,6 +303,47 @@ public String getSelectIdRowSql() {
       return selectIdRowSql;
    }
 
+   /**
+    * @return the placeholder of an id parameter in a WHERE clause
+    */
+   protected String initIdParameter() {
+      return "?";
+   }
+
+   @Override
+   public String getSelectMultipleRowSql(int numberOfKeys) {
+      return selectMultipleRowSql(config.idColumnName() + ", " + config.dataColumnName(), numberOfKeys);
+   }
+
+   @Override
+   public String getSelectMultipleIdRowSql(int numberOfKeys) {
+      return selectMultipleRowSql(config.idColumnName(), numberOfKeys);
+   }
+
+   private String selectMultipleRowSql(String columns, int numberOfKeys) {
+      StringBuilder stringBuilder = new StringBuilder("SELECT ");
+      stringBuilder.append(columns);
+      stringBuilder.append(" FROM ");
+      stringBuilder.append(tableName);
+      stringBuilder.append(" WHERE ");
+      stringBuilder.append(config.idColumnName());
+      stringBuilder.append(" IN (");
+      stringBuilder.append(idParameter);
+
+      for (int i = 1; i < numberOfKeys; ++i) {
+         stringBuilder.append(",");
+         stringBuilder.append(idParameter);
+      }
+      stringBuilder.append(")");
+
+      return stringBuilder.toString();
+   }
+
+   @Override
+   public int getMaxKeysPerSelect() {
+      return DEFAULT_MAX_KEYS_PER_SELECT;
+   }
+
    protected String initCountNonExpiredRowsSql() {
       return "SELECT COUNT(*) FROM " + tableName +
             " WHERE " + config.timestampColumnName() + " < 0 OR " + config.timestampColumnName() + " > ?";
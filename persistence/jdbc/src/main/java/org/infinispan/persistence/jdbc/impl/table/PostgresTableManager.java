@@ -46,6 +46,11 @@ public String initSelectIdRowSql() {
                                      config.idColumnType());
    }
 
+   @Override
+   protected String initIdParameter() {
+      return String.format("cast(? as %s)", config.idColumnType());
+   }
+
    @Override
    public String initDeleteRowSql() {
       return String.format("DELETE FROM %s WHERE %s = cast(? as %s)",
@@ -17,6 +17,12 @@ class SQLServerTableManager extends AbstractTableManager {
       super(connectionFactory, config, metaData, cacheName, log);
    }
 
+   @Override
+   public int getMaxKeysPerSelect() {
+      // SQL Server allows at most 2100 parameters per statement
+      return 2000;
+   }
+
    @Override
    public String initUpsertRowSql() {
          // As SQL Server does not handle a merge atomically, we must acquire the table lock here otherwise it's possible
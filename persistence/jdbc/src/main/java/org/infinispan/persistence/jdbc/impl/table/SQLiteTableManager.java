@@ -23,6 +23,12 @@ public boolean isUpsertSupported() {
                                                  (metaData.getMajorVersion() >= 3 && metaData.getMinorVersion() >= 9));
    }
 
+   @Override
+   public int getMaxKeysPerSelect() {
+      // SQLITE_MAX_VARIABLE_NUMBER defaults to 999 before 3.32
+      return 999;
+   }
+
    @Override
    public String initUpsertRowSql() {
       if (metaData.isSegmentedDisabled()) {
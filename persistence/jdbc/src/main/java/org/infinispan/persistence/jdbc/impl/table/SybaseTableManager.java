@@ -40,6 +40,11 @@ protected String initSelectIdRowSql() {
                                      config.idColumnName(), tableName, config.idColumnName(), config.idColumnType());
    }
 
+   @Override
+   protected String initIdParameter() {
+      return String.format("convert(%s,?)", config.idColumnType());
+   }
+
    @Override
    protected String initDeleteRowSql() {
          return String.format("DELETE FROM %s WHERE %s = convert(%s,?)",
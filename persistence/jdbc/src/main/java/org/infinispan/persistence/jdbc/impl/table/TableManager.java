@@ -43,6 +43,21 @@ public interface TableManager {
 
    String getSelectIdRowSql();
 
+   /**
+    * @return the sql that selects the id and data columns of the rows with any of <code>numberOfKeys</code> ids
+    */
+   String getSelectMultipleRowSql(int numberOfKeys);
+
+   /**
+    * @return the sql that selects the id column of the rows with any of <code>numberOfKeys</code> ids
+    */
+   String getSelectMultipleIdRowSql(int numberOfKeys);
+
+   /**
+    * @return the maximum number of keys a single {@link #getSelectMultipleRowSql(int)} statement may look up
+    */
+   int getMaxKeysPerSelect();
+
    String getCountNonExpiredRowsSql();
 
    String getCountNonExpiredRowsSqlForSegments(int numSegments);
@@ -6,6 +6,7 @@
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
 
 import javax.naming.NamingException;
 
@@ -175,4 +176,7 @@ public interface Log extends BasicLogger {
 
    @Message(value = "Error whilst removing keys in batch from the database. Keys: %s", id = 8038)
    PersistenceException sqlFailureDeletingBatch(Iterable<Object> keys, @Cause Exception e);
+
+   @Message(value = "Error while reading entries in batch from the database. Keys: %s", id = 8039)
+   PersistenceException sqlFailureReadingBatch(Collection<?> keys, @Cause Exception e);
 }
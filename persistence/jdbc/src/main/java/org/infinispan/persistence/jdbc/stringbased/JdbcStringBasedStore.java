@@ -9,9 +9,16 @@
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.PrimitiveIterator;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
@@ -278,11 +285,20 @@ private void executeLegacyUpdate(Connection connection, MarshallableEntry entry,
 
    @Override
    public CompletionStage<Void> bulkUpdate(Publisher<MarshallableEntry<? extends K, ? extends V>> publisher) {
-      // If upsert is not supported, then we must execute the legacy write for each entry; i.e. read then update/insert
+      // If upsert is not supported, then we must read which keys exist and then update/insert; this is done for a
+      // batch of entries at a time, so that it needs one query and two statement batches per batch instead of two
+      // statements per entry
       if (!tableManager.isUpsertSupported()) {
          CompletableFuture<Void> future = new CompletableFuture<>();
-         Flowable.fromPublisher(publisher)
-               .doOnNext(this::write)
+         Flowable
+               .using(connectionFactory::getConnection,
+                     connection -> Flowable.fromPublisher(publisher)
+                           .buffer(getMaxKeysPerBatch())
+                           .doOnNext(entries -> executeLegacyBatch(connection, entries))
+                           .doOnError(e -> {
+                              throw PERSISTENCE.sqlFailureWritingBatch(e);
+                           }),
+                     connectionFactory::releaseConnection)
                .subscribe(Functions.emptyConsumer(), future::completeExceptionally, () -> future.complete(null));
          return future;
       }
@@ -303,6 +319,53 @@ public CompletionStage<Void> bulkUpdate(Publisher<MarshallableEntry<? extends K,
       return future;
    }
 
+   private void executeLegacyBatch(Connection connection, List<MarshallableEntry<? extends K, ? extends V>> entries)
+         throws SQLException, InterruptedException {
+      // a later entry of the same key replaces the earlier one
+      Map<String, MarshallableEntry<? extends K, ? extends V>> entriesByKey = new LinkedHashMap<>(entries.size());
+      for (MarshallableEntry<? extends K, ? extends V> entry : entries) {
+         entriesByKey.put(key2Str(entry.getKey()), entry);
+      }
+      Set<String> existingKeys = new HashSet<>();
+      String sql = tableManager.getSelectMultipleIdRowSql(entriesByKey.size());
+      if (trace) {
+         log.tracef("Running sql '%s'. Key strings are '%s'", sql, entriesByKey.keySet());
+      }
+      try (PreparedStatement ps = connection.prepareStatement(sql)) {
+         int offset = 0;
+         for (String keyStr : entriesByKey.keySet()) {
+            ps.setString(++offset, keyStr);
+         }
+         try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+               existingKeys.add(rowKey(rs.getString(1), entriesByKey));
+            }
+         }
+      }
+
+      try (PreparedStatement updateBatch = connection.prepareStatement(tableManager.getUpdateRowSql());
+           PreparedStatement insertBatch = connection.prepareStatement(tableManager.getInsertRowSql())) {
+         boolean updates = false;
+         boolean inserts = false;
+         for (Map.Entry<String, MarshallableEntry<? extends K, ? extends V>> e : entriesByKey.entrySet()) {
+            MarshallableEntry<? extends K, ? extends V> entry = e.getValue();
+            if (existingKeys.contains(e.getKey())) {
+               prepareStatement(entry, e.getKey(), getSegment(entry), updateBatch, false);
+               updateBatch.addBatch();
+               updates = true;
+            } else {
+               prepareStatement(entry, e.getKey(), getSegment(entry), insertBatch, true);
+               insertBatch.addBatch();
+               inserts = true;
+            }
+         }
+         if (updates)
+            updateBatch.executeBatch();
+         if (inserts)
+            insertBatch.executeBatch();
+      }
+   }
+
    private Flowable<List<MarshallableEntry<? extends K, ? extends V>>> createBatchFlowable(PreparedStatement upsertBatch, Publisher<MarshallableEntry<? extends K, ? extends V>> publisher) {
       return Flowable.fromPublisher(publisher)
             .buffer(configuration.maxBatchSize())
@@ -384,6 +447,77 @@ public MarshallableEntry<K, V> loadEntry(Object key) {
       return entry;
    }
 
+   /**
+    * {@inheritDoc}
+    * <p>
+    * The keys are looked up with one query per {@link TableManager#getMaxKeysPerSelect()} keys, instead of one
+    * query per key as with {@link #loadEntry(Object)}.
+    */
+   @Override
+   public Map<Object, MarshallableEntry<K, V>> loadEntries(Collection<?> keys) {
+      if (keys.isEmpty()) {
+         return Collections.emptyMap();
+      }
+      Map<String, Object> keysByString = new HashMap<>(keys.size());
+      for (Object key : keys) {
+         keysByString.put(key2Str(key), key);
+      }
+      List<String> keyStrs = new ArrayList<>(keysByString.keySet());
+      Map<Object, MarshallableEntry<K, V>> entries = new HashMap<>(keyStrs.size());
+      int maxKeys = tableManager.getMaxKeysPerSelect();
+      Connection conn = null;
+      try {
+         conn = connectionFactory.getConnection();
+         for (int start = 0; start < keyStrs.size(); start += maxKeys) {
+            int end = Math.min(start + maxKeys, keyStrs.size());
+            String sql = tableManager.getSelectMultipleRowSql(end - start);
+            if (trace) {
+               log.tracef("Running sql '%s' for %d keys", sql, end - start);
+            }
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+               for (int i = start; i < end; i++) {
+                  ps.setString(i - start + 1, keyStrs.get(i));
+               }
+               try (ResultSet rs = ps.executeQuery()) {
+                  while (rs.next()) {
+                     Object key = keysByString.get(rowKey(rs.getString(1), keysByString));
+                     InputStream inputStream = rs.getBinaryStream(2);
+                     entries.put(key, marshalledEntryFactory.create(key, unmarshall(inputStream)));
+                  }
+               }
+            }
+         }
+      } catch (SQLException e) {
+         throw PERSISTENCE.sqlFailureReadingBatch(keys, e);
+      } finally {
+         connectionFactory.releaseConnection(conn);
+      }
+      long now = timeService.wallClockTime();
+      entries.values().removeIf(entry -> entry.getMetadata() != null && entry.isExpired(now));
+      return entries;
+   }
+
+   /**
+    * Maps the id of a selected row back to the key string it was selected with: CHAR id columns are returned padded
+    * with trailing spaces.
+    */
+   private static String rowKey(String id, Map<String, ?> keysByString) {
+      if (keysByString.containsKey(id)) {
+         return id;
+      }
+      int end = id.length();
+      while (end > 0 && id.charAt(end - 1) == ' ') {
+         end--;
+      }
+      return id.substring(0, end);
+   }
+
+   private int getMaxKeysPerBatch() {
+      int maxBatchSize = configuration.maxBatchSize();
+      int maxKeys = tableManager.getMaxKeysPerSelect();
+      return maxBatchSize > 0 ? Math.min(maxBatchSize, maxKeys) : maxKeys;
+   }
+
    @Override
    public void clear() {
       Connection conn = null;
@@ -623,7 +757,7 @@ public void prepareWithModifications(Transaction transaction, BatchModification
                upsertBatch.executeBatch();
 
             if (!batchModification.getKeysToRemove().isEmpty())
-               deleteBatch.executeUpdate();
+               deleteBatch.executeBatch();
          }
          // We do not call connection.close() in the event of an exception, as close() on active Tx behaviour is implementation
          // dependent. See https://docs.oracle.com/javase/8/docs/api/java/sql/Connection.html#close--
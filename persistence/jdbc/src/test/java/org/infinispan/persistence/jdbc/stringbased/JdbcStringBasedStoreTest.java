@@ -2,20 +2,31 @@
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertNull;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.persistence.BaseStoreTest;
 import org.infinispan.persistence.jdbc.DatabaseType;
 import org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfigurationBuilder;
 import org.infinispan.persistence.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.persistence.jdbc.impl.table.TableManager;
+import org.infinispan.persistence.jdbc.impl.table.TableManagerFactory;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
 import org.infinispan.persistence.jdbc.UnitTestDatabaseManager;
+import org.infinispan.util.concurrent.CompletionStages;
 import org.testng.annotations.Factory;
 import org.testng.annotations.Test;
 
+import io.reactivex.Flowable;
+
 /**
  * Tester class  for {@link JdbcStringBasedStore}.
  *
@@ -25,23 +36,30 @@
 public class JdbcStringBasedStoreTest extends BaseStoreTest {
 
    boolean segmented;
+   boolean upsertDisabled;
 
    public JdbcStringBasedStoreTest segmented(boolean segmented) {
       this.segmented = segmented;
       return this;
    }
 
+   public JdbcStringBasedStoreTest upsertDisabled(boolean upsertDisabled) {
+      this.upsertDisabled = upsertDisabled;
+      return this;
+   }
+
    @Factory
    public Object[] factory() {
       return new Object[] {
             new JdbcStringBasedStoreTest().segmented(false),
             new JdbcStringBasedStoreTest().segmented(true),
+            new JdbcStringBasedStoreTest().segmented(false).upsertDisabled(true),
       };
    }
 
    @Override
    protected String parameters() {
-      return "[" + segmented + "]";
+      return "[" + segmented + ", " + upsertDisabled + "]";
    }
 
    @Override
@@ -51,6 +69,9 @@ protected AdvancedLoadWriteStore createStore() throws Exception {
             .persistence()
                .addStore(JdbcStringBasedStoreConfigurationBuilder.class);
       storeBuilder.segmented(segmented);
+      if (upsertDisabled) {
+         storeBuilder.addProperty(TableManagerFactory.UPSERT_DISABLED, "true");
+      }
       UnitTestDatabaseManager.configureUniqueConnectionFactory(storeBuilder);
       UnitTestDatabaseManager.buildTableManipulation(storeBuilder.table());
       JdbcStringBasedStore stringBasedCacheStore = new JdbcStringBasedStore();
@@ -93,6 +114,42 @@ public void testNotCreateConnectionFactory() throws Exception {
       stringBasedCacheStore.stop();
    }
 
+   public void testLoadEntries() {
+      // more keys than fit in a single select
+      int numberOfEntries = 2500;
+      CompletionStages.join(cl.bulkUpdate(Flowable.range(0, numberOfEntries)
+            .map(i -> marshalledEntry(internalCacheEntry(key(i), "v" + i, -1)))));
+      cl.write(marshalledEntry(internalCacheEntry("expiring", "v", 1000)));
+      timeService.advance(1001);
+
+      List<Object> keys = new ArrayList<>();
+      for (int i = 0; i < numberOfEntries + 10; i++) {
+         keys.add(key(i));
+      }
+      keys.add("expiring");
+      Map<Object, MarshallableEntry<Object, Object>> entries = ((JdbcStringBasedStore<Object, Object>) cl).loadEntries(keys);
+      assertEquals(numberOfEntries, entries.size());
+      for (int i = 0; i < numberOfEntries; i++) {
+         assertEquals("v" + i, unwrap(entries.get(key(i)).getValue()));
+      }
+      assertFalse(entries.containsKey("expiring"));
+   }
+
+   public void testBulkUpdateOverwrites() {
+      CompletionStages.join(cl.bulkUpdate(Flowable.range(0, 100)
+            .map(i -> marshalledEntry(internalCacheEntry(key(i), "v" + i, -1)))));
+      CompletionStages.join(cl.bulkUpdate(Flowable.range(50, 100)
+            .map(i -> marshalledEntry(internalCacheEntry(key(i), "w" + i, -1)))));
+      assertEquals(150, cl.size());
+      for (int i = 0; i < 150; i++) {
+         assertEquals((i < 50 ? "v" : "w") + i, unwrap(cl.loadEntry(key(i)).getValue()));
+      }
+   }
+
+   private static String key(int i) {
+      return "key" + i;
+   }
+
    @Override
    protected boolean storePurgesAllExpired() {
       // expiration listener is not called for the entries
@@ -0,0 +1,25 @@
+package org.infinispan.persistence.rocksdb;
+
+import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.factories.GlobalComponentRegistry;
+import org.infinispan.factories.annotations.InfinispanModule;
+import org.infinispan.lifecycle.ModuleLifecycle;
+
+/**
+ * Registers the block caches shared by the RocksDB stores of the cache container.
+ *
+ * @since 10.1
+ */
+@InfinispanModule(name = "cachestore-rocksdb", requiredModules = "core")
+public class LifecycleCallbacks implements ModuleLifecycle {
+
+   @Override
+   public void cacheManagerStarting(GlobalComponentRegistry gcr, GlobalConfiguration globalConfiguration) {
+      gcr.registerComponent(new SharedBlockCaches(), SharedBlockCaches.class);
+   }
+
+   @Override
+   public void cacheManagerStopping(GlobalComponentRegistry gcr) {
+      gcr.getComponent(SharedBlockCaches.class).closeAll();
+   }
+}
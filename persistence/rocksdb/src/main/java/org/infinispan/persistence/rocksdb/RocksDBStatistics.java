@@ -0,0 +1,110 @@
+package org.infinispan.persistence.rocksdb;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
+import org.rocksdb.Statistics;
+import org.rocksdb.TickerType;
+
+/**
+ * Exposes the statistics of the RocksDB store of a cache. The statistics are only collected when the cache
+ * statistics are enabled.
+ *
+ * @since 10.1
+ */
+@MBean(objectName = "RocksDBStore", description = "Statistics of the RocksDB cache store")
+public class RocksDBStatistics {
+   private Statistics statistics;
+
+   /**
+    * Sets the statistics of the running store, or null once it is stopped.
+    */
+   synchronized void setStatistics(Statistics statistics) {
+      this.statistics = statistics;
+   }
+
+   private synchronized long ticker(TickerType type) {
+      return statistics == null ? 0 : statistics.getTickerCount(type);
+   }
+
+   @ManagedAttribute(
+         description = "Number of data, index and filter blocks read from the block cache",
+         displayName = "Block cache hits",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getBlockCacheHits() {
+      return ticker(TickerType.BLOCK_CACHE_HIT);
+   }
+
+   @ManagedAttribute(
+         description = "Number of data, index and filter blocks read from disk because they were not in the block cache",
+         displayName = "Block cache misses",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getBlockCacheMisses() {
+      return ticker(TickerType.BLOCK_CACHE_MISS);
+   }
+
+   @ManagedAttribute(
+         description = "Percentage of block reads served by the block cache",
+         displayName = "Block cache hit ratio",
+         units = Units.PERCENTAGE
+   )
+   public double getBlockCacheHitRatio() {
+      long hits = getBlockCacheHits();
+      long total = hits + getBlockCacheMisses();
+      return total == 0 ? 0 : (double) hits / total;
+   }
+
+   @ManagedAttribute(
+         description = "Number of reads of missing keys that the bloom filters answered without reading data blocks",
+         displayName = "Bloom filter useful",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getBloomFilterUseful() {
+      return ticker(TickerType.BLOOM_FILTER_USEFUL);
+   }
+
+   @ManagedAttribute(
+         description = "Time writes were stalled or slowed down waiting for flushes and compactions",
+         displayName = "Write stall time",
+         units = Units.MILLISECONDS,
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getStallTime() {
+      return TimeUnit.MICROSECONDS.toMillis(ticker(TickerType.STALL_MICROS));
+   }
+
+   @ManagedAttribute(
+         description = "Number of bytes read by compactions",
+         displayName = "Compaction bytes read",
+         units = Units.BYTES,
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getCompactionBytesRead() {
+      return ticker(TickerType.COMPACT_READ_BYTES);
+   }
+
+   @ManagedAttribute(
+         description = "Number of bytes written by compactions",
+         displayName = "Compaction bytes written",
+         units = Units.BYTES,
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getCompactionBytesWritten() {
+      return ticker(TickerType.COMPACT_WRITE_BYTES);
+   }
+
+   @ManagedAttribute(
+         description = "Whether RocksDB statistics are being collected",
+         displayName = "Statistics enabled",
+         dataType = DataType.TRAIT
+   )
+   public synchronized boolean isStatisticsEnabled() {
+      return statistics != null;
+   }
+}
@@ -4,10 +4,13 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -37,6 +40,7 @@
 import org.infinispan.commons.util.IntSets;
 import org.infinispan.commons.util.Util;
 import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.marshall.persistence.impl.MarshallableEntryImpl;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.persistence.internal.PersistenceUtil;
@@ -54,17 +58,22 @@
 import org.infinispan.util.concurrent.CompletionStages;
 import org.infinispan.util.logging.LogFactory;
 import org.reactivestreams.Publisher;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
 import org.rocksdb.BuiltinComparator;
+import org.rocksdb.Cache;
 import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.ColumnFamilyOptions;
 import org.rocksdb.CompressionType;
 import org.rocksdb.DBOptions;
-import org.rocksdb.Options;
+import org.rocksdb.Filter;
+import org.rocksdb.IndexType;
 import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.Statistics;
 import org.rocksdb.WriteBatch;
 import org.rocksdb.WriteOptions;
 
@@ -78,11 +87,18 @@
     private static final Log log = LogFactory.getLog(RocksDBStore.class, Log.class);
     static final String DATABASE_PROPERTY_NAME_WITH_SUFFIX = "database.";
     static final String COLUMN_FAMILY_PROPERTY_NAME_WITH_SUFFIX = "data.";
+    static final byte[] EXPIRY_COLUMN_FAMILY = "expiry".getBytes(StandardCharsets.UTF_8);
+
+    static {
+        // Caches, filters and statistics are native objects created before the first database is opened
+        RocksDB.loadLibrary();
+    }
 
     private RocksDBStoreConfiguration configuration;
     private BlockingQueue<ExpiryEntry> expiryEntryQueue;
     private RocksDB db;
     private RocksDB expiredDb;
+    private ColumnFamilyHandle expiryHandle;
     private InitializationContext ctx;
     private Scheduler scheduler;
     private TimeService timeService;
@@ -93,6 +109,12 @@
     private Properties columnFamilyProperties;
     private Marshaller marshaller;
     private MarshallableEntryFactory<K, V> entryFactory;
+    private BlockBasedTableConfig tableConfig;
+    private Cache blockCache;
+    private SharedBlockCaches sharedBlockCaches;
+    private Filter bloomFilter;
+    private Statistics statistics;
+    private RocksDBStatistics statisticsComponent;
     private volatile boolean stopped = true;
 
     @Override
@@ -137,9 +159,22 @@ public void start() {
             }
         }
 
+        if (cache.getCacheConfiguration().jmxStatistics().enabled()) {
+            statistics = new Statistics();
+            ComponentRegistry componentRegistry = cache.getComponentRegistry();
+            // Registered before the cache registers its MBeans, and kept across restarts of the store
+            statisticsComponent = componentRegistry.getComponent(RocksDBStatistics.class);
+            if (statisticsComponent == null) {
+                statisticsComponent = new RocksDBStatistics();
+                componentRegistry.registerComponent(statisticsComponent, RocksDBStatistics.class);
+            }
+            statisticsComponent.setStatistics(statistics);
+        }
+
         try {
+            tableConfig = blockBasedTableConfig(cache);
             db = handler.open(getLocation(), dataDbOptions());
-            expiredDb = openDatabase(getExpirationLocation(), expiredDbOptions());
+            expiredDb = openExpiredDatabase(getExpirationLocation());
             stopped = false;
         } catch (Exception e) {
             throw new CacheConfigurationException("Unable to open database", e);
@@ -150,7 +185,7 @@ private Path getLocation() {
         return getQualifiedLocation(ctx.getGlobalConfiguration(), configuration.location(), ctx.getCache().getName(), "data");
     }
 
-    private Path getExpirationLocation() {
+    Path getExpirationLocation() {
         return getQualifiedLocation(ctx.getGlobalConfiguration(), configuration.expiredLocation(), ctx.getCache().getName(), "expired");
     }
 
@@ -170,6 +205,9 @@ private DBOptions dataDbOptions() {
         } else {
             dbOptions = new DBOptions();
         }
+        if (statistics != null) {
+            dbOptions.setStatistics(statistics);
+        }
         return dbOptions
               .setCreateIfMissing(true)
               // We have to create missing column families on open.
@@ -178,20 +216,134 @@ private DBOptions dataDbOptions() {
               .setCreateMissingColumnFamilies(true);
     }
 
-    private Options expiredDbOptions() {
-        return new Options()
-              .setCreateIfMissing(true)
-              // Make sure keys are sorted by bytes - we use this sorting to remove entries that have expired most recently
-              .setComparator(BuiltinComparator.BYTEWISE_COMPARATOR);
+    /**
+     * Creates the table options shared by the column families of all segments, or returns null if none of them is
+     * configured, so that the RocksDB defaults or the column family properties apply.
+     */
+    private BlockBasedTableConfig blockBasedTableConfig(AdvancedCache cache) {
+        long cacheSize = configuration.cacheSize();
+        int blockSize = configuration.blockSize();
+        int bloomFilterBits = configuration.bloomFilterBits();
+        if (cacheSize <= 0 && blockSize <= 0 && bloomFilterBits <= 0 && !configuration.partitionedFilters()) {
+            return null;
+        }
+        BlockBasedTableConfig tableConfig = new BlockBasedTableConfig();
+        if (cacheSize > 0) {
+            if (configuration.sharedCache()) {
+                sharedBlockCaches = cache.getComponentRegistry().getGlobalComponentRegistry().getComponent(SharedBlockCaches.class);
+            }
+            // The shared caches are only missing if the module was not started with the cache manager
+            blockCache = sharedBlockCaches != null ? sharedBlockCaches.acquire(configuration.cacheType(), cacheSize) :
+                  SharedBlockCaches.newCache(configuration.cacheType(), cacheSize);
+            tableConfig.setBlockCache(blockCache);
+        }
+        if (blockSize > 0) {
+            tableConfig.setBlockSize(blockSize);
+        }
+        if (bloomFilterBits > 0) {
+            // Full filters, block based filters cannot be partitioned
+            bloomFilter = new BloomFilter(bloomFilterBits, false);
+            tableConfig.setFilterPolicy(bloomFilter).setWholeKeyFiltering(true);
+        }
+        if (configuration.partitionedFilters()) {
+            tableConfig.setIndexType(IndexType.kTwoLevelIndexSearch)
+                  .setPartitionFilters(bloomFilter != null)
+                  .setCacheIndexAndFilterBlocks(true)
+                  .setPinTopLevelIndexAndFilter(true);
+        }
+        return tableConfig;
+    }
+
+    private void closeTableResources() {
+        if (blockCache != null) {
+            if (sharedBlockCaches != null) {
+                sharedBlockCaches.release(blockCache);
+                sharedBlockCaches = null;
+            } else {
+                blockCache.close();
+            }
+            blockCache = null;
+        }
+        if (bloomFilter != null) {
+            bloomFilter.close();
+            bloomFilter = null;
+        }
+        if (statistics != null) {
+            statisticsComponent.setStatistics(null);
+            statistics.close();
+            statistics = null;
+        }
     }
 
     /**
-     * Creates database if it doesn't exist.
+     * Creates the expiration database if it doesn't exist. Its keys are the expiration time, as 8 big-endian bytes,
+     * followed by the marshalled key, so that they are sorted by expiration time and are never read before being
+     * written.
      */
-    protected RocksDB openDatabase(Path location, Options options) throws RocksDBException {
+    private RocksDB openExpiredDatabase(Path location) throws RocksDBException {
         File dir = location.toFile();
         dir.mkdirs();
-        return RocksDB.open(options, location.toString());
+        List<ColumnFamilyDescriptor> descriptors = Arrays.asList(
+              new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY),
+              // Make sure keys are sorted by bytes - we use this sorting to find the entries that have expired
+              new ColumnFamilyDescriptor(EXPIRY_COLUMN_FAMILY, new ColumnFamilyOptions().setComparator(BuiltinComparator.BYTEWISE_COMPARATOR)));
+        List<ColumnFamilyHandle> handles = new ArrayList<>(2);
+        RocksDB expiredDb = RocksDB.open(new DBOptions().setCreateIfMissing(true).setCreateMissingColumnFamilies(true),
+              location.toString(), descriptors, handles);
+        expiryHandle = handles.get(1);
+        try (ColumnFamilyHandle legacyHandle = handles.get(0)) {
+            migrateLegacyExpiry(expiredDb, legacyHandle);
+        }
+        return expiredDb;
+    }
+
+    /**
+     * Older versions kept the expiration times in the default column family, keyed by the marshalled time with the
+     * key, or an {@link ExpiryBucket} of keys, as value. Moves them to the expiry column family.
+     */
+    private void migrateLegacyExpiry(RocksDB expiredDb, ColumnFamilyHandle legacyHandle) throws RocksDBException {
+        try (RocksIterator it = expiredDb.newIterator(legacyHandle); WriteBatch batch = new WriteBatch()) {
+            for (it.seekToFirst(); it.isValid(); it.next()) {
+                long time = (Long) unmarshall(it.key());
+                Object value = unmarshall(it.value());
+                if (value instanceof ExpiryBucket) {
+                    for (byte[] keyBytes : ((ExpiryBucket) value).entries) {
+                        batch.put(expiryHandle, expiryKey(time, keyBytes), Util.EMPTY_BYTE_ARRAY);
+                    }
+                } else {
+                    batch.put(expiryHandle, expiryKey(time, it.value()), Util.EMPTY_BYTE_ARRAY);
+                }
+                batch.delete(legacyHandle, it.key());
+            }
+            if (batch.count() > 0) {
+                log.debugf("Migrating %d expiration entries", batch.count());
+                expiredDb.write(dataWriteOptions(), batch);
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private void closeExpiredDatabase() {
+        expiryHandle.close();
+        expiredDb.close();
+    }
+
+    static byte[] expiryKey(long expiry, byte[] keyBytes) {
+        byte[] expiryKey = new byte[Long.BYTES + keyBytes.length];
+        for (int i = 0; i < Long.BYTES; ++i) {
+            expiryKey[i] = (byte) (expiry >>> (56 - 8 * i));
+        }
+        System.arraycopy(keyBytes, 0, expiryKey, Long.BYTES, keyBytes.length);
+        return expiryKey;
+    }
+
+    static long expiryTime(byte[] expiryKey) {
+        long expiry = 0;
+        for (int i = 0; i < Long.BYTES; ++i) {
+            expiry = (expiry << 8) | (expiryKey[i] & 0xFF);
+        }
+        return expiry;
     }
 
     @Override
@@ -203,7 +355,8 @@ public void stop() {
         }
         try {
             handler.close();
-            expiredDb.close();
+            closeExpiredDatabase();
+            closeTableResources();
         } finally {
             stopped = true;
             semaphore.release(Integer.MAX_VALUE);
@@ -303,6 +456,11 @@ public MarshallableEntry<K, V> get(int segment, Object key) {
         return handler.load(segment, key);
     }
 
+    @Override
+    public Map<Object, MarshallableEntry<K, V>> loadEntries(Collection<?> keys) {
+        return handler.loadAll(keys);
+    }
+
     @Override
     public CompletionStage<Void> bulkUpdate(Publisher<MarshallableEntry<? extends K, ? extends V>> publisher) {
         return handler.writeBatch(publisher);
@@ -325,56 +483,44 @@ public void purge(Executor executor, PurgeListener purgeListener) {
             if (stopped) {
                 throw new PersistenceException("RocksDB is stopped");
             }
-            // Drain queue and update expiry tree
+            // Drain queue and update expiry index, entries with the same expiration time have distinct keys
             List<ExpiryEntry> entries = new ArrayList<>();
             expiryEntryQueue.drainTo(entries);
-            for (ExpiryEntry entry : entries) {
-                final byte[] expiryBytes = marshall(entry.expiry);
-                final byte[] existingBytes = expiredDb.get(expiryBytes);
-
-                if (existingBytes != null) {
-                    // in the case of collision make the key a List ...
-                    final Object existing = unmarshall(existingBytes);
-                    if (existing instanceof ExpiryBucket) {
-                        ((ExpiryBucket) existing).entries.add(entry.keyBytes);
-                        expiredDb.put(expiryBytes, marshall(existing));
-                    } else {
-                        ExpiryBucket bucket = new ExpiryBucket(existingBytes, entry.keyBytes);
-                        expiredDb.put(expiryBytes, marshall(bucket));
+            if (!entries.isEmpty()) {
+                try (WriteBatch batch = new WriteBatch()) {
+                    for (ExpiryEntry entry : entries) {
+                        batch.put(expiryHandle, expiryKey(entry.expiry, entry.keyBytes), Util.EMPTY_BYTE_ARRAY);
                     }
-                } else {
-                    expiredDb.put(expiryBytes, entry.keyBytes);
+                    expiredDb.write(dataWriteOptions(), batch);
                 }
             }
 
             long now = ctx.getTimeService().wallClockTime();
-            RocksIterator iterator = expiredDb.newIterator(readOptions);
+            RocksIterator iterator = expiredDb.newIterator(expiryHandle, readOptions);
             if (iterator != null) {
                 try (RocksIterator it = iterator) {
-                    List<Long> times = new ArrayList<>();
                     List<Object> keys = new ArrayList<>();
                     List<byte[]> marshalledKeys = new ArrayList<>();
+                    byte[] firstExpiryKey = null;
+                    byte[] lastExpiryKey = null;
 
                     for (it.seekToFirst(); it.isValid(); it.next()) {
-                        Long time = (Long) unmarshall(it.key());
-                        if (time > now)
+                        byte[] expiryKey = it.key();
+                        if (expiryTime(expiryKey) > now)
                             break;
-                        times.add(time);
-                        byte[] marshalledKey = it.value();
-                        Object key = unmarshall(marshalledKey);
-                        if (key instanceof ExpiryBucket) {
-                            for (byte[] bytes : ((ExpiryBucket) key).entries) {
-                                marshalledKeys.add(bytes);
-                                keys.add(unmarshall(bytes));
-                            }
-                        } else {
-                            keys.add(key);
-                            marshalledKeys.add(marshalledKey);
+                        if (firstExpiryKey == null) {
+                            firstExpiryKey = expiryKey;
                         }
+                        lastExpiryKey = expiryKey;
+                        byte[] marshalledKey = Arrays.copyOfRange(expiryKey, Long.BYTES, expiryKey.length);
+                        marshalledKeys.add(marshalledKey);
+                        keys.add(unmarshall(marshalledKey));
                     }
 
-                    for (Long time : times) {
-                        expiredDb.delete(marshall(time));
+                    if (firstExpiryKey != null) {
+                        // A single range tombstone instead of a delete per key, the range is dropped on compaction.
+                        // Appending a zero byte gives the smallest key after the last one, the end is exclusive.
+                        expiredDb.deleteRange(expiryHandle, firstExpiryKey, Arrays.copyOf(lastExpiryKey, lastExpiryKey.length + 1));
                     }
 
                     if (!keys.isEmpty())
@@ -464,18 +610,15 @@ private void addNewExpiry(MarshallableEntry entry) {
         }
     }
 
+    /**
+     * Keys expiring at the same time in the expiration database of older versions, only read on migration.
+     */
     @ProtoTypeId(ProtoStreamTypeIds.ROCKSDB_EXPIRY_BUCKET)
     static final class ExpiryBucket {
         @ProtoField(number = 1, collectionImplementation = ArrayList.class)
         List<byte[]> entries;
 
         ExpiryBucket(){}
-
-        ExpiryBucket(byte[] existingKey, byte[] newKey) {
-            entries = new ArrayList<>(2);
-            entries.add(existingKey);
-            entries.add(newKey);
-        }
     }
 
     private static final class ExpiryEntry {
@@ -600,6 +743,9 @@ ColumnFamilyDescriptor newDescriptor(byte[] name) {
             } else {
                 columnFamilyOptions = new ColumnFamilyOptions();
             }
+            if (tableConfig != null) {
+                columnFamilyOptions.setTableFormatConfig(tableConfig);
+            }
             return new ColumnFamilyDescriptor(name,
                   columnFamilyOptions.setCompressionType(CompressionType.getCompressionType(configuration.compressionType().toString())));
         }
@@ -637,6 +783,49 @@ MarshallableEntry<K, V> load(int segment, Object key) {
             }
         }
 
+        Map<Object, MarshallableEntry<K, V>> loadAll(Collection<?> keys) {
+            List<Object> keysToLoad = new ArrayList<>(keys.size());
+            List<ColumnFamilyHandle> handles = new ArrayList<>(keys.size());
+            List<byte[]> marshalledKeys = new ArrayList<>(keys.size());
+            try {
+                for (Object key : keys) {
+                    ColumnFamilyHandle handle = getHandle(-1, key);
+                    if (handle == null) {
+                        log.trace("Ignoring load as handle is not currently configured");
+                        continue;
+                    }
+                    keysToLoad.add(key);
+                    handles.add(handle);
+                    marshalledKeys.add(marshall(key));
+                }
+                if (keysToLoad.isEmpty()) {
+                    return Collections.emptyMap();
+                }
+                List<byte[]> values;
+                semaphore.acquire();
+                try {
+                    if (stopped) {
+                        throw new PersistenceException("RocksDB is stopped");
+                    }
+
+                    values = db.multiGetAsList(handles, marshalledKeys);
+                } finally {
+                    semaphore.release();
+                }
+                long now = timeService.wallClockTime();
+                Map<Object, MarshallableEntry<K, V>> entries = new HashMap<>(keysToLoad.size());
+                for (int i = 0; i < keysToLoad.size(); i++) {
+                    MarshallableEntry<K, V> me = valueToMarshallableEntry(keysToLoad.get(i), values.get(i), true);
+                    if (me != null && !me.isExpired(now)) {
+                        entries.put(keysToLoad.get(i), me);
+                    }
+                }
+                return entries;
+            } catch (Exception e) {
+                throw new PersistenceException(e);
+            }
+        }
+
         void write(int segment, MarshallableEntry<? extends K, ? extends V> me) {
             Object key = me.getKey();
             ColumnFamilyHandle handle = getHandle(segment, key);
@@ -901,7 +1090,7 @@ protected void reinitAllDatabases() throws RocksDBException {
                     throw new PersistenceException("RocksDB is stopped");
                 }
                 db.close();
-                expiredDb.close();
+                closeExpiredDatabase();
                 if (System.getProperty("os.name").startsWith("Windows")) {
                     // Force a GC to ensure that open file handles are released in Windows.
                     System.gc();
@@ -912,7 +1101,7 @@ protected void reinitAllDatabases() throws RocksDBException {
 
                 Path expirationLocation = getExpirationLocation();
                 Util.recursiveFileRemove(expirationLocation.toFile());
-                expiredDb = openDatabase(expirationLocation, expiredDbOptions());
+                expiredDb = openExpiredDatabase(expirationLocation);
             } finally {
                 semaphore.release(Integer.MAX_VALUE);
             }
@@ -0,0 +1,75 @@
+package org.infinispan.persistence.rocksdb;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.infinispan.persistence.rocksdb.configuration.CacheType;
+import org.rocksdb.Cache;
+import org.rocksdb.ClockCache;
+import org.rocksdb.LRUCache;
+
+/**
+ * The block caches shared by the RocksDB stores of a cache container. Stores configured with the same cache type and
+ * size use the same block cache, which is closed when the last of them releases it.
+ *
+ * @since 10.1
+ */
+final class SharedBlockCaches {
+   private final Map<CacheKey, Cache> caches = new HashMap<>();
+   private final Map<Cache, Integer> usage = new HashMap<>();
+
+   static Cache newCache(CacheType type, long size) {
+      switch (type) {
+         case CLOCK:
+            return new ClockCache(size);
+         case LRU:
+            return new LRUCache(size);
+         default:
+            throw new IllegalArgumentException(type.toString());
+      }
+   }
+
+   synchronized Cache acquire(CacheType type, long size) {
+      Cache cache = caches.computeIfAbsent(new CacheKey(type, size), k -> newCache(type, size));
+      usage.merge(cache, 1, Integer::sum);
+      return cache;
+   }
+
+   synchronized void release(Cache cache) {
+      Integer count = usage.computeIfPresent(cache, (c, n) -> n > 1 ? n - 1 : null);
+      if (count == null) {
+         caches.values().remove(cache);
+         cache.close();
+      }
+   }
+
+   synchronized void closeAll() {
+      caches.values().forEach(Cache::close);
+      caches.clear();
+      usage.clear();
+   }
+
+   private static final class CacheKey {
+      private final CacheType type;
+      private final long size;
+
+      CacheKey(CacheType type, long size) {
+         this.type = type;
+         this.size = size;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) return true;
+         if (o == null || getClass() != o.getClass()) return false;
+         CacheKey that = (CacheKey) o;
+         return size == that.size && type == that.type;
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hash(type, size);
+      }
+   }
+}
@@ -13,16 +13,20 @@ public enum Attribute {
    UNKNOWN(null),
 
    BLOCK_SIZE("block-size"),
+   BLOOM_FILTER_BITS("bloom-filter-bits"),
    CACHE_SIZE("cache-size"),
+   CACHE_TYPE("cache-type"),
    CLEAR_THRESHOLD("clear-threshold"),
    COMPRESSION_TYPE("compressionType"),
    EXPIRED_LOCATION("expiredLocation"),
    EXPIRY_QUEUE_SIZE("expiryQueueSize"),
    IMPLEMENTATION_TYPE("implementationType"),
    LOCATION("location"),
+   PARTITIONED_FILTERS("partitioned-filters"),
    PATH("path"),
    RELATIVE_TO("relative-to"),
    QUEUE_SIZE("queue-size"),
+   SHARED_CACHE("shared-cache"),
    TYPE("type"),
    ;
 
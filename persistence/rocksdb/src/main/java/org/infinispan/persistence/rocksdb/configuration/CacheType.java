@@ -0,0 +1,11 @@
+package org.infinispan.persistence.rocksdb.configuration;
+
+/**
+ * The implementation of the block cache of the RocksDB store.
+ *
+ * @since 10.1
+ */
+public enum CacheType {
+   LRU,
+   CLOCK
+}
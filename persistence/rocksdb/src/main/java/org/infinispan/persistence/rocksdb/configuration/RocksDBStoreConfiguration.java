@@ -33,10 +33,14 @@ public class RocksDBStoreConfiguration extends AbstractStoreConfiguration implem
    final static AttributeDefinition<Integer> BLOCK_SIZE = AttributeDefinition.builder("blockSize", 0).immutable().build();
    final static AttributeDefinition<Long> CACHE_SIZE = AttributeDefinition.builder("cacheSize", 0l).immutable().build();
    final static AttributeDefinition<Integer> CLEAR_THRESHOLD = AttributeDefinition.builder("clearThreshold", 10000).immutable().build();
+   final static AttributeDefinition<CacheType> CACHE_TYPE = AttributeDefinition.builder("cacheType", CacheType.LRU).immutable().build();
+   final static AttributeDefinition<Boolean> SHARED_CACHE = AttributeDefinition.builder("sharedCache", false).immutable().build();
+   final static AttributeDefinition<Integer> BLOOM_FILTER_BITS = AttributeDefinition.builder("bloomFilterBits", 0).immutable().build();
+   final static AttributeDefinition<Boolean> PARTITIONED_FILTERS = AttributeDefinition.builder("partitionedFilters", false).immutable().build();
 
    public static AttributeSet attributeDefinitionSet() {
       return new AttributeSet(RocksDBStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), LOCATION, COMPRESSION_TYPE,
-            BLOCK_SIZE, CACHE_SIZE, CLEAR_THRESHOLD);
+            BLOCK_SIZE, CACHE_SIZE, CLEAR_THRESHOLD, CACHE_TYPE, SHARED_CACHE, BLOOM_FILTER_BITS, PARTITIONED_FILTERS);
    }
 
    public static ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(ROCKSDB_STORE.getLocalName(), true, false);
@@ -46,6 +50,10 @@ public static AttributeSet attributeDefinitionSet() {
    private final Attribute<Integer> blockSize;
    private final Attribute<Long> cacheSize;
    private final Attribute<Integer> clearThreshold;
+   private final Attribute<CacheType> cacheType;
+   private final Attribute<Boolean> sharedCache;
+   private final Attribute<Integer> bloomFilterBits;
+   private final Attribute<Boolean> partitionedFilters;
    private final RocksDBExpirationConfiguration expiration;
 
    public RocksDBStoreConfiguration(AttributeSet attributes, AsyncStoreConfiguration async, RocksDBExpirationConfiguration expiration) {
@@ -55,6 +63,10 @@ public RocksDBStoreConfiguration(AttributeSet attributes, AsyncStoreConfiguratio
       blockSize = attributes.attribute(BLOCK_SIZE);
       cacheSize = attributes.attribute(CACHE_SIZE);
       clearThreshold = attributes.attribute(CLEAR_THRESHOLD);
+      cacheType = attributes.attribute(CACHE_TYPE);
+      sharedCache = attributes.attribute(SHARED_CACHE);
+      bloomFilterBits = attributes.attribute(BLOOM_FILTER_BITS);
+      partitionedFilters = attributes.attribute(PARTITIONED_FILTERS);
       this.expiration = expiration;
    }
 
@@ -104,4 +116,27 @@ public int expiryQueueSize() {
    public int clearThreshold() {
       return clearThreshold.get();
    }
+
+   public CacheType cacheType() {
+      return cacheType.get();
+   }
+
+   /**
+    * @return whether the block cache is shared with the other RocksDB stores of the cache container that use the
+    * same cache type and size
+    */
+   public boolean sharedCache() {
+      return sharedCache.get();
+   }
+
+   /**
+    * @return the number of bits per key of the bloom filters, or 0 if the bloom filters are disabled
+    */
+   public int bloomFilterBits() {
+      return bloomFilterBits.get();
+   }
+
+   public boolean partitionedFilters() {
+      return partitionedFilters.get();
+   }
 }
@@ -1,14 +1,19 @@
 package org.infinispan.persistence.rocksdb.configuration;
 
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.BLOCK_SIZE;
+import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.BLOOM_FILTER_BITS;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.CACHE_SIZE;
+import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.CACHE_TYPE;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.CLEAR_THRESHOLD;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.COMPRESSION_TYPE;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.LOCATION;
+import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.PARTITIONED_FILTERS;
+import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.SHARED_CACHE;
 
 import java.util.Collection;
 import java.util.Collections;
 
+import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.configuration.ConfigurationBuilderInfo;
 import org.infinispan.commons.configuration.attributes.AttributeSet;
@@ -65,6 +70,41 @@ public RocksDBStoreConfigurationBuilder cacheSize(long cacheSize) {
       return self();
    }
 
+   /**
+    * The implementation of the block cache, {@link CacheType#LRU} by default.
+    */
+   public RocksDBStoreConfigurationBuilder cacheType(CacheType cacheType) {
+      attributes.attribute(CACHE_TYPE).set(cacheType);
+      return self();
+   }
+
+   /**
+    * Whether the block cache is shared by all the RocksDB stores of the cache container with the same cache type and
+    * {@link #cacheSize(long)}. Each store has its own block cache by default.
+    */
+   public RocksDBStoreConfigurationBuilder sharedCache(boolean sharedCache) {
+      attributes.attribute(SHARED_CACHE).set(sharedCache);
+      return self();
+   }
+
+   /**
+    * Enables whole key bloom filters with the given number of bits per key, so that reads of missing keys do not
+    * need to read the data blocks. 10 bits per key give a false positive rate of about 1%.
+    */
+   public RocksDBStoreConfigurationBuilder bloomFilterBits(int bloomFilterBits) {
+      attributes.attribute(BLOOM_FILTER_BITS).set(bloomFilterBits);
+      return self();
+   }
+
+   /**
+    * Whether the index and filter blocks are partitioned, so that only the top level index is pinned in memory and
+    * the partitions are loaded in the block cache on demand.
+    */
+   public RocksDBStoreConfigurationBuilder partitionedFilters(boolean partitionedFilters) {
+      attributes.attribute(PARTITIONED_FILTERS).set(partitionedFilters);
+      return self();
+   }
+
    public RocksDBStoreConfigurationBuilder expiryQueueSize(int expiryQueueSize) {
       expiration.expiryQueueSize(expiryQueueSize);
       return self();
@@ -85,6 +125,12 @@ public void validate() {
       // how do you validate required attributes?
       super.validate();
       expiration.validate();
+      if (attributes.attribute(BLOOM_FILTER_BITS).get() < 0) {
+         throw new CacheConfigurationException("bloomFilterBits must not be negative");
+      }
+      if (attributes.attribute(SHARED_CACHE).get() && attributes.attribute(CACHE_SIZE).get() <= 0) {
+         throw new CacheConfigurationException("A shared block cache requires a cacheSize");
+      }
    }
 
    @Override
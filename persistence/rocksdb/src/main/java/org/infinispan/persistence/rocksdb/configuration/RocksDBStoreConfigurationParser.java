@@ -75,6 +75,22 @@ private void parseRocksDBCacheStore(XMLExtendedStreamReader reader, RocksDBStore
                builder.cacheSize(Long.valueOf(value));
                break;
             }
+            case CACHE_TYPE: {
+               builder.cacheType(CacheType.valueOf(value));
+               break;
+            }
+            case SHARED_CACHE: {
+               builder.sharedCache(Boolean.parseBoolean(value));
+               break;
+            }
+            case BLOOM_FILTER_BITS: {
+               builder.bloomFilterBits(Integer.valueOf(value));
+               break;
+            }
+            case PARTITIONED_FILTERS: {
+               builder.partitionedFilters(Boolean.parseBoolean(value));
+               break;
+            }
             default: {
                Parser.parseStoreAttribute(reader, i, builder);
             }
@@ -0,0 +1,113 @@
+package org.infinispan.persistence.rocksdb;
+
+import static org.infinispan.test.TestingUtil.getCacheObjectName;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.rocksdb.configuration.CacheType;
+import org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfigurationBuilder;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.rocksdb.FlushOptions;
+import org.rocksdb.RocksDB;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the block cache and filter options of the RocksDB store, and its statistics.
+ */
+@Test(groups = "functional", testName = "persistence.rocksdb.RocksDBStoreStatisticsTest")
+public class RocksDBStoreStatisticsTest extends SingleCacheManagerTest {
+
+   private static final String JMX_DOMAIN = RocksDBStoreStatisticsTest.class.getSimpleName();
+
+   private final String tmpDirectory = TestingUtil.tmpDirectory(this.getClass());
+   private final MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+
+   @AfterClass(alwaysRun = true)
+   protected void clearTempDir() {
+      Util.recursiveFileRemove(tmpDirectory);
+   }
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      GlobalConfigurationBuilder globalBuilder = new GlobalConfigurationBuilder();
+      globalBuilder.globalJmxStatistics()
+            .mBeanServerLookup(properties -> mBeanServer)
+            .jmxDomain(JMX_DOMAIN)
+            .enable();
+      globalBuilder.globalState().persistentLocation(tmpDirectory);
+      return TestCacheManagerFactory.createCacheManager(globalBuilder, storeConfiguration(true, CacheType.LRU));
+   }
+
+   private ConfigurationBuilder storeConfiguration(boolean statistics, CacheType cacheType) {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.jmxStatistics().enabled(statistics);
+      builder.persistence().addStore(RocksDBStoreConfigurationBuilder.class)
+            .segmented(false)
+            .cacheSize(8 * 1024 * 1024)
+            .cacheType(cacheType)
+            .sharedCache(true)
+            .bloomFilterBits(10)
+            .partitionedFilters(true);
+      return builder;
+   }
+
+   public void testStatistics() throws Exception {
+      for (int i = 0; i < 100; i++) {
+         cache.put("k" + i, "v" + i);
+      }
+      // Reads from the memtable don't use the block cache
+      RocksDB db = TestingUtil.extractField(TestingUtil.getFirstLoader(cache), "db");
+      try (FlushOptions flushOptions = new FlushOptions().setWaitForFlush(true)) {
+         db.flush(flushOptions);
+      }
+      cache.getAdvancedCache().getDataContainer().clear();
+      for (int i = 0; i < 100; i++) {
+         assertEquals("v" + i, cache.get("k" + i));
+      }
+
+      ObjectName name = getCacheObjectName(JMX_DOMAIN, getDefaultCacheName() + "(local)", "RocksDBStore");
+      assertEquals(Boolean.TRUE, mBeanServer.getAttribute(name, "StatisticsEnabled"));
+      long hits = (Long) mBeanServer.getAttribute(name, "BlockCacheHits");
+      long misses = (Long) mBeanServer.getAttribute(name, "BlockCacheMisses");
+      assertTrue(misses > 0);
+      assertTrue(hits > 0);
+   }
+
+   public void testSharedBlockCache() {
+      cacheManager.defineConfiguration("second", storeConfiguration(false, CacheType.LRU).build());
+      cacheManager.defineConfiguration("clock", storeConfiguration(false, CacheType.CLOCK).build());
+      Cache<String, String> second = cacheManager.getCache("second");
+      Cache<String, String> clock = cacheManager.getCache("clock");
+      second.put("k", "v");
+      clock.put("k", "v");
+
+      Object blockCache = TestingUtil.extractField(TestingUtil.getFirstLoader(cache), "blockCache");
+      assertNotNull(blockCache);
+      assertSame(blockCache, TestingUtil.extractField(TestingUtil.getFirstLoader(second), "blockCache"));
+      assertTrue(blockCache != TestingUtil.extractField(TestingUtil.getFirstLoader(clock), "blockCache"));
+
+      // Statistics are only collected when the cache statistics are enabled
+      assertNull(second.getAdvancedCache().getComponentRegistry().getComponent(RocksDBStatistics.class));
+
+      // The block cache is still in use by the default cache
+      second.stop();
+      cache.put("k", "v");
+      cache.getAdvancedCache().getDataContainer().clear();
+      assertEquals("v", cache.get("k"));
+   }
+}
@@ -5,6 +5,9 @@
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -32,6 +35,10 @@
 import org.infinispan.test.fwk.TestCacheManagerFactory;
 import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
 import org.infinispan.util.PersistenceMockUtil;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.DBOptions;
+import org.rocksdb.RocksDB;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.Factory;
 import org.testng.annotations.Test;
@@ -178,6 +185,55 @@ private void concurrentWriteAndRestart(boolean start) {
       }
    }
 
+   public void testPurgeOnlyExpired() throws Exception {
+      cl.write(marshalledEntry(internalCacheEntry("k1", "v1", 1000)));
+      cl.write(marshalledEntry(internalCacheEntry("k2", "v2", 1000)));
+      cl.write(marshalledEntry(internalCacheEntry("k3", "v3", 1000)));
+      cl.write(marshalledEntry(internalCacheEntry("k4", "v4", TimeUnit.DAYS.toMillis(1))));
+
+      timeService.advance(1001);
+      purgeExpired("k1", "k2", "k3");
+      assertTrue(cl.contains("k4"));
+
+      purgeExpired();
+
+      cl.stop();
+      cl.start();
+      timeService.advance(TimeUnit.DAYS.toMillis(1));
+      purgeExpired("k4");
+   }
+
+   public void testLegacyExpirationMigrated() throws Exception {
+      cl.write(marshalledEntry(internalCacheEntry("k1", "v1", 1000)));
+      cl.write(marshalledEntry(internalCacheEntry("k2", "v2", 1000)));
+      cl.write(marshalledEntry(internalCacheEntry("k3", "v3", 2000)));
+      long now = timeService.wallClockTime();
+      // Stopping without a purge leaves the expiration database empty
+      cl.stop();
+
+      RocksDBStore.ExpiryBucket bucket = new RocksDBStore.ExpiryBucket();
+      bucket.entries = new ArrayList<>(Arrays.asList(marshall("k1"), marshall("k2")));
+      List<ColumnFamilyDescriptor> descriptors = Arrays.asList(new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY),
+            new ColumnFamilyDescriptor(RocksDBStore.EXPIRY_COLUMN_FAMILY));
+      List<ColumnFamilyHandle> handles = new ArrayList<>();
+      try (DBOptions options = new DBOptions();
+           RocksDB expiredDb = RocksDB.open(options, ((RocksDBStore) cl).getExpirationLocation().toString(), descriptors, handles)) {
+         expiredDb.put(handles.get(0), marshall(now + 1000), marshall(bucket));
+         expiredDb.put(handles.get(0), marshall(now + 2000), marshall("k3"));
+         handles.forEach(ColumnFamilyHandle::close);
+      }
+
+      cl.start();
+      timeService.advance(1001);
+      purgeExpired("k1", "k2");
+      timeService.advance(1000);
+      purgeExpired("k3");
+   }
+
+   private byte[] marshall(Object o) throws Exception {
+      return getMarshaller().objectToByteBuffer(o);
+   }
+
    /**
     * Test to make sure that when segments are added or removed that there are no issues
     */
@@ -18,6 +18,7 @@
 import org.infinispan.configuration.parsing.ParserRegistry;
 import org.infinispan.manager.DefaultCacheManager;
 import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.rocksdb.configuration.CacheType;
 import org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration;
 import org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfigurationBuilder;
 import org.infinispan.test.AbstractInfinispanTest;
@@ -82,5 +83,10 @@ public void testXmlConfig() throws IOException {
       RocksDBStoreConfiguration rocksdbConfig = (RocksDBStoreConfiguration) cacheLoaderConfig;
       assertEquals("/tmp/rocksdb/52/data", rocksdbConfig.location());
       assertEquals("/tmp/rocksdb/52/expired", rocksdbConfig.expiredLocation());
+      assertEquals(16777216L, rocksdbConfig.cacheSize().longValue());
+      assertEquals(CacheType.CLOCK, rocksdbConfig.cacheType());
+      assertTrue(rocksdbConfig.sharedCache());
+      assertEquals(10, rocksdbConfig.bloomFilterBits());
+      assertTrue(rocksdbConfig.partitionedFilters());
    }
 }
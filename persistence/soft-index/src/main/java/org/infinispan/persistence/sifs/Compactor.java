@@ -5,9 +5,10 @@
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.commons.time.TimeService;
@@ -17,15 +18,21 @@
  * Component keeping the data about log file usage - as soon as entries from some file are overwritten so that the file
  * becomes cluttered with old records, the valid records are moved to another file and the old ones are dropped.
  * Expired records are moved as tombstones without values (records of entry removal).
+ * <p>
+ * Scheduled files are compacted by a pool of threads, each of them compacting a single file at a time into its own log
+ * file. The files with the highest ratio of unused space are compacted first, and the amount of data read by all
+ * threads can be limited to a given rate.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
-class Compactor extends Thread {
+class Compactor {
    private static final Log log = LogFactory.getLog(Compactor.class, Log.class);
    private static final boolean trace = log.isTraceEnabled();
+   // signals the threads to check the clear and terminate flags, ordered before any file
+   private static final Scheduled WAKE_UP = new Scheduled(-1, Double.MAX_VALUE);
 
    private final ConcurrentMap<Integer, Stats> fileStats = new ConcurrentHashMap<Integer, Stats>();
-   private final BlockingQueue<Integer> scheduledCompaction = new LinkedBlockingQueue<Integer>();
+   private final BlockingQueue<Scheduled> scheduledCompaction = new PriorityBlockingQueue<>();
    private final BlockingQueue<IndexRequest> indexQueue;
    private final FileProvider fileProvider;
    private final TemporaryTable temporaryTable;
@@ -33,6 +40,11 @@ class Compactor extends Thread {
    private final TimeService timeService;
    private final int maxFileSize;
    private final double compactionThreshold;
+   private final Thread[] threads;
+   private final RateLimiter rateLimiter;
+   private final AtomicInteger compactingFiles = new AtomicInteger();
+   private final AtomicLong compactedFiles = new AtomicLong();
+   private final AtomicLong compactedBytes = new AtomicLong();
 
    private Index index;
    // as processing single scheduled compaction takes a lot of time, we don't use the queue to signalize
@@ -46,7 +58,14 @@ public Compactor(FileProvider fileProvider,
                     TemporaryTable temporaryTable,
                     BlockingQueue<IndexRequest> indexQueue,
                     Marshaller marshaller, TimeService timeService, int maxFileSize, double compactionThreshold) {
-      super("BCS-Compactor");
+      this(fileProvider, temporaryTable, indexQueue, marshaller, timeService, maxFileSize, compactionThreshold, 1, 0);
+   }
+
+   public Compactor(FileProvider fileProvider,
+                    TemporaryTable temporaryTable,
+                    BlockingQueue<IndexRequest> indexQueue,
+                    Marshaller marshaller, TimeService timeService, int maxFileSize, double compactionThreshold,
+                    int compactionThreads, long compactionRate) {
       this.fileProvider = fileProvider;
       this.temporaryTable = temporaryTable;
       this.indexQueue = indexQueue;
@@ -54,7 +73,12 @@ public Compactor(FileProvider fileProvider,
       this.timeService = timeService;
       this.maxFileSize = maxFileSize;
       this.compactionThreshold = compactionThreshold;
-      this.start();
+      this.rateLimiter = compactionRate > 0 ? new RateLimiter(compactionRate) : null;
+      this.threads = new Thread[compactionThreads];
+      for (int i = 0; i < compactionThreads; ++i) {
+         threads[i] = new Thread(this::run, compactionThreads == 1 ? "BCS-Compactor" : "BCS-Compactor-" + i);
+         threads[i].start();
+      }
    }
 
    public void setIndex(Index index) {
@@ -113,7 +137,7 @@ private void schedule(int file, Stats stats) {
             if (!stats.isScheduled()) {
                log.debug(String.format("Scheduling file %d for compaction: %d/%d free", file, stats.free.get(), stats.total));
                stats.setScheduled();
-               scheduledCompaction.put(file);
+               scheduledCompaction.put(new Scheduled(file, stats.total > 0 ? (double) stats.free.get() / stats.total : 0));
             }
          }
       } catch (InterruptedException e) {
@@ -122,15 +146,14 @@ private void schedule(int file, Stats stats) {
       }
    }
 
-   @Override
-   public void run() {
+   private void run() {
       try {
          FileProvider.Log logFile = null;
          int currentOffset = 0;
          for(;;) {
-            Integer scheduledFile = null;
+            Scheduled scheduled = null;
             try {
-               scheduledFile = scheduledCompaction.poll(1, TimeUnit.MINUTES);
+               scheduled = scheduledCompaction.poll(1, TimeUnit.MINUTES);
             } catch (InterruptedException e) {
             }
             if (terminateSignal) {
@@ -145,7 +168,7 @@ public void run() {
                logFile = null;
                continue;
             }
-            if (scheduledFile == null) {
+            if (scheduled == null || scheduled == WAKE_UP) {
                if (logFile != null) {
                   logFile.close();
                   completeFile(logFile.fileId);
@@ -153,8 +176,10 @@ public void run() {
                }
                continue;
             }
+            int scheduledFile = scheduled.file;
 
             log.debugf("Compacting file %d", scheduledFile);
+            compactingFiles.incrementAndGet();
             int scheduledOffset = 0;
             FileProvider.Handle handle = fileProvider.getFile(scheduledFile);
             if (handle == null) {
@@ -166,6 +191,9 @@ public void run() {
                   if (header == null) {
                      break;
                   }
+                  if (rateLimiter != null) {
+                     rateLimiter.acquire(header.totalLength());
+                  }
                   byte[] serializedKey = EntryRecord.readKey(handle, header, scheduledOffset);
                   if (serializedKey == null) {
                      throw new IllegalStateException("End of file reached when reading key on "
@@ -290,9 +318,11 @@ public void run() {
                      currentOffset += writtenLength;
                   }
                   scheduledOffset += header.totalLength();
+                  compactedBytes.addAndGet(header.totalLength());
                }
             } finally {
                handle.close();
+               compactingFiles.decrementAndGet();
             }
             if (terminateSignal) {
                if (logFile != null) {
@@ -307,6 +337,7 @@ public void run() {
                // The deletion must be executed only after the index is fully updated.
                log.debugf("Finished compacting %d, scheduling delete", scheduledFile);
                indexQueue.put(IndexRequest.deleteFileRequest(scheduledFile));
+               compactedFiles.incrementAndGet();
             }
          }
       } catch (Exception e) {
@@ -325,9 +356,9 @@ private void pauseCompactor(FileProvider.Log logFile) throws IOException, Interr
 
    public void clearAndPause() throws InterruptedException {
       compactorResume = new CountDownLatch(1);
-      compactorStop = new CountDownLatch(1);
+      compactorStop = new CountDownLatch(threads.length);
       clearSignal = true;
-      scheduledCompaction.put(-1);
+      wakeUpThreads();
       compactorStop.await();
       scheduledCompaction.clear();
       fileStats.clear();
@@ -340,8 +371,94 @@ public void resumeAfterPause() {
 
    public void stopOperations() throws InterruptedException {
       terminateSignal = true;
-      scheduledCompaction.put(-1);
-      this.join();
+      wakeUpThreads();
+      for (Thread thread : threads) {
+         thread.join();
+      }
+   }
+
+   private void wakeUpThreads() {
+      for (int i = 0; i < threads.length; ++i) {
+         scheduledCompaction.add(WAKE_UP);
+      }
+   }
+
+   /**
+    * @return number of files waiting for compaction
+    */
+   int getBacklog() {
+      int backlog = 0;
+      for (Scheduled scheduled : scheduledCompaction) {
+         if (scheduled != WAKE_UP) {
+            backlog++;
+         }
+      }
+      return backlog;
+   }
+
+   /**
+    * @return number of files being compacted at this moment
+    */
+   int getCompactingFiles() {
+      return compactingFiles.get();
+   }
+
+   /**
+    * @return number of files that were fully compacted
+    */
+   long getCompactedFiles() {
+      return compactedFiles.get();
+   }
+
+   /**
+    * @return number of bytes read from compacted files
+    */
+   long getCompactedBytes() {
+      return compactedBytes.get();
+   }
+
+   private static class Scheduled implements Comparable<Scheduled> {
+      private final int file;
+      private final double freeRatio;
+
+      private Scheduled(int file, double freeRatio) {
+         this.file = file;
+         this.freeRatio = freeRatio;
+      }
+
+      @Override
+      public int compareTo(Scheduled other) {
+         // highest ratio of free space first
+         return Double.compare(other.freeRatio, freeRatio);
+      }
+   }
+
+   /**
+    * Limits the number of bytes read by all compactor threads. Threads reserve the time slots sequentially, and wait
+    * until their slot begins; the first read after an idle period is not delayed.
+    */
+   private static class RateLimiter {
+      private final long bytesPerSecond;
+      private long nextFree = System.nanoTime();
+
+      private RateLimiter(long bytesPerSecond) {
+         this.bytesPerSecond = bytesPerSecond;
+      }
+
+      void acquire(int bytes) throws InterruptedException {
+         long wait;
+         synchronized (this) {
+            long now = System.nanoTime();
+            if (nextFree < now) {
+               nextFree = now;
+            }
+            wait = nextFree - now;
+            nextFree += TimeUnit.SECONDS.toNanos(bytes) / bytesPerSecond;
+         }
+         if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+         }
+      }
    }
 
    private static class Stats {
@@ -3,6 +3,8 @@
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Helper for reading/writing entries into file.
@@ -143,24 +145,43 @@ public static void writeEntry(FileChannel fileChannel, byte[] serializedKey, Ent
    public static void writeEntry(FileChannel fileChannel, org.infinispan.commons.io.ByteBuffer serializedKey,
                                  org.infinispan.commons.io.ByteBuffer serializedMetadata, org.infinispan.commons.io.ByteBuffer serializedValue,
                                  long seqId, long expiration, long created, long lastUsed) throws IOException {
-      ByteBuffer header = ByteBuffer.allocate(EntryHeader.HEADER_SIZE);
+      List<ByteBuffer> buffers = new ArrayList<>(4);
+      addEntry(buffers, serializedKey, serializedMetadata, serializedValue, seqId, expiration, created, lastUsed);
+      write(fileChannel, buffers.toArray(new ByteBuffer[0]));
+   }
+
+   /**
+    * Adds the buffers forming the entry to the list, so that multiple entries can be written using a single gathering
+    * write.
+    */
+   static void addEntry(List<ByteBuffer> buffers, org.infinispan.commons.io.ByteBuffer serializedKey,
+                        org.infinispan.commons.io.ByteBuffer serializedMetadata, org.infinispan.commons.io.ByteBuffer serializedValue,
+                        long seqId, long expiration, long created, long lastUsed) {
+      int metadataSize = EntryMetadata.size(serializedMetadata);
+      ByteBuffer header = ByteBuffer.allocate(EntryHeader.HEADER_SIZE + (serializedMetadata == null ? 0 : EntryMetadata.TIMESTAMP_BYTES));
       if (EntryHeader.useMagic) {
          header.putInt(EntryHeader.MAGIC);
       }
       header.putShort((short) serializedKey.getLength());
-      header.putShort(EntryMetadata.size(serializedMetadata));
+      header.putShort((short) metadataSize);
       header.putInt(serializedValue == null ? 0 : serializedValue.getLength());
       header.putLong(seqId);
       header.putLong(expiration);
       header.flip();
-      write(fileChannel, header);
-      write(fileChannel, ByteBuffer.wrap(serializedKey.getBuf(), serializedKey.getOffset(), serializedKey.getLength()));
+      buffers.add(header);
+      buffers.add(ByteBuffer.wrap(serializedKey.getBuf(), serializedKey.getOffset(), serializedKey.getLength()));
       if (serializedMetadata != null) {
-         write(fileChannel, ByteBuffer.wrap(serializedMetadata.getBuf(), serializedMetadata.getOffset(), serializedMetadata.getLength()));
-         writeTimestamps(fileChannel, created, lastUsed);
+         buffers.add(ByteBuffer.wrap(serializedMetadata.getBuf(), serializedMetadata.getOffset(), serializedMetadata.getLength()));
+         // the timestamps follow the metadata, reuse the remaining space in the header buffer
+         ByteBuffer timestamps = header.duplicate();
+         timestamps.limit(timestamps.capacity()).position(EntryHeader.HEADER_SIZE);
+         timestamps.putLong(created);
+         timestamps.putLong(lastUsed);
+         timestamps.position(EntryHeader.HEADER_SIZE);
+         buffers.add(timestamps);
       }
       if (serializedValue != null) {
-         write(fileChannel, ByteBuffer.wrap(serializedValue.getBuf(), serializedValue.getOffset(), serializedValue.getLength()));
+         buffers.add(ByteBuffer.wrap(serializedValue.getBuf(), serializedValue.getOffset(), serializedValue.getLength()));
       }
    }
 
@@ -175,4 +196,14 @@ private static void writeTimestamps(FileChannel fileChannel, long created, long
    private static void write(FileChannel fileChannel, ByteBuffer buffer) throws IOException {
       while (buffer.hasRemaining()) fileChannel.write(buffer);
    }
+
+   static void write(FileChannel fileChannel, ByteBuffer[] buffers) throws IOException {
+      int offset = 0;
+      while (offset < buffers.length) {
+         fileChannel.write(buffers, offset, buffers.length - offset);
+         while (offset < buffers.length && !buffers[offset].hasRemaining()) {
+            offset++;
+         }
+      }
+   }
 }
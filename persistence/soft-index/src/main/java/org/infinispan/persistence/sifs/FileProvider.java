@@ -6,7 +6,10 @@
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.util.HashSet;
@@ -27,6 +30,10 @@
 /**
  * Provides resource management for files - only limited amount of files may be opened in one moment, and opened file
  * should not be deleted. Also allows to generate file indexes.
+ * <p>
+ * When memory mapping is enabled, files that are no longer written to are mapped once they are opened and reads are
+ * served from the mapping. The mappings are therefore bounded by the limit of open files and are released together
+ * with the file channel, either when the file is evicted from the open files or when it is deleted.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
@@ -36,6 +43,7 @@ public class FileProvider {
 
    private final File dataDir;
    private final int openFileLimit;
+   private final boolean memoryMapped;
    private final ArrayBlockingQueue<Record> recordQueue;
    private final ConcurrentMap<Integer, Record> openFiles = new ConcurrentHashMap<>();
    private final AtomicInteger currentOpenFiles = new AtomicInteger(0);
@@ -46,7 +54,12 @@ public class FileProvider {
    private int nextFileId = 0;
 
    public FileProvider(Path dataDir, int openFileLimit) {
+      this(dataDir, openFileLimit, false);
+   }
+
+   public FileProvider(Path dataDir, int openFileLimit, boolean memoryMapped) {
       this.openFileLimit = openFileLimit;
+      this.memoryMapped = memoryMapped;
       this.recordQueue = new ArrayBlockingQueue<>(openFileLimit);
       this.dataDir = dataDir.toFile();
       this.dataDir.mkdirs();
@@ -87,6 +100,7 @@ public Handle getFile(int fileId) throws IOException {
                         if (other.isOpen()) {
                            // we have allocated opening a new file but then we use an old one
                            currentOpenFiles.decrementAndGet();
+                           other.mapIfComplete();
                            return new Handle(other);
                         }
                      }
@@ -97,6 +111,7 @@ public Handle getFile(int fileId) throws IOException {
                         if (!newRecord.isOpen()) {
                            throw new IllegalStateException();
                         }
+                        newRecord.mapIfComplete();
                         handle = new Handle(newRecord);
                      }
                      try {
@@ -110,6 +125,7 @@ public Handle getFile(int fileId) throws IOException {
             }
             synchronized (record) {
                if (record.isOpen()) {
+                  record.mapIfComplete();
                   return new Handle(record);
                }
             }
@@ -203,6 +219,27 @@ public CloseableIterator<Integer> getFileIterator() {
       }
    }
 
+   /**
+    * @return identifiers of the existing data files that are not appended to anymore
+    */
+   public Set<Integer> getClosedFiles() {
+      lock.readLock().lock();
+      try {
+         Set<Integer> set = new HashSet<>();
+         for (String file : dataDir.list()) {
+            if (file.matches("[0-9]+")) {
+               int fileId = Integer.parseInt(file);
+               if (!logFiles.contains(fileId)) {
+                  set.add(fileId);
+               }
+            }
+         }
+         return set;
+      } finally {
+         lock.readLock().unlock();
+      }
+   }
+
    public void clear() throws IOException {
       lock.writeLock().lock();
       log.debug("Dropping all data");
@@ -303,7 +340,19 @@ private Handle(Record record) {
 
       public int read(ByteBuffer buffer, long offset) throws IOException {
          if (!usable) throw new IllegalStateException();
-         return record.getFileChannel().read(buffer, offset);
+         MappedByteBuffer mapped = record.getMappedBuffer();
+         if (mapped == null) {
+            return record.getFileChannel().read(buffer, offset);
+         }
+         // the mapping cannot be released while this handle is open
+         if (offset >= mapped.limit()) {
+            return -1;
+         }
+         ByteBuffer source = mapped.duplicate();
+         int length = (int) Math.min(buffer.remaining(), mapped.limit() - offset);
+         source.position((int) offset).limit((int) offset + length);
+         buffer.put(source);
+         return length;
       }
 
       @Override
@@ -318,6 +367,11 @@ public long getFileSize() throws IOException {
          return record.fileChannel.size();
       }
 
+      public void force() throws IOException {
+         if (!usable) throw new IllegalStateException();
+         record.getFileChannel().force(false);
+      }
+
       public int getFileId() {
          return record.getFileId();
       }
@@ -326,6 +380,8 @@ public int getFileId() {
    private class Record {
       private final int fileId;
       private FileChannel fileChannel;
+      // Mapped under the lock on this record, but read by the handles without it
+      private volatile MappedByteBuffer mappedBuffer;
       private int handleCount;
       private boolean deleteOnClose = false;
 
@@ -338,6 +394,33 @@ FileChannel getFileChannel() {
          return fileChannel;
       }
 
+      MappedByteBuffer getMappedBuffer() {
+         return mappedBuffer;
+      }
+
+      /**
+       * Maps the file if memory mapping is enabled and the file is not appended to anymore. Must be invoked while
+       * holding the lock on this record and the read lock of the provider, before a handle is created.
+       */
+      void mapIfComplete() throws IOException {
+         if (!memoryMapped || mappedBuffer != null || logFiles.contains(fileId)) {
+            return;
+         }
+         long size = fileChannel.size();
+         if (size > 0 && size <= Integer.MAX_VALUE) {
+            mappedBuffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+         }
+      }
+
+      private void closeChannel() throws IOException {
+         if (mappedBuffer != null) {
+            unmap(mappedBuffer);
+            mappedBuffer = null;
+         }
+         fileChannel.close();
+         fileChannel = null;
+      }
+
       void increaseHandleCount() {
          handleCount++;
       }
@@ -347,8 +430,7 @@ void decreaseHandleCount() throws IOException {
          if (handleCount == 0 && deleteOnClose) {
             // we cannot easily remove the record from queue - keep it there until collection,
             // but physically close and delete the file
-            fileChannel.close();
-            fileChannel = null;
+            closeChannel();
             openFiles.remove(fileId, this);
             delete();
          }
@@ -367,8 +449,7 @@ public int getFileId() {
       }
 
       public void close() throws IOException {
-         fileChannel.close();
-         fileChannel = null;
+         closeChannel();
          if (deleteOnClose) {
             delete();
          }
@@ -382,8 +463,7 @@ public void delete() {
       public void deleteOnClose() throws IOException {
          if (handleCount == 0) {
             if (fileChannel != null) {
-               fileChannel.close();
-               fileChannel = null;
+               closeChannel();
             }
             openFiles.remove(fileId, this);
             delete();
@@ -394,6 +474,54 @@ public void deleteOnClose() throws IOException {
       }
    }
 
+   /**
+    * Releases the mapping immediately instead of waiting for the buffer to be garbage collected, which would keep
+    * the file open and the disk space used after the file is deleted. The buffer must not be accessed afterwards.
+    */
+   private static void unmap(MappedByteBuffer buffer) {
+      if (UNMAPPER == null) {
+         return;
+      }
+      try {
+         UNMAPPER.unmap(buffer);
+      } catch (Throwable t) {
+         log.debugf(t, "Cannot unmap buffer, leaving it to be released by the garbage collector");
+      }
+   }
+
+   private interface Unmapper {
+      void unmap(MappedByteBuffer buffer) throws Exception;
+   }
+
+   private static final Unmapper UNMAPPER = createUnmapper();
+
+   private static Unmapper createUnmapper() {
+      try {
+         // Java 9+
+         Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+         Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+         Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+         theUnsafe.setAccessible(true);
+         Object unsafe = theUnsafe.get(null);
+         return buffer -> invokeCleaner.invoke(unsafe, buffer);
+      } catch (Exception e) {
+         // fall through to Java 8
+      }
+      try {
+         Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+         Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+         return buffer -> {
+            Object bufferCleaner = cleaner.invoke(buffer);
+            if (bufferCleaner != null) {
+               clean.invoke(bufferCleaner);
+            }
+         };
+      } catch (Exception e) {
+         log.debugf(e, "Unmapping of files is not supported, mappings will be released by the garbage collector");
+         return null;
+      }
+   }
+
    private class FileIterator implements CloseableIterator {
       private final Iterator<Integer> diskFiles;
       private final ConcurrentLinkedQueue<Integer> addedFiles = new ConcurrentLinkedQueue<>();
@@ -0,0 +1,115 @@
+package org.infinispan.persistence.sifs;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non-negative values with power of two buckets: bucket <code>i</code> counts values lower than
+ * <code>2^i</code> and not lower than <code>2^(i-1)</code>. Values are recorded by a single thread and can be read
+ * concurrently by any thread.
+ *
+ * @since 10.1
+ */
+public final class Histogram {
+   private static final int BUCKETS = 64;
+
+   private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+   private volatile long count;
+   private volatile long sum;
+   private volatile long max;
+
+   Histogram() {
+   }
+
+   void record(long value) {
+      if (value < 0) {
+         value = 0;
+      }
+      int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+      buckets.lazySet(bucket, buckets.get(bucket) + 1);
+      sum += value;
+      if (value > max) {
+         max = value;
+      }
+      count++;
+   }
+
+   /**
+    * @return a histogram with the values recorded by all the given histograms
+    */
+   static Histogram merge(Iterable<Histogram> histograms) {
+      Histogram merged = new Histogram();
+      for (Histogram histogram : histograms) {
+         long[] counts = histogram.getBuckets();
+         for (int i = 0; i < BUCKETS; ++i) {
+            merged.buckets.lazySet(i, merged.buckets.get(i) + counts[i]);
+         }
+         merged.count += histogram.count;
+         merged.sum += histogram.sum;
+         merged.max = Math.max(merged.max, histogram.max);
+      }
+      return merged;
+   }
+
+   /**
+    * @return number of recorded values
+    */
+   public long getCount() {
+      return count;
+   }
+
+   /**
+    * @return average of recorded values, or 0 if there were none
+    */
+   public double getMean() {
+      long count = this.count;
+      return count == 0 ? 0 : (double) sum / count;
+   }
+
+   /**
+    * @return the highest recorded value
+    */
+   public long getMax() {
+      return max;
+   }
+
+   /**
+    * @param percentile between 0 and 100
+    * @return upper bound of the bucket containing the value at given percentile
+    */
+   public long getPercentile(double percentile) {
+      if (percentile < 0 || percentile > 100) {
+         throw new IllegalArgumentException("Percentile must be between 0 and 100");
+      }
+      long[] counts = getBuckets();
+      long total = 0;
+      for (long c : counts) {
+         total += c;
+      }
+      long threshold = (long) Math.ceil(total * percentile / 100);
+      long seen = 0;
+      for (int i = 0; i < counts.length; ++i) {
+         seen += counts[i];
+         if (seen >= threshold && seen > 0) {
+            return Math.min(max, i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1);
+         }
+      }
+      return 0;
+   }
+
+   /**
+    * @return copy of the counts in each bucket
+    */
+   public long[] getBuckets() {
+      long[] counts = new long[BUCKETS];
+      for (int i = 0; i < BUCKETS; ++i) {
+         counts[i] = buckets.get(i);
+      }
+      return counts;
+   }
+
+   @Override
+   public String toString() {
+      return "Histogram{count=" + count + ", mean=" + getMean() + ", p50=" + getPercentile(50) +
+            ", p99=" + getPercentile(99) + ", max=" + max + '}';
+   }
+}
@@ -5,10 +5,16 @@
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
@@ -16,6 +22,7 @@
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
 
 import org.infinispan.commons.time.TimeService;
 import org.infinispan.util.logging.LogFactory;
@@ -24,6 +31,13 @@
  * Keeps the entry positions persisted in a file. It consists of couple of segments, each for one modulo-range
  * of key's hashcodes (according to DataContainer's key equivalence configuration) - writes to each index segment
  * are performed by single thread, having multiple segments spreads the load between them.
+ * <p>
+ * When checkpoints are enabled, each segment periodically stores its tree and marks the index file as checkpointed,
+ * and the data files that were completely indexed at that moment are recorded in a separate file. After a crash
+ * only the other data files have to be read to recover the index. To keep the last checkpoint valid, the stored
+ * nodes are never overwritten (the space they occupy is reused only after the next checkpoint) and the compacted
+ * data files are deleted only after the next checkpoint. These files are recorded in the checkpoint file as well, so
+ * that an index recovered from the checkpoint still deletes them.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
@@ -32,7 +46,10 @@ class Index {
    private static final boolean trace = log.isTraceEnabled();
    private static final int GRACEFULLY = 0x512ACEF0;
    private static final int DIRTY = 0xD112770C;
+   private static final int CHECKPOINTED = 0xC4EC4901;
    private static final int INDEX_FILE_HEADER_SIZE = 30;
+   private static final int CHECKPOINT_MAGIC = 0xC4EC4902;
+   private static final String CHECKPOINT_FILE = "index.checkpoint";
 
    private final Path indexDir;
    private final FileProvider fileProvider;
@@ -42,21 +59,53 @@ class Index {
    private final ReadWriteLock lock = new ReentrantReadWriteLock();
    private final Segment[] segments;
    private final TimeService timeService;
+   private final IndexQueue indexQueue;
+   private final boolean copyOnWrite;
+   // files compacted after the last checkpoint, guarded by itself
+   private final Set<Integer> pendingDeletes = new HashSet<>();
+   // checkpoint that is being written, set before the request is queued
+   private volatile Checkpoint checkpoint;
+   // checkpoint the index was recovered from
+   private Checkpoint recoveredCheckpoint;
+   // last checkpoint stored in the checkpoint file, guarded by pendingDeletes
+   private Checkpoint storedCheckpoint;
+   // files that were already forced to disk by a previous checkpoint, accessed only under the lock of this
+   private Set<Integer> syncedFiles = Collections.emptySet();
+   private final AtomicLong checkpoints = new AtomicLong();
 
    public Index(FileProvider fileProvider, Path indexDir, int segments, int minNodeSize, int maxNodeSize,
                 IndexQueue indexQueue, TemporaryTable temporaryTable, Compactor compactor,
-                TimeService timeService) throws IOException {
+                TimeService timeService, boolean checkpoints) throws IOException {
       this.fileProvider = fileProvider;
       this.compactor = compactor;
       this.timeService = timeService;
       this.indexDir = indexDir;
       this.minNodeSize = minNodeSize;
       this.maxNodeSize = maxNodeSize;
+      this.indexQueue = indexQueue;
+      this.copyOnWrite = checkpoints;
       indexDir.toFile().mkdirs();
 
       this.segments = new Segment[segments];
+      boolean checkpointed = true;
       for (int i = 0; i < segments; ++i) {
          this.segments[i] = new Segment(i, indexQueue.subQueue(i), temporaryTable);
+         checkpointed &= this.segments[i].checkpointed;
+      }
+      // segments may be checkpointed after the checkpoint file was written, but never before
+      Checkpoint checkpoint = checkpointed ? readCheckpoint() : null;
+      for (Segment segment : this.segments) {
+         segment.open(checkpoint != null);
+      }
+      if (checkpoint != null) {
+         recoveredCheckpoint = checkpoint;
+         syncedFiles = checkpoint.files;
+         // compacted after the checkpoint, but the recovered index may still refer to them until recovery completes
+         pendingDeletes.addAll(checkpoint.deletes);
+         storedCheckpoint = copyOnWrite ? checkpoint : null;
+      }
+      if (checkpoint == null || !copyOnWrite) {
+         Files.deleteIfExists(indexDir.resolve(CHECKPOINT_FILE));
       }
    }
 
@@ -76,6 +125,194 @@ public void start() {
       }
    }
 
+   /**
+    * @return Data files that were completely indexed in the checkpoint this index was recovered from, or null if the
+    * index was not recovered from a checkpoint
+    */
+   public Set<Integer> getCheckpointedFiles() {
+      return recoveredCheckpoint == null ? null : recoveredCheckpoint.files;
+   }
+
+   /**
+    * @return Sequence id higher than sequence ids of all records in the checkpointed files
+    */
+   public long getCheckpointSeqId() {
+      return recoveredCheckpoint == null ? 0 : recoveredCheckpoint.seqId;
+   }
+
+   /**
+    * @return Number of checkpoints completed since the index was created
+    */
+   public long getCheckpoints() {
+      return checkpoints.get();
+   }
+
+   /**
+    * @return True if the file was compacted but it won't be deleted until the next checkpoint
+    */
+   public boolean isDeletePending(int file) {
+      synchronized (pendingDeletes) {
+         return pendingDeletes.contains(file);
+      }
+   }
+
+   /**
+    * Stores all segments of the index and records the data files that are completely indexed, so that these don't
+    * have to be read when the index is recovered after a crash. Blocks until all segments are stored.
+    *
+    * @param nextSeqId provides a sequence id that is higher than those of all records in the closed data files
+    * @return True if the checkpoint was completed, false if it was interrupted by clear
+    */
+   public synchronized boolean checkpoint(LongSupplier nextSeqId) throws IOException, InterruptedException {
+      Set<Integer> deletes;
+      synchronized (pendingDeletes) {
+         deletes = new HashSet<>(pendingDeletes);
+      }
+      // all index requests for records in closed files are already queued
+      Set<Integer> files = fileProvider.getClosedFiles();
+      files.removeAll(deletes);
+      for (int file : files) {
+         // compacted files and files written without sync-writes may not be on the disk yet
+         if (!syncedFiles.contains(file)) {
+            FileProvider.Handle handle = fileProvider.getFile(file);
+            if (handle != null) {
+               try {
+                  handle.force();
+               } finally {
+                  handle.close();
+               }
+            }
+         }
+      }
+      checkpoint = new Checkpoint(files, nextSeqId.getAsLong(), deletes);
+      IndexRequest request = IndexRequest.checkpointRequest();
+      indexQueue.put(request);
+      if (!((Boolean) request.getResult())) {
+         return false;
+      }
+      syncedFiles = files;
+      checkpoints.incrementAndGet();
+      return true;
+   }
+
+   /**
+    * Called by the last segment that has stored its checkpoint.
+    */
+   private void completeCheckpoint(IndexRequest request) {
+      Checkpoint checkpoint = this.checkpoint;
+      if (checkpoint.failed) {
+         request.setResult(false);
+         return;
+      }
+      synchronized (pendingDeletes) {
+         try {
+            // the files are recorded as pending until they are deleted, in case we crash before that
+            writeCheckpoint(checkpoint, pendingDeletes);
+         } catch (IOException e) {
+            log.failedToCheckpointIndex(e);
+            request.setResult(false);
+            return;
+         }
+         storedCheckpoint = checkpoint;
+      }
+      // none of the segments refers to these files anymore
+      for (int file : checkpoint.deletes) {
+         fileProvider.deleteFile(file);
+         compactor.releaseStats(file);
+      }
+      synchronized (pendingDeletes) {
+         pendingDeletes.removeAll(checkpoint.deletes);
+      }
+      log.debugf("Checkpointed index with %d data files", checkpoint.files.size());
+      request.setResult(true);
+   }
+
+   // must be invoked holding the lock of pendingDeletes
+   private void writeCheckpoint(Checkpoint checkpoint, Set<Integer> deletes) throws IOException {
+      Path tmp = indexDir.resolve(CHECKPOINT_FILE + ".tmp");
+      ByteBuffer buffer = ByteBuffer.allocate(24 + 4 * (checkpoint.files.size() + deletes.size()));
+      buffer.putInt(CHECKPOINT_MAGIC);
+      buffer.putInt(segments.length);
+      buffer.putLong(checkpoint.seqId);
+      buffer.putInt(checkpoint.files.size());
+      for (int file : checkpoint.files) {
+         buffer.putInt(file);
+      }
+      buffer.putInt(deletes.size());
+      for (int file : deletes) {
+         buffer.putInt(file);
+      }
+      buffer.flip();
+      try (FileChannel channel = new RandomAccessFile(tmp.toFile(), "rw").getChannel()) {
+         channel.truncate(0);
+         while (buffer.hasRemaining()) {
+            channel.write(buffer);
+         }
+         channel.force(false);
+      }
+      Files.move(tmp, indexDir.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+   }
+
+   private Checkpoint readCheckpoint() {
+      File file = indexDir.resolve(CHECKPOINT_FILE).toFile();
+      if (!file.exists()) {
+         return null;
+      }
+      try (FileChannel channel = new RandomAccessFile(file, "r").getChannel()) {
+         ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+         while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+               return null;
+            }
+         }
+         buffer.flip();
+         if (buffer.remaining() < 24 || buffer.getInt() != CHECKPOINT_MAGIC || buffer.getInt() != segments.length) {
+            return null;
+         }
+         long seqId = buffer.getLong();
+         int numFiles = buffer.getInt();
+         if (numFiles < 0 || buffer.remaining() < 4 * numFiles + 4) {
+            return null;
+         }
+         Set<Integer> files = new HashSet<>();
+         for (int i = 0; i < numFiles; ++i) {
+            files.add(buffer.getInt());
+         }
+         int numDeletes = buffer.getInt();
+         if (buffer.remaining() != 4 * numDeletes) {
+            return null;
+         }
+         Set<Integer> deletes = new HashSet<>();
+         for (int i = 0; i < numDeletes; ++i) {
+            deletes.add(buffer.getInt());
+         }
+         return new Checkpoint(files, seqId, deletes);
+      } catch (IOException e) {
+         log.debug("Cannot read index checkpoint", e);
+         return null;
+      }
+   }
+
+   private void deleteFile(int file) {
+      if (copyOnWrite) {
+         // the last checkpoint may refer to the file
+         synchronized (pendingDeletes) {
+            pendingDeletes.add(file);
+            if (storedCheckpoint != null) {
+               try {
+                  // an index recovered from the stored checkpoint would not know the file can be deleted
+                  writeCheckpoint(storedCheckpoint, pendingDeletes);
+               } catch (IOException e) {
+                  log.failedToCheckpointIndex(e);
+               }
+            }
+         }
+      } else {
+         fileProvider.deleteFile(file);
+         compactor.releaseStats(file);
+      }
+   }
+
    /**
     * Get record or null if expired
     */
@@ -89,6 +326,32 @@ public EntryRecord getRecord(Object key, byte[] serializedKey) throws IOExceptio
       }
    }
 
+   /**
+    * Get records for several keys, visiting the index segments one after another under a single index lock.
+    * The result holds a record (or null if not found or expired) at the same position as its key.
+    */
+   public EntryRecord[] getRecords(List<Object> keys, List<byte[]> serializedKeys) throws IOException {
+      EntryRecord[] records = new EntryRecord[keys.size()];
+      List<List<Integer>> bySegment = new ArrayList<>(segments.length);
+      for (int i = 0; i < segments.length; ++i) {
+         bySegment.add(new ArrayList<>());
+      }
+      for (int i = 0; i < keys.size(); ++i) {
+         bySegment.get((keys.get(i).hashCode() & Integer.MAX_VALUE) % segments.length).add(i);
+      }
+      lock.readLock().lock();
+      try {
+         for (int segment = 0; segment < segments.length; ++segment) {
+            for (int i : bySegment.get(segment)) {
+               records[i] = IndexNode.applyOnLeaf(segments[segment], serializedKeys.get(i), segments[segment].rootReadLock(), IndexNode.ReadOperation.GET_RECORD);
+            }
+         }
+      } finally {
+         lock.readLock().unlock();
+      }
+      return records;
+   }
+
    /**
     * Get position or null if expired
     */
@@ -122,6 +385,14 @@ public void clear() throws IOException {
          for (Segment seg : segments) {
             pauses.add(seg.pauseAndClear());
          }
+         synchronized (pendingDeletes) {
+            Files.deleteIfExists(indexDir.resolve(CHECKPOINT_FILE));
+            pendingDeletes.clear();
+            storedCheckpoint = null;
+         }
+         synchronized (this) {
+            syncedFiles = Collections.emptySet();
+         }
          for (CountDownLatch pause : pauses) {
             pause.countDown();
          }
@@ -137,6 +408,14 @@ public void stopOperations() throws InterruptedException {
       for (Segment seg : segments) {
          seg.stopOperations();
       }
+      // the index was stored, the checkpoint is not needed anymore
+      synchronized (pendingDeletes) {
+         for (int file : pendingDeletes) {
+            fileProvider.deleteFile(file);
+            compactor.releaseStats(file);
+         }
+         pendingDeletes.clear();
+      }
    }
 
    public long size() throws InterruptedException {
@@ -154,9 +433,14 @@ class Segment extends Thread {
       private final ReadWriteLock rootLock = new ReentrantReadWriteLock();
       private final File indexFileFile;
       private final boolean loaded;
+      private final boolean checkpointed;
+      // space freed after the last checkpoint, accessed only from the updater thread
+      private final List<IndexSpace> quarantine = new ArrayList<>();
       private FileChannel indexFile;
       private long indexFileSize;
       private AtomicLong size = new AtomicLong();
+      private IndexNode checkpointRoot;
+      private IndexSpace checkpointRootSpace;
 
       private volatile IndexNode root;
 
@@ -171,7 +455,8 @@ private Segment(int id, BlockingQueue<IndexRequest> indexQueue, TemporaryTable t
          this.indexFile = new RandomAccessFile(indexFileFile, "rw").getChannel();
          indexFile.position(0);
          ByteBuffer buffer = ByteBuffer.allocate(INDEX_FILE_HEADER_SIZE);
-         if (indexFile.size() >= INDEX_FILE_HEADER_SIZE && read(indexFile, buffer) && buffer.getInt(0) == GRACEFULLY) {
+         boolean hasHeader = indexFile.size() >= INDEX_FILE_HEADER_SIZE && read(indexFile, buffer);
+         if (hasHeader && buffer.getInt(0) == GRACEFULLY) {
             long rootOffset = buffer.getLong(4);
             short rootOccupied = buffer.getShort(12);
             long freeBlocksOffset = buffer.getLong(14);
@@ -180,16 +465,51 @@ private Segment(int id, BlockingQueue<IndexRequest> indexQueue, TemporaryTable t
             loadFreeBlocks(freeBlocksOffset);
             indexFileSize = freeBlocksOffset;
             loaded = true;
+            checkpointed = false;
+         } else if (hasHeader && buffer.getInt(0) == CHECKPOINTED) {
+            checkpointRootSpace = new IndexSpace(buffer.getLong(4), buffer.getShort(12));
+            indexFileSize = buffer.getLong(14);
+            size.set(buffer.getLong(22));
+            root = new IndexNode(this, checkpointRootSpace.offset, checkpointRootSpace.length);
+            checkpointRoot = root;
+            loaded = false;
+            checkpointed = true;
          } else {
             this.indexFile.truncate(0);
             root = IndexNode.emptyWithLeaves(this);
             loaded = false;
+            checkpointed = false;
             // reserve space for shutdown
             indexFileSize = INDEX_FILE_HEADER_SIZE;
          }
-         buffer.putInt(0, DIRTY);
-         buffer.position(0);
-         buffer.limit(4);
+      }
+
+      /**
+       * @param recover True if the index is recovered from the checkpoint, false if the checkpoint must be dropped
+       */
+      private void open(boolean recover) throws IOException {
+         if (checkpointed) {
+            if (recover) {
+               loadFreeBlocksFromTree();
+               if (copyOnWrite) {
+                  // the checkpoint stays valid until the next one is stored
+                  return;
+               }
+            } else {
+               indexFile.truncate(0);
+               root = IndexNode.emptyWithLeaves(this);
+               checkpointRoot = null;
+               checkpointRootSpace = null;
+               indexFileSize = INDEX_FILE_HEADER_SIZE;
+               size.set(0);
+            }
+         }
+         writeMagic(DIRTY);
+      }
+
+      private void writeMagic(int magic) throws IOException {
+         ByteBuffer buffer = ByteBuffer.allocate(4);
+         buffer.putInt(0, magic);
          indexFile.position(0);
          write(indexFile, buffer);
       }
@@ -239,8 +559,18 @@ public void run() {
                   case DELETE_FILE:
                      // the last segment that processes the delete request actually deletes the file
                      if (request.countDown()) {
-                        fileProvider.deleteFile(request.getFile());
-                        compactor.releaseStats(request.getFile());
+                        deleteFile(request.getFile());
+                     }
+                     continue;
+                  case CHECKPOINT:
+                     try {
+                        checkpoint();
+                     } catch (IOException e) {
+                        log.failedToCheckpointIndex(e);
+                        checkpoint.failed = true;
+                     }
+                     if (request.countDown()) {
+                        completeCheckpoint(request);
                      }
                      continue;
                   case STOP:
@@ -323,8 +653,22 @@ public void setOverwritten(boolean overwritten, int prevFile, int prevOffset) {
       }
 
       private void shutdown() throws IOException {
-         IndexSpace rootSpace = allocateIndexSpace(root.length());
-         root.store(rootSpace);
+         IndexSpace rootSpace;
+         if (copyOnWrite) {
+            // until the header is written the last checkpoint must stay valid
+            writeMagic(DIRTY);
+            indexFile.force(false);
+            for (IndexSpace space : quarantine) {
+               freeBlocks.computeIfAbsent(space.length, k -> new ArrayList<>()).add(space);
+            }
+            quarantine.clear();
+         }
+         if (root == checkpointRoot) {
+            rootSpace = checkpointRootSpace;
+         } else {
+            rootSpace = allocateIndexSpace(root.length());
+            root.store(rootSpace);
+         }
          indexFile.position(indexFileSize);
          ByteBuffer buffer = ByteBuffer.allocate(4);
          buffer.putInt(0, freeBlocks.size());
@@ -363,6 +707,59 @@ private void shutdown() throws IOException {
          write(indexFile, buffer);
       }
 
+      /**
+       * Stores the root and marks the index file as checkpointed, after all nodes are forced to the disk. The space
+       * freed since the previous checkpoint can be reused from now on.
+       */
+      private void checkpoint() throws IOException {
+         if (root != checkpointRoot) {
+            checkpointRootSpace = allocateIndexSpace(root.length());
+            root.store(checkpointRootSpace);
+            checkpointRoot = root;
+         }
+         indexFile.force(false);
+         ByteBuffer buffer = ByteBuffer.allocate(INDEX_FILE_HEADER_SIZE);
+         buffer.putInt(0, DIRTY);
+         buffer.putLong(4, checkpointRootSpace.offset);
+         buffer.putShort(12, checkpointRootSpace.length);
+         buffer.putLong(14, indexFileSize);
+         buffer.putLong(22, size.get());
+         indexFile.position(0);
+         write(indexFile, buffer);
+         indexFile.force(false);
+         writeMagic(CHECKPOINTED);
+         indexFile.force(false);
+
+         // release from the end of the file so that it can be truncated
+         quarantine.sort(Comparator.comparingLong((IndexSpace space) -> space.offset).reversed());
+         for (IndexSpace space : quarantine) {
+            releaseIndexSpace(space.offset, space.length);
+         }
+         quarantine.clear();
+      }
+
+      /**
+       * The free blocks are not stored with the checkpoint; all space that is not occupied by the nodes is free.
+       */
+      private void loadFreeBlocksFromTree() throws IOException {
+         List<IndexSpace> spaces = new ArrayList<>();
+         root.collectSpaces(spaces);
+         spaces.sort(Comparator.comparingLong(space -> space.offset));
+         long position = INDEX_FILE_HEADER_SIZE;
+         for (IndexSpace space : spaces) {
+            while (position < space.offset) {
+               short length = (short) Math.min(space.offset - position, maxNodeSize);
+               freeBlocks.computeIfAbsent(length, k -> new ArrayList<>()).add(new IndexSpace(position, length));
+               position += length;
+            }
+            position = Math.max(position, space.offset + space.length);
+         }
+         if (position < indexFileSize) {
+            indexFile.truncate(position);
+         }
+         indexFileSize = position;
+      }
+
       private void loadFreeBlocks(long freeBlocksOffset) throws IOException {
          indexFile.position(freeBlocksOffset);
          ByteBuffer buffer = ByteBuffer.allocate(8);
@@ -405,6 +802,9 @@ CountDownLatch pauseAndClear() throws InterruptedException, IOException {
          indexFile.truncate(0);
          indexFileSize = INDEX_FILE_HEADER_SIZE;
          freeBlocks.clear();
+         quarantine.clear();
+         checkpointRoot = null;
+         checkpointRootSpace = null;
          size.set(0);
          return pause;
       }
@@ -461,6 +861,14 @@ IndexSpace allocateIndexSpace(short length) {
       // this should be accessed only from the updater thread
       void freeIndexSpace(long offset, short length) {
          if (length <= 0) throw new IllegalArgumentException("Offset=" + offset + ", length=" + length);
+         if (copyOnWrite) {
+            quarantine.add(new IndexSpace(offset, length));
+         } else {
+            releaseIndexSpace(offset, length);
+         }
+      }
+
+      private void releaseIndexSpace(long offset, short length) {
          // TODO: fragmentation!
          // TODO: memory bounds!
          if (offset + length < indexFileSize) {
@@ -475,6 +883,10 @@ void freeIndexSpace(long offset, short length) {
          }
       }
 
+      boolean isCopyOnWrite() {
+         return copyOnWrite;
+      }
+
       Lock rootReadLock() {
          return rootLock.readLock();
       }
@@ -489,6 +901,22 @@ public TimeService getTimeService() {
       }
    }
 
+   private static class Checkpoint {
+      // data files with all records indexed
+      final Set<Integer> files;
+      // higher than sequence ids of all records in the files
+      final long seqId;
+      // files that can be deleted once the checkpoint is written, or that were pending when it was read
+      final Set<Integer> deletes;
+      volatile boolean failed;
+
+      private Checkpoint(Set<Integer> files, long seqId, Set<Integer> deletes) {
+         this.files = files;
+         this.seqId = seqId;
+         this.deletes = deletes;
+      }
+   }
+
    /**
     * Offset-length pair
     */
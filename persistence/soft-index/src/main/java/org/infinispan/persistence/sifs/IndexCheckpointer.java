@@ -0,0 +1,40 @@
+package org.infinispan.persistence.sifs;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically checkpoints the index, so that recovery after a crash reads only the data written since the last
+ * checkpoint.
+ *
+ * @since 10.1
+ */
+class IndexCheckpointer extends Thread {
+   private final SoftIndexFileStore store;
+   private final long interval;
+   private final CountDownLatch stop = new CountDownLatch(1);
+
+   IndexCheckpointer(SoftIndexFileStore store, long interval) {
+      super("BCS-IndexCheckpointer");
+      this.setDaemon(true);
+      this.store = store;
+      this.interval = interval;
+      start();
+   }
+
+   @Override
+   public void run() {
+      try {
+         while (!stop.await(interval, TimeUnit.MILLISECONDS)) {
+            store.checkpointIndex();
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   public void stopOperations() throws InterruptedException {
+      stop.countDown();
+      this.join();
+   }
+}
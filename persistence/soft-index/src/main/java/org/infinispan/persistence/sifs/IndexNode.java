@@ -161,6 +161,27 @@ private void replaceContent(IndexNode other) throws IOException {
       }
    }
 
+   /**
+    * When the index is checkpointed, the stored nodes must not be overwritten: the checkpoint may still refer to them.
+    */
+   private boolean canReplaceContent() {
+      return offset < 0 || !segment.isCopyOnWrite();
+   }
+
+   /**
+    * Adds the space occupied by this node and all its descendants. This loads the whole subtree from the index file.
+    */
+   void collectSpaces(List<Index.IndexSpace> spaces) throws IOException {
+      if (offset >= 0) {
+         spaces.add(new Index.IndexSpace(offset, occupiedSpace));
+      }
+      if (innerNodes != null) {
+         for (InnerNode innerNode : innerNodes) {
+            innerNode.getIndexNode(segment).collectSpaces(spaces);
+         }
+      }
+   }
+
    // called only internally or for root
    void store(Index.IndexSpace indexSpace) throws IOException {
       this.offset = indexSpace.offset;
@@ -396,7 +417,7 @@ private static JoinSplitResult manageLength(Index.Segment segment, Stack<Path> s
          Path parent = stack.peek();
          if (parent.node.innerNodes.length == 1) {
             // we have no siblings - we can't merge with them even when we're really short
-            if (copy.length() <= node.occupiedSpace) {
+            if (copy.length() <= node.occupiedSpace && node.canReplaceContent()) {
                node.replaceContent(copy);
                return null;
             } else {
@@ -443,10 +464,12 @@ private static JoinSplitResult manageLength(Index.Segment segment, Stack<Path> s
          if (copy.innerNodes != null && copy.innerNodes.length == 1 && stack.isEmpty()) {
             IndexNode child = copy.innerNodes[0].getIndexNode(copy.segment);
             return new JoinSplitResult(0, 0, Collections.singletonList(child));
-         } else {
+         } else if (node.canReplaceContent()) {
             // special case where we only overwrite the key
             node.replaceContent(copy);
             return null;
+         } else {
+            from = to = stack.isEmpty() ? 0 : stack.peek().index;
          }
       } else if (stack.isEmpty()) {
          from = to = 0;
@@ -84,4 +84,17 @@ public interface Log extends BasicLogger {
 
    @Message(value = "Index looks corrupt.", id = 29020)
    PersistenceException indexLooksCorrupt(@Cause Exception e);
+
+   @Message(value = "Number of compaction threads (%d) must be at least 1.", id = 29021)
+   CacheConfigurationException invalidCompactionThreads(int value);
+
+   @Message(value = "Compaction rate (%d) must not be negative.", id = 29022)
+   CacheConfigurationException invalidCompactionRate(long value);
+
+   @Message(value = "Index checkpoint interval (%d) must not be negative.", id = 29023)
+   CacheConfigurationException invalidCheckpointInterval(long value);
+
+   @LogMessage(level = Logger.Level.WARN)
+   @Message(value = "Failed to checkpoint the index.", id = 29024)
+   void failedToCheckpointIndex(@Cause Exception e);
 }
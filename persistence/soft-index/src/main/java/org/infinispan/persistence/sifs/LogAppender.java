@@ -1,5 +1,8 @@
 package org.infinispan.persistence.sifs;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 
 import org.infinispan.commons.io.ByteBuffer;
@@ -9,11 +12,16 @@
  * This component has the only thread that polls the queue with requests to write some entry into the cache store.
  * It writes the records to append-only log files, inserts the entry position into TemporaryTable and queues the position
  * to be persisted in Index.
+ * <p>
+ * Requests are committed in groups: all requests pending in the queue are written using a gathering write and, when
+ * writes are synchronous, forced to disk with a single fsync before the whole group is acknowledged.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
 public class LogAppender extends Thread {
    private static final Log log = LogFactory.getLog(LogAppender.class, Log.class);
+   // Upper bound of records in a single gathering write, the records are not readable until written
+   private static final int MAX_BATCH_WRITE = 256;
 
    private final SyncProcessingQueue<LogRequest> queue;
    private final BlockingQueue<IndexRequest> indexQueue;
@@ -22,14 +30,26 @@ public class LogAppender extends Thread {
    private final int maxFileSize;
    private final Compactor compactor;
    private final FileProvider fileProvider;
+   private final Histogram batchSizes;
+   private final Histogram syncLatency;
+   // the following fields are accessed only by the appender thread
+   private final List<java.nio.ByteBuffer> pendingBuffers = new ArrayList<>();
+   private final List<LogRequest> pendingRequests = new ArrayList<>();
+   private final List<Integer> pendingOffsets = new ArrayList<>();
+   private FileProvider.Log logFile;
+   private int currentOffset;
+   private int batchSize;
    private LogRequest pausedRequest;
    private long seqId = 0;
+   // all records written to the log files have lower sequence id
+   private volatile long writtenSeqId = 0;
 
    LogAppender(SyncProcessingQueue<LogRequest> inboundQueue,
                BlockingQueue<IndexRequest> indexQueue,
                TemporaryTable temporaryTable,
                Compactor compactor,
-               FileProvider fileProvider, boolean syncWrites, int maxFileSize) {
+               FileProvider fileProvider, boolean syncWrites, int maxFileSize,
+               Histogram batchSizes, Histogram syncLatency) {
       super("BCS-LogAppender");
       this.setDaemon(true);
       this.queue = inboundQueue;
@@ -39,11 +59,18 @@ public class LogAppender extends Thread {
       this.fileProvider = fileProvider;
       this.syncWrites = syncWrites;
       this.maxFileSize = maxFileSize;
+      this.batchSizes = batchSizes;
+      this.syncLatency = syncLatency;
       start();
    }
 
    public void setSeqId(long seqId) {
       this.seqId = seqId;
+      this.writtenSeqId = seqId;
+   }
+
+   public long getWrittenSeqId() {
+      return writtenSeqId;
    }
 
    public void pause() throws InterruptedException {
@@ -66,12 +93,14 @@ public void resumeAfterPause() {
    @Override
    public void run() {
       try {
-         FileProvider.Log logFile = fileProvider.getFileForLog();
-         int currentOffset = 0;
+         logFile = fileProvider.getFileForLog();
+         currentOffset = 0;
          while (true) {
             LogRequest request = queue.pop();
             if (request != null) {
                if (request.isClear()) {
+                  // the data is going to be dropped, but the requests must not be acknowledged before they were written
+                  commit();
                   logFile.close();
                   queue.notifyNoWait();
                   request.pause();
@@ -80,35 +109,29 @@ public void run() {
                   log.debug("Appending records to " + logFile.fileId);
                   continue;
                } else if (request.isStop()) {
+                  commit();
                   queue.notifyNoWait();
                   break;
                } else if (request.isPause()) {
+                  commit();
                   queue.notifyNoWait();
                   request.pause();
                   continue;
                }
                if (currentOffset + request.length() > maxFileSize) {
                   // switch to next file
+                  commit();
                   logFile.close();
                   compactor.completeFile(logFile.fileId);
                   currentOffset = 0;
                   logFile = fileProvider.getFileForLog();
                   log.debug("Appending records to " + logFile.fileId);
+               } else if (pendingRequests.size() >= MAX_BATCH_WRITE) {
+                  write();
                }
-               long seqId = nextSeqId();
-               EntryRecord.writeEntry(logFile.fileChannel, request.getSerializedKey(), request.getSerializedMetadata(),
-                     request.getSerializedValue(), seqId, request.getExpiration(), request.getCreated(), request.getLastUsed());
-               int offset = request.getSerializedValue() == null ? ~currentOffset : currentOffset;
-               temporaryTable.set(request.getKey(), logFile.fileId, offset);
-               IndexRequest indexRequest = IndexRequest.update(request.getKey(), raw(request.getSerializedKey()),
-                     logFile.fileId, offset, request.length());
-               request.setIndexRequest(indexRequest);
-               indexQueue.put(indexRequest);
-               currentOffset += request.length();
+               append(request);
             } else {
-               if (syncWrites) {
-                  logFile.fileChannel.force(false);
-               }
+               commit();
                queue.notifyAndWait();
             }
          }
@@ -118,6 +141,60 @@ public void run() {
       }
    }
 
+   /**
+    * Adds the record to the pending batch. It is not visible in the temporary table nor in the index until the batch
+    * is written.
+    */
+   private void append(LogRequest request) {
+      long seqId = nextSeqId();
+      EntryRecord.addEntry(pendingBuffers, request.getSerializedKey(), request.getSerializedMetadata(),
+            request.getSerializedValue(), seqId, request.getExpiration(), request.getCreated(), request.getLastUsed());
+      pendingRequests.add(request);
+      pendingOffsets.add(request.getSerializedValue() == null ? ~currentOffset : currentOffset);
+      currentOffset += request.length();
+   }
+
+   /**
+    * Writes all pending records into the log file with a single gathering write and publishes their position.
+    */
+   private void write() throws IOException, InterruptedException {
+      if (pendingRequests.isEmpty()) {
+         return;
+      }
+      EntryRecord.write(logFile.fileChannel, pendingBuffers.toArray(new java.nio.ByteBuffer[0]));
+      for (int i = 0; i < pendingRequests.size(); ++i) {
+         LogRequest request = pendingRequests.get(i);
+         int offset = pendingOffsets.get(i);
+         temporaryTable.set(request.getKey(), logFile.fileId, offset);
+         IndexRequest indexRequest = IndexRequest.update(request.getKey(), raw(request.getSerializedKey()),
+               logFile.fileId, offset, request.length());
+         request.setIndexRequest(indexRequest);
+         indexQueue.put(indexRequest);
+      }
+      batchSize += pendingRequests.size();
+      writtenSeqId = seqId;
+      pendingBuffers.clear();
+      pendingRequests.clear();
+      pendingOffsets.clear();
+   }
+
+   /**
+    * Writes all pending records and if required, forces them to disk, before the requests are acknowledged.
+    */
+   private void commit() throws IOException, InterruptedException {
+      write();
+      if (batchSize == 0) {
+         return;
+      }
+      if (syncWrites) {
+         long start = System.nanoTime();
+         logFile.fileChannel.force(false);
+         syncLatency.record(System.nanoTime() - start);
+      }
+      batchSizes.record(batchSize);
+      batchSize = 0;
+   }
+
    private byte[] raw(ByteBuffer buffer) {
       if (buffer.getBuf().length == buffer.getLength()) {
          return buffer.getBuf();
@@ -0,0 +1,10 @@
+package org.infinispan.persistence.sifs;
+
+import org.infinispan.factories.annotations.InfinispanModule;
+
+/**
+ * {@code InfinispanModule} annotation is required for component annotation processing
+ */
+@InfinispanModule(name = "cachestore-soft-index", requiredModules = "core")
+public class Module implements org.infinispan.lifecycle.ModuleLifecycle {
+}
@@ -5,7 +5,13 @@
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -121,8 +127,16 @@ public class SoftIndexFileStore implements AdvancedLoadWriteStore {
    private SyncProcessingQueue<LogRequest> storeQueue;
    private FileProvider fileProvider;
    private LogAppender logAppender;
+   private final Histogram batchSizes = new Histogram();
+   private final Histogram syncLatency = new Histogram();
    private Index index;
    private Compactor compactor;
+   private IndexCheckpointer checkpointer;
+   private SoftIndexFileStoreStatistics statistics;
+   // prevents checkpoints while the data is being cleared
+   private final Object checkpointLock = new Object();
+   private volatile int indexRecoveryFiles;
+   private final AtomicInteger indexRecoveredFiles = new AtomicInteger();
    private Marshaller marshaller;
    private ByteBufferFactory byteBufferFactory;
    private MarshallableEntryFactory marshallableEntryFactory;
@@ -150,28 +164,51 @@ public void start() {
       temporaryTable = new TemporaryTable(configuration.indexQueueLength() * configuration.indexSegments());
       storeQueue = new SyncProcessingQueue<>();
       indexQueue = new IndexQueue(configuration.indexSegments(), configuration.indexQueueLength());
-      fileProvider = new FileProvider(getDataLocation(), configuration.openFilesLimit());
-      compactor = new Compactor(fileProvider, temporaryTable, indexQueue, marshaller, timeService, configuration.maxFileSize(), configuration.compactionThreshold());
-      logAppender = new LogAppender(storeQueue, indexQueue, temporaryTable, compactor, fileProvider, configuration.syncWrites(), configuration.maxFileSize());
+      fileProvider = new FileProvider(getDataLocation(), configuration.openFilesLimit(), configuration.memoryMapped());
+      compactor = new Compactor(fileProvider, temporaryTable, indexQueue, marshaller, timeService, configuration.maxFileSize(),
+            configuration.compactionThreshold(), configuration.compactionThreads(), configuration.compactionRate());
+      logAppender = new LogAppender(storeQueue, indexQueue, temporaryTable, compactor, fileProvider, configuration.syncWrites(), configuration.maxFileSize(),
+            batchSizes, syncLatency);
       try {
          index = new Index(fileProvider, getIndexLocation(), configuration.indexSegments(),
                configuration.minNodeSize(), configuration.maxNodeSize(),
-               indexQueue, temporaryTable, compactor, timeService);
+               indexQueue, temporaryTable, compactor, timeService, configuration.indexCheckpointInterval() > 0);
       } catch (IOException e) {
          throw log.cannotOpenIndex(configuration.indexLocation(), e);
       }
       compactor.setIndex(index);
       startIndex();
+      // Registered before the index is recovered, so that the progress of the recovery can be followed
+      if (ctx.getCache().getCacheConfiguration().jmxStatistics().enabled()) {
+         statistics = SoftIndexFileStoreStatistics.getOrCreate(ctx.getCache().getAdvancedCache().getComponentRegistry(),
+               timeService);
+         statistics.addStore(this);
+      }
       final AtomicLong maxSeqId = new AtomicLong(0);
       if (index.isLoaded()) {
          log.debug("Not building the index - loaded from persisted state");
       } else if (configuration.purgeOnStartup()) {
          log.debug("Not building the index - purge will be executed");
       } else {
-         log.debug("Building the index");
-
+         Set<Integer> checkpointedFiles = index.getCheckpointedFiles();
+         Set<Integer> recoveryFiles = fileProvider.getClosedFiles();
          Flowable<Integer> filePublisher = filePublisher();
-         CompletionStage<Void> stage = handleFilePublisher(filePublisher.doAfterNext(compactor::completeFile), false, false,
+         if (checkpointedFiles == null) {
+            log.debug("Building the index");
+         } else {
+            log.debugf("Recovering the index from checkpoint, skipping %d data files", checkpointedFiles.size());
+            recoveryFiles.removeAll(checkpointedFiles);
+            filePublisher = filePublisher.filter(file -> !checkpointedFiles.contains(file));
+            maxSeqId.set(index.getCheckpointSeqId() - 1);
+         }
+         indexRecoveryFiles = recoveryFiles.size();
+         filePublisher = filePublisher.doAfterNext(file -> {
+            compactor.completeFile(file);
+            if (recoveryFiles.contains(file)) {
+               indexRecoveredFiles.incrementAndGet();
+            }
+         });
+         CompletionStage<Void> stage = handleFilePublisher(filePublisher, false, false,
                (file, offset, size, serializedKey, entryMetadata, serializedValue, seqId, expiration) -> {
                   long prevSeqId;
                   while (seqId > (prevSeqId = maxSeqId.get()) && !maxSeqId.compareAndSet(prevSeqId, seqId)) {
@@ -181,6 +218,10 @@ public void start() {
                      log.tracef("Loaded %d:%d (seqId %d, expiration %d)", file, offset, seqId, expiration);
                   }
                   try {
+                     // Records from the files written while the checkpoint was taken may be indexed already
+                     if (checkpointedFiles != null && isIndexed(key, serializedKey, file, offset)) {
+                        return null;
+                     }
                      // We may check the seqId safely as we are the only thread writing to index
                      if (isSeqIdOld(seqId, key, serializedKey)) {
                         indexQueue.put(IndexRequest.foundOld(key, serializedKey, file, offset));
@@ -197,6 +238,32 @@ public void start() {
          CompletionStages.join(stage);
       }
       logAppender.setSeqId(maxSeqId.get() + 1);
+      if (configuration.indexCheckpointInterval() > 0) {
+         checkpointer = new IndexCheckpointer(this, configuration.indexCheckpointInterval());
+      }
+   }
+
+   /**
+    * Checkpoints the index; when the store is restarted after a crash, only the data files that were not completely
+    * indexed at this moment have to be read.
+    *
+    * @return True if the checkpoint was completed
+    */
+   boolean checkpointIndex() {
+      synchronized (checkpointLock) {
+         if (!started) {
+            return false;
+         }
+         try {
+            return index.checkpoint(logAppender::getWrittenSeqId);
+         } catch (IOException e) {
+            log.failedToCheckpointIndex(e);
+            return false;
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+         }
+      }
    }
 
    private Path getDataLocation() {
@@ -241,6 +308,14 @@ protected boolean isSeqIdOld(long seqId, Object key, byte[] serializedKey) throw
       }
    }
 
+   private boolean isIndexed(Object key, byte[] serializedKey, int file, int offset) throws IOException {
+      EntryPosition entry = temporaryTable.get(key);
+      if (entry == null) {
+         entry = index.getInfo(key, serializedKey);
+      }
+      return entry != null && entry.file == file && (entry.offset == offset || entry.offset == ~offset);
+   }
+
    protected void startIndex() {
       // this call is extracted for better testability
       index.start();
@@ -250,9 +325,87 @@ protected boolean isIndexLoaded() {
       return index.isLoaded();
    }
 
+   /**
+    * @return histogram of the number of writes acknowledged together, using a single fsync when writes are synchronous
+    */
+   public Histogram getWriteBatchSizes() {
+      return batchSizes;
+   }
+
+   /**
+    * @return histogram of the time spent forcing writes to disk, in nanoseconds; empty unless writes are synchronous
+    */
+   public Histogram getSyncLatency() {
+      return syncLatency;
+   }
+
+   /**
+    * @return number of data files that had to be read to recover the index when the store was started
+    */
+   public int getIndexRecoveryFiles() {
+      return indexRecoveryFiles;
+   }
+
+   /**
+    * @return number of data files read so far to recover the index; equal to {@link #getIndexRecoveryFiles()} once
+    * the recovery is complete
+    */
+   public int getIndexRecoveredFiles() {
+      return indexRecoveredFiles.get();
+   }
+
+   /**
+    * @return number of index checkpoints completed since the store was started
+    */
+   public long getIndexCheckpoints() {
+      Index index = this.index;
+      return index == null ? 0 : index.getCheckpoints();
+   }
+
+   /**
+    * @return number of data files waiting for compaction
+    */
+   public int getCompactionBacklog() {
+      Compactor compactor = this.compactor;
+      return compactor == null ? 0 : compactor.getBacklog();
+   }
+
+   /**
+    * @return number of data files being compacted at this moment
+    */
+   public int getCompactingFiles() {
+      Compactor compactor = this.compactor;
+      return compactor == null ? 0 : compactor.getCompactingFiles();
+   }
+
+   /**
+    * @return number of data files compacted since the store was started
+    */
+   public long getCompactedFiles() {
+      Compactor compactor = this.compactor;
+      return compactor == null ? 0 : compactor.getCompactedFiles();
+   }
+
+   /**
+    * @return number of bytes read by compaction since the store was started, which divided by the elapsed time gives
+    * the compaction throughput
+    */
+   public long getCompactedBytes() {
+      Compactor compactor = this.compactor;
+      return compactor == null ? 0 : compactor.getCompactedBytes();
+   }
+
    @Override
    public void stop() {
       try {
+         if (statistics != null) {
+            statistics.removeStore(this);
+            statistics = null;
+         }
+         if (checkpointer != null) {
+            checkpointer.stopOperations();
+            checkpointer = null;
+         }
          logAppender.stopOperations();
          logAppender = null;
          compactor.stopOperations();
@@ -275,6 +428,10 @@ public void stop() {
    @Override
    public synchronized void destroy() {
       try {
+         if (checkpointer != null) {
+            checkpointer.stopOperations();
+            checkpointer = null;
+         }
          logAppender.stopOperations();
          logAppender = null;
          compactor.stopOperations();
@@ -310,26 +467,28 @@ public boolean isAvailable() {
 
    @Override
    public synchronized void clear() throws PersistenceException {
-      try {
-         logAppender.clearAndPause();
-         compactor.clearAndPause();
-      } catch (InterruptedException e) {
-         Thread.currentThread().interrupt();
-         throw log.interruptedWhileClearing(e);
-      }
-      try {
-         index.clear();
-      } catch (IOException e) {
-         throw log.cannotClearIndex(e);
-      }
-      try {
-         fileProvider.clear();
-      } catch (IOException e) {
-         throw log.cannotClearData(e);
+      synchronized (checkpointLock) {
+         try {
+            logAppender.clearAndPause();
+            compactor.clearAndPause();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw log.interruptedWhileClearing(e);
+         }
+         try {
+            index.clear();
+         } catch (IOException e) {
+            throw log.cannotClearIndex(e);
+         }
+         try {
+            fileProvider.clear();
+         } catch (IOException e) {
+            throw log.cannotClearData(e);
+         }
+         temporaryTable.clear();
+         compactor.resumeAfterPause();
+         logAppender.resumeAfterPause();
       }
-      temporaryTable.clear();
-      compactor.resumeAfterPause();
-      logAppender.resumeAfterPause();
    }
 
    @Override
@@ -475,6 +634,46 @@ public MarshallableEntry loadEntry(Object key) {
       }
    }
 
+   @Override
+   public Map<Object, MarshallableEntry> loadEntries(Collection keys) {
+      Map<Object, MarshallableEntry> entries = new HashMap<>(keys.size());
+      List<Object> indexedKeys = new ArrayList<>(keys.size());
+      List<byte[]> serializedKeys = new ArrayList<>(keys.size());
+      for (Object key : keys) {
+         // entries that are not in the index yet must be read through the temporary table
+         if (temporaryTable.get(key) != null) {
+            MarshallableEntry entry = loadEntry(key);
+            if (entry != null) {
+               entries.put(key, entry);
+            }
+         } else {
+            try {
+               serializedKeys.add(marshaller.objectToByteBuffer(key));
+            } catch (Exception e) {
+               throw log.cannotLoadKeyFromIndex(key, e);
+            }
+            indexedKeys.add(key);
+         }
+      }
+      if (indexedKeys.isEmpty()) {
+         return entries;
+      }
+      EntryRecord[] records;
+      try {
+         records = index.getRecords(indexedKeys, serializedKeys);
+      } catch (Exception e) {
+         throw log.cannotLoadKeyFromIndex(indexedKeys, e);
+      }
+      for (int i = 0; i < records.length; ++i) {
+         EntryRecord record = records[i];
+         if (record != null) {
+            entries.put(indexedKeys.get(i), marshallableEntryFactory.create(toBuffer(record.getKey()), toBuffer(record.getValue()),
+                  toBuffer(record.getMetadata()), record.getCreated(), record.getLastUsed()));
+         }
+      }
+      return entries;
+   }
+
    /**
     * This method should be called by reflection to get more info about the missing/invalid key (from test tools)
     * @param key
@@ -507,7 +706,9 @@ private Flowable<Integer> filePublisher() {
       return Flowable.using(fileProvider::getFileIterator, it -> Flowable.fromIterable(() -> it),
             // This close happens after the lasst file iterator is returned, but before processing it.
             // TODO: Is this okay or can compaction etc affect this?
-            CloseableIterator::close);
+            CloseableIterator::close)
+            // compacted files are kept until the next index checkpoint, but their records were moved elsewhere
+            .filter(file -> !index.isDeletePending(file));
    }
 
    private <R> Flowable<R> handleFilePublisher(Flowable<Integer> filePublisher, boolean fetchValue, boolean fetchMetadata,
@@ -0,0 +1,216 @@
+package org.infinispan.persistence.sifs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.infinispan.commons.time.TimeService;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
+
+/**
+ * Exposes the statistics of the soft-index file stores of a cache. When the store is segmented there is one store per
+ * segment, and the statistics are those of all of them together. The statistics are only exposed when the cache
+ * statistics are enabled.
+ *
+ * @since 10.1
+ */
+@MBean(objectName = "SoftIndexFileStore", description = "Statistics of the soft-index file store")
+public class SoftIndexFileStoreStatistics {
+   private final Set<SoftIndexFileStore> stores = ConcurrentHashMap.newKeySet();
+   private final TimeService timeService;
+   private volatile long startTime;
+
+   private SoftIndexFileStoreStatistics(TimeService timeService) {
+      this.timeService = timeService;
+   }
+
+   /**
+    * Returns the statistics of the cache, registering them the first time. They are registered before the cache
+    * registers its MBeans, and kept across restarts of the stores.
+    */
+   static SoftIndexFileStoreStatistics getOrCreate(ComponentRegistry componentRegistry, TimeService timeService) {
+      synchronized (SoftIndexFileStoreStatistics.class) {
+         SoftIndexFileStoreStatistics statistics = componentRegistry.getComponent(SoftIndexFileStoreStatistics.class);
+         if (statistics == null) {
+            statistics = new SoftIndexFileStoreStatistics(timeService);
+            componentRegistry.registerComponent(statistics, SoftIndexFileStoreStatistics.class);
+         }
+         return statistics;
+      }
+   }
+
+   synchronized void addStore(SoftIndexFileStore store) {
+      if (stores.isEmpty()) {
+         // The counters of the stores start from 0 when they are started
+         startTime = timeService.time();
+      }
+      stores.add(store);
+   }
+
+   synchronized void removeStore(SoftIndexFileStore store) {
+      stores.remove(store);
+   }
+
+   private long sum(ToLongFunction<SoftIndexFileStore> getter) {
+      long sum = 0;
+      for (SoftIndexFileStore store : stores) {
+         sum += getter.applyAsLong(store);
+      }
+      return sum;
+   }
+
+   private Histogram histogram(Function<SoftIndexFileStore, Histogram> getter) {
+      List<Histogram> histograms = new ArrayList<>(stores.size());
+      for (SoftIndexFileStore store : stores) {
+         histograms.add(getter.apply(store));
+      }
+      return Histogram.merge(histograms);
+   }
+
+   @ManagedAttribute(
+         description = "Number of groups of writes acknowledged together, using a single fsync when writes are synchronous",
+         displayName = "Write batches",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getWriteBatches() {
+      return histogram(SoftIndexFileStore::getWriteBatchSizes).getCount();
+   }
+
+   @ManagedAttribute(
+         description = "Average number of writes acknowledged together",
+         displayName = "Average write batch size"
+   )
+   public double getAverageWriteBatchSize() {
+      return histogram(SoftIndexFileStore::getWriteBatchSizes).getMean();
+   }
+
+   @ManagedAttribute(
+         description = "Highest number of writes acknowledged together",
+         displayName = "Maximum write batch size"
+   )
+   public long getMaxWriteBatchSize() {
+      return histogram(SoftIndexFileStore::getWriteBatchSizes).getMax();
+   }
+
+   @ManagedAttribute(
+         description = "Number of writes acknowledged together at the 99th percentile, approximated by the upper bound of its power of two bucket",
+         displayName = "99th percentile write batch size"
+   )
+   public long getWriteBatchSize99thPercentile() {
+      return histogram(SoftIndexFileStore::getWriteBatchSizes).getPercentile(99);
+   }
+
+   @ManagedAttribute(
+         description = "Number of times writes were forced to disk, only when writes are synchronous",
+         displayName = "Syncs",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getSyncs() {
+      return histogram(SoftIndexFileStore::getSyncLatency).getCount();
+   }
+
+   @ManagedAttribute(
+         description = "Average time spent forcing writes to disk",
+         displayName = "Average sync latency",
+         units = Units.NANOSECONDS
+   )
+   public double getAverageSyncLatency() {
+      return histogram(SoftIndexFileStore::getSyncLatency).getMean();
+   }
+
+   @ManagedAttribute(
+         description = "Longest time spent forcing writes to disk",
+         displayName = "Maximum sync latency",
+         units = Units.NANOSECONDS
+   )
+   public long getMaxSyncLatency() {
+      return histogram(SoftIndexFileStore::getSyncLatency).getMax();
+   }
+
+   @ManagedAttribute(
+         description = "Time spent forcing writes to disk at the 99th percentile, approximated by the upper bound of its power of two bucket",
+         displayName = "99th percentile sync latency",
+         units = Units.NANOSECONDS
+   )
+   public long getSyncLatency99thPercentile() {
+      return histogram(SoftIndexFileStore::getSyncLatency).getPercentile(99);
+   }
+
+   @ManagedAttribute(
+         description = "Number of data files waiting for compaction",
+         displayName = "Compaction backlog"
+   )
+   public long getCompactionBacklog() {
+      return sum(SoftIndexFileStore::getCompactionBacklog);
+   }
+
+   @ManagedAttribute(
+         description = "Number of data files being compacted at this moment",
+         displayName = "Compacting files"
+   )
+   public long getCompactingFiles() {
+      return sum(SoftIndexFileStore::getCompactingFiles);
+   }
+
+   @ManagedAttribute(
+         description = "Number of data files compacted since the store was started",
+         displayName = "Compacted files",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getCompactedFiles() {
+      return sum(SoftIndexFileStore::getCompactedFiles);
+   }
+
+   @ManagedAttribute(
+         description = "Number of bytes read by compaction since the store was started",
+         displayName = "Compacted bytes",
+         units = Units.BYTES,
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getCompactedBytes() {
+      return sum(SoftIndexFileStore::getCompactedBytes);
+   }
+
+   @ManagedAttribute(
+         description = "Average number of bytes read by compaction per second since the store was started",
+         displayName = "Compaction throughput",
+         units = Units.PER_SECOND
+   )
+   public double getCompactionThroughput() {
+      long elapsed = timeService.timeDuration(startTime, TimeUnit.MILLISECONDS);
+      return elapsed <= 0 ? 0 : getCompactedBytes() * 1000d / elapsed;
+   }
+
+   @ManagedAttribute(
+         description = "Number of data files that had to be read to recover the index when the store was started",
+         displayName = "Index recovery files"
+   )
+   public long getIndexRecoveryFiles() {
+      return sum(SoftIndexFileStore::getIndexRecoveryFiles);
+   }
+
+   @ManagedAttribute(
+         description = "Number of data files read so far to recover the index, equal to the index recovery files once the recovery is complete",
+         displayName = "Index recovered files"
+   )
+   public long getIndexRecoveredFiles() {
+      return sum(SoftIndexFileStore::getIndexRecoveredFiles);
+   }
+
+   @ManagedAttribute(
+         description = "Number of index checkpoints completed since the store was started",
+         displayName = "Index checkpoints",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getIndexCheckpoints() {
+      return sum(SoftIndexFileStore::getIndexCheckpoints);
+   }
+}
@@ -15,11 +15,12 @@ public class IndexConfiguration implements ConfigurationInfo {
    public static final AttributeDefinition<Integer> INDEX_SEGMENTS = AttributeDefinition.builder("indexSegments", 3).immutable().autoPersist(false).xmlName("segments").build();
    public static final AttributeDefinition<Integer> MIN_NODE_SIZE = AttributeDefinition.builder("minNodeSize", 0).immutable().autoPersist(false).build();
    public static final AttributeDefinition<Integer> MAX_NODE_SIZE = AttributeDefinition.builder("maxNodeSize", 4096).immutable().autoPersist(false).build();
+   public static final AttributeDefinition<Long> CHECKPOINT_INTERVAL = AttributeDefinition.builder("checkpointInterval", 0L).immutable().autoPersist(false).build();
 
    private final AttributeSet attributes;
 
    public static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(IndexConfiguration.class, INDEX_LOCATION, INDEX_QUEUE_LENGTH, INDEX_SEGMENTS, MIN_NODE_SIZE, MAX_NODE_SIZE);
+      return new AttributeSet(IndexConfiguration.class, INDEX_LOCATION, INDEX_QUEUE_LENGTH, INDEX_SEGMENTS, MIN_NODE_SIZE, MAX_NODE_SIZE, CHECKPOINT_INTERVAL);
    }
 
    public static ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(INDEX.getLocalName());
@@ -62,6 +63,10 @@ public int indexQueueLength() {
       return attributes.attribute(INDEX_QUEUE_LENGTH).get();
    }
 
+   public long checkpointInterval() {
+      return attributes.attribute(CHECKPOINT_INTERVAL).get();
+   }
+
    @Override
    public boolean equals(Object o) {
       if (this == o) return true;
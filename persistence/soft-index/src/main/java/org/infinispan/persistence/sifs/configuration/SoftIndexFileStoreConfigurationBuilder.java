@@ -1,6 +1,8 @@
 package org.infinispan.persistence.sifs.configuration;
 
 import static org.infinispan.configuration.cache.AbstractStoreConfiguration.SEGMENTED;
+import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.COMPACTION_RATE;
+import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.COMPACTION_THREADS;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.COMPACTION_THRESHOLD;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.OPEN_FILES_LIMIT;
 
@@ -124,6 +126,18 @@ public SoftIndexFileStoreConfigurationBuilder indexQueueLength(int indexQueueLen
       return this;
    }
 
+   /**
+    * Sets the interval in milliseconds between checkpoints of the index. After a crash the index is recovered from
+    * the last checkpoint, and only the data files that were not completely indexed by then are read again, instead of
+    * all of them. The value <code>0</code> disables checkpoints.
+    *
+    * Defaults to <code>0</code>.
+    */
+   public SoftIndexFileStoreConfigurationBuilder indexCheckpointInterval(long checkpointInterval) {
+      index.checkpointInterval(checkpointInterval);
+      return this;
+   }
+
    /**
     * Sets whether writes shoud wait to be fsynced to disk.
     *
@@ -134,6 +148,17 @@ public SoftIndexFileStoreConfigurationBuilder syncWrites(boolean syncWrites) {
       return this;
    }
 
+   /**
+    * Sets whether files that are no longer written to should be read through memory mapping rather than
+    * through positional reads. Mappings share the limit of open files and are released when the file is closed.
+    *
+    * Defaults to <code>false</code>.
+    */
+   public SoftIndexFileStoreConfigurationBuilder memoryMapped(boolean memoryMapped) {
+      data.memoryMapped(memoryMapped);
+      return this;
+   }
+
    /**
     * Sets the maximum number of open files.
     *
@@ -154,6 +179,28 @@ public SoftIndexFileStoreConfigurationBuilder compactionThreshold(double compact
       return this;
    }
 
+   /**
+    * Sets the number of threads compacting data files concurrently. Each thread compacts a different file, starting
+    * with the files that have the highest amount of unused space.
+    *
+    * Defaults to <code>1</code>.
+    */
+   public SoftIndexFileStoreConfigurationBuilder compactionThreads(int compactionThreads) {
+      attributes.attribute(COMPACTION_THREADS).set(compactionThreads);
+      return this;
+   }
+
+   /**
+    * Sets the maximum number of bytes per second read from the compacted files by all compaction threads together,
+    * to limit the impact of compaction on regular operations. The value <code>0</code> disables the limit.
+    *
+    * Defaults to <code>0</code>.
+    */
+   public SoftIndexFileStoreConfigurationBuilder compactionRate(long compactionRate) {
+      attributes.attribute(COMPACTION_RATE).set(compactionRate);
+      return this;
+   }
+
    @Override
    public SoftIndexFileStoreConfiguration create() {
       return new SoftIndexFileStoreConfiguration(attributes.protect(), async.create(), index.create(), data.create());
@@ -185,6 +232,14 @@ protected void validate(boolean skipClassChecks) {
       if (compactionThreshold <= 0 || compactionThreshold > 1) {
          throw log.invalidCompactionThreshold(compactionThreshold);
       }
+      int compactionThreads = attributes.attribute(COMPACTION_THREADS).get();
+      if (compactionThreads < 1) {
+         throw log.invalidCompactionThreads(compactionThreads);
+      }
+      long compactionRate = attributes.attribute(COMPACTION_RATE).get();
+      if (compactionRate < 0) {
+         throw log.invalidCompactionRate(compactionRate);
+      }
    }
 
    @Override
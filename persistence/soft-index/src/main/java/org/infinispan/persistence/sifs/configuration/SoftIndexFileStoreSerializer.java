@@ -29,7 +29,8 @@ private void writeDataElement(XMLExtendedStreamWriter writer, SoftIndexFileStore
       configuration.data().attributes().write(writer, Element.DATA.getLocalName(),
             DataConfiguration.DATA_LOCATION,
             DataConfiguration.MAX_FILE_SIZE,
-            DataConfiguration.SYNC_WRITES);
+            DataConfiguration.SYNC_WRITES,
+            DataConfiguration.MEMORY_MAPPED);
    }
 
    private void writeIndexElement(XMLExtendedStreamWriter writer, SoftIndexFileStoreConfiguration configuration) throws XMLStreamException {
@@ -38,6 +39,7 @@ private void writeIndexElement(XMLExtendedStreamWriter writer, SoftIndexFileStor
             IndexConfiguration.INDEX_QUEUE_LENGTH,
             IndexConfiguration.INDEX_SEGMENTS,
             IndexConfiguration.MIN_NODE_SIZE,
-            IndexConfiguration.MAX_NODE_SIZE);
+            IndexConfiguration.MAX_NODE_SIZE,
+            IndexConfiguration.CHECKPOINT_INTERVAL);
    }
 }
@@ -0,0 +1,205 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.infinispan.commons.util.Util;
+import org.infinispan.marshall.persistence.impl.MarshalledEntryUtil;
+import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfigurationBuilder;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Factory;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the low level soft-index file store tests with a checkpointed index and checks that recovery after a crash
+ * replays only the data written after the last checkpoint.
+ *
+ * @since 10.1
+ */
+@Test(groups = "unit", testName = "persistence.SoftIndexFileStoreCheckpointTest")
+public class SoftIndexFileStoreCheckpointTest extends SoftIndexFileStoreTest {
+
+   @Factory
+   @Override
+   public Object[] factory() {
+      return new Object[]{
+            new SoftIndexFileStoreCheckpointTest(),
+      };
+   }
+
+   @Override
+   protected String parameters() {
+      return null;
+   }
+
+   @Override
+   protected void configure(SoftIndexFileStoreConfigurationBuilder builder) {
+      // checkpoints are triggered explicitly by the tests
+      builder.indexCheckpointInterval(TimeUnit.HOURS.toMillis(1));
+   }
+
+   public void testRecoveryFromCheckpoint() throws IOException {
+      int numEntries = 1000;
+      for (int i = 0; i < numEntries; ++i) {
+         store.write(MarshalledEntryUtil.create(key(i), "value" + i, getMarshaller()));
+      }
+      assertTrue(store.checkpointIndex());
+      assertEquals(1, store.getIndexCheckpoints());
+
+      // simulate a crash: the index on disk is the one captured right after the checkpoint
+      Path indexLocation = store.getIndexLocation();
+      Path backup = Files.createTempDirectory(Paths.get(tmpDirectory), "index-backup");
+      copyFiles(indexLocation, backup);
+
+      store.write(MarshalledEntryUtil.create(key(numEntries), "value" + numEntries, getMarshaller()));
+      store.write(MarshalledEntryUtil.create(key(0), "updated", getMarshaller()));
+      assertTrue(store.delete(key(500)));
+
+      store.stop();
+      Util.recursiveFileRemove(indexLocation.toFile());
+      Files.createDirectories(indexLocation);
+      copyFiles(backup, indexLocation);
+      store.start();
+
+      // the crash left the index dirty, only the files written after the checkpoint were replayed
+      int recoveryFiles = store.getIndexRecoveryFiles();
+      assertTrue(String.valueOf(recoveryFiles), recoveryFiles > 0 && recoveryFiles <= 2);
+      assertEquals(recoveryFiles, store.getIndexRecoveredFiles());
+
+      assertEquals("updated", store.loadEntry(key(0)).getValue());
+      assertNull(store.loadEntry(key(500)));
+      assertEquals("value" + numEntries, store.loadEntry(key(numEntries)).getValue());
+      for (int i = 1; i < numEntries; ++i) {
+         if (i != 500) {
+            assertEquals("value" + i, store.loadEntry(key(i)).getValue());
+         }
+      }
+      assertEquals(numEntries, store.size());
+   }
+
+   public void testCheckpointsDuringCompaction() throws Exception {
+      AtomicBoolean stop = new AtomicBoolean();
+      Future<Integer> checkpointer = fork(() -> {
+         int checkpoints = 0;
+         while (!stop.get()) {
+            if (store.checkpointIndex()) {
+               ++checkpoints;
+            }
+         }
+         return checkpoints;
+      });
+      int numEntries = 200;
+      try {
+         for (int round = 0; round < 10; ++round) {
+            for (int i = 0; i < numEntries; ++i) {
+               store.write(MarshalledEntryUtil.create(key(i), "value" + round + "-" + i, getMarshaller()));
+            }
+         }
+      } finally {
+         stop.set(true);
+      }
+      assertTrue(checkpointer.get(30, TimeUnit.SECONDS) > 0);
+
+      store.stop();
+      store.start();
+      for (int i = 0; i < numEntries; ++i) {
+         assertNotNull(key(i), store.loadEntry(key(i)));
+         assertEquals("value9-" + i, store.loadEntry(key(i)).getValue());
+      }
+   }
+
+   public void testCompactedFilesDeletedAfterRecovery() throws Exception {
+      int numEntries = 100;
+      for (int i = 0; i < numEntries; ++i) {
+         store.write(MarshalledEntryUtil.create(key(i), "value0-" + i, getMarshaller()));
+      }
+      assertTrue(store.checkpointIndex());
+      Path indexLocation = store.getIndexLocation();
+      Path indexBackup = Files.createTempDirectory(Paths.get(tmpDirectory), "index-backup");
+      copyFiles(indexLocation, indexBackup);
+
+      // the files indexed by the checkpoint become garbage and are compacted
+      Path dataLocation = dataLocation();
+      Set<Integer> checkpointedFiles = dataFiles(dataLocation);
+      for (int round = 1; round < 5; ++round) {
+         for (int i = 0; i < numEntries; ++i) {
+            store.write(MarshalledEntryUtil.create(key(i), "value" + round + "-" + i, getMarshaller()));
+         }
+      }
+      eventually(() -> !compactedFiles(checkpointedFiles).isEmpty() && store.getCompactingFiles() == 0);
+      Set<Integer> compactedFiles = compactedFiles(checkpointedFiles);
+
+      // simulate a crash: the index is the one of the checkpoint, but the checkpoint file and the data files are
+      // those at the time of the crash
+      Files.copy(indexLocation.resolve("index.checkpoint"), indexBackup.resolve("index.checkpoint"),
+            StandardCopyOption.REPLACE_EXISTING);
+      Path dataBackup = Files.createTempDirectory(Paths.get(tmpDirectory), "data-backup");
+      copyFiles(dataLocation, dataBackup);
+
+      store.stop();
+      Util.recursiveFileRemove(indexLocation.toFile());
+      Util.recursiveFileRemove(dataLocation.toFile());
+      Files.createDirectories(indexLocation);
+      Files.createDirectories(dataLocation);
+      copyFiles(indexBackup, indexLocation);
+      copyFiles(dataBackup, dataLocation);
+      store.start();
+
+      // the recovered index knows the compacted files, they are deleted with the next checkpoint
+      assertEquals(compactedFiles, compactedFiles(checkpointedFiles));
+      assertTrue(dataFiles(dataLocation).containsAll(compactedFiles));
+      assertTrue(store.checkpointIndex());
+      Set<Integer> remainingFiles = dataFiles(dataLocation);
+      remainingFiles.retainAll(compactedFiles);
+      assertTrue(remainingFiles.toString(), remainingFiles.isEmpty());
+
+      for (int i = 0; i < numEntries; ++i) {
+         assertEquals("value4-" + i, store.loadEntry(key(i)).getValue());
+      }
+      assertEquals(numEntries, store.size());
+   }
+
+   private Set<Integer> compactedFiles(Set<Integer> files) {
+      Index index = TestingUtil.extractField(store, "index");
+      return files.stream().filter(index::isDeletePending).collect(Collectors.toSet());
+   }
+
+   private Path dataLocation() {
+      FileProvider fileProvider = TestingUtil.extractField(store, "fileProvider");
+      File dataDir = TestingUtil.extractField(fileProvider, "dataDir");
+      return dataDir.toPath();
+   }
+
+   private static Set<Integer> dataFiles(Path dataLocation) throws IOException {
+      try (Stream<Path> files = Files.list(dataLocation)) {
+         return files.map(file -> Integer.valueOf(file.getFileName().toString())).collect(Collectors.toSet());
+      }
+   }
+
+   private static void copyFiles(Path from, Path to) throws IOException {
+      try (Stream<Path> files = Files.list(from)) {
+         for (Path file : (Iterable<Path>) files::iterator) {
+            Files.copy(file, to.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+         }
+      }
+   }
+
+   private static String key(int i) {
+      return String.format("key%010d", i);
+   }
+}
@@ -0,0 +1,127 @@
+package org.infinispan.persistence.sifs;
+
+import static org.infinispan.test.TestingUtil.getCacheObjectName;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.io.File;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfigurationBuilder;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the statistics of the soft-index file store exposed through JMX.
+ *
+ * @since 10.1
+ */
+@Test(groups = "functional", testName = "persistence.sifs.SoftIndexFileStoreStatisticsTest")
+public class SoftIndexFileStoreStatisticsTest extends SingleCacheManagerTest {
+
+   private static final String JMX_DOMAIN = SoftIndexFileStoreStatisticsTest.class.getSimpleName();
+
+   private final String tmpDirectory = TestingUtil.tmpDirectory(this.getClass());
+   private final MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+
+   @AfterClass(alwaysRun = true)
+   protected void clearTempDir() {
+      Util.recursiveFileRemove(tmpDirectory);
+   }
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      GlobalConfigurationBuilder globalBuilder = new GlobalConfigurationBuilder();
+      globalBuilder.globalJmxStatistics()
+            .mBeanServerLookup(properties -> mBeanServer)
+            .jmxDomain(JMX_DOMAIN)
+            .enable();
+      globalBuilder.globalState().persistentLocation(tmpDirectory);
+      return TestCacheManagerFactory.createCacheManager(globalBuilder, storeConfiguration(true));
+   }
+
+   private ConfigurationBuilder storeConfiguration(boolean statistics) {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.jmxStatistics().enabled(statistics);
+      // Every segment has its own store, the statistics cover all of them
+      builder.clustering().hash().numSegments(4);
+      builder.persistence().addStore(SoftIndexFileStoreConfigurationBuilder.class)
+            .segmented(true)
+            .indexLocation(indexLocation())
+            .syncWrites(true)
+            // Small files are compacted after a few overwrites
+            .maxFileSize(4096);
+      return builder;
+   }
+
+   private String indexLocation() {
+      return tmpDirectory + File.separator + "index";
+   }
+
+   public void testStatistics() throws Exception {
+      for (int i = 0; i < 100; i++) {
+         cache.put("k" + i, "v" + i);
+      }
+
+      ObjectName name = getCacheObjectName(JMX_DOMAIN, getDefaultCacheName() + "(local)", "SoftIndexFileStore");
+      long batches = (Long) mBeanServer.getAttribute(name, "WriteBatches");
+      assertTrue(batches > 0 && batches <= 100);
+      double averageBatchSize = (Double) mBeanServer.getAttribute(name, "AverageWriteBatchSize");
+      assertEquals(100, batches * averageBatchSize, 0.01);
+      assertTrue((Long) mBeanServer.getAttribute(name, "MaxWriteBatchSize") >= 1);
+      assertTrue((Long) mBeanServer.getAttribute(name, "WriteBatchSize99thPercentile") >= 1);
+      assertTrue((Long) mBeanServer.getAttribute(name, "Syncs") > 0);
+      assertTrue((Long) mBeanServer.getAttribute(name, "MaxSyncLatency") > 0);
+   }
+
+   public void testCompactionStatistics() throws Exception {
+      ObjectName name = getCacheObjectName(JMX_DOMAIN, getDefaultCacheName() + "(local)", "SoftIndexFileStore");
+      for (int round = 0; round < 20; round++) {
+         for (int i = 0; i < 20; i++) {
+            cache.put("k" + i, "v" + round);
+         }
+      }
+
+      eventually(() -> (Long) mBeanServer.getAttribute(name, "CompactedFiles") > 0);
+      eventually(() -> (Long) mBeanServer.getAttribute(name, "CompactionBacklog") == 0 &&
+            (Long) mBeanServer.getAttribute(name, "CompactingFiles") == 0);
+      assertTrue((Long) mBeanServer.getAttribute(name, "CompactedBytes") > 0);
+      assertTrue((Double) mBeanServer.getAttribute(name, "CompactionThroughput") > 0);
+   }
+
+   public void testIndexRecoveryStatistics() throws Exception {
+      for (int i = 0; i < 100; i++) {
+         cache.put("k" + i, "v" + i);
+      }
+      // Without the index the restarted stores have to read all their data files
+      cache.stop();
+      Util.recursiveFileRemove(indexLocation());
+      cache.start();
+
+      ObjectName name = getCacheObjectName(JMX_DOMAIN, getDefaultCacheName() + "(local)", "SoftIndexFileStore");
+      long recoveryFiles = (Long) mBeanServer.getAttribute(name, "IndexRecoveryFiles");
+      assertTrue(recoveryFiles > 0);
+      assertEquals(recoveryFiles, mBeanServer.getAttribute(name, "IndexRecoveredFiles"));
+      assertEquals(0L, mBeanServer.getAttribute(name, "IndexCheckpoints"));
+   }
+
+   public void testStatisticsDisabled() {
+      cacheManager.defineConfiguration("disabled", storeConfiguration(false).build());
+      Cache<String, String> disabled = cacheManager.getCache("disabled");
+      disabled.put("k", "v");
+
+      assertNull(disabled.getAdvancedCache().getComponentRegistry().getComponent(SoftIndexFileStoreStatistics.class));
+   }
+}
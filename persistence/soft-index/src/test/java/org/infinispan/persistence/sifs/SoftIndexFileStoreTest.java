@@ -5,6 +5,9 @@
 import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertTrue;
 
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.container.entries.InternalCacheEntry;
@@ -19,6 +22,7 @@
 import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Factory;
 import org.testng.annotations.Test;
 
 /**
@@ -34,6 +38,32 @@ public class SoftIndexFileStoreTest extends BaseStoreTest {
    String tmpDirectory;
    boolean startIndex = true;
    boolean keepIndex = false;
+   boolean memoryMapped;
+   boolean parallelCompaction;
+
+   @Factory
+   public Object[] factory() {
+      return new Object[]{
+            new SoftIndexFileStoreTest(),
+            new SoftIndexFileStoreTest().memoryMapped(true),
+            new SoftIndexFileStoreTest().parallelCompaction(true),
+      };
+   }
+
+   SoftIndexFileStoreTest memoryMapped(boolean memoryMapped) {
+      this.memoryMapped = memoryMapped;
+      return this;
+   }
+
+   SoftIndexFileStoreTest parallelCompaction(boolean parallelCompaction) {
+      this.parallelCompaction = parallelCompaction;
+      return this;
+   }
+
+   @Override
+   protected String parameters() {
+      return "[memoryMapped=" + memoryMapped + ", parallelCompaction=" + parallelCompaction + "]";
+   }
 
    @BeforeClass
    protected void setUpTempDir() {
@@ -77,15 +107,24 @@ public void stop() {
       };
       ConfigurationBuilder builder = TestCacheManagerFactory
             .getDefaultCacheConfiguration(false);
-      builder.persistence()
+      SoftIndexFileStoreConfigurationBuilder storeBuilder = builder.persistence()
             .addStore(SoftIndexFileStoreConfigurationBuilder.class)
             .indexLocation(tmpDirectory).dataLocation(tmpDirectory)
             .maxFileSize(1000);
+      configure(storeBuilder);
 
       store.init(createContext(builder.build()));
       return store;
    }
 
+   protected void configure(SoftIndexFileStoreConfigurationBuilder builder) {
+      builder.memoryMapped(memoryMapped);
+      if (parallelCompaction) {
+         // Multiple rate limited compaction threads
+         builder.compactionThreads(4).compactionRate(1024 * 1024);
+      }
+   }
+
    @Override
    protected boolean storePurgesAllExpired() {
       return false;
@@ -112,6 +151,32 @@ public void testLoadUnload() {
       }
    }
 
+   public void testWritesAreCommittedInBatches() throws Exception {
+      int threads = 4;
+      int entriesPerThread = 500;
+      Future<?>[] futures = new Future[threads];
+      for (int t = 0; t < threads; ++t) {
+         int offset = t * entriesPerThread;
+         futures[t] = fork(() -> {
+            for (int i = offset; i < offset + entriesPerThread; ++i) {
+               store.write(MarshalledEntryUtil.create(key(i), "value" + i, getMarshaller()));
+            }
+         });
+      }
+      for (Future<?> future : futures) {
+         future.get(30, TimeUnit.SECONDS);
+      }
+      Histogram batchSizes = store.getWriteBatchSizes();
+      // every write was acknowledged as a part of exactly one batch
+      assertEquals(threads * entriesPerThread, Math.round(batchSizes.getMean() * batchSizes.getCount()));
+      assertTrue(batchSizes.getMax() <= threads);
+      // writes are not synchronous
+      assertEquals(0, store.getSyncLatency().getCount());
+      for (int i = 0; i < threads * entriesPerThread; ++i) {
+         assertEquals("value" + i, store.loadEntry(key(i)).getValue());
+      }
+   }
+
    // test for ISPN-5658
    public void testStopStartAndMultipleWrites() {
       MarshallableEntry<Object, Object> entry1 = marshalledEntry(internalCacheEntry("k1", "v1", -1));
@@ -179,6 +244,15 @@ public void testOverrideWithExpirableAndCompaction() throws InterruptedException
       assertNull(entry != null ? entry.getKey() + "=" + entry.getValue() : null, entry);
    }
 
+   public void testCompactionStatistics() {
+      long compactedFiles = store.getCompactedFiles();
+      for (int i = 0; i < 10; ++i) {
+         writeGibberish();
+      }
+      eventually(() -> store.getCompactedFiles() > compactedFiles && store.getCompactedBytes() > 0);
+      eventually(() -> store.getCompactionBacklog() == 0 && store.getCompactingFiles() == 0);
+   }
+
    public void testStopStartWithLoadDoesNotNukeValues() throws InterruptedException, PersistenceException {
       keepIndex = true;
       try {